@@ -0,0 +1,40 @@
+package org.example.model;
+
+import java.util.Random;
+
+/**
+ * Synthetic layouts shared by the benchmarks.
+ */
+public final class BenchmarkLayouts {
+
+    private BenchmarkLayouts() {}
+
+    /**
+     * Builds a venue of roughly the given size with 40 seats per row and 50 rows per section,
+     * where about a third of the seats are already booked.
+     */
+    public static Theater venue(int totalSeats) {
+        int seatsPerRow = 40;
+        int rowsPerSection = 50;
+        int totalRows = Math.max(1, totalSeats / seatsPerRow);
+        Random random = new Random(42);
+
+        Theater theater = new Theater(1L, "Benchmark Venue");
+        long nextId = 1;
+        Section section = null;
+        for (int r = 0; r < totalRows; r++) {
+            if (r % rowsPerSection == 0) {
+                section = new Section((long) (r / rowsPerSection + 1), "Section " + (r / rowsPerSection + 1));
+                theater.addSection(section);
+            }
+
+            Row row = new Row((long) (r + 1), r % rowsPerSection + 1);
+            for (int seatNum = 1; seatNum <= seatsPerRow; seatNum++) {
+                SeatStatus status = random.nextInt(3) == 0 ? SeatStatus.BOOKED : SeatStatus.AVAILABLE;
+                row.addSeat(new Seat(nextId++, seatNum, status));
+            }
+            section.addRow(row);
+        }
+        return theater;
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.model;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TheaterAvailabilityBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int seats;
+
+    private Theater theater;
+    private Seat seat;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        theater = BenchmarkLayouts.venue(seats);
+        Section last = theater.getSections().get(theater.getSections().size() - 1);
+        Row row = last.getRows().get(last.getRows().size() - 1);
+        seat = row.getSeats().get(row.getSeats().size() / 2);
+    }
+
+    @Benchmark
+    public int availableSeats() {
+        return theater.getAvailableSeats();
+    }
+
+    @Benchmark
+    public void statusChangeThenCount(Blackhole blackhole) {
+        seat.setStatus(seat.isAvailable() ? SeatStatus.BOOKED : SeatStatus.AVAILABLE);
+        blackhole.consume(theater.getAvailableSeats());
+        blackhole.consume(theater.getTotalSeats());
+    }
+}
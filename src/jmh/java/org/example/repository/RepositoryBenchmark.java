@@ -0,0 +1,113 @@
+package org.example.repository;
+
+import org.example.exception.DbException;
+import org.example.model.*;
+import org.example.service.TheaterService;
+import org.example.util.DatabaseManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repository operations against the PostgreSQL instance from Config.properties.
+ * Excluded from the default run; select it explicitly with -Djmh.args="RepositoryBenchmark".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryBenchmark {
+
+    private static final int SECTIONS = 4;
+    private static final int ROWS_PER_SECTION = 25;
+    private static final int SEATS_PER_ROW = 50;
+
+    private TheaterRepository repository;
+    private Theater theater;
+    private List<Long> seatIds;
+    private final List<Long> ingestedTheaters = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() throws DbException, SQLException {
+        DatabaseManager.getInstance().initialize();
+        repository = new JdbcTheaterRepository();
+        theater = new TheaterService(repository).createTheaterLayout(
+                "Repository Benchmark " + System.nanoTime(), SECTIONS, ROWS_PER_SECTION, SEATS_PER_ROW);
+
+        seatIds = new ArrayList<>();
+        for (Section section : theater.getSections()) {
+            for (Row row : section.getRows()) {
+                row.getSeats().forEach(seat -> seatIds.add(seat.getId()));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        ingestedTheaters.add(theater.getId());
+        try (Connection conn = DatabaseManager.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement("DELETE FROM theaters WHERE id = ?")) {
+            for (Long theaterId : ingestedTheaters) {
+                stmt.setLong(1, theaterId);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+        DatabaseManager.getInstance().close();
+    }
+
+    @State(Scope.Thread)
+    public static class SeatCursor {
+        int next;
+    }
+
+    @Benchmark
+    public Theater findTheaterById() throws SQLException {
+        return repository.findTheaterById(theater.getId());
+    }
+
+    @Benchmark
+    public boolean bookAndCancelSeat(SeatCursor cursor) throws SQLException {
+        Long seatId = seatIds.get(cursor.next++ % seatIds.size());
+        repository.bookSeat(seatId);
+        return repository.cancelBooking(seatId);
+    }
+
+    @Benchmark
+    public void bulkInsertBatch() throws SQLException {
+        repository.bulkInsertTheaterLayout(newLayout());
+    }
+
+    @Benchmark
+    public void bulkInsertCopy() throws SQLException {
+        repository.copyInsertTheaterLayout(newLayout());
+    }
+
+    private Theater newLayout() throws SQLException {
+        Long theaterId = repository.createTheater("Ingest Benchmark " + System.nanoTime());
+        synchronized (ingestedTheaters) {
+            ingestedTheaters.add(theaterId);
+        }
+
+        Theater layout = new Theater(theaterId, "Ingest Benchmark");
+        for (int s = 1; s <= SECTIONS; s++) {
+            Section section = new Section("Section " + s);
+            for (int r = 1; r <= ROWS_PER_SECTION; r++) {
+                Row row = new Row(r);
+                for (int seatNum = 1; seatNum <= SEATS_PER_ROW; seatNum++) {
+                    row.addSeat(new Seat(seatNum));
+                }
+                section.addRow(row);
+            }
+            layout.addSection(section);
+        }
+        return layout;
+    }
+}
@@ -0,0 +1,87 @@
+package org.example.service;
+
+import org.example.repository.JdbcTheaterRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the parse, verify and convert stages of a CSV upload on generated layouts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvPipelineBenchmark {
+
+    private static final int SEATS_PER_RECORD = 25;
+    private static final int ROWS_PER_SECTION = 50;
+
+    @Param({"10000", "100000", "1000000"})
+    private int seats;
+
+    private FileUploadService fileUploadService;
+    private Path csvFile;
+    private List<FileUploadService.SeatData> records;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fileUploadService = new FileUploadService(new JdbcTheaterRepository(), 1);
+        csvFile = Files.createTempFile("layout-benchmark-", ".csv");
+
+        try (BufferedWriter writer = Files.newBufferedWriter(csvFile)) {
+            writer.write("section,row,seat_start,seat_end,status\n");
+            int recordsPerRow = 2;
+            int totalRecords = seats / SEATS_PER_RECORD;
+            for (int i = 0; i < totalRecords; i++) {
+                int rowIndex = i / recordsPerRow;
+                int section = rowIndex / ROWS_PER_SECTION + 1;
+                int row = rowIndex % ROWS_PER_SECTION + 1;
+                int seatStart = (i % recordsPerRow) * SEATS_PER_RECORD + 1;
+                writer.write("Section " + section + "," + row + "," + seatStart + ","
+                        + (seatStart + SEATS_PER_RECORD - 1) + "," + (i % 7 == 0 ? "booked" : "available") + "\n");
+            }
+        }
+
+        records = new ArrayList<>();
+        fileUploadService.parseCsvFile(csvFile.toString(), records::add);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        fileUploadService.shutdown();
+        Files.deleteIfExists(csvFile);
+    }
+
+    @Benchmark
+    public int parseCsvFile(Blackhole blackhole) {
+        return fileUploadService.parseCsvFile(csvFile.toString(), blackhole::consume);
+    }
+
+    @Benchmark
+    public void verifySeatData() {
+        FileUploadService.SeatDataVerifier verifier = new FileUploadService.SeatDataVerifier();
+        for (FileUploadService.SeatData data : records) {
+            verifier.verifySeatData(data);
+        }
+        verifier.finish();
+    }
+
+    @Benchmark
+    public Object convertToTheaterLayout() {
+        FileUploadService.TheaterLayoutBuilder builder = new FileUploadService.TheaterLayoutBuilder(1L);
+        for (FileUploadService.SeatData data : records) {
+            builder.add(data);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.service;
+
+import org.example.model.BenchmarkLayouts;
+import org.example.model.Seat;
+import org.example.model.Theater;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FindSeatBenchmark {
+
+    @Param({"10000", "100000"})
+    private int seats;
+
+    private TheaterService theaterService;
+    private Theater theater;
+    private String lastSection;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        theaterService = new TheaterService();
+        theater = BenchmarkLayouts.venue(seats);
+        lastSection = theater.getSections().get(theater.getSections().size() - 1).getName();
+    }
+
+    @Benchmark
+    public Seat findSeatInLastSection() {
+        return theaterService.findSeat(theater, lastSection, 50, 40);
+    }
+
+    @Benchmark
+    public Seat findMissingSeat() {
+        return theaterService.findSeat(theater, "No Such Section", 1, 1);
+    }
+}
@@ -0,0 +1,46 @@
+package org.example.service;
+
+import org.example.model.BenchmarkLayouts;
+import org.example.model.Theater;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures seating map rendering with standard output redirected to a discarding stream.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SeatingMapBenchmark {
+
+    @Param({"10000", "50000"})
+    private int seats;
+
+    private TheaterService theaterService;
+    private Theater theater;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        theaterService = new TheaterService();
+        theater = BenchmarkLayouts.venue(seats);
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public void displaySeatingMap() {
+        theaterService.displaySeatingMap(theater);
+    }
+}
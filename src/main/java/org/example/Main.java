@@ -1,8 +1,11 @@
 package org.example;
 
 import org.example.exception.DbException;
+import org.example.metrics.RepositoryMetrics;
 import org.example.model.*;
+import org.example.repository.RepositoryType;
 import org.example.service.FileUploadService;
+import org.example.service.SeatingMapRenderer;
 import org.example.service.TheaterService;
 import org.example.util.DatabaseManager;
 
@@ -14,6 +17,8 @@ import java.util.concurrent.CompletableFuture;
 
 public class Main {
 
+    private static final int THEATER_PAGE_SIZE = 20;
+
     private Scanner scanner;
     private TheaterService theaterService;
     private FileUploadService fileUploadService;
@@ -28,7 +33,9 @@ public class Main {
         Main app = new Main();
 
         try {
-            DatabaseManager.getInstance().initialize();
+            if (RepositoryType.fromConfig() == RepositoryType.JDBC) {
+                DatabaseManager.getInstance().initialize();
+            }
             app.run();
 
         } catch (DbException e) {
@@ -48,7 +55,32 @@ public class Main {
     public void run() {
         System.out.println("=== Theater Booking Management System ===");
         System.out.println("Welcome! Let's manage your theaters.\n");
-        System.out.println("Connected to PostgreSQL database successfully.\n");
+        System.out.println(switch (RepositoryType.fromConfig()) {
+            case JDBC -> "Connected to PostgreSQL database successfully.\n";
+            case MEMORY -> "Using in-memory storage; nothing is saved when the application exits.\n";
+            case EMBEDDED -> "Using embedded storage; changes are journaled to local disk.\n";
+        });
+
+        try {
+            int released = theaterService.releaseOrphanedHoldsFromConfig();
+            if (released > 0) {
+                System.out.println("Released " + released + " seats left reserved by expired holds.\n");
+            }
+        } catch (SQLException e) {
+            System.out.println("Could not release orphaned seat holds: " + e.getMessage() + "\n");
+        }
+
+        try {
+            theaterService.enableHotModeFromConfig();
+        } catch (SQLException e) {
+            System.out.println("Could not load hot theaters: " + e.getMessage() + "\n");
+        }
+
+        try {
+            theaterService.subscribeToSeatChangesFromConfig();
+        } catch (SQLException e) {
+            System.out.println("Could not listen for seat changes: " + e.getMessage() + "\n");
+        }
 
         while (true) {
             displayMainMenu();
@@ -62,8 +94,10 @@ public class Main {
                     case 3 -> viewSeatingMap();
                     case 4 -> bookSeat();
                     case 5 -> cancelBooking();
-                    case 6 -> uploadCsvFiles();
-                    case 7 -> {
+                    case 6 -> bookGroupSeats();
+                    case 7 -> uploadCsvFiles();
+                    case 8 -> showMetrics();
+                    case 9 -> {
                         System.out.println("Thank you for using Theater Booking System!");
                         return;
                     }
@@ -86,8 +120,10 @@ public class Main {
         System.out.println("║ 3. View Seating Map               ║");
         System.out.println("║ 4. Book Seat                      ║");
         System.out.println("║ 5. Cancel Booking                 ║");
-        System.out.println("║ 6. Upload CSV File(s)             ║");
-        System.out.println("║ 7. Exit                           ║");
+        System.out.println("║ 6. Book Group Seats               ║");
+        System.out.println("║ 7. Upload CSV File(s)             ║");
+        System.out.println("║ 8. Show Metrics                   ║");
+        System.out.println("║ 9. Exit                           ║");
         System.out.println("╚════════════════════════════════════╝");
         System.out.print("Enter your choice: ");
     }
@@ -160,13 +196,10 @@ public class Main {
     }
 
     private void createCustomLayout(String name, int numSections) throws SQLException {
-        // Create the theater first
-        Long theaterId = theaterService.createTheater(name);
+        Theater layout = new Theater(name);
 
         System.out.println("Creating custom layout for theater: " + name);
 
-        int totalSeats = 0;
-
         for (int sectionNum = 1; sectionNum <= numSections; sectionNum++) {
             System.out.printf("%n=== Section %d Configuration ===%n", sectionNum);
             System.out.print("Section name (or press Enter for default): ");
@@ -178,59 +211,44 @@ public class Main {
             System.out.print("Number of rows in " + sectionName + ": ");
             int numRows = Integer.parseInt(scanner.nextLine().trim());
 
-            // Create section
-            Long sectionId = theaterService.createSection(theaterId, sectionName);
-
+            Section section = new Section(sectionName);
             for (int rowNum = 1; rowNum <= numRows; rowNum++) {
                 System.out.printf("Row %d - Number of seats: ", rowNum);
                 int seatsInRow = Integer.parseInt(scanner.nextLine().trim());
 
-                // Create row
-                Long rowId = theaterService.createRow(sectionId, rowNum);
-
-                // Create seats for this row
+                Row row = new Row(rowNum);
                 for (int seatNum = 1; seatNum <= seatsInRow; seatNum++) {
-                    theaterService.createSeatsForRow(rowId, seatNum);
-                    totalSeats++;
+                    row.addSeat(new Seat(seatNum));
                 }
+                section.addRow(row);
 
-                System.out.printf("  → Row %d created with %d seats%n", rowNum, seatsInRow);
+                System.out.printf("  → Row %d will have %d seats%n", rowNum, seatsInRow);
             }
+            layout.addSection(section);
 
             System.out.printf("Section '%s' completed with %d rows%n", sectionName, numRows);
         }
 
+        // Stored in one go, so a mistyped number does not leave a half-built theater behind
+        theaterService.createTheaterLayout(layout);
+
         System.out.println("\n" + "=".repeat(50));
         System.out.println("Theater '" + name + "' created successfully!");
-        System.out.printf("Custom layout: %d sections, Total seats: %d%n", numSections, totalSeats);
+        System.out.printf("Custom layout: %d sections, Total seats: %d%n", numSections, layout.getTotalSeats());
         System.out.println("=".repeat(50) + "\n");
     }
 
     private void listAndSelectTheater() {
         try {
-            List<Theater> theaters = theaterService.getAllTheaters();
-            if (theaters.isEmpty()) {
-                System.out.println("No theaters available. Please create a theater first.\n");
-                return;
-            }
-
-            System.out.println("\n=== Available Theaters ===");
-            for (int i = 0; i < theaters.size(); i++) {
-                Theater theater = theaterService.getTheaterWithLayout(theaters.get(i).getId());
-                System.out.printf("%d. %s (Seats: %d/%d available)%n",
-                        (i + 1), theater.getName(),
-                        theater.getAvailableSeats(), theater.getTotalSeats());
-            }
-
-            System.out.print("\nSelect theater (enter number): ");
-            int choice = Integer.parseInt(scanner.nextLine().trim()) - 1;
+            System.out.print("Minimum available seats (Enter for any): ");
+            String input = scanner.nextLine().trim();
+            int minAvailable = input.isEmpty() ? 0 : Integer.parseInt(input);
 
-            if (choice >= 0 && choice < theaters.size()) {
-                Theater selected = theaterService.getTheaterWithLayout(theaters.get(choice).getId());
+            TheaterSummary summary = chooseTheater("\n=== Available Theaters ===", minAvailable, true);
+            if (summary != null) {
+                Theater selected = theaterService.getTheaterWithLayout(summary.getTheaterId());
                 System.out.println("Selected: " + selected.getName());
                 theaterService.displaySeatingMap(selected);
-            } else {
-                System.out.println("Invalid selection.\n");
             }
 
         } catch (SQLException e) {
@@ -242,12 +260,33 @@ public class Main {
 
     private void viewSeatingMap() {
         try {
-            Theater theater = selectTheater();
-            if (theater != null) {
-                theaterService.displaySeatingMap(theater);
+            TheaterSummary theater = chooseTheater("\nAvailable theaters:", 0, false);
+            if (theater == null) return;
+
+            System.out.print("Section (Enter for all): ");
+            String sectionName = scanner.nextLine().trim();
+
+            System.out.print("Rows, e.g. 5 or 1-10 (Enter for all): ");
+            String rows = scanner.nextLine().trim();
+            int fromRow = Integer.MIN_VALUE;
+            int toRow = Integer.MAX_VALUE;
+            if (!rows.isEmpty()) {
+                String[] bounds = rows.split("-", 2);
+                fromRow = Integer.parseInt(bounds[0].trim());
+                toRow = bounds.length > 1 ? Integer.parseInt(bounds[1].trim()) : fromRow;
+            }
+
+            SeatingMapRenderer.Viewport viewport = new SeatingMapRenderer.Viewport(
+                    sectionName.isEmpty() ? null : sectionName, fromRow, toRow);
+            if (!theaterService.displaySeatingMap(theater.getTheaterId(), viewport)) {
+                System.out.println("Theater not found.\n");
             }
         } catch (SQLException e) {
             System.out.println("Database error: " + e.getMessage() + "\n");
+        } catch (NumberFormatException e) {
+            System.out.println("Please enter a valid number.\n");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage() + "\n");
         }
     }
 
@@ -259,14 +298,15 @@ public class Main {
             Seat seat = selectSeat(theater, true); // only available seats
             if (seat == null) return;
 
-            if (theaterService.bookSeat(seat.getId())) {
+            SeatUpdateResult result = theaterService.bookSeat(seat.getId(), seat.getVersion());
+            if (result.isSuccess()) {
                 System.out.println("Seat booked successfully!");
                 System.out.printf("Booked: Section %s, Row %d, Seat %d%n%n",
                         seat.getRow().getSection().getName(),
                         seat.getRow().getNumber(),
                         seat.getNumber());
             } else {
-                System.out.println("Failed to book seat. It may have been booked by someone else.\n");
+                printConflict("Failed to book seat.", result);
             }
 
         } catch (SQLException e) {
@@ -287,14 +327,15 @@ public class Main {
                 return;
             }
 
-            if (theaterService.cancelBooking(seat.getId())) {
+            SeatUpdateResult result = theaterService.cancelBooking(seat.getId(), seat.getVersion());
+            if (result.isSuccess()) {
                 System.out.println("Booking cancelled successfully!");
                 System.out.printf("Cancelled: Section %s, Row %d, Seat %d%n%n",
                         seat.getRow().getSection().getName(),
                         seat.getRow().getNumber(),
                         seat.getNumber());
             } else {
-                System.out.println("Failed to cancel booking.\n");
+                printConflict("Failed to cancel booking.", result);
             }
 
         } catch (SQLException e) {
@@ -302,11 +343,84 @@ public class Main {
         }
     }
 
+    private void printConflict(String message, SeatUpdateResult result) {
+        if (result.isNotFound()) {
+            System.out.println(message + " The seat no longer exists.\n");
+        } else {
+            System.out.printf("%s The seat was changed in the meantime and is now %s (version %d). " +
+                    "Please select again.%n%n", message, result.getStatus(), result.getVersion());
+        }
+    }
+
+    private void bookGroupSeats() {
+        try {
+            Theater theater = selectTheater();
+            if (theater == null) return;
+
+            System.out.print("Number of seats: ");
+            int count = Integer.parseInt(scanner.nextLine().trim());
+
+            System.out.print("Section (or press Enter for any): ");
+            String sectionName = scanner.nextLine().trim();
+
+            List<Seat> seats = theaterService.findContiguousSeats(
+                    theater.getId(), count, sectionName.isEmpty() ? null : sectionName);
+            if (seats.isEmpty()) {
+                System.out.println("No block of " + count + " seats is available.\n");
+                return;
+            }
+
+            System.out.println("Best available seats:");
+            for (Seat seat : seats) {
+                System.out.printf("  Section %s, Row %d, Seat %d%n",
+                        seat.getRow().getSection().getName(),
+                        seat.getRow().getNumber(),
+                        seat.getNumber());
+            }
+
+            System.out.print("Book these seats? (y/n): ");
+            String confirm = scanner.nextLine().trim().toLowerCase();
+            if (!confirm.equals("y") && !confirm.equals("yes")) {
+                System.out.println("Booking cancelled.\n");
+                return;
+            }
+
+            List<Long> seatIds = new ArrayList<>();
+            seats.forEach(seat -> seatIds.add(seat.getId()));
+
+            SeatBatchResult result = theaterService.bookSeats(seatIds);
+            if (result.isSuccess()) {
+                System.out.println(seats.size() + " seats booked successfully!\n");
+            } else {
+                System.out.println("Failed to book the group. " + result.getConflictingSeatIds().size() +
+                        " seat(s) were taken by someone else; nothing was booked.\n");
+            }
+
+        } catch (SQLException e) {
+            System.out.println("Database error: " + e.getMessage() + "\n");
+        } catch (NumberFormatException e) {
+            System.out.println("Please enter a valid number.\n");
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage() + "\n");
+        }
+    }
+
     private void uploadCsvFiles() {
         try {
             Theater theater = selectTheater();
             if (theater == null) return;
 
+            System.out.println("Upload type:");
+            System.out.println("1. Layout (adds sections, rows and seats)");
+            System.out.println("2. Status update (changes the status of existing seats)");
+            System.out.print("Choose type: ");
+            String type = scanner.nextLine().trim();
+            boolean statusUpdate = type.equals("2");
+            if (!statusUpdate && !type.equals("1")) {
+                System.out.println("Invalid upload type.\n");
+                return;
+            }
+
             List<String> filePaths = new ArrayList<>();
 
             System.out.println("Enter CSV file paths (one per line, empty line to finish):");
@@ -325,10 +439,12 @@ public class Main {
 
             System.out.println("Processing " + filePaths.size() + " file(s) asynchronously...\n");
 
-            CompletableFuture<List<FileUploadService.UploadResult>> future =
-                    fileUploadService.processMultipleFiles(filePaths, theater.getId());
+            CompletableFuture<List<FileUploadService.UploadResult>> future = statusUpdate
+                    ? fileUploadService.processMultipleStatusUpdates(filePaths, theater.getId())
+                    : fileUploadService.processMultipleFiles(filePaths, theater.getId());
 
             List<FileUploadService.UploadResult> results = future.get();
+            theaterService.invalidateTheater(theater.getId());
 
             System.out.println("=== Upload Results ===");
             int successful = 0;
@@ -345,30 +461,63 @@ public class Main {
         }
     }
 
+    private void showMetrics() {
+        System.out.println();
+        System.out.print(RepositoryMetrics.getInstance().dump());
+        System.out.println(theaterService.getCacheStats());
+        System.out.println();
+    }
+
     private Theater selectTheater() throws SQLException {
-        List<Theater> theaters = theaterService.getAllTheaters();
-        if (theaters.isEmpty()) {
-            System.out.println("No theaters available.\n");
-            return null;
-        }
+        TheaterSummary summary = chooseTheater("\nAvailable theaters:", 0, false);
+        return summary != null ? theaterService.getTheaterWithLayout(summary.getTheaterId()) : null;
+    }
 
-        System.out.println("\nAvailable theaters:");
-        for (int i = 0; i < theaters.size(); i++) {
-            System.out.println((i + 1) + ". " + theaters.get(i).getName());
-        }
+    /*
+     * Lists theaters a page at a time from the summary counters, so no layout is loaded
+     * until one has been chosen.
+     */
+    private TheaterSummary chooseTheater(String heading, int minAvailable, boolean showCounts) throws SQLException {
+        String afterName = null;
+        while (true) {
+            // One extra row tells whether there is a next page
+            List<TheaterSummary> page = theaterService.getTheaterSummaries(afterName, minAvailable, THEATER_PAGE_SIZE + 1);
+            boolean hasMore = page.size() > THEATER_PAGE_SIZE;
+            if (hasMore) {
+                page = page.subList(0, THEATER_PAGE_SIZE);
+            }
+            if (page.isEmpty()) {
+                System.out.println(afterName == null ? "No theaters available.\n" : "No more theaters.\n");
+                return null;
+            }
 
-        System.out.print("Select theater (enter number): ");
-        try {
-            int choice = Integer.parseInt(scanner.nextLine().trim()) - 1;
+            System.out.println(heading);
+            for (int i = 0; i < page.size(); i++) {
+                TheaterSummary theater = page.get(i);
+                if (showCounts) {
+                    System.out.printf("%d. %s (Seats: %d/%d available)%n",
+                            (i + 1), theater.getName(), theater.getAvailableSeats(), theater.getTotalSeats());
+                } else {
+                    System.out.println((i + 1) + ". " + theater.getName());
+                }
+            }
 
-            if (choice >= 0 && choice < theaters.size()) {
-                return theaterService.getTheaterWithLayout(theaters.get(choice).getId());
-            } else {
+            System.out.print(hasMore ? "Select theater (enter number, or n for next page): " : "Select theater (enter number): ");
+            String input = scanner.nextLine().trim();
+            if (hasMore && input.equalsIgnoreCase("n")) {
+                afterName = page.get(page.size() - 1).getName();
+                continue;
+            }
+
+            try {
+                int choice = Integer.parseInt(input) - 1;
+                if (choice >= 0 && choice < page.size()) {
+                    return page.get(choice);
+                }
                 System.out.println("Invalid selection.\n");
-                return null;
+            } catch (NumberFormatException e) {
+                System.out.println("Please enter a valid number.\n");
             }
-        } catch (NumberFormatException e) {
-            System.out.println("Please enter a valid number.\n");
             return null;
         }
     }
@@ -467,6 +616,10 @@ public class Main {
                 fileUploadService.shutdown();
             }
 
+            if (theaterService != null) {
+                theaterService.shutdown();
+            }
+
             if (scanner != null) {
                 scanner.close();
             }
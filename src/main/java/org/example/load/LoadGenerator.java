@@ -0,0 +1,351 @@
+package org.example.load;
+
+import org.example.exception.DbException;
+import org.example.metrics.LatencySnapshot;
+import org.example.metrics.OperationLatency;
+import org.example.metrics.RepositoryMetrics;
+import org.example.model.*;
+import org.example.repository.RepositoryType;
+import org.example.service.TheaterService;
+import org.example.util.DatabaseManager;
+import org.example.util.ThreadExecutors;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives a synthetic theater with concurrent booking clients and reports throughput, latency
+ * percentiles and whether any seat was booked twice. Clients run on virtual threads where
+ * the runtime supports them and on a platform thread pool otherwise.
+ *
+ * Each client picks book, cancel or view by weight. With a hot traffic fraction above zero,
+ * that share of operations goes to the first hotSeats fraction of the layout (the front
+ * rows of the first section); the rest is spread uniformly over all seats.
+ *
+ * Every successful book adds one to its seat's count and every successful cancel subtracts
+ * one. Successful books and cancels of a seat must alternate, so once the clients stop each
+ * count has to be 0 or 1 and match the seat's stored status; anything else is a double
+ * booking or a lost update.
+ *
+ * Usage: LoadGenerator [key=value ...], see {@link LoadProfile}. Runs each client count in
+ * turn against the repository selected in Config.properties (PostgreSQL, or the in-memory
+ * store with repository.type=memory) and exits with status 1 if the invariant was violated.
+ */
+public class LoadGenerator {
+
+    private final TheaterService theaterService;
+    private final LoadProfile profile;
+
+    public LoadGenerator(TheaterService theaterService, LoadProfile profile) {
+        this.theaterService = theaterService;
+        this.profile = profile;
+    }
+
+    public static void main(String[] args) {
+        LoadProfile profile;
+        try {
+            profile = LoadProfile.fromArgs(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        DatabaseManager dbManager = DatabaseManager.getInstance();
+        TheaterService theaterService = new TheaterService();
+        boolean violated = false;
+        try {
+            if (RepositoryType.fromConfig() == RepositoryType.JDBC) {
+                dbManager.initialize();
+            }
+            Theater theater = theaterService.createTheaterLayout("Load test " + System.currentTimeMillis(),
+                    profile.getSections(), profile.getRowsPerSection(), profile.getSeatsPerRow());
+            if (profile.isHotMode()) {
+                theaterService.enableHotMode(theater.getId());
+            }
+
+            System.out.println("Load profile: " + profile);
+            System.out.println("Clients run on " + (ThreadExecutors.virtualThreadsSupported() ? "virtual" : "platform") + " threads");
+            System.out.println("Theater " + theater.getId() + " with " + theater.getTotalSeats() + " seats\n");
+
+            LoadGenerator generator = new LoadGenerator(theaterService, profile);
+            for (int clients : profile.getClientSteps()) {
+                Report report = generator.run(theater.getId(), clients);
+                System.out.println(report);
+                violated |= !report.isInvariantHeld();
+            }
+        } catch (DbException e) {
+            System.err.println("PostgreSQL database initialization failed: " + e.getMessage());
+            violated = true;
+        } catch (SQLException e) {
+            System.err.println("Load test failed: " + e.getMessage());
+            violated = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            violated = true;
+        } finally {
+            theaterService.shutdown();
+            dbManager.close();
+        }
+        System.exit(violated ? 1 : 0);
+    }
+
+    /**
+     * Runs one step: the given number of clients for the warmup and then the measured
+     * duration, followed by the invariant check. Returns null if the theater does not exist.
+     */
+    public Report run(Long theaterId, int clients) throws SQLException, InterruptedException {
+        if (clients <= 0) {
+            throw new IllegalArgumentException("Client count must be positive");
+        }
+        Theater theater = theaterService.getTheaterWithLayout(theaterId);
+        if (theater == null) {
+            return null;
+        }
+
+        List<Seat> seats = seatsOf(theater);
+        if (seats.isEmpty()) {
+            throw new IllegalArgumentException("Theater " + theaterId + " has no seats");
+        }
+        Step step = new Step(theaterId, seats);
+
+        long measureFrom = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(profile.getWarmupMillis());
+        long deadline = measureFrom + TimeUnit.MILLISECONDS.toNanos(profile.getDurationMillis());
+
+        ExecutorService executor = ThreadExecutors.virtualThreadsSupported()
+                ? ThreadExecutors.newVirtualThreadPerTaskExecutor()
+                : ThreadExecutors.newBoundedThreadPool("load-client", clients, clients);
+        try {
+            for (int i = 0; i < clients; i++) {
+                executor.execute(() -> step.drive(measureFrom, deadline));
+            }
+            // Pool wait and timeouts should cover the measured part only
+            long untilMeasured = measureFrom - System.nanoTime();
+            if (untilMeasured > 0) {
+                TimeUnit.NANOSECONDS.sleep(untilMeasured);
+            }
+            RepositoryMetrics.getInstance().reset();
+        } finally {
+            executor.shutdown();
+            if (!executor.awaitTermination(profile.getWarmupMillis() + profile.getDurationMillis() + 60_000, TimeUnit.MILLISECONDS)) {
+                executor.shutdownNow();
+                System.err.println("Warning: Load clients did not stop in time");
+            }
+        }
+
+        if (step.firstError.get() != null) {
+            System.err.println("Warning: " + step.errors.sum() + " operations failed, first: " + step.firstError.get().getMessage());
+        }
+
+        // Read the seats back instead of trusting the cached copy the clients were updating
+        theaterService.invalidateTheater(theaterId);
+        Theater after = theaterService.getTheaterWithLayout(theaterId);
+        return step.report(clients, after != null ? seatsOf(after) : List.of());
+    }
+
+    private static List<Seat> seatsOf(Theater theater) {
+        List<Seat> seats = new ArrayList<>();
+        for (Section section : theater.getSections()) {
+            for (Row row : section.getRows()) {
+                seats.addAll(row.getSeats());
+            }
+        }
+        return seats;
+    }
+
+    /*
+     * State of one step, shared by its clients.
+     */
+    private class Step {
+        private final Long theaterId;
+        private final long[] seatIds;
+        private final AtomicIntegerArray bookings;
+        private final int hotSeats;
+        private final int totalWeight;
+
+        private final OperationLatency bookLatency = new OperationLatency("load.book");
+        private final OperationLatency cancelLatency = new OperationLatency("load.cancel");
+        private final OperationLatency viewLatency = new OperationLatency("load.view");
+        private final LongAdder booked = new LongAdder();
+        private final LongAdder cancelled = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final AtomicReference<Exception> firstError = new AtomicReference<>();
+
+        Step(Long theaterId, List<Seat> seats) {
+            this.theaterId = theaterId;
+            this.seatIds = new long[seats.size()];
+            this.bookings = new AtomicIntegerArray(seats.size());
+            for (int i = 0; i < seatIds.length; i++) {
+                seatIds[i] = seats.get(i).getId();
+                // Seats booked by an earlier step start out counted
+                bookings.set(i, seats.get(i).getStatus() == SeatStatus.BOOKED ? 1 : 0);
+            }
+            this.hotSeats = Math.max(1, (int) Math.round(seats.size() * profile.getHotSeatFraction()));
+            this.totalWeight = profile.getBookWeight() + profile.getCancelWeight() + profile.getViewWeight();
+        }
+
+        void drive(long measureFrom, long deadline) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long now;
+            while ((now = System.nanoTime()) < deadline) {
+                boolean measured = now >= measureFrom;
+                int roll = random.nextInt(totalWeight);
+                try {
+                    if (roll < profile.getBookWeight()) {
+                        int seat = pickSeat(random);
+                        boolean applied = theaterService.bookSeat(seatIds[seat]);
+                        if (measured) bookLatency.recordSince(now);
+                        count(seat, applied, 1, measured ? booked : null);
+                    } else if (roll < profile.getBookWeight() + profile.getCancelWeight()) {
+                        int seat = pickSeat(random);
+                        boolean applied = theaterService.cancelBooking(seatIds[seat]);
+                        if (measured) cancelLatency.recordSince(now);
+                        count(seat, applied, -1, measured ? cancelled : null);
+                    } else {
+                        theaterService.getTheaterSummary(theaterId);
+                        if (measured) viewLatency.recordSince(now);
+                    }
+                } catch (SQLException | RuntimeException e) {
+                    errors.increment();
+                    firstError.compareAndSet(null, e);
+                }
+            }
+        }
+
+        private int pickSeat(ThreadLocalRandom random) {
+            if (random.nextDouble() < profile.getHotTrafficFraction()) {
+                return random.nextInt(hotSeats);
+            }
+            return random.nextInt(seatIds.length);
+        }
+
+        private void count(int seat, boolean applied, int delta, LongAdder successes) {
+            if (applied) {
+                bookings.addAndGet(seat, delta);
+                if (successes != null) successes.increment();
+            } else if (successes != null) {
+                rejected.increment();
+            }
+        }
+
+        Report report(int clients, List<Seat> after) {
+            int doubleBooked = 0;
+            int overCancelled = 0;
+            Map<Long, Integer> indexById = new HashMap<>();
+            for (int i = 0; i < seatIds.length; i++) {
+                indexById.put(seatIds[i], i);
+                if (bookings.get(i) > 1) doubleBooked++;
+                if (bookings.get(i) < 0) overCancelled++;
+            }
+
+            int mismatched = seatIds.length;
+            for (Seat seat : after) {
+                Integer index = indexById.get(seat.getId());
+                if (index == null) continue;
+                // A seat missing from the reloaded layout stays counted as a mismatch
+                boolean stored = seat.getStatus() == SeatStatus.BOOKED;
+                if (stored == (bookings.get(index) == 1)) mismatched--;
+            }
+
+            RepositoryMetrics metrics = RepositoryMetrics.getInstance();
+            return new Report(clients, profile.getDurationMillis(),
+                    List.of(bookLatency.snapshot(), cancelLatency.snapshot(), viewLatency.snapshot()),
+                    booked.sum(), cancelled.sum(), rejected.sum(), errors.sum(),
+                    doubleBooked, overCancelled, mismatched,
+                    metrics.getPoolWait(), metrics.getConnectionTimeouts());
+        }
+    }
+
+    /**
+     * Outcome of one step. Latencies and throughput cover the measured duration only; the
+     * invariant covers the whole step including warmup.
+     */
+    public static class Report {
+        private final int clients;
+        private final long durationMillis;
+        private final List<LatencySnapshot> latencies;
+        private final long booked;
+        private final long cancelled;
+        private final long rejected;
+        private final long errors;
+        private final int doubleBookedSeats;
+        private final int overCancelledSeats;
+        private final int mismatchedSeats;
+        private final LatencySnapshot poolWait;
+        private final long connectionTimeouts;
+
+        public Report(int clients, long durationMillis, List<LatencySnapshot> latencies,
+                      long booked, long cancelled, long rejected, long errors,
+                      int doubleBookedSeats, int overCancelledSeats, int mismatchedSeats,
+                      LatencySnapshot poolWait, long connectionTimeouts) {
+            this.clients = clients;
+            this.durationMillis = durationMillis;
+            this.latencies = List.copyOf(latencies);
+            this.booked = booked;
+            this.cancelled = cancelled;
+            this.rejected = rejected;
+            this.errors = errors;
+            this.doubleBookedSeats = doubleBookedSeats;
+            this.overCancelledSeats = overCancelledSeats;
+            this.mismatchedSeats = mismatchedSeats;
+            this.poolWait = poolWait;
+            this.connectionTimeouts = connectionTimeouts;
+        }
+
+        public long getOperationCount() {
+            return latencies.stream().mapToLong(LatencySnapshot::getCount).sum();
+        }
+
+        public double getThroughput() {
+            return getOperationCount() * 1000.0 / durationMillis;
+        }
+
+        public double getBookingThroughput() {
+            return booked * 1000.0 / durationMillis;
+        }
+
+        public boolean isInvariantHeld() {
+            return doubleBookedSeats == 0 && overCancelledSeats == 0 && mismatchedSeats == 0;
+        }
+
+        public int getClients() { return clients; }
+        public List<LatencySnapshot> getLatencies() { return latencies; }
+        public long getBooked() { return booked; }
+        public long getCancelled() { return cancelled; }
+        public long getRejected() { return rejected; }
+        public long getErrors() { return errors; }
+        public int getDoubleBookedSeats() { return doubleBookedSeats; }
+        public int getOverCancelledSeats() { return overCancelledSeats; }
+        public int getMismatchedSeats() { return mismatchedSeats; }
+        public LatencySnapshot getPoolWait() { return poolWait; }
+        public long getConnectionTimeouts() { return connectionTimeouts; }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("=== %d clients ===%n", clients));
+            sb.append(String.format("Throughput: %.0f ops/s, %.0f bookings/s (booked=%d, cancelled=%d, rejected=%d, errors=%d)%n",
+                    getThroughput(), getBookingThroughput(), booked, cancelled, rejected, errors));
+            for (LatencySnapshot latency : latencies) {
+                sb.append(latency).append('\n');
+            }
+            sb.append(poolWait).append('\n');
+            sb.append(String.format("Connection timeouts: %d%n", connectionTimeouts));
+            sb.append(isInvariantHeld()
+                    ? "Invariant: held, no seat booked twice\n"
+                    : String.format("Invariant: VIOLATED (double booked=%d, cancelled while free=%d, status mismatches=%d)%n",
+                            doubleBookedSeats, overCancelledSeats, mismatchedSeats));
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package org.example.load;
+
+import org.example.util.ConfigLoader;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings for one load generator run. Each setting is read from the load.* keys in
+ * Config.properties and can be overridden on the command line as key=value, for example
+ * {@code clients=10,50,200 hotTraffic=0.9}.
+ */
+public class LoadProfile {
+
+    private final int[] clientSteps;
+    private final long warmupMillis;
+    private final long durationMillis;
+    private final int bookWeight;
+    private final int cancelWeight;
+    private final int viewWeight;
+    private final double hotSeatFraction;
+    private final double hotTrafficFraction;
+    private final int sections;
+    private final int rowsPerSection;
+    private final int seatsPerRow;
+    private final boolean hotMode;
+
+    public LoadProfile(int[] clientSteps, long warmupMillis, long durationMillis,
+                       int bookWeight, int cancelWeight, int viewWeight,
+                       double hotSeatFraction, double hotTrafficFraction,
+                       int sections, int rowsPerSection, int seatsPerRow, boolean hotMode) {
+        if (clientSteps.length == 0 || Arrays.stream(clientSteps).anyMatch(clients -> clients <= 0)) {
+            throw new IllegalArgumentException("Client counts must be positive");
+        }
+        if (warmupMillis < 0 || durationMillis <= 0) {
+            throw new IllegalArgumentException("Duration must be positive and warmup cannot be negative");
+        }
+        if (bookWeight < 0 || cancelWeight < 0 || viewWeight < 0 || bookWeight + cancelWeight + viewWeight == 0) {
+            throw new IllegalArgumentException("Operation weights cannot be negative and must not all be zero");
+        }
+        if (hotSeatFraction <= 0 || hotSeatFraction > 1 || hotTrafficFraction < 0 || hotTrafficFraction > 1) {
+            throw new IllegalArgumentException("Hot seat fraction must be in (0, 1] and hot traffic fraction in [0, 1]");
+        }
+        if (sections <= 0 || rowsPerSection <= 0 || seatsPerRow <= 0) {
+            throw new IllegalArgumentException("All layout parameters must be positive");
+        }
+        this.clientSteps = clientSteps.clone();
+        this.warmupMillis = warmupMillis;
+        this.durationMillis = durationMillis;
+        this.bookWeight = bookWeight;
+        this.cancelWeight = cancelWeight;
+        this.viewWeight = viewWeight;
+        this.hotSeatFraction = hotSeatFraction;
+        this.hotTrafficFraction = hotTrafficFraction;
+        this.sections = sections;
+        this.rowsPerSection = rowsPerSection;
+        this.seatsPerRow = seatsPerRow;
+        this.hotMode = hotMode;
+    }
+
+    /**
+     * Builds a profile from Config.properties with key=value arguments taking precedence.
+     */
+    public static LoadProfile fromArgs(String... args) {
+        Map<String, String> overrides = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Expected key=value but got: " + arg);
+            }
+            overrides.put(arg.substring(0, eq).trim(), arg.substring(eq + 1).trim());
+        }
+
+        LoadProfile profile;
+        try {
+            profile = new LoadProfile(
+                    Arrays.stream(setting(overrides, "clients", "10,50,100").split(","))
+                            .map(String::trim).mapToInt(Integer::parseInt).toArray(),
+                    Long.parseLong(setting(overrides, "warmupMillis", "5000")),
+                    Long.parseLong(setting(overrides, "durationMillis", "30000")),
+                    Integer.parseInt(setting(overrides, "bookWeight", "45")),
+                    Integer.parseInt(setting(overrides, "cancelWeight", "35")),
+                    Integer.parseInt(setting(overrides, "viewWeight", "20")),
+                    Double.parseDouble(setting(overrides, "hotSeats", "0.01")),
+                    Double.parseDouble(setting(overrides, "hotTraffic", "0")),
+                    Integer.parseInt(setting(overrides, "sections", "5")),
+                    Integer.parseInt(setting(overrides, "rowsPerSection", "20")),
+                    Integer.parseInt(setting(overrides, "seatsPerRow", "30")),
+                    Boolean.parseBoolean(setting(overrides, "hotMode", "false")));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid load setting: " + e.getMessage(), e);
+        }
+        // Every recognised key has been consumed by now
+        if (!overrides.isEmpty()) {
+            throw new IllegalArgumentException("Unknown load setting: " + overrides.keySet());
+        }
+        return profile;
+    }
+
+    private static String setting(Map<String, String> overrides, String key, String defaultValue) {
+        String value = overrides.remove(key);
+        return value != null ? value : ConfigLoader.getProperty("load." + key, defaultValue);
+    }
+
+    public int[] getClientSteps() { return clientSteps.clone(); }
+    public long getWarmupMillis() { return warmupMillis; }
+    public long getDurationMillis() { return durationMillis; }
+    public int getBookWeight() { return bookWeight; }
+    public int getCancelWeight() { return cancelWeight; }
+    public int getViewWeight() { return viewWeight; }
+    public double getHotSeatFraction() { return hotSeatFraction; }
+    public double getHotTrafficFraction() { return hotTrafficFraction; }
+    public int getSections() { return sections; }
+    public int getRowsPerSection() { return rowsPerSection; }
+    public int getSeatsPerRow() { return seatsPerRow; }
+    public boolean isHotMode() { return hotMode; }
+
+    @Override
+    public String toString() {
+        return String.format("clients=%s, warmup=%dms, duration=%dms, mix book/cancel/view=%d/%d/%d, " +
+                        "hot traffic=%.0f%% on %.1f%% of seats, layout=%dx%dx%d%s",
+                Arrays.toString(clientSteps), warmupMillis, durationMillis, bookWeight, cancelWeight, viewWeight,
+                hotTrafficFraction * 100, hotSeatFraction * 100, sections, rowsPerSection, seatsPerRow,
+                hotMode ? ", hot mode" : "");
+    }
+}
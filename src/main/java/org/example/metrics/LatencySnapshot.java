@@ -0,0 +1,61 @@
+package org.example.metrics;
+
+import org.HdrHistogram.Histogram;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Point-in-time latency percentiles for one operation, in microseconds.
+ */
+public class LatencySnapshot {
+    private final String operation;
+    private final long count;
+    private final double mean;
+    private final double p50;
+    private final double p90;
+    private final double p99;
+    private final double p999;
+    private final double max;
+
+    @ConstructorProperties({"operation", "count", "mean", "p50", "p90", "p99", "p999", "max"})
+    public LatencySnapshot(String operation, long count, double mean, double p50,
+                           double p90, double p99, double p999, double max) {
+        this.operation = operation;
+        this.count = count;
+        this.mean = mean;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+        this.p999 = p999;
+        this.max = max;
+    }
+
+    static LatencySnapshot of(String operation, Histogram nanos) {
+        if (nanos.getTotalCount() == 0) {
+            return new LatencySnapshot(operation, 0, 0, 0, 0, 0, 0, 0);
+        }
+        return new LatencySnapshot(operation,
+                nanos.getTotalCount(),
+                nanos.getMean() / 1000.0,
+                nanos.getValueAtPercentile(50) / 1000.0,
+                nanos.getValueAtPercentile(90) / 1000.0,
+                nanos.getValueAtPercentile(99) / 1000.0,
+                nanos.getValueAtPercentile(99.9) / 1000.0,
+                nanos.getMaxValue() / 1000.0);
+    }
+
+    public String getOperation() { return operation; }
+    public long getCount() { return count; }
+    public double getMean() { return mean; }
+    public double getP50() { return p50; }
+    public double getP90() { return p90; }
+    public double getP99() { return p99; }
+    public double getP999() { return p999; }
+    public double getMax() { return max; }
+
+    @Override
+    public String toString() {
+        return String.format("%-28s count=%-8d mean=%9.1fus p50=%9.1fus p90=%9.1fus p99=%9.1fus p99.9=%9.1fus max=%9.1fus",
+                operation, count, mean, p50, p90, p99, p999, max);
+    }
+}
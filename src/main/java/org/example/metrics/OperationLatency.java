@@ -0,0 +1,48 @@
+package org.example.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Latency histogram for one operation. Recording is wait-free; readers swap out the
+ * interval histogram and fold it into the cumulative one.
+ */
+public class OperationLatency {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final String name;
+    private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+    private final Histogram cumulative = new Histogram(SIGNIFICANT_DIGITS);
+    private Histogram interval;
+
+    public OperationLatency(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void recordNanos(long nanos) {
+        recorder.recordValue(Math.max(0, nanos));
+    }
+
+    /**
+     * Records the time elapsed since a System.nanoTime() start value.
+     */
+    public void recordSince(long startNanos) {
+        recordNanos(System.nanoTime() - startNanos);
+    }
+
+    public synchronized LatencySnapshot snapshot() {
+        interval = recorder.getIntervalHistogram(interval);
+        cumulative.add(interval);
+        return LatencySnapshot.of(name, cumulative);
+    }
+
+    public synchronized void reset() {
+        interval = recorder.getIntervalHistogram(interval);
+        cumulative.reset();
+    }
+}
@@ -0,0 +1,136 @@
+package org.example.metrics;
+
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import org.example.util.DatabaseManager;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms for repository operations plus connection pool wait time and state.
+ * Callers look up their OperationLatency once and keep it, so the booking path only pays
+ * for two nanoTime calls and a wait-free histogram update.
+ */
+public class RepositoryMetrics implements RepositoryMetricsMXBean {
+
+    private static final String OBJECT_NAME = "org.example:type=RepositoryMetrics";
+    private static RepositoryMetrics instance;
+
+    private final Map<String, OperationLatency> operations = new ConcurrentHashMap<>();
+    private final OperationLatency poolWait = new OperationLatency("pool.connectionWait");
+    private final LongAdder connectionTimeouts = new LongAdder();
+
+    private RepositoryMetrics() {}
+
+    public static synchronized RepositoryMetrics getInstance() {
+        if (instance == null) {
+            instance = new RepositoryMetrics();
+        }
+        return instance;
+    }
+
+    public OperationLatency operation(String name) {
+        return operations.computeIfAbsent(name, OperationLatency::new);
+    }
+
+    /**
+     * Hikari metrics tracker that records how long each caller waited for a pooled connection.
+     */
+    public MetricsTrackerFactory poolTrackerFactory() {
+        return (poolName, poolStats) -> new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                poolWait.recordNanos(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                connectionTimeouts.increment();
+            }
+        };
+    }
+
+    public synchronized void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+            }
+        } catch (JMException e) {
+            System.err.println("Warning: Could not register metrics MBean: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public List<LatencySnapshot> getOperationLatencies() {
+        List<LatencySnapshot> snapshots = new ArrayList<>();
+        operations.keySet().stream().sorted()
+                .forEach(name -> snapshots.add(operations.get(name).snapshot()));
+        return snapshots;
+    }
+
+    @Override
+    public LatencySnapshot getPoolWait() {
+        return poolWait.snapshot();
+    }
+
+    @Override
+    public int getActiveConnections() {
+        HikariPoolMXBean pool = DatabaseManager.getInstance().getPoolMXBean();
+        return pool != null ? pool.getActiveConnections() : 0;
+    }
+
+    @Override
+    public int getIdleConnections() {
+        HikariPoolMXBean pool = DatabaseManager.getInstance().getPoolMXBean();
+        return pool != null ? pool.getIdleConnections() : 0;
+    }
+
+    @Override
+    public int getTotalConnections() {
+        HikariPoolMXBean pool = DatabaseManager.getInstance().getPoolMXBean();
+        return pool != null ? pool.getTotalConnections() : 0;
+    }
+
+    @Override
+    public int getThreadsAwaitingConnection() {
+        HikariPoolMXBean pool = DatabaseManager.getInstance().getPoolMXBean();
+        return pool != null ? pool.getThreadsAwaitingConnection() : 0;
+    }
+
+    @Override
+    public long getConnectionTimeouts() {
+        return connectionTimeouts.sum();
+    }
+
+    @Override
+    public String dump() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("=== Repository Metrics ===\n");
+        for (LatencySnapshot snapshot : getOperationLatencies()) {
+            sb.append(snapshot).append('\n');
+        }
+        sb.append(getPoolWait()).append('\n');
+        sb.append(String.format("Pool: active=%d, idle=%d, total=%d, pending=%d, timeouts=%d%n",
+                getActiveConnections(), getIdleConnections(), getTotalConnections(),
+                getThreadsAwaitingConnection(), getConnectionTimeouts()));
+        return sb.toString();
+    }
+
+    @Override
+    public void reset() {
+        operations.values().forEach(OperationLatency::reset);
+        poolWait.reset();
+        connectionTimeouts.reset();
+    }
+}
@@ -0,0 +1,28 @@
+package org.example.metrics;
+
+import java.util.List;
+
+/**
+ * JMX view of repository latencies and connection pool state, registered as
+ * org.example:type=RepositoryMetrics.
+ */
+public interface RepositoryMetricsMXBean {
+
+    List<LatencySnapshot> getOperationLatencies();
+
+    LatencySnapshot getPoolWait();
+
+    int getActiveConnections();
+
+    int getIdleConnections();
+
+    int getTotalConnections();
+
+    int getThreadsAwaitingConnection();
+
+    long getConnectionTimeouts();
+
+    String dump();
+
+    void reset();
+}
@@ -1,7 +1,12 @@
 package org.example.model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 public class Row {
     private Long id;
@@ -9,8 +14,22 @@ public class Row {
     private Section section;
     private List<Seat> seats;
 
+    // One bitmap per SeatStatus (by ordinal), indexed by seat position in the row
+    private final BitSet[] statusBits;
+    private final int[] statusCounts;
+
+    // Runs of adjacent available seats: start position -> end position (inclusive),
+    // plus a multiset of run lengths so the longest run is a lookup
+    private final TreeMap<Integer, Integer> freeRuns = new TreeMap<>();
+    private final TreeMap<Integer, Integer> runLengths = new TreeMap<>();
+
     public Row() {
         this.seats = new ArrayList<>();
+        this.statusBits = new BitSet[SeatStatus.values().length];
+        this.statusCounts = new int[SeatStatus.values().length];
+        for (int i = 0; i < statusBits.length; i++) {
+            statusBits[i] = new BitSet();
+        }
     }
 
     public Row(int number) {
@@ -33,15 +52,121 @@ public class Row {
     public Section getSection() { return section; }
     public void setSection(Section section) { this.section = section; }
 
-    public List<Seat> getSeats() { return seats; }
+    public List<Seat> getSeats() { return Collections.unmodifiableList(seats); }
     public void setSeats(List<Seat> seats) {
-        this.seats = seats;
-        seats.forEach(seat -> seat.setRow(this));
+        if (section != null) {
+            section.adjustSeatCounts(statusCounts, -1);
+        }
+
+        this.seats = new ArrayList<>();
+        for (BitSet bits : statusBits) {
+            bits.clear();
+        }
+        Arrays.fill(statusCounts, 0);
+        freeRuns.clear();
+        runLengths.clear();
+        seats.forEach(this::indexSeat);
+
+        if (section != null) {
+            section.adjustSeatCounts(statusCounts, 1);
+        }
     }
 
     public void addSeat(Seat seat) {
+        indexSeat(seat);
+        if (section != null) {
+            section.adjustSeatCount(seat.getStatus(), 1);
+        }
+    }
+
+    private void indexSeat(Seat seat) {
+        seat.position = seats.size();
         this.seats.add(seat);
         seat.setRow(this);
+        statusBits[seat.getStatus().ordinal()].set(seat.position);
+        statusCounts[seat.getStatus().ordinal()]++;
+        if (seat.isAvailable()) {
+            seatBecameAvailable(seat.position);
+        }
+    }
+
+    /**
+     * Called by Seat.setStatus to keep the bitmaps and counters in step with the seat.
+     */
+    void seatStatusChanged(Seat seat, SeatStatus previous, SeatStatus current) {
+        int position = seat.position;
+        if (position < 0 || position >= seats.size() || seats.get(position) != seat) {
+            return; // seat is not indexed by this row
+        }
+
+        statusBits[previous.ordinal()].clear(position);
+        statusBits[current.ordinal()].set(position);
+        statusCounts[previous.ordinal()]--;
+        statusCounts[current.ordinal()]++;
+
+        if (current == SeatStatus.AVAILABLE) {
+            seatBecameAvailable(position);
+        } else if (previous == SeatStatus.AVAILABLE) {
+            seatBecameUnavailable(position);
+        }
+
+        if (section != null) {
+            section.adjustSeatCount(previous, -1);
+            section.adjustSeatCount(current, 1);
+        }
+    }
+
+    private void seatBecameAvailable(int position) {
+        int start = position;
+        int end = position;
+
+        if (position > 0 && isAdjacent(position - 1) && isAvailableAt(position - 1)) {
+            start = freeRuns.floorKey(position - 1);
+            removeRun(start);
+        }
+        if (position + 1 < seats.size() && isAdjacent(position) && isAvailableAt(position + 1)) {
+            end = removeRun(position + 1);
+        }
+        addRun(start, end);
+    }
+
+    private void seatBecameUnavailable(int position) {
+        Map.Entry<Integer, Integer> run = freeRuns.floorEntry(position);
+        if (run == null || run.getValue() < position) {
+            return;
+        }
+
+        removeRun(run.getKey());
+        if (run.getKey() < position) {
+            addRun(run.getKey(), position - 1);
+        }
+        if (position < run.getValue()) {
+            addRun(position + 1, run.getValue());
+        }
+    }
+
+    private void addRun(int start, int end) {
+        freeRuns.put(start, end);
+        runLengths.merge(end - start + 1, 1, Integer::sum);
+    }
+
+    private int removeRun(int start) {
+        int end = freeRuns.remove(start);
+        runLengths.computeIfPresent(end - start + 1, (length, count) -> count == 1 ? null : count - 1);
+        return end;
+    }
+
+    // Seats at position and position + 1 are side by side (no gap in numbering)
+    private boolean isAdjacent(int position) {
+        return seats.get(position + 1).getNumber() == seats.get(position).getNumber() + 1;
+    }
+
+    private boolean isAvailableAt(int position) {
+        return statusBits[SeatStatus.AVAILABLE.ordinal()].get(position);
+    }
+
+    int[] getStatusCounts() {
+        return statusCounts;
     }
 
     public int getTotalSeats() {
@@ -49,13 +174,68 @@ public class Row {
     }
 
     public int getAvailableSeats() {
-        return (int) seats.stream()
-                .filter(seat -> seat.getStatus() == SeatStatus.AVAILABLE)
-                .count();
+        return statusCounts[SeatStatus.AVAILABLE.ordinal()];
+    }
+
+    public int getSeatCount(SeatStatus status) {
+        return statusCounts[status.ordinal()];
+    }
+
+    /**
+     * Returns the first available seat at or after the given position in the row, or null.
+     */
+    public Seat getNextAvailableSeat(int fromPosition) {
+        int position = statusBits[SeatStatus.AVAILABLE.ordinal()].nextSetBit(Math.max(0, fromPosition));
+        return position >= 0 ? seats.get(position) : null;
+    }
+
+    /**
+     * Length of the longest run of adjacent available seats in this row.
+     */
+    public int getLongestAvailableRun() {
+        return runLengths.isEmpty() ? 0 : runLengths.lastKey();
+    }
+
+    /**
+     * Returns the best block of exactly count adjacent available seats (the one closest to
+     * the middle of the row), or an empty list if no run is long enough.
+     */
+    public List<Seat> findAdjacentAvailableSeats(int count) {
+        if (count <= 0 || getLongestAvailableRun() < count) {
+            return List.of();
+        }
+
+        double center = (seats.size() - 1) / 2.0;
+        int bestStart = -1;
+        double bestDistance = Double.MAX_VALUE;
+
+        for (Map.Entry<Integer, Integer> run : freeRuns.entrySet()) {
+            int start = run.getKey();
+            int end = run.getValue();
+            if (end - start + 1 < count) continue;
+
+            // Slide the block as close to the middle as the run allows
+            int blockStart = (int) Math.round(center - (count - 1) / 2.0);
+            blockStart = Math.max(start, Math.min(blockStart, end - count + 1));
+            double distance = Math.abs(blockStart + (count - 1) / 2.0 - center);
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                bestStart = blockStart;
+            }
+        }
+
+        return List.copyOf(seats.subList(bestStart, bestStart + count));
+    }
+
+    /**
+     * Returns a copy of the positions of all seats in the given status.
+     */
+    public BitSet getSeatPositions(SeatStatus status) {
+        return (BitSet) statusBits[status.ordinal()].clone();
     }
 
     @Override
     public String toString() {
         return String.format("Row{id=%d, number=%d, seats=%d}", id, number, seats.size());
     }
-}
\ No newline at end of file
+}
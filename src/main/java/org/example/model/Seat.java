@@ -1,10 +1,14 @@
 package org.example.model;
 
+import java.util.Objects;
+
 public class Seat {
     private Long id;
     private int number;
     private Row row;
     private SeatStatus status;
+    private long version; // bumped by the database on every status change
+    int position = -1; // index within the owning row, maintained by Row
 
     public Seat() {
         this.status = SeatStatus.AVAILABLE;
@@ -21,6 +25,11 @@ public class Seat {
         this.status = status;
     }
 
+    public Seat(Long id, int number, SeatStatus status, long version) {
+        this(id, number, status);
+        this.version = version;
+    }
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
@@ -31,7 +40,17 @@ public class Seat {
     public void setRow(Row row) { this.row = row; }
 
     public SeatStatus getStatus() { return status; }
-    public void setStatus(SeatStatus status) { this.status = status; }
+    public void setStatus(SeatStatus status) {
+        Objects.requireNonNull(status, "Seat status cannot be null");
+        SeatStatus previous = this.status;
+        this.status = status;
+        if (row != null && previous != status) {
+            row.seatStatusChanged(this, previous, status);
+        }
+    }
+
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
 
     public boolean isAvailable() {
         return status == SeatStatus.AVAILABLE;
@@ -43,6 +62,6 @@ public class Seat {
 
     @Override
     public String toString() {
-        return String.format("Seat{id=%d, number=%d, status=%s}", id, number, status);
+        return String.format("Seat{id=%d, number=%d, status=%s, version=%d}", id, number, status, version);
     }
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package org.example.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of an all-or-nothing status change on a group of seats.
+ * When any seat conflicts nothing is changed, and the conflicting seat ids are reported.
+ */
+public class SeatBatchResult {
+    private final List<Long> seatIds;
+    private final List<Long> conflictingSeatIds;
+
+    public SeatBatchResult(List<Long> seatIds, List<Long> conflictingSeatIds) {
+        this.seatIds = Collections.unmodifiableList(seatIds);
+        this.conflictingSeatIds = Collections.unmodifiableList(conflictingSeatIds);
+    }
+
+    public boolean isSuccess() {
+        return conflictingSeatIds.isEmpty();
+    }
+
+    public List<Long> getSeatIds() { return seatIds; }
+    public List<Long> getConflictingSeatIds() { return conflictingSeatIds; }
+
+    @Override
+    public String toString() {
+        return String.format("SeatBatchResult{seats=%d, success=%s, conflicts=%s}",
+                seatIds.size(), isSuccess(), conflictingSeatIds);
+    }
+}
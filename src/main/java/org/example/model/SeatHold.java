@@ -0,0 +1,38 @@
+package org.example.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of placing a timed hold on a group of seats. A successful hold has an id to
+ * confirm or release it with; when any seat is not available nothing is held and the
+ * conflicting seat ids are reported.
+ */
+public class SeatHold {
+    private final String holdId;
+    private final List<Long> seatIds;
+    private final List<Long> conflictingSeatIds;
+    private final long ttlMillis;
+
+    public SeatHold(String holdId, List<Long> seatIds, List<Long> conflictingSeatIds, long ttlMillis) {
+        this.holdId = holdId;
+        this.seatIds = Collections.unmodifiableList(seatIds);
+        this.conflictingSeatIds = Collections.unmodifiableList(conflictingSeatIds);
+        this.ttlMillis = ttlMillis;
+    }
+
+    public boolean isSuccess() {
+        return holdId != null;
+    }
+
+    public String getHoldId() { return holdId; }
+    public List<Long> getSeatIds() { return seatIds; }
+    public List<Long> getConflictingSeatIds() { return conflictingSeatIds; }
+    public long getTtlMillis() { return ttlMillis; }
+
+    @Override
+    public String toString() {
+        return String.format("SeatHold{id=%s, seats=%d, ttl=%dms, conflicts=%s}",
+                holdId, seatIds.size(), ttlMillis, conflictingSeatIds);
+    }
+}
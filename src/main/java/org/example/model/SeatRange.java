@@ -0,0 +1,36 @@
+package org.example.model;
+
+/**
+ * Seats seatStart..seatEnd of one row, addressed by section name and row number,
+ * with the status they should have.
+ */
+public class SeatRange {
+    private final String sectionName;
+    private final int rowNumber;
+    private final int seatStart;
+    private final int seatEnd;
+    private final SeatStatus status;
+
+    public SeatRange(String sectionName, int rowNumber, int seatStart, int seatEnd, SeatStatus status) {
+        this.sectionName = sectionName;
+        this.rowNumber = rowNumber;
+        this.seatStart = seatStart;
+        this.seatEnd = seatEnd;
+        this.status = status;
+    }
+
+    public String getSectionName() { return sectionName; }
+    public int getRowNumber() { return rowNumber; }
+    public int getSeatStart() { return seatStart; }
+    public int getSeatEnd() { return seatEnd; }
+    public SeatStatus getStatus() { return status; }
+
+    public int getSeatCount() {
+        return seatEnd - seatStart + 1;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s row %d seats %d-%d -> %s", sectionName, rowNumber, seatStart, seatEnd, status);
+    }
+}
@@ -0,0 +1,25 @@
+package org.example.model;
+
+/**
+ * A requested status change for one seat, applied only if the seat is in the expected status.
+ */
+public class SeatTransition {
+    private final Long seatId;
+    private final SeatStatus from;
+    private final SeatStatus to;
+
+    public SeatTransition(Long seatId, SeatStatus from, SeatStatus to) {
+        this.seatId = seatId;
+        this.from = from;
+        this.to = to;
+    }
+
+    public Long getSeatId() { return seatId; }
+    public SeatStatus getFrom() { return from; }
+    public SeatStatus getTo() { return to; }
+
+    @Override
+    public String toString() {
+        return String.format("SeatTransition{seat=%d, %s -> %s}", seatId, from, to);
+    }
+}
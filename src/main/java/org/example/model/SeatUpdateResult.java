@@ -0,0 +1,45 @@
+package org.example.model;
+
+/**
+ * Outcome of a conditional change to one seat. On success it carries the seat's new status
+ * and version; on a conflict, the status and version the seat had instead, so the caller
+ * can refresh that one seat and retry. A seat that does not exist has no status.
+ */
+public class SeatUpdateResult {
+    private final Long seatId;
+    private final boolean success;
+    private final SeatStatus status;
+    private final long version;
+
+    private SeatUpdateResult(Long seatId, boolean success, SeatStatus status, long version) {
+        this.seatId = seatId;
+        this.success = success;
+        this.status = status;
+        this.version = version;
+    }
+
+    public static SeatUpdateResult applied(Long seatId, SeatStatus status, long version) {
+        return new SeatUpdateResult(seatId, true, status, version);
+    }
+
+    public static SeatUpdateResult conflict(Long seatId, SeatStatus currentStatus, long currentVersion) {
+        return new SeatUpdateResult(seatId, false, currentStatus, currentVersion);
+    }
+
+    public static SeatUpdateResult notFound(Long seatId) {
+        return new SeatUpdateResult(seatId, false, null, 0);
+    }
+
+    public boolean isSuccess() { return success; }
+    public boolean isNotFound() { return status == null; }
+
+    public Long getSeatId() { return seatId; }
+    public SeatStatus getStatus() { return status; }
+    public long getVersion() { return version; }
+
+    @Override
+    public String toString() {
+        return String.format("SeatUpdateResult{seat=%d, success=%s, status=%s, version=%d}",
+                seatId, success, status, version);
+    }
+}
@@ -1,6 +1,7 @@
 package org.example.model;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class Section {
@@ -9,8 +10,13 @@ public class Section {
     private Theater theater;
     private List<Row> rows;
 
+    // Seat counts per SeatStatus (by ordinal), kept in step by the rows
+    private final int[] statusCounts;
+    private int totalSeats;
+
     public Section() {
         this.rows = new ArrayList<>();
+        this.statusCounts = new int[SeatStatus.values().length];
     }
 
     public Section(String name) {
@@ -32,27 +38,61 @@ public class Section {
     public Theater getTheater() { return theater; }
     public void setTheater(Theater theater) { this.theater = theater; }
 
-    public List<Row> getRows() { return rows; }
+    public List<Row> getRows() { return Collections.unmodifiableList(rows); }
     public void setRows(List<Row> rows) {
-        this.rows = rows;
-        rows.forEach(row -> row.setSection(this));
+        this.rows.forEach(row -> adjustSeatCounts(row.getStatusCounts(), -1));
+        this.rows = new ArrayList<>(rows);
+        rows.forEach(row -> {
+            row.setSection(this);
+            adjustSeatCounts(row.getStatusCounts(), 1);
+        });
     }
 
     public void addRow(Row row) {
         this.rows.add(row);
         row.setSection(this);
+        adjustSeatCounts(row.getStatusCounts(), 1);
+    }
+
+    /**
+     * Counts a row that stays with the section it was added to, such as an unchanged row shared
+     * by two copies of a layout that are never modified. The row keeps pointing at that section.
+     */
+    public void addSharedRow(Row row) {
+        this.rows.add(row);
+        adjustSeatCounts(row.getStatusCounts(), 1);
+    }
+
+    void adjustSeatCount(SeatStatus status, int delta) {
+        statusCounts[status.ordinal()] += delta;
+        totalSeats += delta;
+        if (theater != null) {
+            theater.adjustSeatCount(status, delta);
+        }
+    }
+
+    void adjustSeatCounts(int[] counts, int sign) {
+        for (SeatStatus status : SeatStatus.values()) {
+            if (counts[status.ordinal()] != 0) {
+                adjustSeatCount(status, sign * counts[status.ordinal()]);
+            }
+        }
+    }
+
+    int[] getStatusCounts() {
+        return statusCounts;
     }
 
     public int getTotalSeats() {
-        return rows.stream()
-                .mapToInt(Row::getTotalSeats)
-                .sum();
+        return totalSeats;
     }
 
     public int getAvailableSeats() {
-        return rows.stream()
-                .mapToInt(Row::getAvailableSeats)
-                .sum();
+        return statusCounts[SeatStatus.AVAILABLE.ordinal()];
+    }
+
+    public int getSeatCount(SeatStatus status) {
+        return statusCounts[status.ordinal()];
     }
 
     @Override
@@ -0,0 +1,44 @@
+package org.example.model;
+
+/**
+ * Seat counts of one section, read from the maintained section_stats counters
+ * rather than from the seats themselves.
+ */
+public class SectionSummary {
+    private final Long sectionId;
+    private final String name;
+    private final int totalSeats;
+    private final int[] statusCounts;
+
+    public SectionSummary(Long sectionId, String name, int totalSeats,
+                          int availableSeats, int bookedSeats, int reservedSeats, int outOfOrderSeats) {
+        this.sectionId = sectionId;
+        this.name = name;
+        this.totalSeats = totalSeats;
+        this.statusCounts = new int[SeatStatus.values().length];
+        statusCounts[SeatStatus.AVAILABLE.ordinal()] = availableSeats;
+        statusCounts[SeatStatus.BOOKED.ordinal()] = bookedSeats;
+        statusCounts[SeatStatus.RESERVED.ordinal()] = reservedSeats;
+        statusCounts[SeatStatus.OUT_OF_ORDER.ordinal()] = outOfOrderSeats;
+    }
+
+    public static SectionSummary of(Section section) {
+        return new SectionSummary(section.getId(), section.getName(), section.getTotalSeats(),
+                section.getSeatCount(SeatStatus.AVAILABLE), section.getSeatCount(SeatStatus.BOOKED),
+                section.getSeatCount(SeatStatus.RESERVED), section.getSeatCount(SeatStatus.OUT_OF_ORDER));
+    }
+
+    public Long getSectionId() { return sectionId; }
+    public String getName() { return name; }
+    public int getTotalSeats() { return totalSeats; }
+    public int getAvailableSeats() { return statusCounts[SeatStatus.AVAILABLE.ordinal()]; }
+
+    public int getSeatCount(SeatStatus status) {
+        return statusCounts[status.ordinal()];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %d/%d available", name, getAvailableSeats(), totalSeats);
+    }
+}
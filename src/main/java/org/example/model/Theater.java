@@ -1,6 +1,7 @@
 package org.example.model;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class Theater {
@@ -8,8 +9,13 @@ public class Theater {
     private String name;
     private List<Section> sections;
 
+    // Seat counts per SeatStatus (by ordinal), kept in step by the sections
+    private final int[] statusCounts;
+    private int totalSeats;
+
     public Theater() {
         this.sections = new ArrayList<>();
+        this.statusCounts = new int[SeatStatus.values().length];
     }
 
     public Theater(String name) {
@@ -29,24 +35,52 @@ public class Theater {
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
 
-    public List<Section> getSections() { return sections; }
-    public void setSections(List<Section> sections) { this.sections = sections; }
+    public List<Section> getSections() { return Collections.unmodifiableList(sections); }
+    public void setSections(List<Section> sections) {
+        this.sections.forEach(section -> adjustSeatCounts(section.getStatusCounts(), -1));
+        this.sections = new ArrayList<>(sections);
+        sections.forEach(section -> {
+            section.setTheater(this);
+            adjustSeatCounts(section.getStatusCounts(), 1);
+        });
+    }
 
     public void addSection(Section section) {
         this.sections.add(section);
         section.setTheater(this);
+        adjustSeatCounts(section.getStatusCounts(), 1);
+    }
+
+    /**
+     * Counts a section that stays with the theater it was added to, such as an unchanged section
+     * shared by two copies of a layout that are never modified. The section keeps pointing at that theater.
+     */
+    public void addSharedSection(Section section) {
+        this.sections.add(section);
+        adjustSeatCounts(section.getStatusCounts(), 1);
+    }
+
+    void adjustSeatCount(SeatStatus status, int delta) {
+        statusCounts[status.ordinal()] += delta;
+        totalSeats += delta;
+    }
+
+    private void adjustSeatCounts(int[] counts, int sign) {
+        for (SeatStatus status : SeatStatus.values()) {
+            adjustSeatCount(status, sign * counts[status.ordinal()]);
+        }
     }
 
     public int getTotalSeats() {
-        return sections.stream()
-                .mapToInt(Section::getTotalSeats)
-                .sum();
+        return totalSeats;
     }
 
     public int getAvailableSeats() {
-        return sections.stream()
-                .mapToInt(Section::getAvailableSeats)
-                .sum();
+        return statusCounts[SeatStatus.AVAILABLE.ordinal()];
+    }
+
+    public int getSeatCount(SeatStatus status) {
+        return statusCounts[status.ordinal()];
     }
 
     @Override
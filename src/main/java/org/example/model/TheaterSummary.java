@@ -0,0 +1,71 @@
+package org.example.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Seat counts of a theater. A summary read for a single theater also carries its sections;
+ * one read as part of a listing carries only the totals.
+ */
+public class TheaterSummary {
+    private final Long theaterId;
+    private final String name;
+    private final List<SectionSummary> sections = new ArrayList<>();
+    private int sectionCount;
+    private int totalSeats;
+    private final int[] statusCounts = new int[SeatStatus.values().length];
+
+    public TheaterSummary(Long theaterId, String name) {
+        this.theaterId = theaterId;
+        this.name = name;
+    }
+
+    public TheaterSummary(Long theaterId, String name, int sectionCount, int totalSeats,
+                          int availableSeats, int bookedSeats, int reservedSeats, int outOfOrderSeats) {
+        this(theaterId, name);
+        this.sectionCount = sectionCount;
+        this.totalSeats = totalSeats;
+        statusCounts[SeatStatus.AVAILABLE.ordinal()] = availableSeats;
+        statusCounts[SeatStatus.BOOKED.ordinal()] = bookedSeats;
+        statusCounts[SeatStatus.RESERVED.ordinal()] = reservedSeats;
+        statusCounts[SeatStatus.OUT_OF_ORDER.ordinal()] = outOfOrderSeats;
+    }
+
+    public static TheaterSummary of(Theater theater) {
+        TheaterSummary summary = new TheaterSummary(theater.getId(), theater.getName());
+        for (Section section : theater.getSections()) {
+            summary.addSection(SectionSummary.of(section));
+        }
+        return summary;
+    }
+
+    public void addSection(SectionSummary section) {
+        sections.add(section);
+        sectionCount++;
+        totalSeats += section.getTotalSeats();
+        for (SeatStatus status : SeatStatus.values()) {
+            statusCounts[status.ordinal()] += section.getSeatCount(status);
+        }
+    }
+
+    public Long getTheaterId() { return theaterId; }
+    public String getName() { return name; }
+    public List<SectionSummary> getSections() { return Collections.unmodifiableList(sections); }
+    public int getSectionCount() { return sectionCount; }
+    public int getTotalSeats() { return totalSeats; }
+
+    public int getAvailableSeats() {
+        return getSeatCount(SeatStatus.AVAILABLE);
+    }
+
+    public int getSeatCount(SeatStatus status) {
+        return statusCounts[status.ordinal()];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TheaterSummary{id=%d, name='%s', sections=%d, available=%d/%d}",
+                theaterId, name, sectionCount, getAvailableSeats(), totalSeats);
+    }
+}
@@ -0,0 +1,489 @@
+package org.example.repository;
+
+import org.example.model.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead journal of an InMemoryTheaterRepository. New theaters, new sections and every seat
+ * status change (seat id, old and new status, version, time) are appended as CRC-checked records
+ * to numbered segment files. Appends only buffer the record; one writer thread writes whatever
+ * has accumulated and forces it to disk, so a single fsync commits every change that arrived
+ * while the previous one was running.
+ *
+ * Once a segment grows past compactBytes the writer moves on to a new segment and the store is
+ * written out as a snapshot (the same records, one per theater and section), after which the
+ * older segments are deleted. On open the snapshot and the remaining segments are replayed in
+ * order; a torn record at the end of a segment, left by a crash mid-write, ends that segment.
+ */
+final class BookingJournal {
+
+    private static final byte THEATER = 1;
+    private static final byte SECTION = 2;
+    private static final byte SEAT = 3;
+
+    private static final SeatStatus[] STATUSES = SeatStatus.values();
+    private static final Pattern SEGMENT_NAME = Pattern.compile("journal-(\\d+)\\.log");
+    private static final String SNAPSHOT_NAME = "journal.snapshot";
+
+    private final Path directory;
+    private final long compactBytes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition hasPending = lock.newCondition();
+    private final Condition flushed = lock.newCondition();
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private long appended;
+    private long durable;
+    private IOException failure;
+    private CompletableFuture<Long> rotation;
+    private boolean running;
+
+    // Owned by the writer thread once it is started
+    private FileChannel segment;
+    private long segmentNumber;
+    private long segmentBytes;
+
+    private InMemoryTheaterRepository store;
+    private Thread writer;
+    private ExecutorService compactor;
+    private final AtomicBoolean compacting = new AtomicBoolean();
+
+    BookingJournal(Path directory, long compactBytes) {
+        if (compactBytes <= 0) {
+            throw new IllegalArgumentException("Journal compaction size must be positive");
+        }
+        this.directory = directory;
+        this.compactBytes = compactBytes;
+    }
+
+    /**
+     * Replays the snapshot and segments into the store, then starts a new segment.
+     */
+    void open(InMemoryTheaterRepository store) throws IOException {
+        this.store = store;
+        Files.createDirectories(directory);
+
+        Path snapshot = directory.resolve(SNAPSHOT_NAME);
+        if (Files.exists(snapshot)) {
+            replay(snapshot);
+        }
+        List<Path> segments = segments();
+        for (Path file : segments) {
+            replay(file);
+        }
+
+        segmentNumber = segments.isEmpty() ? 0 : number(segments.get(segments.size() - 1));
+        openNextSegment();
+
+        running = true;
+        compactor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "booking-journal-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer = new Thread(this::runWriter, "booking-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    void appendTheater(long theaterId, String name) {
+        append(encodeTheater(theaterId, name));
+    }
+
+    void appendSection(long theaterId, Section section) {
+        append(encodeSection(theaterId, section));
+    }
+
+    void appendSeat(long seatId, SeatStatus from, SeatStatus to, long version, long changedAtMillis) {
+        ByteBuffer record = record(SEAT, Long.BYTES + 2 + Long.BYTES + Long.BYTES);
+        record.putLong(seatId).put((byte) from.ordinal()).put((byte) to.ordinal())
+                .putLong(version).putLong(changedAtMillis);
+        append(seal(record));
+    }
+
+    private void append(byte[] record) {
+        lock.lock();
+        try {
+            // After a failed write nothing more can be made durable; sync() reports it
+            if (failure == null) {
+                pending.write(record, 0, record.length);
+                appended++;
+                hasPending.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until every record appended so far is on disk.
+     */
+    void sync() throws IOException {
+        lock.lock();
+        try {
+            long target = appended;
+            while (durable < target) {
+                if (failure != null) {
+                    throw new IOException("Booking journal is not writable", failure);
+                }
+                if (!running) {
+                    throw new IOException("Booking journal is closed");
+                }
+                flushed.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for the booking journal");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes a snapshot of the store and deletes the segments it covers.
+     */
+    void compact() throws IOException {
+        long firstLive = rotate();
+        Path temp = Files.createTempFile(directory, "journal-", ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                store.forEachTheater(theater -> {
+                    try {
+                        writeFully(channel, ByteBuffer.wrap(encodeTheater(theater.getId(), theater.getName())));
+                        for (Section section : theater.getSections()) {
+                            writeFully(channel, ByteBuffer.wrap(encodeSection(theater.getId(), section)));
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                channel.force(true);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            Files.move(temp, directory.resolve(SNAPSHOT_NAME), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+            forceDirectory();
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        for (Path file : segments()) {
+            if (number(file) < firstLive) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Flushes what is pending, stops the writer and waits for a running compaction.
+     */
+    void close() throws IOException {
+        lock.lock();
+        try {
+            running = false;
+            hasPending.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // A compaction that has not switched segments yet fails; one writing its snapshot finishes
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        segment.close();
+    }
+
+    /*
+     * Has the writer switch to a new segment; returns its number. Every record in the older
+     * segments was appended, and so applied to the store, before the switch.
+     */
+    private long rotate() throws IOException {
+        CompletableFuture<Long> switched = new CompletableFuture<>();
+        lock.lock();
+        try {
+            if (failure != null) {
+                throw new IOException("Booking journal is not writable", failure);
+            }
+            if (!running) {
+                throw new IOException("Booking journal is closed");
+            }
+            rotation = switched;
+            hasPending.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            return switched.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for a journal segment switch");
+        } catch (ExecutionException e) {
+            throw new IOException("Could not switch journal segments", e.getCause());
+        }
+    }
+
+    private void runWriter() {
+        while (true) {
+            byte[] batch;
+            long batchEnd;
+            CompletableFuture<Long> switchRequest;
+            lock.lock();
+            try {
+                while (running && pending.size() == 0 && rotation == null) {
+                    hasPending.awaitUninterruptibly();
+                }
+                if (pending.size() == 0 && rotation == null) {
+                    return;
+                }
+                batch = pending.toByteArray();
+                pending.reset();
+                batchEnd = appended;
+                switchRequest = rotation;
+                rotation = null;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                if (batch.length > 0) {
+                    writeFully(segment, ByteBuffer.wrap(batch));
+                    segment.force(false);
+                    segmentBytes += batch.length;
+                }
+                if (switchRequest != null) {
+                    openNextSegment();
+                    switchRequest.complete(segmentNumber);
+                }
+            } catch (IOException e) {
+                System.err.println("Warning: Booking journal write failed: " + e.getMessage());
+                if (switchRequest != null) {
+                    switchRequest.completeExceptionally(e);
+                }
+                lock.lock();
+                try {
+                    failure = e;
+                    flushed.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                return;
+            }
+
+            boolean open;
+            lock.lock();
+            try {
+                durable = batchEnd;
+                flushed.signalAll();
+                open = running;
+            } finally {
+                lock.unlock();
+            }
+
+            if (open && segmentBytes >= compactBytes && compacting.compareAndSet(false, true)) {
+                try {
+                    compactor.execute(this::compactQuietly);
+                } catch (RejectedExecutionException e) {
+                    // Closing; the journal is compacted on a later run instead
+                    compacting.set(false);
+                }
+            }
+        }
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (IOException e) {
+            System.err.println("Warning: Could not compact booking journal: " + e.getMessage());
+        } finally {
+            compacting.set(false);
+        }
+    }
+
+    private void openNextSegment() throws IOException {
+        if (segment != null) {
+            segment.close();
+        }
+        segmentNumber++;
+        segment = FileChannel.open(directory.resolve(String.format("journal-%012d.log", segmentNumber)),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        segmentBytes = 0;
+        forceDirectory();
+    }
+
+    private void replay(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        while (buffer.remaining() >= Integer.BYTES) {
+            int length = buffer.getInt();
+            if (length <= 0 || buffer.remaining() < length + Integer.BYTES) {
+                System.err.println("Warning: Ignoring torn record at the end of " + file.getFileName());
+                return;
+            }
+            ByteBuffer body = buffer.slice(buffer.position(), length);
+            CRC32 crc = new CRC32();
+            crc.update(body.duplicate());
+            buffer.position(buffer.position() + length);
+            if ((int) crc.getValue() != buffer.getInt()) {
+                System.err.println("Warning: Ignoring corrupt record and the rest of " + file.getFileName());
+                return;
+            }
+            apply(body);
+        }
+        if (buffer.hasRemaining()) {
+            System.err.println("Warning: Ignoring torn record at the end of " + file.getFileName());
+        }
+    }
+
+    private void apply(ByteBuffer body) throws IOException {
+        byte type = body.get();
+        switch (type) {
+            case THEATER -> store.restoreTheater(body.getLong(), getString(body));
+            case SECTION -> {
+                long theaterId = body.getLong();
+                Section section = new Section(body.getLong(), getString(body));
+                int rowCount = body.getInt();
+                for (int r = 0; r < rowCount; r++) {
+                    Row row = new Row(body.getLong(), body.getInt());
+                    int seatCount = body.getInt();
+                    for (int i = 0; i < seatCount; i++) {
+                        row.addSeat(new Seat(body.getLong(), body.getInt(), STATUSES[body.get()], body.getLong()));
+                    }
+                    section.addRow(row);
+                }
+                store.restoreSection(theaterId, section);
+            }
+            case SEAT -> {
+                long seatId = body.getLong();
+                body.get(); // status before the change, kept for auditing
+                SeatStatus status = STATUSES[body.get()];
+                store.restoreSeat(seatId, status, body.getLong(), body.getLong());
+            }
+            default -> throw new IOException("Unknown booking journal record type: " + type);
+        }
+    }
+
+    private static byte[] encodeTheater(long theaterId, String name) {
+        byte[] encodedName = name.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = record(THEATER, Long.BYTES + Integer.BYTES + encodedName.length);
+        record.putLong(theaterId).putInt(encodedName.length).put(encodedName);
+        return seal(record);
+    }
+
+    private static byte[] encodeSection(long theaterId, Section section) {
+        byte[] name = section.getName().getBytes(StandardCharsets.UTF_8);
+        int size = Long.BYTES * 2 + Integer.BYTES + name.length + Integer.BYTES;
+        for (Row row : section.getRows()) {
+            size += Long.BYTES + Integer.BYTES * 2
+                    + row.getSeats().size() * (Long.BYTES + Integer.BYTES + 1 + Long.BYTES);
+        }
+
+        ByteBuffer record = record(SECTION, size);
+        record.putLong(theaterId).putLong(section.getId()).putInt(name.length).put(name);
+        record.putInt(section.getRows().size());
+        for (Row row : section.getRows()) {
+            record.putLong(row.getId()).putInt(row.getNumber()).putInt(row.getSeats().size());
+            for (Seat seat : row.getSeats()) {
+                record.putLong(seat.getId()).putInt(seat.getNumber())
+                        .put((byte) seat.getStatus().ordinal()).putLong(seat.getVersion());
+            }
+        }
+        return seal(record);
+    }
+
+    /*
+     * A record is its length, a type byte and the payload, followed by a CRC32 of type and payload.
+     */
+    private static ByteBuffer record(byte type, int payloadBytes) {
+        ByteBuffer record = ByteBuffer.allocate(Integer.BYTES + 1 + payloadBytes + Integer.BYTES);
+        return record.putInt(1 + payloadBytes).put(type);
+    }
+
+    private static byte[] seal(ByteBuffer record) {
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), Integer.BYTES, record.position() - Integer.BYTES);
+        record.putInt((int) crc.getValue());
+        return record.array();
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer data) throws IOException {
+        while (data.hasRemaining()) {
+            channel.write(data);
+        }
+    }
+
+    /*
+     * Makes a created or renamed file's directory entry durable. Not every platform can open
+     * a directory for this, and those that cannot are left to the file system.
+     */
+    private void forceDirectory() {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Best effort
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (var files = Files.list(directory)) {
+            files.filter(file -> SEGMENT_NAME.matcher(file.getFileName().toString()).matches())
+                    .forEach(segments::add);
+        }
+        segments.sort(Comparator.comparingLong(BookingJournal::number));
+        return segments;
+    }
+
+    private static long number(Path segment) {
+        Matcher matcher = SEGMENT_NAME.matcher(segment.getFileName().toString());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Not a journal segment: " + segment);
+        }
+        return Long.parseLong(matcher.group(1));
+    }
+}
@@ -0,0 +1,108 @@
+package org.example.repository;
+
+import org.postgresql.copy.CopyIn;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+/**
+ * Buffers rows in PostgreSQL COPY text format and streams them to a CopyIn operation
+ * in fixed-size chunks, so arbitrarily large layouts never build one big payload.
+ */
+class CopyRowWriter implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final CopyIn copyIn;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int length;
+    private boolean firstColumn = true;
+
+    CopyRowWriter(CopyIn copyIn) {
+        this.copyIn = copyIn;
+    }
+
+    CopyRowWriter column(long value) throws SQLException {
+        if (value < 0) {
+            return column(Long.toString(value));
+        }
+        separator();
+        ensureCapacity(19);
+        int start = length;
+        do {
+            buffer[length++] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while (value > 0);
+        reverse(start, length - 1);
+        return this;
+    }
+
+    CopyRowWriter column(String value) throws SQLException {
+        separator();
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        for (byte b : bytes) {
+            ensureCapacity(2);
+            switch (b) {
+                case '\\' -> { buffer[length++] = '\\'; buffer[length++] = '\\'; }
+                case '\t' -> { buffer[length++] = '\\'; buffer[length++] = 't'; }
+                case '\n' -> { buffer[length++] = '\\'; buffer[length++] = 'n'; }
+                case '\r' -> { buffer[length++] = '\\'; buffer[length++] = 'r'; }
+                default -> buffer[length++] = b;
+            }
+        }
+        return this;
+    }
+
+    void endRow() throws SQLException {
+        ensureCapacity(1);
+        buffer[length++] = '\n';
+        firstColumn = true;
+    }
+
+    /**
+     * Flushes any buffered rows and completes the COPY, returning the number of rows copied.
+     */
+    long finish() throws SQLException {
+        flush();
+        return copyIn.endCopy();
+    }
+
+    /**
+     * Cancels the COPY if it was not finished, e.g. because writing a row failed.
+     */
+    @Override
+    public void close() throws SQLException {
+        if (copyIn.isActive()) {
+            copyIn.cancelCopy();
+        }
+    }
+
+    private void separator() throws SQLException {
+        if (!firstColumn) {
+            ensureCapacity(1);
+            buffer[length++] = '\t';
+        }
+        firstColumn = false;
+    }
+
+    private void ensureCapacity(int bytes) throws SQLException {
+        if (length + bytes > buffer.length) {
+            flush();
+        }
+    }
+
+    private void flush() throws SQLException {
+        if (length > 0) {
+            copyIn.writeToCopy(buffer, 0, length);
+            length = 0;
+        }
+    }
+
+    private void reverse(int from, int to) {
+        while (from < to) {
+            byte tmp = buffer[from];
+            buffer[from++] = buffer[to];
+            buffer[to--] = tmp;
+        }
+    }
+}
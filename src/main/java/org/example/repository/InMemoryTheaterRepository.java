@@ -0,0 +1,769 @@
+package org.example.repository;
+
+import org.example.model.*;
+import org.example.util.ConfigLoader;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Theaters kept in this process only, for kiosks and benchmarks that cannot afford a database
+ * round trip. Each row keeps the statuses and versions of its seats in atomic arrays, so reads
+ * never block. Changes are decided under striped row locks (stripes are taken in ascending
+ * order) and section totals are kept as counters next to the seats, like section_stats.
+ *
+ * Nothing is persisted unless a booking journal is attached (see JournaledTheaterRepository),
+ * and totals read while seats are changing may be off by the changes in flight.
+ */
+public class InMemoryTheaterRepository implements TheaterRepository {
+
+    private static final SeatStatus[] STATUSES = SeatStatus.values();
+
+    private final AtomicLong nextId = new AtomicLong();
+    private final Map<Long, StoredTheater> theaters = new ConcurrentHashMap<>();
+    private final Map<String, Long> theaterIdsByName = new ConcurrentHashMap<>();
+    private final Map<Long, SeatSlot> seats = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes;
+    private final BookingJournal journal;
+
+    public InMemoryTheaterRepository() {
+        this(ConfigLoader.getIntProperty("repository.memory.lockStripes", 64));
+    }
+
+    public InMemoryTheaterRepository(int lockStripes) {
+        this(lockStripes, null);
+    }
+
+    /**
+     * Every change is appended to the journal while its seats are still locked, so the journal
+     * holds the changes of each seat in the order they were made.
+     */
+    InMemoryTheaterRepository(int lockStripes, BookingJournal journal) {
+        if (lockStripes <= 0) {
+            throw new IllegalArgumentException("Lock stripes must be positive");
+        }
+        this.stripes = new ReentrantLock[lockStripes];
+        for (int i = 0; i < lockStripes; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.journal = journal;
+    }
+
+    /**
+     * The store shared by every service of this process.
+     */
+    public static InMemoryTheaterRepository getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static class Holder {
+        private static final InMemoryTheaterRepository INSTANCE = new InMemoryTheaterRepository();
+    }
+
+    @Override
+    public Long createTheater(String name) throws SQLException {
+        long id = nextId.incrementAndGet();
+        if (theaterIdsByName.putIfAbsent(name, id) != null) {
+            throw new SQLException("Theater already exists: " + name, "23505");
+        }
+        theaters.put(id, new StoredTheater(id, name));
+        if (journal != null) {
+            journal.appendTheater(id, name);
+        }
+        return id;
+    }
+
+    @Override
+    public List<Theater> findAllTheaters() {
+        List<Theater> result = new ArrayList<>();
+        for (StoredTheater theater : theatersByName()) {
+            result.add(new Theater(theater.id, theater.name));
+        }
+        return result;
+    }
+
+    @Override
+    public Theater findTheaterById(Long theaterId) {
+        StoredTheater stored = theaters.get(theaterId);
+        if (stored == null) {
+            return null;
+        }
+
+        Theater theater = new Theater(stored.id, stored.name);
+        for (StoredSection storedSection : stored.sections) {
+            theater.addSection(toSection(storedSection, false));
+        }
+        return theater;
+    }
+
+    /*
+     * With lockRows, each row is copied under its lock so every seat's status matches its version.
+     */
+    private static Section toSection(StoredSection storedSection, boolean lockRows) {
+        Section section = new Section(storedSection.id, storedSection.name);
+        for (StoredRow storedRow : storedSection.rows) {
+            Row row = new Row(storedRow.id, storedRow.number);
+            if (lockRows) storedRow.lock.lock();
+            try {
+                for (int i = 0; i < storedRow.seatIds.length; i++) {
+                    row.addSeat(new Seat(storedRow.seatIds[i], storedRow.seatNumbers[i],
+                            STATUSES[storedRow.statuses.get(i)], storedRow.versions.get(i)));
+                }
+            } finally {
+                if (lockRows) storedRow.lock.unlock();
+            }
+            section.addRow(row);
+        }
+        return section;
+    }
+
+    @Override
+    public TheaterSummary findTheaterSummary(Long theaterId) {
+        StoredTheater stored = theaters.get(theaterId);
+        if (stored == null) {
+            return null;
+        }
+
+        TheaterSummary summary = new TheaterSummary(stored.id, stored.name);
+        for (StoredSection section : stored.sections) {
+            int[] counts = section.counts();
+            summary.addSection(new SectionSummary(section.id, section.name, sum(counts),
+                    counts[SeatStatus.AVAILABLE.ordinal()], counts[SeatStatus.BOOKED.ordinal()],
+                    counts[SeatStatus.RESERVED.ordinal()], counts[SeatStatus.OUT_OF_ORDER.ordinal()]));
+        }
+        return summary;
+    }
+
+    @Override
+    public List<TheaterSummary> findAllTheaterSummaries(String afterName, int minAvailableSeats, int limit) {
+        List<TheaterSummary> summaries = new ArrayList<>();
+        for (StoredTheater theater : theatersByName()) {
+            if (limit > 0 && summaries.size() == limit) break;
+            if (afterName != null && theater.name.compareTo(afterName) <= 0) continue;
+
+            int[] counts = new int[STATUSES.length];
+            for (StoredSection section : theater.sections) {
+                int[] sectionCounts = section.counts();
+                for (int i = 0; i < counts.length; i++) {
+                    counts[i] += sectionCounts[i];
+                }
+            }
+            if (counts[SeatStatus.AVAILABLE.ordinal()] < minAvailableSeats) continue;
+
+            summaries.add(new TheaterSummary(theater.id, theater.name, theater.sections.size(), sum(counts),
+                    counts[SeatStatus.AVAILABLE.ordinal()], counts[SeatStatus.BOOKED.ordinal()],
+                    counts[SeatStatus.RESERVED.ordinal()], counts[SeatStatus.OUT_OF_ORDER.ordinal()]));
+        }
+        return summaries;
+    }
+
+    /**
+     * Adjacent seats with the same status are passed as one run.
+     */
+    @Override
+    public void streamSeatRuns(Long theaterId, String sectionName, int fromRow, int toRow, SeatRunHandler handler) {
+        StoredTheater theater = theaters.get(theaterId);
+        if (theater == null) {
+            return;
+        }
+
+        List<StoredSection> sections = new ArrayList<>(theater.sections);
+        sections.sort(Comparator.comparing(section -> section.name));
+        for (StoredSection section : sections) {
+            if (sectionName != null && !sectionName.equals(section.name)) continue;
+
+            List<StoredRow> rows = new ArrayList<>(section.rows);
+            rows.sort(Comparator.comparingInt(row -> row.number));
+            for (StoredRow row : rows) {
+                if (row.number < fromRow || row.number > toRow) continue;
+
+                int runStart = 0;
+                for (int i = 1; i <= row.seatIds.length; i++) {
+                    if (i < row.seatIds.length
+                            && row.seatNumbers[i] == row.seatNumbers[i - 1] + 1
+                            && row.statuses.get(i) == row.statuses.get(runStart)) {
+                        continue;
+                    }
+                    handler.accept(section.name, row.number, row.seatNumbers[runStart], row.seatNumbers[i - 1],
+                            STATUSES[row.statuses.get(runStart)]);
+                    runStart = i;
+                }
+            }
+        }
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public List<Seat> findSeatsChangedSince(Long theaterId, long sinceMillis) {
+        StoredTheater stored = theaters.get(theaterId);
+        if (stored == null) {
+            return List.of();
+        }
+
+        List<Seat> changed = new ArrayList<>();
+        for (StoredSection section : stored.sections) {
+            for (StoredRow row : section.rows) {
+                for (int i = 0; i < row.seatIds.length; i++) {
+                    if (row.updatedAt.get(i) > sinceMillis) {
+                        changed.add(new Seat(row.seatIds[i], row.seatNumbers[i],
+                                STATUSES[row.statuses.get(i)], row.versions.get(i)));
+                    }
+                }
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public List<Long> findSeatsReservedBefore(long beforeMillis) {
+        List<Long> reserved = new ArrayList<>();
+        for (StoredTheater stored : theaters.values()) {
+            for (StoredSection section : stored.sections) {
+                for (StoredRow row : section.rows) {
+                    for (int i = 0; i < row.seatIds.length; i++) {
+                        if (row.statuses.get(i) == SeatStatus.RESERVED.ordinal() && row.updatedAt.get(i) < beforeMillis) {
+                            reserved.add(row.seatIds[i]);
+                        }
+                    }
+                }
+            }
+        }
+        return reserved;
+    }
+
+    @Override
+    public void bulkInsertTheaterLayout(Theater theater) throws SQLException {
+        bulkInsertSections(theater.getId(), sink -> {
+            for (Section section : theater.getSections()) {
+                sink.accept(section);
+            }
+        });
+    }
+
+    @Override
+    public void bulkInsertSections(Long theaterId, SectionSource source) throws SQLException {
+        StoredTheater stored = theaters.get(theaterId);
+        if (stored == null) {
+            throw new SQLException("Theater does not exist: " + theaterId, "23503");
+        }
+
+        // Held while checking names so two uploads cannot add the same section
+        synchronized (stored) {
+            // Only the compact arrays of each section are kept until all of them are stored
+            List<StoredSection> added = new ArrayList<>();
+            try {
+                source.writeTo(section -> {
+                    for (StoredSection existing : stored.sections) {
+                        if (existing.name.equals(section.getName())) {
+                            throw new SQLException("Section already exists: " + section.getName(), "23505");
+                        }
+                    }
+                    for (StoredSection existing : added) {
+                        if (existing.name.equals(section.getName())) {
+                            throw new SQLException("Section already exists: " + section.getName(), "23505");
+                        }
+                    }
+
+                    section.setId(nextId.incrementAndGet());
+                    StoredSection storedSection = new StoredSection(section.getId(), section.getName());
+                    added.add(storedSection);
+                    for (Row row : section.getRows()) {
+                        row.setId(nextId.incrementAndGet());
+                        storedSection.rows.add(storeRow(storedSection, row, false));
+                    }
+                });
+            } catch (SQLException | RuntimeException e) {
+                for (StoredSection section : added) {
+                    for (StoredRow row : section.rows) {
+                        for (long seatId : row.seatIds) {
+                            seats.remove(seatId);
+                        }
+                    }
+                }
+                throw e;
+            }
+
+            for (StoredSection storedSection : added) {
+                // Journaled before the section is reachable, so no change to its seats comes first
+                if (journal != null) {
+                    journal.appendSection(stored.id, toSection(storedSection, false));
+                }
+                // Seats become reachable only once their whole section is stored
+                stored.sections.add(storedSection);
+            }
+        }
+    }
+
+    /*
+     * Restored rows keep the ids and versions of their seats; new ones get fresh ids.
+     */
+    private StoredRow storeRow(StoredSection section, Row row, boolean restore) {
+        List<Seat> rowSeats = new ArrayList<>(row.getSeats());
+        rowSeats.sort(Comparator.comparingInt(Seat::getNumber));
+
+        StoredRow stored = new StoredRow(row.getId(), row.getNumber(), section, rowSeats.size(),
+                stripes[Math.floorMod(row.getId(), stripes.length)]);
+        for (int i = 0; i < rowSeats.size(); i++) {
+            Seat seat = rowSeats.get(i);
+            if (restore) {
+                nextId.accumulateAndGet(seat.getId(), Math::max);
+                stored.versions.set(i, seat.getVersion());
+            } else {
+                seat.setId(nextId.incrementAndGet());
+            }
+            SeatStatus status = seat.getStatus() != null ? seat.getStatus() : SeatStatus.AVAILABLE;
+            stored.seatIds[i] = seat.getId();
+            stored.seatNumbers[i] = seat.getNumber();
+            stored.statuses.set(i, status.ordinal());
+            stored.updatedAt.set(i, System.currentTimeMillis());
+            section.counts.incrementAndGet(status.ordinal());
+            seats.put(seat.getId(), new SeatSlot(stored, i));
+        }
+        return stored;
+    }
+
+    @Override
+    public boolean updateSeatStatus(Long seatId, SeatStatus status) {
+        SeatSlot slot = seats.get(seatId);
+        if (slot == null) {
+            return false;
+        }
+        slot.row.lock.lock();
+        try {
+            change(slot, status);
+        } finally {
+            slot.row.lock.unlock();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean bookSeat(Long seatId) {
+        return transition(seatId, null, SeatStatus.AVAILABLE, SeatStatus.BOOKED).isSuccess();
+    }
+
+    @Override
+    public boolean cancelBooking(Long seatId) {
+        return transition(seatId, null, SeatStatus.BOOKED, SeatStatus.AVAILABLE).isSuccess();
+    }
+
+    @Override
+    public SeatUpdateResult bookSeat(Long seatId, long expectedVersion) {
+        return transition(seatId, expectedVersion, SeatStatus.AVAILABLE, SeatStatus.BOOKED);
+    }
+
+    @Override
+    public SeatUpdateResult cancelBooking(Long seatId, long expectedVersion) {
+        return transition(seatId, expectedVersion, SeatStatus.BOOKED, SeatStatus.AVAILABLE);
+    }
+
+    /*
+     * Single-seat change, optionally also conditional on the seat's version.
+     */
+    private SeatUpdateResult transition(Long seatId, Long expectedVersion, SeatStatus from, SeatStatus to) {
+        SeatSlot slot = seats.get(seatId);
+        if (slot == null) {
+            return SeatUpdateResult.notFound(seatId);
+        }
+
+        slot.row.lock.lock();
+        try {
+            SeatStatus current = slot.status();
+            long version = slot.version();
+            if (current != from || (expectedVersion != null && version != expectedVersion)) {
+                return SeatUpdateResult.conflict(seatId, current, version);
+            }
+            return SeatUpdateResult.applied(seatId, to, change(slot, to));
+        } finally {
+            slot.row.lock.unlock();
+        }
+    }
+
+    @Override
+    public SeatBatchResult bookSeats(Collection<Long> seatIds) {
+        return transitionSeats(seatIds, SeatStatus.AVAILABLE, SeatStatus.BOOKED);
+    }
+
+    @Override
+    public SeatBatchResult cancelBookings(Collection<Long> seatIds) {
+        return transitionSeats(seatIds, SeatStatus.BOOKED, SeatStatus.AVAILABLE);
+    }
+
+    @Override
+    public SeatBatchResult holdSeats(Collection<Long> seatIds) {
+        return transitionSeats(seatIds, SeatStatus.AVAILABLE, SeatStatus.RESERVED);
+    }
+
+    @Override
+    public SeatBatchResult confirmHeldSeats(Collection<Long> seatIds) {
+        return transitionSeats(seatIds, SeatStatus.RESERVED, SeatStatus.BOOKED);
+    }
+
+    /*
+     * All-or-nothing status change. Every stripe covering the seats is held while the
+     * statuses are checked and changed, so no other change can interleave.
+     */
+    private SeatBatchResult transitionSeats(Collection<Long> seatIds, SeatStatus from, SeatStatus to) {
+        List<Long> requested = new ArrayList<>(new LinkedHashSet<>(seatIds));
+        List<SeatSlot> slots = slotsOf(requested);
+        List<Long> conflicts = new ArrayList<>();
+
+        TreeSet<Integer> locked = lockStripes(slots);
+        try {
+            for (int i = 0; i < requested.size(); i++) {
+                if (slots.get(i) == null || slots.get(i).status() != from) {
+                    conflicts.add(requested.get(i));
+                }
+            }
+            if (conflicts.isEmpty()) {
+                for (SeatSlot slot : slots) {
+                    change(slot, to);
+                }
+            }
+        } finally {
+            unlockStripes(locked);
+        }
+        return new SeatBatchResult(requested, conflicts);
+    }
+
+    @Override
+    public int applySeatStatuses(Map<Long, SeatStatus> statuses) {
+        List<Long> seatIds = new ArrayList<>(statuses.keySet());
+        List<SeatSlot> slots = slotsOf(seatIds);
+        int updated = 0;
+
+        TreeSet<Integer> locked = lockStripes(slots);
+        try {
+            for (int i = 0; i < seatIds.size(); i++) {
+                if (slots.get(i) != null) {
+                    change(slots.get(i), statuses.get(seatIds.get(i)));
+                    updated++;
+                }
+            }
+        } finally {
+            unlockStripes(locked);
+        }
+        return updated;
+    }
+
+    @Override
+    public int[] updateSeatRangeStatuses(Long theaterId, List<SeatRange> ranges) {
+        int[] updated = new int[ranges.size()];
+        StoredTheater theater = theaters.get(theaterId);
+        if (theater == null || ranges.isEmpty()) {
+            return updated;
+        }
+
+        Map<String, StoredRow> rowsByName = new HashMap<>();
+        for (StoredSection section : theater.sections) {
+            for (StoredRow row : section.rows) {
+                rowsByName.put(section.name + "\u0000" + row.number, row);
+            }
+        }
+
+        List<List<SeatSlot>> rangeSlots = new ArrayList<>();
+        List<SeatSlot> allSlots = new ArrayList<>();
+        boolean complete = true;
+        for (int i = 0; i < ranges.size(); i++) {
+            SeatRange range = ranges.get(i);
+            List<SeatSlot> slots = new ArrayList<>();
+            StoredRow row = rowsByName.get(range.getSectionName() + "\u0000" + range.getRowNumber());
+            if (row != null) {
+                int first = Arrays.binarySearch(row.seatNumbers, range.getSeatStart());
+                for (int index = first >= 0 ? first : -first - 1;
+                     index < row.seatNumbers.length && row.seatNumbers[index] <= range.getSeatEnd(); index++) {
+                    slots.add(new SeatSlot(row, index));
+                }
+            }
+            updated[i] = slots.size();
+            complete &= updated[i] == range.getSeatCount();
+            rangeSlots.add(slots);
+            allSlots.addAll(slots);
+        }
+        if (!complete) {
+            return updated;
+        }
+
+        TreeSet<Integer> locked = lockStripes(allSlots);
+        try {
+            for (int i = 0; i < ranges.size(); i++) {
+                for (SeatSlot slot : rangeSlots.get(i)) {
+                    change(slot, ranges.get(i).getStatus());
+                }
+            }
+        } finally {
+            unlockStripes(locked);
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean[] applySeatTransitions(List<SeatTransition> transitions) {
+        boolean[] applied = new boolean[transitions.size()];
+        List<Long> seatIds = new ArrayList<>(transitions.size());
+        for (SeatTransition transition : transitions) {
+            seatIds.add(transition.getSeatId());
+        }
+        List<SeatSlot> slots = slotsOf(seatIds);
+
+        TreeSet<Integer> locked = lockStripes(slots);
+        try {
+            for (int i = 0; i < transitions.size(); i++) {
+                SeatSlot slot = slots.get(i);
+                if (slot != null && slot.status() == transitions.get(i).getFrom()) {
+                    change(slot, transitions.get(i).getTo());
+                    applied[i] = true;
+                }
+            }
+        } finally {
+            unlockStripes(locked);
+        }
+        return applied;
+    }
+
+    @Override
+    public List<Long> releaseHeldSeats(Collection<Long> seatIds) {
+        List<Long> requested = new ArrayList<>(seatIds);
+        List<SeatSlot> slots = slotsOf(requested);
+        List<Long> released = new ArrayList<>();
+
+        TreeSet<Integer> locked = lockStripes(slots);
+        try {
+            for (int i = 0; i < requested.size(); i++) {
+                SeatSlot slot = slots.get(i);
+                if (slot != null && slot.status() == SeatStatus.RESERVED) {
+                    change(slot, SeatStatus.AVAILABLE);
+                    released.add(requested.get(i));
+                }
+            }
+        } finally {
+            unlockStripes(locked);
+        }
+        return released;
+    }
+
+    /*
+     * Called with the seat's row locked.
+     */
+    private long change(SeatSlot slot, SeatStatus status) {
+        SeatStatus previous = slot.status();
+        long version = slot.set(status);
+        if (journal != null) {
+            journal.appendSeat(slot.row.seatIds[slot.index], previous, status, version,
+                    slot.row.updatedAt.get(slot.index));
+        }
+        return version;
+    }
+
+    /**
+     * Copies every theater, reading each row under its lock. Used to write journal snapshots;
+     * a section being inserted is waited for, as its record may already be in the journal.
+     */
+    void forEachTheater(Consumer<Theater> action) {
+        for (StoredTheater stored : theaters.values()) {
+            List<StoredSection> sections;
+            synchronized (stored) {
+                sections = new ArrayList<>(stored.sections);
+            }
+            Theater theater = new Theater(stored.id, stored.name);
+            for (StoredSection section : sections) {
+                theater.addSection(toSection(section, true));
+            }
+            action.accept(theater);
+        }
+    }
+
+    /*
+     * Journal replay. Records already in the store (written both to a snapshot and to a later
+     * segment) are skipped, so replaying them twice is harmless.
+     */
+
+    void restoreTheater(long theaterId, String name) {
+        if (theaters.containsKey(theaterId)) {
+            return;
+        }
+        nextId.accumulateAndGet(theaterId, Math::max);
+        theaterIdsByName.put(name, theaterId);
+        theaters.put(theaterId, new StoredTheater(theaterId, name));
+    }
+
+    void restoreSection(long theaterId, Section section) {
+        StoredTheater stored = theaters.get(theaterId);
+        if (stored == null || stored.sections.stream().anyMatch(existing -> existing.id.equals(section.getId()))) {
+            return;
+        }
+
+        nextId.accumulateAndGet(section.getId(), Math::max);
+        StoredSection storedSection = new StoredSection(section.getId(), section.getName());
+        for (Row row : section.getRows()) {
+            nextId.accumulateAndGet(row.getId(), Math::max);
+            storedSection.rows.add(storeRow(storedSection, row, true));
+        }
+        stored.sections.add(storedSection);
+    }
+
+    /**
+     * Applies a seat change unless the seat is already at that version or a later one.
+     */
+    void restoreSeat(long seatId, SeatStatus status, long version, long changedAtMillis) {
+        SeatSlot slot = seats.get(seatId);
+        if (slot != null && slot.version() < version) {
+            slot.restore(status, version, changedAtMillis);
+        }
+    }
+
+    private List<SeatSlot> slotsOf(List<Long> seatIds) {
+        List<SeatSlot> slots = new ArrayList<>(seatIds.size());
+        for (Long seatId : seatIds) {
+            slots.add(seatId != null ? seats.get(seatId) : null);
+        }
+        return slots;
+    }
+
+    private TreeSet<Integer> lockStripes(List<SeatSlot> slots) {
+        TreeSet<Integer> stripeIds = new TreeSet<>();
+        for (SeatSlot slot : slots) {
+            if (slot != null) {
+                stripeIds.add(Math.floorMod(slot.row.id, stripes.length));
+            }
+        }
+        for (int stripe : stripeIds) {
+            stripes[stripe].lock();
+        }
+        return stripeIds;
+    }
+
+    private void unlockStripes(TreeSet<Integer> stripeIds) {
+        for (int stripe : stripeIds.descendingSet()) {
+            stripes[stripe].unlock();
+        }
+    }
+
+    private List<StoredTheater> theatersByName() {
+        List<StoredTheater> sorted = new ArrayList<>(theaters.values());
+        sorted.sort(Comparator.comparing(theater -> theater.name));
+        return sorted;
+    }
+
+    private static int sum(int[] counts) {
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    private static class StoredTheater {
+        private final Long id;
+        private final String name;
+        private final List<StoredSection> sections = new CopyOnWriteArrayList<>();
+
+        StoredTheater(Long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    private static class StoredSection {
+        private final Long id;
+        private final String name;
+        private final List<StoredRow> rows = new ArrayList<>();
+        // Seats per status, by ordinal
+        private final AtomicIntegerArray counts = new AtomicIntegerArray(STATUSES.length);
+
+        StoredSection(Long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        int[] counts() {
+            int[] copy = new int[STATUSES.length];
+            for (int i = 0; i < copy.length; i++) {
+                copy[i] = counts.get(i);
+            }
+            return copy;
+        }
+    }
+
+    /*
+     * Seats of one row, sorted by number. Statuses, versions and change times are only written
+     * while holding the row's lock stripe.
+     */
+    private static class StoredRow {
+        private final Long id;
+        private final int number;
+        private final StoredSection section;
+        private final long[] seatIds;
+        private final int[] seatNumbers;
+        private final AtomicIntegerArray statuses;
+        private final AtomicLongArray versions;
+        private final AtomicLongArray updatedAt;
+        private final ReentrantLock lock;
+
+        StoredRow(Long id, int number, StoredSection section, int seatCount, ReentrantLock lock) {
+            this.id = id;
+            this.number = number;
+            this.section = section;
+            this.seatIds = new long[seatCount];
+            this.seatNumbers = new int[seatCount];
+            this.statuses = new AtomicIntegerArray(seatCount);
+            this.versions = new AtomicLongArray(seatCount);
+            this.updatedAt = new AtomicLongArray(seatCount);
+            this.lock = lock;
+        }
+    }
+
+    private static class SeatSlot {
+        private final StoredRow row;
+        private final int index;
+
+        SeatSlot(StoredRow row, int index) {
+            this.row = row;
+            this.index = index;
+        }
+
+        SeatStatus status() {
+            return STATUSES[row.statuses.get(index)];
+        }
+
+        long version() {
+            return row.versions.get(index);
+        }
+
+        /** Every write bumps the version, like the bump_seats_version trigger. Returns the new version. */
+        long set(SeatStatus status) {
+            int previous = row.statuses.getAndSet(index, status.ordinal());
+            row.section.counts.decrementAndGet(previous);
+            row.section.counts.incrementAndGet(status.ordinal());
+            row.updatedAt.set(index, System.currentTimeMillis());
+            return row.versions.incrementAndGet(index);
+        }
+
+        void restore(SeatStatus status, long version, long changedAtMillis) {
+            int previous = row.statuses.getAndSet(index, status.ordinal());
+            row.section.counts.decrementAndGet(previous);
+            row.section.counts.incrementAndGet(status.ordinal());
+            row.updatedAt.set(index, changedAtMillis);
+            row.versions.set(index, version);
+        }
+    }
+}
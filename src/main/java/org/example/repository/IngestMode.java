@@ -0,0 +1,23 @@
+package org.example.repository;
+
+import org.example.util.ConfigLoader;
+
+/**
+ * How a theater layout is written to the database.
+ */
+public enum IngestMode {
+    /** Batched INSERT statements per section and row, returning generated keys. */
+    BATCH,
+    /** PostgreSQL COPY streams for sections, rows and seats with pre-allocated ids. */
+    COPY;
+
+    public static IngestMode fromConfig() {
+        String value = ConfigLoader.getProperty("upload.ingestMode", "batch").trim();
+        try {
+            return IngestMode.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Invalid value for property 'upload.ingestMode': " + value + ". Using default: batch");
+            return BATCH;
+        }
+    }
+}
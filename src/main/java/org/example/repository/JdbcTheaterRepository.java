@@ -0,0 +1,1205 @@
+package org.example.repository;
+
+import org.example.metrics.OperationLatency;
+import org.example.metrics.RepositoryMetrics;
+import org.example.model.*;
+import org.example.util.DatabaseManager;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Theaters stored in PostgreSQL through the pool in {@link DatabaseManager}. Every public
+ * operation is timed in {@link RepositoryMetrics}.
+ */
+public class JdbcTheaterRepository implements TheaterRepository {
+
+    private static final RepositoryMetrics METRICS = RepositoryMetrics.getInstance();
+    private static final OperationLatency CREATE_THEATER = METRICS.operation("createTheater");
+    private static final OperationLatency FIND_ALL_THEATERS = METRICS.operation("findAllTheaters");
+    private static final OperationLatency FIND_THEATER_BY_ID = METRICS.operation("findTheaterById");
+    private static final OperationLatency BULK_INSERT_LAYOUT = METRICS.operation("bulkInsertTheaterLayout");
+    private static final OperationLatency COPY_INSERT_LAYOUT = METRICS.operation("copyInsertTheaterLayout");
+    private static final OperationLatency UPDATE_SEAT_STATUS = METRICS.operation("updateSeatStatus");
+    private static final OperationLatency BOOK_SEAT = METRICS.operation("bookSeat");
+    private static final OperationLatency CANCEL_BOOKING = METRICS.operation("cancelBooking");
+    private static final OperationLatency BOOK_SEATS = METRICS.operation("bookSeats");
+    private static final OperationLatency CANCEL_BOOKINGS = METRICS.operation("cancelBookings");
+    private static final OperationLatency HOLD_SEATS = METRICS.operation("holdSeats");
+    private static final OperationLatency CONFIRM_HELD_SEATS = METRICS.operation("confirmHeldSeats");
+    private static final OperationLatency RELEASE_HELD_SEATS = METRICS.operation("releaseHeldSeats");
+    private static final OperationLatency APPLY_SEAT_STATUSES = METRICS.operation("applySeatStatuses");
+    private static final OperationLatency APPLY_SEAT_TRANSITIONS = METRICS.operation("applySeatTransitions");
+    private static final OperationLatency UPDATE_SEAT_RANGES = METRICS.operation("updateSeatRangeStatuses");
+    private static final OperationLatency FIND_THEATER_SUMMARY = METRICS.operation("findTheaterSummary");
+    private static final OperationLatency FIND_ALL_THEATER_SUMMARIES = METRICS.operation("findAllTheaterSummaries");
+    private static final OperationLatency STREAM_SEAT_RUNS = METRICS.operation("streamSeatRuns");
+    private static final OperationLatency FIND_SEATS_CHANGED = METRICS.operation("findSeatsChangedSince");
+    private static final OperationLatency FIND_SEATS_RESERVED = METRICS.operation("findSeatsReservedBefore");
+
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    // Seat counts come from the section_stats counters; the seats table is not read
+    private static final String SUMMARY_SQL = """
+            SELECT t.id AS theater_id, t.name AS theater_name, s.id AS section_id, s.name AS section_name,
+                   COALESCE(st.total_seats, 0) AS total_seats,
+                   COALESCE(st.available_seats, 0) AS available_seats,
+                   COALESCE(st.booked_seats, 0) AS booked_seats,
+                   COALESCE(st.reserved_seats, 0) AS reserved_seats,
+                   COALESCE(st.out_of_order_seats, 0) AS out_of_order_seats
+            FROM theaters t
+            LEFT JOIN sections s ON s.theater_id = t.id
+            LEFT JOIN section_stats st ON st.section_id = s.id
+            WHERE t.id = ?
+            ORDER BY s.id
+            """;
+
+    private final DatabaseManager dbManager;
+    private final TheaterLayoutLoader layoutLoader;
+    private final SeatRangeStore rangeStore;
+    private final StorageMode storageMode;
+
+    public JdbcTheaterRepository() {
+        this(StorageMode.fromConfig());
+    }
+
+    public JdbcTheaterRepository(StorageMode storageMode) {
+        this.dbManager = DatabaseManager.getInstance();
+        this.layoutLoader = new TheaterLayoutLoader();
+        this.rangeStore = new SeatRangeStore();
+        this.storageMode = storageMode;
+    }
+
+    @Override
+    public Long createTheater(String name) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            String sql = "INSERT INTO theaters (name) VALUES (?)";
+
+            try (Connection conn = dbManager.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+
+                stmt.setString(1, name);
+                stmt.executeUpdate();
+
+                try (ResultSet rs = stmt.getGeneratedKeys()) {
+                    if (rs.next()) {
+                        return rs.getLong(1);
+                    }
+                    throw new SQLException("Failed to get generated theater ID");
+                }
+            }
+        } finally {
+            CREATE_THEATER.recordSince(start);
+        }
+    }
+
+    @Override
+    public List<Theater> findAllTheaters() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            List<Theater> theaters = new ArrayList<>();
+            String sql = "SELECT id, name FROM theaters ORDER BY name";
+
+            try (Connection conn = dbManager.getConnection();
+                 Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(sql)) {
+
+                while (rs.next()) {
+                    Theater theater = new Theater(rs.getLong("id"), rs.getString("name"));
+                    theaters.add(theater);
+                }
+            }
+
+            return theaters;
+        } finally {
+            FIND_ALL_THEATERS.recordSince(start);
+        }
+    }
+
+    @Override
+    public Theater findTheaterById(Long theaterId) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            try (Connection conn = dbManager.getConnection()) {
+                return layoutLoader.load(conn, theaterId);
+            }
+        } finally {
+            FIND_THEATER_BY_ID.recordSince(start);
+        }
+    }
+
+    @Override
+    public TheaterSummary findTheaterSummary(Long theaterId) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            try (Connection conn = dbManager.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(SUMMARY_SQL)) {
+                stmt.setLong(1, theaterId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return readSummary(rs);
+                }
+            }
+        } finally {
+            FIND_THEATER_SUMMARY.recordSince(start);
+        }
+    }
+
+    /**
+     * Aggregated from the section counters in a single query.
+     */
+    @Override
+    public List<TheaterSummary> findAllTheaterSummaries(String afterName, int minAvailableSeats, int limit) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            StringBuilder sql = new StringBuilder("""
+                    SELECT t.id, t.name, COUNT(s.id) AS section_count,
+                           COALESCE(SUM(st.total_seats), 0) AS total_seats,
+                           COALESCE(SUM(st.available_seats), 0) AS available_seats,
+                           COALESCE(SUM(st.booked_seats), 0) AS booked_seats,
+                           COALESCE(SUM(st.reserved_seats), 0) AS reserved_seats,
+                           COALESCE(SUM(st.out_of_order_seats), 0) AS out_of_order_seats
+                    FROM theaters t
+                    LEFT JOIN sections s ON s.theater_id = t.id
+                    LEFT JOIN section_stats st ON st.section_id = s.id
+                    """);
+            if (afterName != null) {
+                sql.append("WHERE t.name > ?\n");
+            }
+            sql.append("GROUP BY t.id, t.name\n");
+            if (minAvailableSeats > 0) {
+                sql.append("HAVING COALESCE(SUM(st.available_seats), 0) >= ?\n");
+            }
+            sql.append("ORDER BY t.name");
+            if (limit > 0) {
+                sql.append(" LIMIT ?");
+            }
+
+            try (Connection conn = dbManager.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+                int param = 1;
+                if (afterName != null) {
+                    stmt.setString(param++, afterName);
+                }
+                if (minAvailableSeats > 0) {
+                    stmt.setInt(param++, minAvailableSeats);
+                }
+                if (limit > 0) {
+                    stmt.setInt(param, limit);
+                }
+
+                List<TheaterSummary> summaries = new ArrayList<>();
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        summaries.add(new TheaterSummary(rs.getLong("id"), rs.getString("name"),
+                                rs.getInt("section_count"), rs.getInt("total_seats"),
+                                rs.getInt("available_seats"), rs.getInt("booked_seats"),
+                                rs.getInt("reserved_seats"), rs.getInt("out_of_order_seats")));
+                    }
+                }
+                return summaries;
+            }
+        } finally {
+            FIND_ALL_THEATER_SUMMARIES.recordSince(start);
+        }
+    }
+
+    private static TheaterSummary readSummary(ResultSet rs) throws SQLException {
+        TheaterSummary summary = null;
+        while (rs.next()) {
+            if (summary == null) {
+                summary = new TheaterSummary(rs.getLong("theater_id"), rs.getString("theater_name"));
+            }
+
+            long sectionId = rs.getLong("section_id");
+            if (rs.wasNull()) {
+                continue; // theater without sections
+            }
+            summary.addSection(new SectionSummary(sectionId, rs.getString("section_name"),
+                    rs.getInt("total_seats"), rs.getInt("available_seats"), rs.getInt("booked_seats"),
+                    rs.getInt("reserved_seats"), rs.getInt("out_of_order_seats")));
+        }
+        return summary;
+    }
+
+    /**
+     * Seats are read through a forward-only cursor, STREAM_FETCH_SIZE rows at a time.
+     */
+    @Override
+    public void streamSeatRuns(Long theaterId, String sectionName, int fromRow, int toRow,
+                               SeatRunHandler handler) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            StringBuilder sql = new StringBuilder("""
+                    SELECT s.name AS section_name, r.number AS row_number, x.seat_start, x.seat_end, x.status
+                    FROM sections s
+                    JOIN rows r ON r.section_id = s.id
+                    JOIN (SELECT row_id, number AS seat_start, number AS seat_end, status FROM seats
+                          UNION ALL
+                          SELECT row_id, seat_start, seat_end, status FROM seat_ranges) x ON x.row_id = r.id
+                    WHERE s.theater_id = ? AND r.number BETWEEN ? AND ?
+                    """);
+            if (sectionName != null) {
+                sql.append("AND s.name = ?\n");
+            }
+            sql.append("ORDER BY s.name, r.number, x.seat_start");
+
+            try (Connection conn = dbManager.getConnection()) {
+                // PostgreSQL only uses a cursor for the fetch size outside auto-commit
+                conn.setAutoCommit(false);
+                try (PreparedStatement stmt = conn.prepareStatement(sql.toString(),
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                    stmt.setFetchSize(STREAM_FETCH_SIZE);
+                    stmt.setLong(1, theaterId);
+                    stmt.setInt(2, fromRow);
+                    stmt.setInt(3, toRow);
+                    if (sectionName != null) {
+                        stmt.setString(4, sectionName);
+                    }
+
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            String status = rs.getString("status");
+                            handler.accept(rs.getString("section_name"), rs.getInt("row_number"),
+                                    rs.getInt("seat_start"), rs.getInt("seat_end"),
+                                    status != null ? SeatStatus.valueOf(status) : SeatStatus.AVAILABLE);
+                        }
+                    }
+                    conn.commit();
+                } catch (SQLException | RuntimeException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            }
+        } finally {
+            STREAM_SEAT_RUNS.recordSince(start);
+        }
+    }
+
+    /**
+     * LOCALTIMESTAMP, the clock the updated_at columns are filled from.
+     */
+    @Override
+    public long currentTimeMillis() throws SQLException {
+        try (Connection conn = dbManager.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT LOCALTIMESTAMP")) {
+            rs.next();
+            return rs.getTimestamp(1).getTime();
+        }
+    }
+
+    /**
+     * Reads the seats and seat runs whose updated_at is after sinceMillis. A rewritten row of
+     * runs comes back whole, so every seat of it is returned.
+     */
+    @Override
+    public List<Seat> findSeatsChangedSince(Long theaterId, long sinceMillis) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            String sql = """
+                    SELECT x.seat_id, x.row_id, x.seat_start, x.seat_end, x.status, x.version
+                    FROM sections s
+                    JOIN rows r ON r.section_id = s.id
+                    JOIN (SELECT id AS seat_id, row_id, number AS seat_start, number AS seat_end, status, version, updated_at
+                          FROM seats
+                          UNION ALL
+                          SELECT NULL, row_id, seat_start, seat_end, status, 0, updated_at
+                          FROM seat_ranges) x ON x.row_id = r.id
+                    WHERE s.theater_id = ? AND x.updated_at > ?
+                    """;
+
+            try (Connection conn = dbManager.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setLong(1, theaterId);
+                stmt.setTimestamp(2, new Timestamp(sinceMillis));
+
+                List<Seat> changed = new ArrayList<>();
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        String value = rs.getString("status");
+                        SeatStatus status = value != null ? SeatStatus.valueOf(value) : SeatStatus.AVAILABLE;
+                        long seatId = rs.getLong("seat_id");
+                        if (!rs.wasNull()) {
+                            changed.add(new Seat(seatId, rs.getInt("seat_start"), status, rs.getLong("version")));
+                            continue;
+                        }
+                        long rowId = rs.getLong("row_id");
+                        for (int number = rs.getInt("seat_start"); number <= rs.getInt("seat_end"); number++) {
+                            changed.add(new Seat(RangeSeatIds.of(rowId, number), number, status, 0));
+                        }
+                    }
+                }
+                return changed;
+            }
+        } finally {
+            FIND_SEATS_CHANGED.recordSince(start);
+        }
+    }
+
+    @Override
+    public List<Long> findSeatsReservedBefore(long beforeMillis) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            String sql = """
+                    SELECT id AS seat_id, NULL AS row_id, 0 AS seat_start, 0 AS seat_end
+                    FROM seats
+                    WHERE status = 'RESERVED' AND updated_at < ?
+                    UNION ALL
+                    SELECT NULL, row_id, seat_start, seat_end
+                    FROM seat_ranges
+                    WHERE status = 'RESERVED' AND updated_at < ?
+                    """;
+
+            try (Connection conn = dbManager.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                Timestamp before = new Timestamp(beforeMillis);
+                stmt.setTimestamp(1, before);
+                stmt.setTimestamp(2, before);
+
+                List<Long> reserved = new ArrayList<>();
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        long seatId = rs.getLong("seat_id");
+                        if (!rs.wasNull()) {
+                            reserved.add(seatId);
+                            continue;
+                        }
+                        long rowId = rs.getLong("row_id");
+                        for (int number = rs.getInt("seat_start"); number <= rs.getInt("seat_end"); number++) {
+                            reserved.add(RangeSeatIds.of(rowId, number));
+                        }
+                    }
+                }
+                return reserved;
+            }
+        } finally {
+            FIND_SEATS_RESERVED.recordSince(start);
+        }
+    }
+
+    @Override
+    public void bulkInsertTheaterLayout(Theater theater) throws SQLException {
+        bulkInsertSections(theater.getId(), sink -> {
+            for (Section section : theater.getSections()) {
+                sink.accept(section);
+            }
+        });
+    }
+
+    @Override
+    public void bulkInsertSections(Long theaterId, SectionSource source) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            try (Connection conn = dbManager.getConnection()) {
+                conn.setAutoCommit(false);
+
+                try {
+                    source.writeTo(section -> {
+                        insertSection(conn, theaterId, section);
+                        insertRows(conn, section);
+
+                        if (storageMode == StorageMode.RANGES) {
+                            rangeStore.insertRanges(conn, section.getRows());
+                            return;
+                        }
+                        for (Row row : section.getRows()) {
+                            insertSeats(conn, row);
+                        }
+                    });
+                    conn.commit();
+                    System.out.println("Theater layout inserted successfully.");
+
+                } catch (SQLException | RuntimeException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            }
+        } finally {
+            BULK_INSERT_LAYOUT.recordSince(start);
+        }
+    }
+
+    @Override
+    public void copyInsertTheaterLayout(Theater theater) throws SQLException {
+        copyInsertSections(theater.getId(), sink -> {
+            for (Section section : theater.getSections()) {
+                sink.accept(section);
+            }
+        });
+    }
+
+    /**
+     * Inserts a layout through PostgreSQL COPY instead of batched INSERTs. Ids are
+     * pre-allocated from the table sequences so rows and seats can reference their
+     * parents, and the COPY streams of every section run in the same transaction.
+     * With range storage there are too few rows for COPY to pay off, so batched INSERTs are used.
+     */
+    @Override
+    public void copyInsertSections(Long theaterId, SectionSource source) throws SQLException {
+        if (storageMode == StorageMode.RANGES) {
+            bulkInsertSections(theaterId, source);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            try (Connection conn = dbManager.getConnection()) {
+                conn.setAutoCommit(false);
+
+                try {
+                    CopyManager copyManager = conn.unwrap(PGConnection.class).getCopyAPI();
+                    source.writeTo(section -> copySection(conn, copyManager, theaterId, section));
+                    conn.commit();
+                    System.out.println("Theater layout copied successfully.");
+
+                } catch (SQLException | RuntimeException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            }
+        } finally {
+            COPY_INSERT_LAYOUT.recordSince(start);
+        }
+    }
+
+    private void copySection(Connection conn, CopyManager copyManager, Long theaterId, Section section)
+            throws SQLException {
+        List<Seat> seats = new ArrayList<>();
+        for (Row row : section.getRows()) {
+            seats.addAll(row.getSeats());
+        }
+
+        section.setId(allocateIds(conn, "sections", 1)[0]);
+        long[] rowIds = allocateIds(conn, "rows", section.getRows().size());
+        long[] seatIds = allocateIds(conn, "seats", seats.size());
+
+        try (CopyRowWriter sectionWriter = new CopyRowWriter(
+                copyManager.copyIn("COPY sections (id, theater_id, name) FROM STDIN"))) {
+            sectionWriter.column(section.getId()).column(theaterId).column(section.getName()).endRow();
+            sectionWriter.finish();
+        }
+
+        try (CopyRowWriter rowWriter = new CopyRowWriter(
+                copyManager.copyIn("COPY rows (id, section_id, number) FROM STDIN"))) {
+            for (int i = 0; i < section.getRows().size(); i++) {
+                Row row = section.getRows().get(i);
+                row.setId(rowIds[i]);
+                rowWriter.column(rowIds[i]).column(section.getId()).column(row.getNumber()).endRow();
+            }
+            rowWriter.finish();
+        }
+
+        try (CopyRowWriter seatWriter = new CopyRowWriter(
+                copyManager.copyIn("COPY seats (id, row_id, number, status) FROM STDIN"))) {
+            for (int i = 0; i < seats.size(); i++) {
+                Seat seat = seats.get(i);
+                seat.setId(seatIds[i]);
+                seatWriter.column(seatIds[i]).column(seat.getRow().getId())
+                        .column(seat.getNumber()).column(seat.getStatus().name()).endRow();
+            }
+            seatWriter.finish();
+        }
+    }
+
+    private long[] allocateIds(Connection conn, String table, int count) throws SQLException {
+        long[] ids = new long[count];
+        if (count == 0) return ids;
+
+        String sql = "SELECT nextval(pg_get_serial_sequence(?, 'id')) FROM generate_series(1, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, table);
+            stmt.setInt(2, count);
+            try (ResultSet rs = stmt.executeQuery()) {
+                int index = 0;
+                while (rs.next()) {
+                    ids[index++] = rs.getLong(1);
+                }
+                if (index != count) {
+                    throw new SQLException("Failed to allocate " + count + " ids for " + table);
+                }
+            }
+        }
+        return ids;
+    }
+
+    private void insertSection(Connection conn, Long theaterId, Section section) throws SQLException {
+        String sql = "INSERT INTO sections (theater_id, name) VALUES (?, ?)";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setLong(1, theaterId);
+            stmt.setString(2, section.getName());
+            stmt.executeUpdate();
+
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
+                if (rs.next()) {
+                    section.setId(rs.getLong(1));
+                }
+            }
+        }
+    }
+
+    private void insertRows(Connection conn, Section section) throws SQLException {
+        String sql = "INSERT INTO rows (section_id, number) VALUES (?, ?)";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (Row row : section.getRows()) {
+                stmt.setLong(1, section.getId());
+                stmt.setInt(2, row.getNumber());
+                stmt.addBatch();
+            }
+
+            stmt.executeBatch();
+
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
+                int index = 0;
+                while (rs.next() && index < section.getRows().size()) {
+                    section.getRows().get(index++).setId(rs.getLong(1));
+                }
+            }
+        }
+    }
+
+    private void insertSeats(Connection conn, Row row) throws SQLException {
+        String sql = "INSERT INTO seats (row_id, number, status) VALUES (?, ?, ?)";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (Seat seat : row.getSeats()) {
+                stmt.setLong(1, row.getId());
+                stmt.setInt(2, seat.getNumber());
+                stmt.setString(3, seat.getStatus().name());
+                stmt.addBatch();
+            }
+
+            stmt.executeBatch();
+
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
+                int index = 0;
+                while (rs.next() && index < row.getSeats().size()) {
+                    row.getSeats().get(index++).setId(rs.getLong(1));
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean updateSeatStatus(Long seatId, SeatStatus status) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            if (RangeSeatIds.isRangeSeat(seatId)) {
+                return applySeatStatuses(Map.of(seatId, status)) > 0;
+            }
+
+            String sql = "UPDATE seats SET status = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
+
+            try (Connection conn = dbManager.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+                stmt.setString(1, status.name());
+                stmt.setLong(2, seatId);
+
+                return stmt.executeUpdate() > 0;
+            }
+        } finally {
+            UPDATE_SEAT_STATUS.recordSince(start);
+        }
+    }
+
+    @Override
+    public boolean bookSeat(Long seatId) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            if (RangeSeatIds.isRangeSeat(seatId)) {
+                return transitionSeats(List.of(seatId), SeatStatus.AVAILABLE, SeatStatus.BOOKED).isSuccess();
+            }
+
+            String sql = "UPDATE seats SET status = 'BOOKED', updated_at = CURRENT_TIMESTAMP " +
+                    "WHERE id = ? AND status = 'AVAILABLE'";
+
+            try (Connection conn = dbManager.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+                stmt.setLong(1, seatId);
+                return stmt.executeUpdate() > 0;
+            }
+        } finally {
+            BOOK_SEAT.recordSince(start);
+        }
+    }
+
+    @Override
+    public boolean cancelBooking(Long seatId) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            if (RangeSeatIds.isRangeSeat(seatId)) {
+                return transitionSeats(List.of(seatId), SeatStatus.BOOKED, SeatStatus.AVAILABLE).isSuccess();
+            }
+
+            String sql = "UPDATE seats SET status = 'AVAILABLE', updated_at = CURRENT_TIMESTAMP " +
+                    "WHERE id = ? AND status = 'BOOKED'";
+
+            try (Connection conn = dbManager.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+                stmt.setLong(1, seatId);
+                return stmt.executeUpdate() > 0;
+            }
+        } finally {
+            CANCEL_BOOKING.recordSince(start);
+        }
+    }
+
+    @Override
+    public SeatUpdateResult bookSeat(Long seatId, long expectedVersion) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return updateSeatIfVersion(seatId, expectedVersion, SeatStatus.AVAILABLE, SeatStatus.BOOKED);
+        } finally {
+            BOOK_SEAT.recordSince(start);
+        }
+    }
+
+    @Override
+    public SeatUpdateResult cancelBooking(Long seatId, long expectedVersion) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return updateSeatIfVersion(seatId, expectedVersion, SeatStatus.BOOKED, SeatStatus.AVAILABLE);
+        } finally {
+            CANCEL_BOOKING.recordSince(start);
+        }
+    }
+
+    /*
+     * The version is bumped by the bump_seats_version trigger. Seats in range storage have
+     * no version of their own (always 0), so only their status is checked.
+     */
+    private SeatUpdateResult updateSeatIfVersion(Long seatId, long expectedVersion,
+                                                 SeatStatus from, SeatStatus to) throws SQLException {
+        if (RangeSeatIds.isRangeSeat(seatId)) {
+            return updateRangeSeat(seatId, from, to);
+        }
+
+        try (Connection conn = dbManager.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "UPDATE seats SET status = ?, updated_at = CURRENT_TIMESTAMP " +
+                            "WHERE id = ? AND version = ? AND status = ? RETURNING version")) {
+                stmt.setString(1, to.name());
+                stmt.setLong(2, seatId);
+                stmt.setLong(3, expectedVersion);
+                stmt.setString(4, from.name());
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        return SeatUpdateResult.applied(seatId, to, rs.getLong("version"));
+                    }
+                }
+            }
+
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT status, version FROM seats WHERE id = ?")) {
+                stmt.setLong(1, seatId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (!rs.next()) {
+                        return SeatUpdateResult.notFound(seatId);
+                    }
+                    String status = rs.getString("status");
+                    return SeatUpdateResult.conflict(seatId,
+                            status != null ? SeatStatus.valueOf(status) : SeatStatus.AVAILABLE, rs.getLong("version"));
+                }
+            }
+        }
+    }
+
+    private SeatUpdateResult updateRangeSeat(Long seatId, SeatStatus from, SeatStatus to) throws SQLException {
+        try (Connection conn = dbManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                SeatRangeStore.LockedRows locked = rangeStore.lockSeats(conn, List.of(seatId));
+                SeatStatus current = locked.getStatus(seatId);
+                if (current == from) {
+                    locked.setStatus(seatId, to);
+                    locked.write(conn);
+                }
+                conn.commit();
+
+                if (current == null) {
+                    return SeatUpdateResult.notFound(seatId);
+                }
+                return current == from ? SeatUpdateResult.applied(seatId, to, 0) : SeatUpdateResult.conflict(seatId, current, 0);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    @Override
+    public SeatBatchResult bookSeats(Collection<Long> seatIds) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return transitionSeats(seatIds, SeatStatus.AVAILABLE, SeatStatus.BOOKED);
+        } finally {
+            BOOK_SEATS.recordSince(start);
+        }
+    }
+
+    @Override
+    public SeatBatchResult cancelBookings(Collection<Long> seatIds) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return transitionSeats(seatIds, SeatStatus.BOOKED, SeatStatus.AVAILABLE);
+        } finally {
+            CANCEL_BOOKINGS.recordSince(start);
+        }
+    }
+
+    /**
+     * Writes the given seat statuses with a single UPDATE joined against unnest'ed arrays,
+     * touching rows in id order.
+     */
+    @Override
+    public int applySeatStatuses(Map<Long, SeatStatus> statuses) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            Map<Long, SeatStatus> seats = new TreeMap<>();
+            Map<Long, SeatStatus> rangeSeats = new HashMap<>();
+            for (Map.Entry<Long, SeatStatus> entry : statuses.entrySet()) {
+                (RangeSeatIds.isRangeSeat(entry.getKey()) ? rangeSeats : seats).put(entry.getKey(), entry.getValue());
+            }
+
+            try (Connection conn = dbManager.getConnection()) {
+                if (rangeSeats.isEmpty()) {
+                    return updateSeatStatuses(conn, seats);
+                }
+
+                conn.setAutoCommit(false);
+                try {
+                    int updated = updateSeatStatuses(conn, seats);
+
+                    SeatRangeStore.LockedRows locked = rangeStore.lockSeats(conn, rangeSeats.keySet());
+                    for (Map.Entry<Long, SeatStatus> entry : rangeSeats.entrySet()) {
+                        if (locked.setStatus(entry.getKey(), entry.getValue())) {
+                            updated++;
+                        }
+                    }
+                    locked.write(conn);
+
+                    conn.commit();
+                    return updated;
+
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            }
+        } finally {
+            APPLY_SEAT_STATUSES.recordSince(start);
+        }
+    }
+
+    private int updateSeatStatuses(Connection conn, Map<Long, SeatStatus> ordered) throws SQLException {
+        if (ordered.isEmpty()) {
+            return 0;
+        }
+
+        Long[] ids = ordered.keySet().toArray(new Long[0]);
+        String[] values = new String[ids.length];
+        int i = 0;
+        for (SeatStatus status : ordered.values()) {
+            values[i++] = status.name();
+        }
+
+        String sql = """
+                UPDATE seats s SET status = u.status, updated_at = CURRENT_TIMESTAMP
+                FROM unnest(?::bigint[], ?::varchar[]) AS u(id, status)
+                WHERE s.id = u.id
+                """;
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setArray(1, conn.createArrayOf("bigint", ids));
+            stmt.setArray(2, conn.createArrayOf("varchar", values));
+            return stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * One UPDATE joins the ranges, passed as unnest'ed arrays, against sections, rows and
+     * seats. The transaction is rolled back unless every seat of every range was found.
+     */
+    @Override
+    public int[] updateSeatRangeStatuses(Long theaterId, List<SeatRange> ranges) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            int[] updated = new int[ranges.size()];
+            if (ranges.isEmpty()) {
+                return updated;
+            }
+
+            String[] sectionNames = new String[ranges.size()];
+            Integer[] rowNumbers = new Integer[ranges.size()];
+            Integer[] seatStarts = new Integer[ranges.size()];
+            Integer[] seatEnds = new Integer[ranges.size()];
+            String[] statuses = new String[ranges.size()];
+            for (int i = 0; i < ranges.size(); i++) {
+                SeatRange range = ranges.get(i);
+                sectionNames[i] = range.getSectionName();
+                rowNumbers[i] = range.getRowNumber();
+                seatStarts[i] = range.getSeatStart();
+                seatEnds[i] = range.getSeatEnd();
+                statuses[i] = range.getStatus().name();
+            }
+
+            String sql = """
+                    UPDATE seats st SET status = u.status, updated_at = CURRENT_TIMESTAMP
+                    FROM unnest(?::varchar[], ?::int[], ?::int[], ?::int[], ?::varchar[])
+                            WITH ORDINALITY AS u(section_name, row_number, seat_start, seat_end, status, idx)
+                    JOIN sections s ON s.theater_id = ? AND s.name = u.section_name
+                    JOIN rows r ON r.section_id = s.id AND r.number = u.row_number
+                    WHERE st.row_id = r.id AND st.number BETWEEN u.seat_start AND u.seat_end
+                    RETURNING u.idx
+                    """;
+
+            try (Connection conn = dbManager.getConnection()) {
+                conn.setAutoCommit(false);
+
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    stmt.setArray(1, conn.createArrayOf("varchar", sectionNames));
+                    stmt.setArray(2, conn.createArrayOf("integer", rowNumbers));
+                    stmt.setArray(3, conn.createArrayOf("integer", seatStarts));
+                    stmt.setArray(4, conn.createArrayOf("integer", seatEnds));
+                    stmt.setArray(5, conn.createArrayOf("varchar", statuses));
+                    stmt.setLong(6, theaterId);
+
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            updated[(int) rs.getLong(1) - 1]++;
+                        }
+                    }
+
+                    // Seats stored as runs are not in the seats table
+                    List<Integer> unresolved = new ArrayList<>();
+                    for (int i = 0; i < ranges.size(); i++) {
+                        if (updated[i] != ranges.get(i).getSeatCount()) {
+                            unresolved.add(i);
+                        }
+                    }
+                    if (!unresolved.isEmpty()) {
+                        updateStoredRanges(conn, theaterId, ranges, unresolved, updated);
+                    }
+
+                    boolean complete = true;
+                    for (int i = 0; i < ranges.size(); i++) {
+                        complete &= updated[i] == ranges.get(i).getSeatCount();
+                    }
+                    if (complete) {
+                        conn.commit();
+                    } else {
+                        conn.rollback();
+                    }
+                    return updated;
+
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            }
+        } finally {
+            UPDATE_SEAT_RANGES.recordSince(start);
+        }
+    }
+
+    private void updateStoredRanges(Connection conn, Long theaterId, List<SeatRange> ranges,
+                                    List<Integer> indexes, int[] updated) throws SQLException {
+        Map<String, Long> rowIds = new HashMap<>();
+        String sql = "SELECT s.name, r.number, r.id FROM rows r JOIN sections s ON s.id = r.section_id WHERE s.theater_id = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, theaterId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rowIds.put(rs.getString(1) + "\u0000" + rs.getInt(2), rs.getLong(3));
+                }
+            }
+        }
+
+        Map<Integer, Long> rangeRows = new HashMap<>();
+        for (int i : indexes) {
+            Long rowId = rowIds.get(ranges.get(i).getSectionName() + "\u0000" + ranges.get(i).getRowNumber());
+            if (rowId != null) {
+                rangeRows.put(i, rowId);
+            }
+        }
+
+        SeatRangeStore.LockedRows locked = rangeStore.lock(conn, rangeRows.values());
+        for (Map.Entry<Integer, Long> entry : rangeRows.entrySet()) {
+            SeatRange range = ranges.get(entry.getKey());
+            updated[entry.getKey()] += locked.setStatus(entry.getValue(), range.getSeatStart(), range.getSeatEnd(), range.getStatus());
+        }
+        locked.write(conn);
+    }
+
+    /**
+     * All transitions run in one transaction. All touched seats are locked up front in id order.
+     * Transitions are then applied in rounds in which every seat appears at most once, with
+     * one UPDATE per round and kind of transition, so several requests for the same seat are
+     * decided in the order given.
+     */
+    @Override
+    public boolean[] applySeatTransitions(List<SeatTransition> transitions) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            boolean[] applied = new boolean[transitions.size()];
+            if (transitions.isEmpty()) {
+                return applied;
+            }
+
+            // round -> (from, to) -> positions of the transitions in that group
+            List<Map<List<SeatStatus>, List<Integer>>> rounds = new ArrayList<>();
+            Map<Long, Integer> nextRound = new HashMap<>();
+            List<Integer> rangeSeatPositions = new ArrayList<>();
+            for (int i = 0; i < transitions.size(); i++) {
+                SeatTransition transition = transitions.get(i);
+                if (RangeSeatIds.isRangeSeat(transition.getSeatId())) {
+                    rangeSeatPositions.add(i);
+                    continue;
+                }
+                int round = nextRound.merge(transition.getSeatId(), 1, Integer::sum) - 1;
+                if (round == rounds.size()) {
+                    rounds.add(new LinkedHashMap<>());
+                }
+                rounds.get(round)
+                        .computeIfAbsent(List.of(transition.getFrom(), transition.getTo()), key -> new ArrayList<>())
+                        .add(i);
+            }
+
+            String lockSql = "SELECT id FROM seats WHERE id = ANY(?) ORDER BY id FOR UPDATE";
+            String updateSql = "UPDATE seats SET status = ?, updated_at = CURRENT_TIMESTAMP " +
+                    "WHERE id = ANY(?) AND status = ? RETURNING id";
+
+            try (Connection conn = dbManager.getConnection()) {
+                conn.setAutoCommit(false);
+
+                try (PreparedStatement lockStmt = conn.prepareStatement(lockSql);
+                     PreparedStatement updateStmt = conn.prepareStatement(updateSql)) {
+
+                    if (!nextRound.isEmpty()) {
+                        lockStmt.setArray(1, conn.createArrayOf("bigint", nextRound.keySet().toArray()));
+                        lockStmt.executeQuery().close();
+                    }
+
+                    for (Map<List<SeatStatus>, List<Integer>> round : rounds) {
+                        for (Map.Entry<List<SeatStatus>, List<Integer>> group : round.entrySet()) {
+                            Long[] ids = new Long[group.getValue().size()];
+                            for (int i = 0; i < ids.length; i++) {
+                                ids[i] = transitions.get(group.getValue().get(i)).getSeatId();
+                            }
+
+                            updateStmt.setString(1, group.getKey().get(1).name());
+                            updateStmt.setArray(2, conn.createArrayOf("bigint", ids));
+                            updateStmt.setString(3, group.getKey().get(0).name());
+
+                            Set<Long> updated = new HashSet<>();
+                            try (ResultSet rs = updateStmt.executeQuery()) {
+                                while (rs.next()) {
+                                    updated.add(rs.getLong(1));
+                                }
+                            }
+                            for (int position : group.getValue()) {
+                                applied[position] = updated.contains(transitions.get(position).getSeatId());
+                            }
+                        }
+                    }
+
+                    // Seats stored as runs are decided in memory, one transition after another
+                    if (!rangeSeatPositions.isEmpty()) {
+                        List<Long> rangeSeatIds = new ArrayList<>();
+                        for (int position : rangeSeatPositions) {
+                            rangeSeatIds.add(transitions.get(position).getSeatId());
+                        }
+                        SeatRangeStore.LockedRows locked = rangeStore.lockSeats(conn, rangeSeatIds);
+                        for (int position : rangeSeatPositions) {
+                            SeatTransition transition = transitions.get(position);
+                            if (locked.getStatus(transition.getSeatId()) == transition.getFrom()) {
+                                applied[position] = locked.setStatus(transition.getSeatId(), transition.getTo());
+                            }
+                        }
+                        locked.write(conn);
+                    }
+
+                    conn.commit();
+                    return applied;
+
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            }
+        } finally {
+            APPLY_SEAT_TRANSITIONS.recordSince(start);
+        }
+    }
+
+    @Override
+    public SeatBatchResult holdSeats(Collection<Long> seatIds) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return transitionSeats(seatIds, SeatStatus.AVAILABLE, SeatStatus.RESERVED);
+        } finally {
+            HOLD_SEATS.recordSince(start);
+        }
+    }
+
+    @Override
+    public SeatBatchResult confirmHeldSeats(Collection<Long> seatIds) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return transitionSeats(seatIds, SeatStatus.RESERVED, SeatStatus.BOOKED);
+        } finally {
+            CONFIRM_HELD_SEATS.recordSince(start);
+        }
+    }
+
+    /**
+     * Releases all non-range seats with one UPDATE.
+     */
+    @Override
+    public List<Long> releaseHeldSeats(Collection<Long> seatIds) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            List<Long> released = new ArrayList<>();
+            if (seatIds.isEmpty()) {
+                return released;
+            }
+
+            List<Long> seats = new ArrayList<>();
+            List<Long> rangeSeats = new ArrayList<>();
+            for (Long seatId : seatIds) {
+                (RangeSeatIds.isRangeSeat(seatId) ? rangeSeats : seats).add(seatId);
+            }
+
+            String sql = "UPDATE seats SET status = 'AVAILABLE', updated_at = CURRENT_TIMESTAMP " +
+                    "WHERE id = ANY(?) AND status = 'RESERVED' RETURNING id";
+
+            try (Connection conn = dbManager.getConnection()) {
+                conn.setAutoCommit(false);
+
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    if (!seats.isEmpty()) {
+                        stmt.setArray(1, conn.createArrayOf("bigint", seats.toArray()));
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            while (rs.next()) {
+                                released.add(rs.getLong(1));
+                            }
+                        }
+                    }
+
+                    if (!rangeSeats.isEmpty()) {
+                        SeatRangeStore.LockedRows locked = rangeStore.lockSeats(conn, rangeSeats);
+                        for (Long seatId : rangeSeats) {
+                            if (locked.getStatus(seatId) == SeatStatus.RESERVED) {
+                                locked.setStatus(seatId, SeatStatus.AVAILABLE);
+                                released.add(seatId);
+                            }
+                        }
+                        locked.write(conn);
+                    }
+
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            }
+            return released;
+        } finally {
+            RELEASE_HELD_SEATS.recordSince(start);
+        }
+    }
+
+    /*
+     * Moves every seat from one status to another with a single set-based UPDATE.
+     * Rows are locked in id order so concurrent group bookings cannot deadlock, and the
+     * transaction is rolled back unless every requested seat was in the expected status.
+     * Seats stored as runs are changed in the same transaction, after the seats table.
+     */
+    private SeatBatchResult transitionSeats(Collection<Long> seatIds, SeatStatus from, SeatStatus to) throws SQLException {
+        List<Long> requested = new ArrayList<>(new LinkedHashSet<>(seatIds));
+        if (requested.isEmpty()) {
+            return new SeatBatchResult(requested, List.of());
+        }
+
+        List<Long> seats = new ArrayList<>();
+        List<Long> rangeSeats = new ArrayList<>();
+        for (Long seatId : requested) {
+            (RangeSeatIds.isRangeSeat(seatId) ? rangeSeats : seats).add(seatId);
+        }
+
+        String sql = """
+                WITH locked AS (
+                    SELECT id FROM seats WHERE id = ANY(?) ORDER BY id FOR UPDATE
+                )
+                UPDATE seats s SET status = ?, updated_at = CURRENT_TIMESTAMP
+                FROM locked
+                WHERE s.id = locked.id AND s.status = ?
+                RETURNING s.id
+                """;
+
+        try (Connection conn = dbManager.getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                Set<Long> updated = new HashSet<>();
+                if (!seats.isEmpty()) {
+                    Array ids = conn.createArrayOf("bigint", seats.toArray());
+                    stmt.setArray(1, ids);
+                    stmt.setString(2, to.name());
+                    stmt.setString(3, from.name());
+
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            updated.add(rs.getLong(1));
+                        }
+                    }
+                }
+
+                Set<Long> rangeConflicts = rangeSeats.isEmpty()
+                        ? Set.of() : new HashSet<>(rangeStore.transition(conn, rangeSeats, from, to));
+
+                if (updated.size() == seats.size() && rangeConflicts.isEmpty()) {
+                    conn.commit();
+                    return new SeatBatchResult(requested, List.of());
+                }
+
+                conn.rollback();
+                List<Long> conflicts = new ArrayList<>();
+                for (Long seatId : requested) {
+                    if (RangeSeatIds.isRangeSeat(seatId) ? rangeConflicts.contains(seatId) : !updated.contains(seatId)) {
+                        conflicts.add(seatId);
+                    }
+                }
+                return new SeatBatchResult(requested, conflicts);
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package org.example.repository;
+
+import org.example.model.*;
+import org.example.util.ConfigLoader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Embedded storage: theaters live in an InMemoryTheaterRepository and every change is written
+ * to a BookingJournal on local disk before the call returns, so bookings survive a crash
+ * without a database. Concurrent changes share one fsync instead of one commit each.
+ *
+ * Reads see changes as soon as they are applied, which can be just before they are durable.
+ */
+public class JournaledTheaterRepository implements TheaterRepository {
+
+    private static JournaledTheaterRepository instance;
+
+    private final BookingJournal journal;
+    private final InMemoryTheaterRepository store;
+
+    /**
+     * Opens the journal in the directory and replays it.
+     */
+    public JournaledTheaterRepository(Path directory, long compactBytes, int lockStripes) throws IOException {
+        this.journal = new BookingJournal(directory, compactBytes);
+        this.store = new InMemoryTheaterRepository(lockStripes, journal);
+        journal.open(store);
+    }
+
+    /**
+     * The journal in repository.journal.dir, opened once and shared by every service of this process.
+     */
+    public static synchronized JournaledTheaterRepository getInstance() {
+        if (instance == null) {
+            String directory = ConfigLoader.getProperty("repository.journal.dir", "journal");
+            try {
+                instance = new JournaledTheaterRepository(Path.of(directory),
+                        ConfigLoader.getLongProperty("repository.journal.compactBytes", 64L * 1024 * 1024),
+                        ConfigLoader.getIntProperty("repository.memory.lockStripes", 64));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not open booking journal in " + directory, e);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Writes the current state as the journal's snapshot and drops the journal written before it.
+     * Also done in the background whenever the journal grows past its compaction size.
+     */
+    public void compact() throws IOException {
+        journal.compact();
+    }
+
+    public void close() throws IOException {
+        journal.close();
+    }
+
+    private <T> T durable(T result) throws SQLException {
+        try {
+            journal.sync();
+        } catch (IOException e) {
+            throw new SQLException("Booking journal write failed: " + e.getMessage(), "58030", e);
+        }
+        return result;
+    }
+
+    @Override
+    public Long createTheater(String name) throws SQLException {
+        return durable(store.createTheater(name));
+    }
+
+    @Override
+    public List<Theater> findAllTheaters() {
+        return store.findAllTheaters();
+    }
+
+    @Override
+    public Theater findTheaterById(Long theaterId) {
+        return store.findTheaterById(theaterId);
+    }
+
+    @Override
+    public TheaterSummary findTheaterSummary(Long theaterId) {
+        return store.findTheaterSummary(theaterId);
+    }
+
+    @Override
+    public List<TheaterSummary> findAllTheaterSummaries(String afterName, int minAvailableSeats, int limit) {
+        return store.findAllTheaterSummaries(afterName, minAvailableSeats, limit);
+    }
+
+    @Override
+    public void streamSeatRuns(Long theaterId, String sectionName, int fromRow, int toRow, SeatRunHandler handler) {
+        store.streamSeatRuns(theaterId, sectionName, fromRow, toRow, handler);
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return store.currentTimeMillis();
+    }
+
+    @Override
+    public List<Seat> findSeatsChangedSince(Long theaterId, long sinceMillis) {
+        return store.findSeatsChangedSince(theaterId, sinceMillis);
+    }
+
+    @Override
+    public List<Long> findSeatsReservedBefore(long beforeMillis) {
+        return store.findSeatsReservedBefore(beforeMillis);
+    }
+
+    @Override
+    public void bulkInsertTheaterLayout(Theater theater) throws SQLException {
+        store.bulkInsertTheaterLayout(theater);
+        durable(theater);
+    }
+
+    @Override
+    public void bulkInsertSections(Long theaterId, SectionSource source) throws SQLException {
+        store.bulkInsertSections(theaterId, source);
+        durable(theaterId);
+    }
+
+    @Override
+    public boolean updateSeatStatus(Long seatId, SeatStatus status) throws SQLException {
+        return durable(store.updateSeatStatus(seatId, status));
+    }
+
+    @Override
+    public boolean bookSeat(Long seatId) throws SQLException {
+        return durable(store.bookSeat(seatId));
+    }
+
+    @Override
+    public boolean cancelBooking(Long seatId) throws SQLException {
+        return durable(store.cancelBooking(seatId));
+    }
+
+    @Override
+    public SeatUpdateResult bookSeat(Long seatId, long expectedVersion) throws SQLException {
+        return durable(store.bookSeat(seatId, expectedVersion));
+    }
+
+    @Override
+    public SeatUpdateResult cancelBooking(Long seatId, long expectedVersion) throws SQLException {
+        return durable(store.cancelBooking(seatId, expectedVersion));
+    }
+
+    @Override
+    public SeatBatchResult bookSeats(Collection<Long> seatIds) throws SQLException {
+        return durable(store.bookSeats(seatIds));
+    }
+
+    @Override
+    public SeatBatchResult cancelBookings(Collection<Long> seatIds) throws SQLException {
+        return durable(store.cancelBookings(seatIds));
+    }
+
+    @Override
+    public int applySeatStatuses(Map<Long, SeatStatus> statuses) throws SQLException {
+        return durable(store.applySeatStatuses(statuses));
+    }
+
+    @Override
+    public int[] updateSeatRangeStatuses(Long theaterId, List<SeatRange> ranges) throws SQLException {
+        return durable(store.updateSeatRangeStatuses(theaterId, ranges));
+    }
+
+    @Override
+    public boolean[] applySeatTransitions(List<SeatTransition> transitions) throws SQLException {
+        return durable(store.applySeatTransitions(transitions));
+    }
+
+    @Override
+    public SeatBatchResult holdSeats(Collection<Long> seatIds) throws SQLException {
+        return durable(store.holdSeats(seatIds));
+    }
+
+    @Override
+    public SeatBatchResult confirmHeldSeats(Collection<Long> seatIds) throws SQLException {
+        return durable(store.confirmHeldSeats(seatIds));
+    }
+
+    @Override
+    public List<Long> releaseHeldSeats(Collection<Long> seatIds) throws SQLException {
+        return durable(store.releaseHeldSeats(seatIds));
+    }
+}
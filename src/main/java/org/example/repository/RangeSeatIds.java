@@ -0,0 +1,32 @@
+package org.example.repository;
+
+/**
+ * Seats stored in seat_ranges have no row of their own, so they get a synthetic id derived
+ * from their row id and seat number. Synthetic ids are negative and never collide with
+ * ids from the seats table.
+ */
+final class RangeSeatIds {
+
+    static final int MAX_SEAT_NUMBER = 0xFFFF;
+
+    private RangeSeatIds() {}
+
+    static long of(long rowId, int seatNumber) {
+        if (seatNumber <= 0 || seatNumber > MAX_SEAT_NUMBER) {
+            throw new IllegalArgumentException("Seat number out of range for range storage: " + seatNumber);
+        }
+        return -((rowId << 16) | seatNumber);
+    }
+
+    static boolean isRangeSeat(long seatId) {
+        return seatId < 0;
+    }
+
+    static long rowId(long seatId) {
+        return (-seatId) >>> 16;
+    }
+
+    static int seatNumber(long seatId) {
+        return (int) ((-seatId) & MAX_SEAT_NUMBER);
+    }
+}
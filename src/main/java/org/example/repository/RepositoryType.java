@@ -0,0 +1,25 @@
+package org.example.repository;
+
+import org.example.util.ConfigLoader;
+
+/**
+ * Where theaters are stored.
+ */
+public enum RepositoryType {
+    /** PostgreSQL, through the connection pool. */
+    JDBC,
+    /** This process's memory only; nothing survives a restart and no database is needed. */
+    MEMORY,
+    /** This process's memory, with every change journaled to local disk; no database is needed. */
+    EMBEDDED;
+
+    public static RepositoryType fromConfig() {
+        String value = ConfigLoader.getProperty("repository.type", "jdbc").trim();
+        try {
+            return RepositoryType.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Invalid value for property 'repository.type': " + value + ". Using default: jdbc");
+            return JDBC;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package org.example.repository;
+
+import org.example.model.Row;
+import org.example.model.Seat;
+import org.example.model.SeatStatus;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Reads and writes seats stored as runs in the seat_ranges table. A run covers adjacent seat
+ * numbers of one row that share a status; changing the status of a seat splits its run, and
+ * runs that end up adjacent with the same status are merged again when the row is written.
+ *
+ * All methods work inside the caller's transaction.
+ */
+class SeatRangeStore {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO seat_ranges (row_id, seat_start, seat_end, status) VALUES (?, ?, ?, ?)";
+
+    /**
+     * Stores the seats of the given rows as runs and gives each seat its synthetic id.
+     * The rows must already have ids.
+     */
+    void insertRanges(Connection conn, List<Row> rows) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL)) {
+            for (Row row : rows) {
+                TreeMap<Integer, Run> seats = new TreeMap<>();
+                for (Seat seat : row.getSeats()) {
+                    seat.setId(RangeSeatIds.of(row.getId(), seat.getNumber()));
+                    seats.put(seat.getNumber(), new Run(seat.getNumber(), seat.getNumber(), seat.getStatus()));
+                }
+                for (Run run : merge(seats.values())) {
+                    addInsert(stmt, row.getId(), run);
+                }
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    /**
+     * Locks the given rows and reads their runs. Locking the parent rows rather than the
+     * runs keeps concurrent writers serialised even though runs are deleted and re-inserted.
+     */
+    LockedRows lock(Connection conn, Collection<Long> rowIds) throws SQLException {
+        LockedRows locked = new LockedRows();
+        if (rowIds.isEmpty()) {
+            return locked;
+        }
+
+        Array ids = conn.createArrayOf("bigint", new TreeSet<>(rowIds).toArray());
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT id FROM rows WHERE id = ANY(?) ORDER BY id FOR NO KEY UPDATE")) {
+            stmt.setArray(1, ids);
+            stmt.executeQuery().close();
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT row_id, seat_start, seat_end, status FROM seat_ranges WHERE row_id = ANY(?)")) {
+            stmt.setArray(1, ids);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    locked.runs(rs.getLong("row_id")).put(rs.getInt("seat_start"),
+                            new Run(rs.getInt("seat_start"), rs.getInt("seat_end"), SeatStatus.valueOf(rs.getString("status"))));
+                }
+            }
+        }
+        return locked;
+    }
+
+    LockedRows lockSeats(Connection conn, Collection<Long> seatIds) throws SQLException {
+        Set<Long> rowIds = new HashSet<>();
+        for (Long seatId : seatIds) {
+            rowIds.add(RangeSeatIds.rowId(seatId));
+        }
+        return lock(conn, rowIds);
+    }
+
+    /**
+     * Moves every seat from one status to another, or none of them. Returns the seats that
+     * were missing or not in the expected status.
+     */
+    List<Long> transition(Connection conn, List<Long> seatIds, SeatStatus from, SeatStatus to) throws SQLException {
+        LockedRows locked = lockSeats(conn, seatIds);
+        List<Long> conflicts = new ArrayList<>();
+        for (Long seatId : seatIds) {
+            if (locked.getStatus(seatId) != from) {
+                conflicts.add(seatId);
+            }
+        }
+        if (conflicts.isEmpty()) {
+            for (Long seatId : seatIds) {
+                locked.setStatus(seatId, to);
+            }
+            locked.write(conn);
+        }
+        return conflicts;
+    }
+
+    private static void addInsert(PreparedStatement stmt, long rowId, Run run) throws SQLException {
+        stmt.setLong(1, rowId);
+        stmt.setInt(2, run.start);
+        stmt.setInt(3, run.end);
+        stmt.setString(4, run.status.name());
+        stmt.addBatch();
+    }
+
+    /*
+     * Joins runs (sorted by first seat) that are adjacent and share a status.
+     */
+    private static List<Run> merge(Collection<Run> runs) {
+        List<Run> merged = new ArrayList<>();
+        for (Run run : runs) {
+            Run last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && last.end + 1 == run.start && last.status == run.status) {
+                merged.set(merged.size() - 1, new Run(last.start, run.end, last.status));
+            } else {
+                merged.add(run);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * The runs of locked rows, keyed by row id and then by first seat number.
+     */
+    static class LockedRows {
+        private final Map<Long, TreeMap<Integer, Run>> rows = new HashMap<>();
+        private final Set<Long> dirtyRows = new HashSet<>();
+
+        TreeMap<Integer, Run> runs(long rowId) {
+            return rows.computeIfAbsent(rowId, id -> new TreeMap<>());
+        }
+
+        /** Status of the seat, or null if its row has no such seat. */
+        SeatStatus getStatus(long seatId) {
+            Run run = find(RangeSeatIds.rowId(seatId), RangeSeatIds.seatNumber(seatId));
+            return run == null ? null : run.status;
+        }
+
+        /** Returns false if the seat does not exist. */
+        boolean setStatus(long seatId, SeatStatus status) {
+            return setStatus(RangeSeatIds.rowId(seatId), RangeSeatIds.seatNumber(seatId),
+                    RangeSeatIds.seatNumber(seatId), status) == 1;
+        }
+
+        /**
+         * Sets the status of the existing seats start..end of a row and returns how many there were.
+         */
+        int setStatus(long rowId, int start, int end, SeatStatus status) {
+            TreeMap<Integer, Run> runs = runs(rowId);
+            Integer from = runs.floorKey(start);
+            Collection<Run> overlapping = new ArrayList<>(runs.subMap(from == null ? start : from, true, end, true).values());
+
+            int covered = 0;
+            for (Run run : overlapping) {
+                if (run.end < start) continue;
+                int overlapStart = Math.max(start, run.start);
+                int overlapEnd = Math.min(end, run.end);
+                covered += overlapEnd - overlapStart + 1;
+                if (run.status == status) continue;
+
+                runs.remove(run.start);
+                if (run.start < overlapStart) {
+                    runs.put(run.start, new Run(run.start, overlapStart - 1, run.status));
+                }
+                runs.put(overlapStart, new Run(overlapStart, overlapEnd, status));
+                if (overlapEnd < run.end) {
+                    runs.put(overlapEnd + 1, new Run(overlapEnd + 1, run.end, run.status));
+                }
+                dirtyRows.add(rowId);
+            }
+            return covered;
+        }
+
+        private Run find(long rowId, int seatNumber) {
+            TreeMap<Integer, Run> runs = rows.get(rowId);
+            if (runs == null) return null;
+            Map.Entry<Integer, Run> entry = runs.floorEntry(seatNumber);
+            return entry != null && entry.getValue().end >= seatNumber ? entry.getValue() : null;
+        }
+
+        /**
+         * Rewrites the runs of every changed row, merging adjacent runs with the same status.
+         */
+        void write(Connection conn) throws SQLException {
+            if (dirtyRows.isEmpty()) {
+                return;
+            }
+
+            try (PreparedStatement delete = conn.prepareStatement("DELETE FROM seat_ranges WHERE row_id = ANY(?)")) {
+                delete.setArray(1, conn.createArrayOf("bigint", dirtyRows.toArray()));
+                delete.executeUpdate();
+            }
+
+            try (PreparedStatement insert = conn.prepareStatement(INSERT_SQL)) {
+                for (Long rowId : dirtyRows) {
+                    List<Run> merged = merge(rows.get(rowId).values());
+                    TreeMap<Integer, Run> runs = rows.get(rowId);
+                    runs.clear();
+                    for (Run run : merged) {
+                        runs.put(run.start, run);
+                        addInsert(insert, rowId, run);
+                    }
+                }
+                insert.executeBatch();
+            }
+            dirtyRows.clear();
+        }
+
+        int getRunCount(long rowId) {
+            TreeMap<Integer, Run> runs = rows.get(rowId);
+            return runs == null ? 0 : runs.size();
+        }
+    }
+
+    static class Run {
+        final int start;
+        final int end;
+        final SeatStatus status;
+
+        Run(int start, int end, SeatStatus status) {
+            this.start = start;
+            this.end = end;
+            this.status = status;
+        }
+    }
+}
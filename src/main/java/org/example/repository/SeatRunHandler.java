@@ -0,0 +1,12 @@
+package org.example.repository;
+
+import org.example.model.SeatStatus;
+
+/**
+ * Receives seats in section name, row number and seat number order. A single seat is a
+ * run with seatStart == seatEnd; seats stored in seat_ranges arrive as whole runs.
+ */
+@FunctionalInterface
+public interface SeatRunHandler {
+    void accept(String sectionName, int rowNumber, int seatStart, int seatEnd, SeatStatus status);
+}
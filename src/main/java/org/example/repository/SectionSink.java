@@ -0,0 +1,14 @@
+package org.example.repository;
+
+import org.example.model.Section;
+
+import java.sql.SQLException;
+
+/**
+ * Receives the sections of a layout one at a time while it is being inserted. Each section is
+ * stored, and given its ids, before the call returns, so the caller need not keep it.
+ */
+@FunctionalInterface
+public interface SectionSink {
+    void accept(Section section) throws SQLException;
+}
@@ -0,0 +1,12 @@
+package org.example.repository;
+
+import java.sql.SQLException;
+
+/**
+ * Produces the sections of a layout into a {@link SectionSink}, for inserts that should not
+ * need the whole layout in memory at once. An exception thrown here undoes the whole insert.
+ */
+@FunctionalInterface
+public interface SectionSource {
+    void writeTo(SectionSink sink) throws SQLException;
+}
@@ -0,0 +1,23 @@
+package org.example.repository;
+
+import org.example.util.ConfigLoader;
+
+/**
+ * How the seats of a newly inserted layout are stored.
+ */
+public enum StorageMode {
+    /** One row in the seats table per seat. */
+    SEATS,
+    /** One row in the seat_ranges table per run of adjacent seats with the same status. */
+    RANGES;
+
+    public static StorageMode fromConfig() {
+        String value = ConfigLoader.getProperty("storage.mode", "seats").trim();
+        try {
+            return StorageMode.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Invalid value for property 'storage.mode': " + value + ". Using default: seats");
+            return SEATS;
+        }
+    }
+}
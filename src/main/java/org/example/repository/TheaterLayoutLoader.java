@@ -0,0 +1,143 @@
+package org.example.repository;
+
+import org.example.model.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Loads a complete theater layout (theater, sections, rows and seats) with a single
+ * joined query and builds the object graph in one pass over the result set.
+ * Rows arrive ordered by section, row and seat, so a new section or row starts
+ * whenever its id changes from the previous record. Seats stored as runs in
+ * seat_ranges are read with a second query and expanded into their rows.
+ */
+public class TheaterLayoutLoader {
+
+    static final String LAYOUT_SQL = """
+            SELECT t.id AS theater_id, t.name AS theater_name,
+                   s.id AS section_id, s.name AS section_name,
+                   r.id AS row_id, r.number AS row_number,
+                   st.id AS seat_id, st.number AS seat_number, st.status AS seat_status,
+                   st.version AS seat_version
+            FROM theaters t
+            LEFT JOIN sections s ON s.theater_id = t.id
+            LEFT JOIN rows r ON r.section_id = s.id
+            LEFT JOIN seats st ON st.row_id = r.id
+            WHERE t.id = ?
+            ORDER BY s.name, r.number, st.number
+            """;
+
+    static final String RANGES_SQL = """
+            SELECT sr.row_id, sr.seat_start, sr.seat_end, sr.status
+            FROM seat_ranges sr
+            JOIN rows r ON r.id = sr.row_id
+            JOIN sections s ON s.id = r.section_id
+            WHERE s.theater_id = ?
+            ORDER BY sr.row_id, sr.seat_start
+            """;
+
+    private static final int FETCH_SIZE = 1000;
+
+    /**
+     * Loads the layout using the given connection. Returns null if the theater does not exist.
+     */
+    public Theater load(Connection conn, Long theaterId) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        // PostgreSQL only honours the fetch size (cursor mode) outside auto-commit
+        conn.setAutoCommit(false);
+
+        try (PreparedStatement stmt = conn.prepareStatement(LAYOUT_SQL)) {
+            stmt.setFetchSize(FETCH_SIZE);
+            stmt.setLong(1, theaterId);
+
+            Theater theater;
+            try (ResultSet rs = stmt.executeQuery()) {
+                theater = buildLayout(rs);
+            }
+
+            if (theater != null) {
+                try (PreparedStatement rangeStmt = conn.prepareStatement(RANGES_SQL)) {
+                    rangeStmt.setFetchSize(FETCH_SIZE);
+                    rangeStmt.setLong(1, theaterId);
+                    try (ResultSet rs = rangeStmt.executeQuery()) {
+                        addRangeSeats(theater, rs);
+                    }
+                }
+            }
+            conn.commit();
+            return theater;
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    Theater buildLayout(ResultSet rs) throws SQLException {
+        Theater theater = null;
+        Section section = null;
+        Row row = null;
+
+        while (rs.next()) {
+            if (theater == null) {
+                theater = new Theater(rs.getLong("theater_id"), rs.getString("theater_name"));
+            }
+
+            long sectionId = rs.getLong("section_id");
+            if (rs.wasNull()) continue; // theater without layout
+
+            if (section == null || section.getId() != sectionId) {
+                section = new Section(sectionId, rs.getString("section_name"));
+                theater.addSection(section);
+                row = null;
+            }
+
+            long rowId = rs.getLong("row_id");
+            if (rs.wasNull()) continue; // section without rows
+
+            if (row == null || row.getId() != rowId) {
+                row = new Row(rowId, rs.getInt("row_number"));
+                section.addRow(row);
+            }
+
+            long seatId = rs.getLong("seat_id");
+            if (rs.wasNull()) continue; // row without seats
+
+            SeatStatus status = SeatStatus.valueOf(rs.getString("seat_status"));
+            row.addSeat(new Seat(seatId, rs.getInt("seat_number"), status, rs.getLong("seat_version")));
+        }
+
+        return theater;
+    }
+
+    void addRangeSeats(Theater theater, ResultSet rs) throws SQLException {
+        Map<Long, Row> rows = null;
+
+        while (rs.next()) {
+            if (rows == null) {
+                rows = new HashMap<>();
+                for (Section section : theater.getSections()) {
+                    for (Row row : section.getRows()) {
+                        rows.put(row.getId(), row);
+                    }
+                }
+            }
+
+            long rowId = rs.getLong("row_id");
+            Row row = rows.get(rowId);
+            if (row == null) continue;
+
+            SeatStatus status = SeatStatus.valueOf(rs.getString("status"));
+            int end = rs.getInt("seat_end");
+            for (int number = rs.getInt("seat_start"); number <= end; number++) {
+                row.addSeat(new Seat(RangeSeatIds.of(rowId, number), number, status));
+            }
+        }
+    }
+}
@@ -1,252 +1,172 @@
 package org.example.repository;
 
 import org.example.model.*;
-import org.example.util.DatabaseManager;
 
-import java.sql.*;
-import java.util.ArrayList;
+import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
-
-public class TheaterRepository {
-
-    private final DatabaseManager dbManager;
-
-    public TheaterRepository() {
-        this.dbManager = DatabaseManager.getInstance();
-    }
-
-    public Long createTheater(String name) throws SQLException {
-        String sql = "INSERT INTO theaters (name) VALUES (?)";
-
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-
-            stmt.setString(1, name);
-            stmt.executeUpdate();
-
-            try (ResultSet rs = stmt.getGeneratedKeys()) {
-                if (rs.next()) {
-                    return rs.getLong(1);
-                }
-                throw new SQLException("Failed to get generated theater ID");
-            }
-        }
-    }
-
-    public List<Theater> findAllTheaters() throws SQLException {
-        List<Theater> theaters = new ArrayList<>();
-        String sql = "SELECT id, name FROM theaters ORDER BY name";
-
-        try (Connection conn = dbManager.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
-            while (rs.next()) {
-                Theater theater = new Theater(rs.getLong("id"), rs.getString("name"));
-                theaters.add(theater);
-            }
-        }
-
-        return theaters;
-    }
-
-    public Theater findTheaterById(Long theaterId) throws SQLException {
-        Theater theater = null;
-
-        String theaterSql = "SELECT id, name FROM theaters WHERE id = ?";
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(theaterSql)) {
-
-            stmt.setLong(1, theaterId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    theater = new Theater(rs.getLong("id"), rs.getString("name"));
-                }
-            }
-        }
-
-        if (theater == null) return null;
-
-        loadSectionsForTheater(theater);
-
-        return theater;
+import java.util.Map;
+
+/**
+ * Storage for theaters, their layouts and seat statuses. {@link JdbcTheaterRepository} keeps
+ * them in PostgreSQL; {@link InMemoryTheaterRepository} keeps them in this process only.
+ * Status changes are conditional: a change whose seat is not in the expected status is not
+ * applied, and the multi-seat operations change all of their seats or none.
+ */
+public interface TheaterRepository {
+
+    /**
+     * The repository selected by repository.type in Config.properties. All callers share
+     * the same in-memory store and journal.
+     */
+    static TheaterRepository fromConfig() {
+        return switch (RepositoryType.fromConfig()) {
+            case MEMORY -> InMemoryTheaterRepository.getInstance();
+            case EMBEDDED -> JournaledTheaterRepository.getInstance();
+            case JDBC -> new JdbcTheaterRepository();
+        };
     }
 
-    private void loadSectionsForTheater(Theater theater) throws SQLException {
-        String sectionSql = "SELECT id, name FROM sections WHERE theater_id = ? ORDER BY name";
-
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sectionSql)) {
-
-            stmt.setLong(1, theater.getId());
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    Section section = new Section(rs.getLong("id"), rs.getString("name"));
-                    loadRowsForSection(section);
-                    theater.addSection(section);
-                }
-            }
-        }
-    }
+    Long createTheater(String name) throws SQLException;
 
-    private void loadRowsForSection(Section section) throws SQLException {
-        String rowSql = "SELECT id, number FROM rows WHERE section_id = ? ORDER BY number";
-
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(rowSql)) {
-
-            stmt.setLong(1, section.getId());
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    Row row = new Row(rs.getLong("id"), rs.getInt("number"));
-                    loadSeatsForRow(row);
-                    section.addRow(row);
-                }
-            }
-        }
-    }
+    /**
+     * All theaters in name order, without their layouts.
+     */
+    List<Theater> findAllTheaters() throws SQLException;
 
-    private void loadSeatsForRow(Row row) throws SQLException {
-        String seatSql = "SELECT id, number, status FROM seats WHERE row_id = ? ORDER BY number";
-
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(seatSql)) {
-
-            stmt.setLong(1, row.getId());
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    SeatStatus status = SeatStatus.valueOf(rs.getString("status"));
-                    Seat seat = new Seat(rs.getLong("id"), rs.getInt("number"), status);
-                    row.addSeat(seat);
-                }
-            }
-        }
-    }
-
-    public void bulkInsertTheaterLayout(Theater theater) throws SQLException {
-        try (Connection conn = dbManager.getConnection()) {
-            conn.setAutoCommit(false);
-
-            try {
-                insertSections(conn, theater);
-
-                for (Section section : theater.getSections()) {
-                    insertRows(conn, section);
-
-                    for (Row row : section.getRows()) {
-                        insertSeats(conn, row);
-                    }
-                }
-                conn.commit();
-                System.out.println("Theater layout inserted successfully.");
-
-            } catch (SQLException e) {
-                conn.rollback();
-                throw e;
-            } finally {
-                conn.setAutoCommit(true);
-            }
-        }
-    }
-
-    private void insertSections(Connection conn, Theater theater) throws SQLException {
-        String sql = "INSERT INTO sections (theater_id, name) VALUES (?, ?)";
-
-        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            for (Section section : theater.getSections()) {
-                stmt.setLong(1, theater.getId());
-                stmt.setString(2, section.getName());
-                stmt.addBatch();
-            }
-
-            stmt.executeBatch();
-
-            try (ResultSet rs = stmt.getGeneratedKeys()) {
-                int index = 0;
-                while (rs.next() && index < theater.getSections().size()) {
-                    theater.getSections().get(index++).setId(rs.getLong(1));
-                }
-            }
-        }
-    }
+    /**
+     * The theater with its full layout, or null if it does not exist.
+     */
+    Theater findTheaterById(Long theaterId) throws SQLException;
 
-    private void insertRows(Connection conn, Section section) throws SQLException {
-        String sql = "INSERT INTO rows (section_id, number) VALUES (?, ?)";
-
-        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            for (Row row : section.getRows()) {
-                stmt.setLong(1, section.getId());
-                stmt.setInt(2, row.getNumber());
-                stmt.addBatch();
-            }
-
-            stmt.executeBatch();
-
-            try (ResultSet rs = stmt.getGeneratedKeys()) {
-                int index = 0;
-                while (rs.next() && index < section.getRows().size()) {
-                    section.getRows().get(index++).setId(rs.getLong(1));
-                }
-            }
-        }
-    }
+    /**
+     * Seat counts of the theater and each of its sections, or null if the theater does not exist.
+     */
+    TheaterSummary findTheaterSummary(Long theaterId) throws SQLException;
 
-    private void insertSeats(Connection conn, Row row) throws SQLException {
-        String sql = "INSERT INTO seats (row_id, number, status) VALUES (?, ?, ?)";
-
-        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            for (Seat seat : row.getSeats()) {
-                stmt.setLong(1, row.getId());
-                stmt.setInt(2, seat.getNumber());
-                stmt.setString(3, seat.getStatus().name());
-                stmt.addBatch();
-            }
-
-            stmt.executeBatch();
-
-            try (ResultSet rs = stmt.getGeneratedKeys()) {
-                int index = 0;
-                while (rs.next() && index < row.getSeats().size()) {
-                    row.getSeats().get(index++).setId(rs.getLong(1));
-                }
-            }
-        }
+    default List<TheaterSummary> findAllTheaterSummaries() throws SQLException {
+        return findAllTheaterSummaries(null, 0, 0);
     }
 
-    public boolean updateSeatStatus(Long seatId, SeatStatus status) throws SQLException {
-        String sql = "UPDATE seats SET status = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
-
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, status.name());
-            stmt.setLong(2, seatId);
-
-            return stmt.executeUpdate() > 0;
-        }
+    /**
+     * One page of theater totals in name order. Pages are keyed on the (unique) theater name:
+     * pass the last name of the previous page as afterName, or null for the first page.
+     * A limit of 0 returns all theaters after afterName.
+     */
+    List<TheaterSummary> findAllTheaterSummaries(String afterName, int minAvailableSeats, int limit) throws SQLException;
+
+    /**
+     * Streams the seats of a theater to the handler without building the layout, ordered by
+     * section name, row number and seat number, optionally limited to one section
+     * (sectionName not null) and a range of row numbers.
+     */
+    void streamSeatRuns(Long theaterId, String sectionName, int fromRow, int toRow,
+                        SeatRunHandler handler) throws SQLException;
+
+    /**
+     * The current time on the clock the store stamps seat changes with.
+     */
+    long currentTimeMillis() throws SQLException;
+
+    /**
+     * Seats of the theater whose status changed, or that were added, after sinceMillis on the
+     * store's clock, with their current status and version.
+     */
+    List<Seat> findSeatsChangedSince(Long theaterId, long sinceMillis) throws SQLException;
+
+    /**
+     * Ids of the seats, across all theaters, that are RESERVED and have not changed since
+     * beforeMillis on the store's clock.
+     */
+    List<Long> findSeatsReservedBefore(long beforeMillis) throws SQLException;
+
+    /**
+     * Stores the sections, rows and seats of the theater, which must already exist, and
+     * gives each of them its id.
+     */
+    void bulkInsertTheaterLayout(Theater theater) throws SQLException;
+
+    /**
+     * Same as {@link #bulkInsertTheaterLayout} through the store's bulk load path, if it has one.
+     */
+    default void copyInsertTheaterLayout(Theater theater) throws SQLException {
+        bulkInsertTheaterLayout(theater);
     }
 
-    public boolean bookSeat(Long seatId) throws SQLException {
-        String sql = "UPDATE seats SET status = 'BOOKED', updated_at = CURRENT_TIMESTAMP " +
-                "WHERE id = ? AND status = 'AVAILABLE'";
-
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setLong(1, seatId);
-            return stmt.executeUpdate() > 0;
-        }
+    /**
+     * Same as {@link #bulkInsertTheaterLayout} for sections handed over one at a time, so only
+     * the section being written has to be in memory. All of them are stored in one transaction:
+     * none are if the source or any insert fails.
+     */
+    void bulkInsertSections(Long theaterId, SectionSource source) throws SQLException;
+
+    /**
+     * Same as {@link #bulkInsertSections} through the store's bulk load path, if it has one.
+     */
+    default void copyInsertSections(Long theaterId, SectionSource source) throws SQLException {
+        bulkInsertSections(theaterId, source);
     }
 
-    public boolean cancelBooking(Long seatId) throws SQLException {
-        String sql = "UPDATE seats SET status = 'AVAILABLE', updated_at = CURRENT_TIMESTAMP " +
-                "WHERE id = ? AND status = 'BOOKED'";
-
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setLong(1, seatId);
-            return stmt.executeUpdate() > 0;
-        }
-    }
+    /**
+     * Sets the seat's status whatever it was. Returns false if the seat does not exist.
+     */
+    boolean updateSeatStatus(Long seatId, SeatStatus status) throws SQLException;
+
+    boolean bookSeat(Long seatId) throws SQLException;
+
+    boolean cancelBooking(Long seatId) throws SQLException;
+
+    /**
+     * Books the seat if it is still AVAILABLE at expectedVersion. On a conflict the result
+     * carries the seat's current status and version.
+     */
+    SeatUpdateResult bookSeat(Long seatId, long expectedVersion) throws SQLException;
+
+    SeatUpdateResult cancelBooking(Long seatId, long expectedVersion) throws SQLException;
+
+    /**
+     * Books all given seats or none of them.
+     */
+    SeatBatchResult bookSeats(Collection<Long> seatIds) throws SQLException;
+
+    /**
+     * Cancels the bookings of all given seats or none of them.
+     */
+    SeatBatchResult cancelBookings(Collection<Long> seatIds) throws SQLException;
+
+    /**
+     * Sets the status of each given seat that exists. Returns the number of seats updated.
+     */
+    int applySeatStatuses(Map<Long, SeatStatus> statuses) throws SQLException;
+
+    /**
+     * Sets the status of every seat in the given ranges of an existing layout and returns
+     * how many seats were updated for each range. The change only takes effect if every seat
+     * of every range exists; otherwise nothing is changed and the counts show which ranges
+     * fell short.
+     */
+    int[] updateSeatRangeStatuses(Long theaterId, List<SeatRange> ranges) throws SQLException;
+
+    /**
+     * Applies many independent seat transitions at once and returns, for each transition,
+     * whether it took effect. Several transitions of the same seat are decided in the order given.
+     */
+    boolean[] applySeatTransitions(List<SeatTransition> transitions) throws SQLException;
+
+    /**
+     * Reserves all given seats or none of them.
+     */
+    SeatBatchResult holdSeats(Collection<Long> seatIds) throws SQLException;
+
+    /**
+     * Books all given reserved seats or none of them.
+     */
+    SeatBatchResult confirmHeldSeats(Collection<Long> seatIds) throws SQLException;
+
+    /**
+     * Makes reserved seats available again and returns the ids that were released. Seats
+     * that are no longer reserved are left alone, so expired holds from many checkouts can
+     * be released together.
+     */
+    List<Long> releaseHeldSeats(Collection<Long> seatIds) throws SQLException;
 }
@@ -0,0 +1,180 @@
+package org.example.service;
+
+import org.example.model.SeatStatus;
+import org.example.model.SeatTransition;
+import org.example.repository.TheaterRepository;
+import org.example.util.ConfigLoader;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Group commit for single-seat bookings and cancellations. Requests are queued and one
+ * committer thread takes everything that arrives within a short window, up to a size limit,
+ * and applies it as one transaction of set-based UPDATEs. Each caller's future completes
+ * with whether its own request took effect, so commit cost is shared by the whole batch.
+ */
+public class BookingPipeline {
+
+    private static final long POLL_MILLIS = 100;
+
+    private final TheaterRepository theaterRepository;
+    private final long windowNanos;
+    private final int maxBatchSize;
+
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong requests = new AtomicLong();
+
+    private Thread committer;
+    private volatile boolean running;
+    private volatile boolean stopped;
+
+    public BookingPipeline(TheaterRepository theaterRepository) {
+        this(theaterRepository,
+                ConfigLoader.getLongProperty("pipeline.windowMicros", 2000) * 1000L,
+                ConfigLoader.getIntProperty("pipeline.maxBatchSize", 500));
+    }
+
+    public BookingPipeline(TheaterRepository theaterRepository, long windowNanos, int maxBatchSize) {
+        if (windowNanos < 0 || maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Invalid pipeline window or batch size");
+        }
+        this.theaterRepository = theaterRepository;
+        this.windowNanos = windowNanos;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public CompletableFuture<Boolean> bookSeat(Long seatId) {
+        return submit(new SeatTransition(seatId, SeatStatus.AVAILABLE, SeatStatus.BOOKED));
+    }
+
+    public CompletableFuture<Boolean> cancelBooking(Long seatId) {
+        return submit(new SeatTransition(seatId, SeatStatus.BOOKED, SeatStatus.AVAILABLE));
+    }
+
+    public CompletableFuture<Boolean> submit(SeatTransition transition) {
+        if (transition.getSeatId() == null) {
+            throw new IllegalArgumentException("Seat id cannot be null");
+        }
+        Request request = new Request(transition);
+        synchronized (this) {
+            // Checked under the lock so nothing is queued after the committer has drained
+            if (stopped) {
+                throw new IllegalStateException("Booking pipeline has been shut down");
+            }
+            startCommitter();
+            queue.add(request);
+        }
+        return request.result;
+    }
+
+    private synchronized void startCommitter() {
+        if (committer != null) {
+            return;
+        }
+        running = true;
+        committer = new Thread(this::runCommitter, "booking-pipeline");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    private void runCommitter() {
+        List<Request> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Request first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Request next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                commit(batch);
+            } catch (InterruptedException e) {
+                // Shutdown: commit what was already taken, then finish what is queued
+                // without waiting for more
+                running = false;
+                if (!batch.isEmpty()) {
+                    commit(batch);
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<Request> batch) {
+        List<SeatTransition> transitions = new ArrayList<>(batch.size());
+        for (Request request : batch) {
+            transitions.add(request.transition);
+        }
+
+        try {
+            boolean[] applied = theaterRepository.applySeatTransitions(transitions);
+            batches.incrementAndGet();
+            requests.addAndGet(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(applied[i]);
+            }
+        } catch (SQLException | RuntimeException e) {
+            for (Request request : batch) {
+                request.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    public double getAverageBatchSize() {
+        long count = batches.get();
+        return count == 0 ? 0 : (double) requests.get() / count;
+    }
+
+    /**
+     * Stops accepting requests, commits everything already queued and waits for the
+     * committer to finish.
+     */
+    public void shutdown() {
+        Thread thread;
+        synchronized (this) {
+            stopped = true;
+            running = false;
+            thread = committer;
+        }
+        if (thread == null) {
+            return;
+        }
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class Request {
+        private final SeatTransition transition;
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        Request(SeatTransition transition) {
+            this.transition = transition;
+        }
+    }
+}
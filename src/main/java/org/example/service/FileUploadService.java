@@ -4,9 +4,13 @@ import com.opencsv.CSVReader;
 import com.opencsv.exceptions.CsvException;
 import org.example.exception.BusinessException;
 import org.example.model.*;
+import org.example.repository.IngestMode;
+import org.example.repository.SectionSink;
+import org.example.repository.SectionSource;
 import org.example.repository.TheaterRepository;
+import org.example.util.ConfigLoader;
+import org.example.util.ThreadExecutors;
 
-import java.io.FileReader;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -15,25 +19,80 @@ import java.sql.SQLException;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 public class FileUploadService {
 
+    private static final long DEFAULT_MAX_FILE_SIZE = 10 * 1024 * 1024; // 10MB
+    private static final int DEFAULT_MAX_ERRORS = 100;
+
     private final TheaterRepository theaterRepository;
     private final ExecutorService executorService;
     private final int maxConcurrentUploads;
+    private final IngestMode ingestMode;
+    private final long maxFileSize;
+    private final long parallelBuildSeats;
+    private final int maxErrors;
+
+    // Files being processed at once, and uploads holding a database connection at once
+    private final Semaphore uploadPermits;
+    private final Semaphore connectionPermits;
 
     public FileUploadService() {
-        this.theaterRepository = new TheaterRepository();
-        this.maxConcurrentUploads = 5; // From config
-        this.executorService = Executors.newFixedThreadPool(maxConcurrentUploads);
+        this(TheaterRepository.fromConfig(),
+                ConfigLoader.getIntProperty("upload.maxConcurrentUploads", 5),
+                IngestMode.fromConfig(),
+                useVirtualThreadsFromConfig());
     }
 
     public FileUploadService(TheaterRepository theaterRepository, int maxConcurrentUploads) {
+        this(theaterRepository, maxConcurrentUploads, IngestMode.BATCH);
+    }
+
+    public FileUploadService(TheaterRepository theaterRepository, int maxConcurrentUploads, IngestMode ingestMode) {
+        this(theaterRepository, maxConcurrentUploads, ingestMode, false);
+    }
+
+    public FileUploadService(TheaterRepository theaterRepository, int maxConcurrentUploads,
+                             IngestMode ingestMode, boolean useVirtualThreads) {
+        if (maxConcurrentUploads <= 0) {
+            throw new IllegalArgumentException("Maximum concurrent uploads must be positive");
+        }
         this.theaterRepository = theaterRepository;
         this.maxConcurrentUploads = maxConcurrentUploads;
-        this.executorService = Executors.newFixedThreadPool(maxConcurrentUploads);
+        this.ingestMode = ingestMode;
+        this.maxFileSize = ConfigLoader.getSizeProperty("upload.maxFileSize", DEFAULT_MAX_FILE_SIZE);
+        this.parallelBuildSeats = ConfigLoader.getLongProperty("upload.parallelBuildSeats", 200_000);
+        this.maxErrors = ConfigLoader.getIntProperty("upload.maxErrors", DEFAULT_MAX_ERRORS);
+        this.uploadPermits = new Semaphore(maxConcurrentUploads);
+
+        // Leave some pool connections for bookings while uploads are running
+        int poolSize = ConfigLoader.getIntProperty("db.pool.maximumPoolSize", 10);
+        int reserved = ConfigLoader.getIntProperty("upload.reservedConnections", 2);
+        this.connectionPermits = new Semaphore(Math.max(1, poolSize - reserved));
+
+        if (useVirtualThreads) {
+            this.executorService = ThreadExecutors.newVirtualThreadPerTaskExecutor();
+        } else {
+            this.executorService = ThreadExecutors.newBoundedThreadPool("csv-upload", maxConcurrentUploads,
+                    ConfigLoader.getIntProperty("upload.queueCapacity", 100));
+        }
+    }
+
+    private static boolean useVirtualThreadsFromConfig() {
+        String mode = ConfigLoader.getProperty("upload.executor", "platform").trim();
+        if (!mode.equalsIgnoreCase("virtual")) {
+            return false;
+        }
+        if (!ThreadExecutors.virtualThreadsSupported()) {
+            System.err.println("Virtual threads are not available on Java " + Runtime.version().feature() +
+                    ". Using a platform thread pool for uploads.");
+            return false;
+        }
+        return true;
     }
 
     /*
@@ -45,7 +104,7 @@ public class FileUploadService {
                 .map(filePath -> processFileAsync(filePath, theaterId))
                 .collect(Collectors.toList());
 
-        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
                 .thenApply(v -> futures.stream()
                         .map(CompletableFuture::join)
                         .collect(Collectors.toList()));
@@ -56,11 +115,43 @@ public class FileUploadService {
      */
 
     public CompletableFuture<UploadResult> processFileAsync(String filePath, Long theaterId) {
+        return runAsync(filePath, () -> processCsvFile(filePath, theaterId));
+    }
+
+    /*
+     * Process multiple status update files asynchronously
+     */
+
+    public CompletableFuture<List<UploadResult>> processMultipleStatusUpdates(List<String> filePaths, Long theaterId) {
+        List<CompletableFuture<UploadResult>> futures = filePaths.stream()
+                .map(filePath -> processStatusUpdateAsync(filePath, theaterId))
+                .collect(Collectors.toList());
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .thenApply(v -> futures.stream()
+                        .map(CompletableFuture::join)
+                        .collect(Collectors.toList()));
+    }
+
+    public CompletableFuture<UploadResult> processStatusUpdateAsync(String filePath, Long theaterId) {
+        return runAsync(filePath, () -> processStatusUpdateFile(filePath, theaterId));
+    }
+
+    private CompletableFuture<UploadResult> runAsync(String filePath, Supplier<UploadResult> upload) {
         return CompletableFuture.supplyAsync(() -> {
             try {
-                return processCsvFile(filePath, theaterId);
+                uploadPermits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new UploadResult(filePath, false, "Upload interrupted", 0);
+            }
+
+            try {
+                return upload.get();
             } catch (Exception e) {
                 return new UploadResult(filePath, false, e.getMessage(), 0);
+            } finally {
+                uploadPermits.release();
             }
         }, executorService);
     }
@@ -74,24 +165,120 @@ public class FileUploadService {
             // Validate file
             validateFile(filePath);
 
-            // Parse and verify format
-            List<SeatData> seatDataList = parseCsvFile(filePath);
+            // First pass: verify one record at a time and note where each section ends.
+            // Nothing but the verifier's duplicate index and the section ends is kept.
+            SeatDataVerifier verifier = new SeatDataVerifier(maxErrors);
+            TheaterLayoutBuilder layoutBuilder = new TheaterLayoutBuilder(theaterId, parallelBuildSeats);
+
+            int recordsProcessed = parseCsvFile(filePath, seatData -> {
+                if (verifier.verifySeatData(seatData)) {
+                    layoutBuilder.plan(seatData);
+                }
+            });
+
+            // Report every integrity error found in the file
+            verifier.finish();
+
+            // Second pass: each section is written as soon as its last record is read and its
+            // records are dropped, all in one transaction. The file is verified again in case
+            // it changed in between; any error undoes the insert.
+            SectionSource sections = sink -> {
+                SeatDataVerifier reread = new SeatDataVerifier(maxErrors);
+                try {
+                    parseCsvFile(filePath, seatData -> {
+                        if (reread.verifySeatData(seatData)) {
+                            try {
+                                layoutBuilder.write(seatData, sink);
+                            } catch (SQLException e) {
+                                throw new SectionWriteException(e);
+                            }
+                        }
+                    });
+                } catch (SectionWriteException e) {
+                    throw e.getCause();
+                }
+                reread.finish();
+                layoutBuilder.finish();
+            };
+
+            // Insert, holding one of the connection permits for the duration
+            connectionPermits.acquire();
+            try {
+                if (ingestMode == IngestMode.COPY) {
+                    theaterRepository.copyInsertSections(theaterId, sections);
+                } else {
+                    theaterRepository.bulkInsertSections(theaterId, sections);
+                }
+            } finally {
+                connectionPermits.release();
+            }
+
+            return new UploadResult(filePath, true, "Success", recordsProcessed);
+
+        } catch (BusinessException e) {
+            return new UploadResult(filePath, false, "Business Error: " + e.getMessage(), 0);
+        } catch (SQLException e) {
+            return new UploadResult(filePath, false, "Database Error: " + e.getMessage(), 0);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new UploadResult(filePath, false, "Upload interrupted", 0);
+        } catch (Exception e) {
+            return new UploadResult(filePath, false, "Unexpected Error: " + e.getMessage(), 0);
+        }
+    }
+
+    /*
+     * Apply a status update file to the theater's existing seats. The file uses the layout
+     * format with a mandatory status column; every range must refer to existing seats.
+     */
+
+    public UploadResult processStatusUpdateFile(String filePath, Long theaterId) {
+        try {
+            validateFile(filePath);
+
+            SeatDataVerifier verifier = new SeatDataVerifier(maxErrors);
+            List<SeatRange> ranges = new ArrayList<>();
+            List<Integer> lineNumbers = new ArrayList<>();
 
-            // Verify data integrity
-            verifySeatData(seatDataList);
+            int recordsProcessed = parseCsvFile(filePath, true, seatData -> {
+                if (verifier.verifySeatData(seatData)) {
+                    ranges.add(new SeatRange(seatData.getSectionName(), seatData.getRowNumber(),
+                            seatData.getSeatStart(), seatData.getSeatEnd(), seatData.getStatus()));
+                    lineNumbers.add(seatData.getLineNumber());
+                }
+            });
+
+            verifier.finish();
 
-            // Convert to theater layout
-            Theater theaterLayout = convertToTheaterLayout(seatDataList, theaterId);
+            int[] updated;
+            connectionPermits.acquire();
+            try {
+                updated = theaterRepository.updateSeatRangeStatuses(theaterId, ranges);
+            } finally {
+                connectionPermits.release();
+            }
 
-            // Bulk insert
-            theaterRepository.bulkInsertTheaterLayout(theaterLayout);
+            List<String> errors = new ArrayList<>();
+            for (int i = 0; i < ranges.size(); i++) {
+                if (updated[i] != ranges.get(i).getSeatCount()) {
+                    errors.add("Line " + lineNumbers.get(i) + ": Seats not found: " + ranges.get(i).getSectionName() +
+                            " row " + ranges.get(i).getRowNumber() + " seats " +
+                            ranges.get(i).getSeatStart() + "-" + ranges.get(i).getSeatEnd());
+                }
+            }
+            if (!errors.isEmpty()) {
+                throw new BusinessException("No seats were updated:\n" + String.join("\n", errors));
+            }
 
-            return new UploadResult(filePath, true, "Success", seatDataList.size());
+            return new UploadResult(filePath, true, "Success", recordsProcessed);
 
         } catch (BusinessException e) {
             return new UploadResult(filePath, false, "Business Error: " + e.getMessage(), 0);
         } catch (SQLException e) {
             return new UploadResult(filePath, false, "Database Error: " + e.getMessage(), 0);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new UploadResult(filePath, false, "Upload interrupted", 0);
         } catch (Exception e) {
             return new UploadResult(filePath, false, "Unexpected Error: " + e.getMessage(), 0);
         }
@@ -113,34 +300,45 @@ public class FileUploadService {
 
         try {
             long fileSize = Files.size(path);
-            long maxSize = 10 * 1024 * 1024; // 10MB
-            if (fileSize > maxSize) {
-                throw new BusinessException("File size exceeds maximum allowed size of 10MB");
+            if (fileSize > maxFileSize) {
+                throw new BusinessException("File size exceeds maximum allowed size of " +
+                        ConfigLoader.formatSize(maxFileSize));
             }
         } catch (IOException e) {
             throw new BusinessException("Cannot read file size: " + e.getMessage());
         }
     }
 
-    private List<SeatData> parseCsvFile(String filePath) {
-        List<SeatData> seatDataList = new ArrayList<>();
+    /*
+     * Reads records lazily and hands each one to the consumer; returns the number of records read.
+     */
+    int parseCsvFile(String filePath, Consumer<SeatData> consumer) {
+        return parseCsvFile(filePath, false, consumer);
+    }
 
-        try (CSVReader reader = new CSVReader(new FileReader(filePath))) {
-            List<String[]> records = reader.readAll();
+    int parseCsvFile(String filePath, boolean requireStatus, Consumer<SeatData> consumer) {
+        try (CSVReader reader = new CSVReader(Files.newBufferedReader(Paths.get(filePath)))) {
+            String[] headers = reader.readNext();
 
-            if (records.isEmpty()) {
+            if (headers == null) {
                 throw new BusinessException("CSV file is empty");
             }
 
             // Validate headers
-            String[] headers = records.get(0);
             validateCsvHeaders(headers);
+            if (requireStatus && headers.length < 5) {
+                throw new BusinessException("Status update files must have a status column");
+            }
 
             // Process data rows
-            for (int i = 1; i < records.size(); i++) {
-                String[] record = records.get(i);
+            int recordCount = 0;
+            String[] record;
+            while ((record = reader.readNext()) != null) {
+                recordCount++;
+                int lineNumber = recordCount + 1; // header is line 1
+
                 if (record.length < 4) {
-                    throw new BusinessException("Invalid data at line " + (i + 1) + ": insufficient columns");
+                    throw new BusinessException("Invalid data at line " + lineNumber + ": insufficient columns");
                 }
 
                 try {
@@ -150,25 +348,28 @@ public class FileUploadService {
                             Integer.parseInt(record[2].trim()), // seat_start
                             Integer.parseInt(record[3].trim())  // seat_end
                     );
+                    seatData.setLineNumber(lineNumber);
 
                     if (record.length > 4 && !record[4].trim().isEmpty()) {
                         seatData.setStatus(SeatStatus.valueOf(record[4].trim().toUpperCase()));
+                    } else if (requireStatus) {
+                        throw new BusinessException("Missing seat status at line " + lineNumber);
                     }
 
-                    seatDataList.add(seatData);
+                    consumer.accept(seatData);
 
                 } catch (NumberFormatException e) {
-                    throw new BusinessException("Invalid number format at line " + (i + 1) + ": " + e.getMessage());
+                    throw new BusinessException("Invalid number format at line " + lineNumber + ": " + e.getMessage());
                 } catch (IllegalArgumentException e) {
-                    throw new BusinessException("Invalid seat status at line " + (i + 1) + ": " + e.getMessage());
+                    throw new BusinessException("Invalid seat status at line " + lineNumber + ": " + e.getMessage());
                 }
             }
 
+            return recordCount;
+
         } catch (IOException | CsvException e) {
             throw new BusinessException("Error reading CSV file: " + e.getMessage(), e);
         }
-
-        return seatDataList;
     }
 
     private void validateCsvHeaders(String[] headers) {
@@ -194,81 +395,268 @@ public class FileUploadService {
         }
     }
 
-    private void verifySeatData(List<SeatData> seatDataList) {
-        if (seatDataList.isEmpty()) {
-            throw new BusinessException("No valid seat data found in CSV file");
+    /*
+     * Packs a section index and row number into one key, so rows are found with a single
+     * hash lookup instead of a string key or a scan of the section's rows.
+     */
+    static long rowKey(int sectionIndex, int rowNumber) {
+        return ((long) sectionIndex << 32) | (rowNumber & 0xFFFFFFFFL);
+    }
+
+    /*
+     * Verifies records as they stream in and collects their errors, so the file is reported
+     * at once when finish() is called; after maxErrors errors it gives up at once instead.
+     * Duplicates are found by keeping the seat numbers already seen in each row as merged
+     * ranges, so a record costs a few tree lookups however many seats it covers, and each
+     * overlap is reported as one range.
+     */
+    static class SeatDataVerifier {
+        private final int maxErrors;
+        private final List<String> errors = new ArrayList<>();
+        private final Map<String, Integer> sectionIndexes = new HashMap<>();
+        // Row key -> seen seat ranges, start -> end (inclusive)
+        private final Map<Long, TreeMap<Integer, Integer>> seenSeats = new HashMap<>();
+        private int recordCount;
+
+        SeatDataVerifier() {
+            this(DEFAULT_MAX_ERRORS);
         }
 
-        List<String> errors = new ArrayList<>();
-        Set<String> duplicateCheck = new HashSet<>();
+        SeatDataVerifier(int maxErrors) {
+            if (maxErrors <= 0) {
+                throw new IllegalArgumentException("Maximum error count must be positive");
+            }
+            this.maxErrors = maxErrors;
+        }
 
-        for (int i = 0; i < seatDataList.size(); i++) {
-            SeatData data = seatDataList.get(i);
-            int lineNumber = i + 2; // +2 because index starts at 0 and we skip header
+        boolean verifySeatData(SeatData data) {
+            recordCount++;
+            int lineNumber = data.getLineNumber();
+            int errorCount = errors.size();
 
             // Validate seat range
             if (data.getSeatStart() <= 0 || data.getSeatEnd() <= 0) {
-                errors.add("Line " + lineNumber + ": Seat numbers must be positive");
+                error("Line " + lineNumber + ": Seat numbers must be positive");
             }
 
             if (data.getSeatStart() > data.getSeatEnd()) {
-                errors.add("Line " + lineNumber + ": seat_start cannot be greater than seat_end");
+                error("Line " + lineNumber + ": seat_start cannot be greater than seat_end");
             }
 
             if (data.getRowNumber() <= 0) {
-                errors.add("Line " + lineNumber + ": Row number must be positive");
+                error("Line " + lineNumber + ": Row number must be positive");
             }
 
             if (data.getSectionName().isEmpty()) {
-                errors.add("Line " + lineNumber + ": Section name cannot be empty");
+                error("Line " + lineNumber + ": Section name cannot be empty");
             }
 
             // Check for duplicates
-            for (int seatNum = data.getSeatStart(); seatNum <= data.getSeatEnd(); seatNum++) {
-                String seatKey = data.getSectionName() + "-" + data.getRowNumber() + "-" + seatNum;
-                if (!duplicateCheck.add(seatKey)) {
-                    errors.add("Line " + lineNumber + ": Duplicate seat found: " + seatKey);
+            if (data.getSeatStart() <= data.getSeatEnd()) {
+                int sectionIndex = sectionIndexes.computeIfAbsent(data.getSectionName(), name -> sectionIndexes.size());
+                TreeMap<Integer, Integer> seen = seenSeats.computeIfAbsent(
+                        rowKey(sectionIndex, data.getRowNumber()), key -> new TreeMap<>());
+                addSeats(seen, data);
+            }
+
+            return errors.size() == errorCount;
+        }
+
+        /*
+         * Reports the seats of the record that were already seen and merges its range into
+         * the row's ranges, joining ranges that overlap or touch.
+         */
+        private void addSeats(TreeMap<Integer, Integer> seen, SeatData data) {
+            int start = data.getSeatStart();
+            int end = data.getSeatEnd();
+            int mergedStart = start;
+            int mergedEnd = end;
+
+            Integer from = seen.floorKey(start);
+            Iterator<Map.Entry<Integer, Integer>> ranges = seen.tailMap(from == null ? start : from, true).entrySet().iterator();
+            while (ranges.hasNext()) {
+                Map.Entry<Integer, Integer> range = ranges.next();
+                if ((long) range.getKey() > (long) end + 1) {
+                    break;
+                }
+                if ((long) range.getValue() + 1 < start) {
+                    continue;
+                }
+
+                int overlapStart = Math.max(start, range.getKey());
+                int overlapEnd = Math.min(end, range.getValue());
+                if (overlapStart <= overlapEnd) {
+                    String seat = data.getSectionName() + "-" + data.getRowNumber() + "-";
+                    error("Line " + data.getLineNumber() + (overlapStart == overlapEnd
+                            ? ": Duplicate seat found: " + seat + overlapStart
+                            : ": Duplicate seats found: " + seat + overlapStart + " to " + seat + overlapEnd));
                 }
+                mergedStart = Math.min(mergedStart, range.getKey());
+                mergedEnd = Math.max(mergedEnd, range.getValue());
+                ranges.remove();
+            }
+            seen.put(mergedStart, mergedEnd);
+        }
+
+        void finish() {
+            if (recordCount == 0) {
+                throw new BusinessException("No valid seat data found in CSV file");
+            }
+
+            if (!errors.isEmpty()) {
+                throw new BusinessException("Data validation failed:\n" + String.join("\n", errors));
             }
         }
 
-        if (!errors.isEmpty()) {
-            throw new BusinessException("Data validation failed:\n" + String.join("\n", errors));
+        private void error(String message) {
+            errors.add(message);
+            if (errors.size() >= maxErrors) {
+                throw new BusinessException("Data validation failed:\n" + String.join("\n", errors) +
+                        "\nStopped after " + maxErrors + " errors");
+            }
         }
     }
 
-    private Theater convertToTheaterLayout(List<SeatData> seatDataList, Long theaterId) {
-        Theater theater = new Theater(theaterId, "Theater " + theaterId);
-        Map<String, Section> sectionMap = new HashMap<>();
+    /*
+     * Builds the theater layout from verified records. build() groups every record by section
+     * and row and creates all seats at once, one section per task when the layout has at least
+     * parallelThreshold seats. For uploads, plan() first notes the last line of each section;
+     * write() then hands each section to the sink as soon as that line is added and drops its
+     * records, building its rows in parallel when the section alone reaches parallelThreshold.
+     */
+    static class TheaterLayoutBuilder {
+        private final Long theaterId;
+        private final long parallelThreshold;
+        private final Map<String, SectionBuilder> sections = new LinkedHashMap<>();
+        private final Map<Long, RowBuilder> rows = new HashMap<>();
+        // Section name -> line of its last record, from plan()
+        private final Map<String, Integer> lastLines = new HashMap<>();
+        private int sectionCount;
+        private int sectionsWritten;
+        private long seatCount;
+
+        TheaterLayoutBuilder(Long theaterId) {
+            this(theaterId, Long.MAX_VALUE);
+        }
+
+        TheaterLayoutBuilder(Long theaterId, long parallelThreshold) {
+            this.theaterId = theaterId;
+            this.parallelThreshold = parallelThreshold;
+        }
 
-        for (SeatData data : seatDataList) {
+        void add(SeatData data) {
             // Get or create section
-            Section section = sectionMap.computeIfAbsent(data.getSectionName(),
-                    name -> {
-                        Section s = new Section(name);
-                        theater.addSection(s);
-                        return s;
-                    });
+            SectionBuilder section = sections.computeIfAbsent(data.getSectionName(),
+                    name -> new SectionBuilder(name, sectionCount++));
+
+            // Get or create row
+            RowBuilder row = rows.computeIfAbsent(rowKey(section.index, data.getRowNumber()), key -> {
+                RowBuilder r = new RowBuilder(data.getRowNumber());
+                section.rows.add(r);
+                return r;
+            });
+
+            row.ranges.add(data);
+            long seats = data.getSeatEnd() - data.getSeatStart() + 1;
+            section.seatCount += seats;
+            seatCount += seats;
+        }
 
-            // Find or create row
-            Row row = section.getRows().stream()
-                    .filter(r -> r.getNumber() == data.getRowNumber())
-                    .findFirst()
-                    .orElseGet(() -> {
-                        Row r = new Row(data.getRowNumber());
-                        section.addRow(r);
-                        return r;
-                    });
+        void plan(SeatData data) {
+            lastLines.put(data.getSectionName(), data.getLineNumber());
+        }
+
+        void write(SeatData data, SectionSink sink) throws SQLException {
+            Integer lastLine = lastLines.get(data.getSectionName());
+            if (lastLine == null || data.getLineNumber() > lastLine) {
+                throw new BusinessException("File changed while it was being loaded");
+            }
+            add(data);
+            if (data.getLineNumber() < lastLine) {
+                return;
+            }
+
+            SectionBuilder section = sections.remove(data.getSectionName());
+            for (RowBuilder row : section.rows) {
+                rows.remove(rowKey(section.index, row.number));
+            }
+            seatCount -= section.seatCount;
+            sink.accept(section.build(section.seatCount >= parallelThreshold));
+            sectionsWritten++;
+        }
 
-            // Add seats
-            for (int seatNum = data.getSeatStart(); seatNum <= data.getSeatEnd(); seatNum++) {
-                Seat seat = new Seat(seatNum);
-                seat.setStatus(data.getStatus());
-                row.addSeat(seat);
+        void finish() {
+            if (sectionsWritten != lastLines.size()) {
+                throw new BusinessException("File changed while it was being loaded");
             }
         }
 
-        return theater;
+        Theater build() {
+            Collection<SectionBuilder> pending = sections.values();
+            List<Section> built = seatCount >= parallelThreshold && pending.size() > 1
+                    ? pending.parallelStream().map(section -> section.build(false)).collect(Collectors.toList())
+                    : pending.stream().map(section -> section.build(false)).collect(Collectors.toList());
+
+            Theater theater = new Theater(theaterId, "Theater " + theaterId);
+            built.forEach(theater::addSection);
+            return theater;
+        }
+    }
+
+    private static class SectionBuilder {
+        private final String name;
+        private final int index;
+        private final List<RowBuilder> rows = new ArrayList<>();
+        private long seatCount;
+
+        SectionBuilder(String name, int index) {
+            this.name = name;
+            this.index = index;
+        }
+
+        // Touches only this section's objects, so sections can be built concurrently
+        Section build(boolean parallelRows) {
+            List<Row> built = parallelRows && rows.size() > 1
+                    ? rows.parallelStream().map(RowBuilder::build).collect(Collectors.toList())
+                    : rows.stream().map(RowBuilder::build).collect(Collectors.toList());
+
+            Section section = new Section(name);
+            built.forEach(section::addRow);
+            return section;
+        }
+    }
+
+    private static class RowBuilder {
+        private final int number;
+        private final List<SeatData> ranges = new ArrayList<>(1);
+
+        RowBuilder(int number) {
+            this.number = number;
+        }
+
+        Row build() {
+            Row row = new Row(number);
+            for (SeatData data : ranges) {
+                for (int seatNum = data.getSeatStart(); seatNum <= data.getSeatEnd(); seatNum++) {
+                    Seat seat = new Seat(seatNum);
+                    seat.setStatus(data.getStatus());
+                    row.addSeat(seat);
+                }
+            }
+            return row;
+        }
+    }
+
+    // Carries a failed section insert out of the record consumer of the second pass
+    private static class SectionWriteException extends RuntimeException {
+        SectionWriteException(SQLException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized SQLException getCause() {
+            return (SQLException) super.getCause();
+        }
     }
 
     public void shutdown() {
@@ -282,6 +670,7 @@ public class FileUploadService {
         private int seatStart;
         private int seatEnd;
         private SeatStatus status = SeatStatus.AVAILABLE;
+        private int lineNumber;
 
         public SeatData(String sectionName, int rowNumber, int seatStart, int seatEnd) {
             this.sectionName = sectionName;
@@ -305,6 +694,9 @@ public class FileUploadService {
 
         public SeatStatus getStatus() { return status; }
         public void setStatus(SeatStatus status) { this.status = status; }
+
+        public int getLineNumber() { return lineNumber; }
+        public void setLineNumber(int lineNumber) { this.lineNumber = lineNumber; }
     }
 
     public static class UploadResult {
@@ -0,0 +1,467 @@
+package org.example.service;
+
+import org.example.model.*;
+import org.example.repository.SeatRunHandler;
+import org.example.repository.TheaterRepository;
+import org.example.util.ConfigLoader;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the seat state of one busy theater in memory so bookings do not wait on a database
+ * round trip. Status changes are decided under striped per-row locks (seats of the same row
+ * always share a stripe, stripes are taken in ascending order) and are flushed to the seats
+ * table in the background. Changes are coalesced per seat and written in the order they were
+ * made, one batch at a time.
+ *
+ * Seat counts per section and status are kept next to the statuses, changed under the same
+ * stripe locks, so summaries are answered without looking at any seat.
+ *
+ * While the engine runs it owns the seat state of its theater; changes written to the
+ * database by other means are only picked up by {@link #reconcile()}.
+ */
+public class HotTheaterEngine {
+
+    private static final SeatStatus[] STATUSES = SeatStatus.values();
+
+    private final Long theaterId;
+    private final TheaterRepository theaterRepository;
+    private final ReentrantLock[] stripes;
+    private final long flushIntervalMillis;
+    private final int flushBatchSize;
+
+    // Fixed once the layout is loaded; seats are indexed in layout order
+    private Theater layout;
+    private Map<Long, Integer> seatIndex;
+    private int[] seatRow;
+    private int[] seatSection;
+    // Index of the first seat of each section's rows, by section and row position
+    private int[][] rowStart;
+    private AtomicIntegerArray statuses;
+    // Section ordinal * STATUSES.length + status ordinal -> seats of the section in that status
+    private AtomicIntegerArray sectionCounts;
+
+    private final Object pendingLock = new Object();
+    private LinkedHashMap<Long, SeatStatus> pending = new LinkedHashMap<>();
+    private final Object flushLock = new Object();
+
+    private ScheduledExecutorService flusher;
+
+    public HotTheaterEngine(Long theaterId, TheaterRepository theaterRepository) {
+        this(theaterId, theaterRepository,
+                ConfigLoader.getIntProperty("engine.lockStripes", 64),
+                ConfigLoader.getLongProperty("engine.flushIntervalMillis", 50),
+                ConfigLoader.getIntProperty("engine.flushBatchSize", 1000));
+    }
+
+    public HotTheaterEngine(Long theaterId, TheaterRepository theaterRepository,
+                            int lockStripes, long flushIntervalMillis, int flushBatchSize) {
+        if (lockStripes <= 0 || flushIntervalMillis <= 0 || flushBatchSize <= 0) {
+            throw new IllegalArgumentException("Engine settings must be positive");
+        }
+        this.theaterId = theaterId;
+        this.theaterRepository = theaterRepository;
+        this.stripes = new ReentrantLock[lockStripes];
+        for (int i = 0; i < lockStripes; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.flushBatchSize = flushBatchSize;
+    }
+
+    /**
+     * Loads the layout and current seat statuses from the database and starts the
+     * background flusher. Returns false if the theater does not exist.
+     */
+    public synchronized boolean start() throws SQLException {
+        if (flusher != null) {
+            return true;
+        }
+
+        Theater theater = theaterRepository.findTheaterById(theaterId);
+        if (theater == null) {
+            return false;
+        }
+        loadLayout(theater);
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hot-theater-flush-" + theaterId);
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        return true;
+    }
+
+    private void loadLayout(Theater theater) {
+        Map<Long, Integer> index = new HashMap<>();
+        List<Integer> rows = new ArrayList<>();
+        List<Integer> sections = new ArrayList<>();
+        List<SeatStatus> initial = new ArrayList<>();
+
+        int rowOrdinal = 0;
+        int[][] rowStarts = new int[theater.getSections().size()][];
+        for (int s = 0; s < theater.getSections().size(); s++) {
+            List<Row> sectionRows = theater.getSections().get(s).getRows();
+            rowStarts[s] = new int[sectionRows.size()];
+            for (int r = 0; r < sectionRows.size(); r++) {
+                Row row = sectionRows.get(r);
+                rowStarts[s][r] = initial.size();
+                for (Seat seat : row.getSeats()) {
+                    index.put(seat.getId(), initial.size());
+                    rows.add(rowOrdinal);
+                    sections.add(s);
+                    initial.add(seat.getStatus());
+                }
+                rowOrdinal++;
+            }
+        }
+
+        int[] seatRows = new int[initial.size()];
+        int[] seatSections = new int[initial.size()];
+        AtomicIntegerArray seatStatuses = new AtomicIntegerArray(initial.size());
+        AtomicIntegerArray counts = new AtomicIntegerArray(theater.getSections().size() * STATUSES.length);
+        for (int i = 0; i < seatRows.length; i++) {
+            seatRows[i] = rows.get(i);
+            seatSections[i] = sections.get(i);
+            seatStatuses.set(i, initial.get(i).ordinal());
+            counts.incrementAndGet(seatSections[i] * STATUSES.length + initial.get(i).ordinal());
+        }
+
+        this.layout = theater;
+        this.seatIndex = index;
+        this.seatRow = seatRows;
+        this.seatSection = seatSections;
+        this.rowStart = rowStarts;
+        this.statuses = seatStatuses;
+        this.sectionCounts = counts;
+    }
+
+    public Long getTheaterId() {
+        return theaterId;
+    }
+
+    public boolean contains(Long seatId) {
+        return seatIndex.containsKey(seatId);
+    }
+
+    public SeatStatus getSeatStatus(Long seatId) {
+        Integer index = seatIndex.get(seatId);
+        return index == null ? null : STATUSES[statuses.get(index)];
+    }
+
+    public boolean bookSeat(Long seatId) {
+        return transition(List.of(seatId), SeatStatus.AVAILABLE, SeatStatus.BOOKED).isSuccess();
+    }
+
+    public boolean cancelBooking(Long seatId) {
+        return transition(List.of(seatId), SeatStatus.BOOKED, SeatStatus.AVAILABLE).isSuccess();
+    }
+
+    public SeatBatchResult bookSeats(Collection<Long> seatIds) {
+        return transition(seatIds, SeatStatus.AVAILABLE, SeatStatus.BOOKED);
+    }
+
+    public SeatBatchResult cancelBookings(Collection<Long> seatIds) {
+        return transition(seatIds, SeatStatus.BOOKED, SeatStatus.AVAILABLE);
+    }
+
+    public boolean updateSeatStatus(Long seatId, SeatStatus status) {
+        Integer index = seatIndex.get(seatId);
+        if (index == null) {
+            return false;
+        }
+
+        ReentrantLock lock = stripeFor(index);
+        lock.lock();
+        try {
+            setStatus(index, status);
+            enqueue(seatId, status);
+        } finally {
+            lock.unlock();
+        }
+        return true;
+    }
+
+    /*
+     * All-or-nothing status change. Every stripe covering the seats is held while the
+     * statuses are checked and changed, so no other transition can interleave.
+     */
+    private SeatBatchResult transition(Collection<Long> seatIds, SeatStatus from, SeatStatus to) {
+        List<Long> requested = new ArrayList<>(new LinkedHashSet<>(seatIds));
+        List<Long> conflicts = new ArrayList<>();
+        int[] indexes = new int[requested.size()];
+        TreeSet<Integer> stripeIds = new TreeSet<>();
+
+        for (int i = 0; i < requested.size(); i++) {
+            Integer index = seatIndex.get(requested.get(i));
+            if (index == null) {
+                conflicts.add(requested.get(i));
+                continue;
+            }
+            indexes[i] = index;
+            stripeIds.add(seatRow[index] % stripes.length);
+        }
+        if (!conflicts.isEmpty()) {
+            return new SeatBatchResult(requested, conflicts);
+        }
+
+        for (int stripe : stripeIds) {
+            stripes[stripe].lock();
+        }
+        try {
+            for (int i = 0; i < indexes.length; i++) {
+                if (statuses.get(indexes[i]) != from.ordinal()) {
+                    conflicts.add(requested.get(i));
+                }
+            }
+            if (!conflicts.isEmpty()) {
+                return new SeatBatchResult(requested, conflicts);
+            }
+
+            for (int i = 0; i < indexes.length; i++) {
+                setStatus(indexes[i], to);
+                enqueue(requested.get(i), to);
+            }
+            return new SeatBatchResult(requested, conflicts);
+        } finally {
+            for (int stripe : stripeIds.descendingSet()) {
+                stripes[stripe].unlock();
+            }
+        }
+    }
+
+    /*
+     * Called with the seat's stripe locked. Returns whether the status changed.
+     */
+    private boolean setStatus(int index, SeatStatus status) {
+        int previous = statuses.getAndSet(index, status.ordinal());
+        if (previous == status.ordinal()) {
+            return false;
+        }
+        sectionCounts.decrementAndGet(seatSection[index] * STATUSES.length + previous);
+        sectionCounts.incrementAndGet(seatSection[index] * STATUSES.length + status.ordinal());
+        return true;
+    }
+
+    private ReentrantLock stripeFor(int index) {
+        return stripes[seatRow[index] % stripes.length];
+    }
+
+    private void enqueue(Long seatId, SeatStatus status) {
+        synchronized (pendingLock) {
+            // Re-inserting moves the seat behind changes made since its previous one
+            pending.remove(seatId);
+            pending.put(seatId, status);
+        }
+    }
+
+    public int getPendingCount() {
+        synchronized (pendingLock) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * Writes all pending changes to the database in batches of flushBatchSize.
+     * Changes that could not be written stay pending, behind any newer change to the same seat.
+     */
+    public void flush() throws SQLException {
+        synchronized (flushLock) {
+            LinkedHashMap<Long, SeatStatus> batch;
+            synchronized (pendingLock) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                pending = new LinkedHashMap<>();
+            }
+
+            List<Map.Entry<Long, SeatStatus>> changes = new ArrayList<>(batch.entrySet());
+            int written = 0;
+            try {
+                while (written < changes.size()) {
+                    int end = Math.min(written + flushBatchSize, changes.size());
+                    Map<Long, SeatStatus> chunk = new LinkedHashMap<>();
+                    for (Map.Entry<Long, SeatStatus> change : changes.subList(written, end)) {
+                        chunk.put(change.getKey(), change.getValue());
+                    }
+                    theaterRepository.applySeatStatuses(chunk);
+                    written = end;
+                }
+            } catch (SQLException e) {
+                requeue(changes.subList(written, changes.size()));
+                throw e;
+            }
+        }
+    }
+
+    private void requeue(List<Map.Entry<Long, SeatStatus>> unwritten) {
+        synchronized (pendingLock) {
+            LinkedHashMap<Long, SeatStatus> merged = new LinkedHashMap<>();
+            for (Map.Entry<Long, SeatStatus> change : unwritten) {
+                merged.put(change.getKey(), change.getValue());
+            }
+            for (Map.Entry<Long, SeatStatus> newer : pending.entrySet()) {
+                merged.remove(newer.getKey());
+                merged.put(newer.getKey(), newer.getValue());
+            }
+            pending = merged;
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (SQLException e) {
+            System.err.println("Warning: Could not flush seat changes for theater " + theaterId + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Flushes pending changes, then re-reads the seat statuses from the database and adopts
+     * them. Seats with changes that still could not be flushed keep their in-memory status.
+     * Returns the number of seats whose status differed.
+     */
+    public int reconcile() throws SQLException {
+        // Holding the flush lock keeps the background flusher from writing while we read
+        synchronized (flushLock) {
+            flushQuietly();
+
+            Theater current = theaterRepository.findTheaterById(theaterId);
+            if (current == null) {
+                return 0;
+            }
+
+            int changed = 0;
+            for (ReentrantLock stripe : stripes) {
+                stripe.lock();
+            }
+            try {
+                synchronized (pendingLock) {
+                    for (Section section : current.getSections()) {
+                        for (Row row : section.getRows()) {
+                            for (Seat seat : row.getSeats()) {
+                                Integer index = seatIndex.get(seat.getId());
+                                if (index == null || pending.containsKey(seat.getId())) continue;
+                                if (setStatus(index, seat.getStatus())) {
+                                    changed++;
+                                }
+                            }
+                        }
+                    }
+                }
+            } finally {
+                for (int stripe = stripes.length - 1; stripe >= 0; stripe--) {
+                    stripes[stripe].unlock();
+                }
+            }
+            return changed;
+        }
+    }
+
+    /**
+     * Seat counts per section from the engine's counters, without copying the layout.
+     */
+    public TheaterSummary summary() {
+        TheaterSummary summary = new TheaterSummary(layout.getId(), layout.getName());
+        for (int s = 0; s < layout.getSections().size(); s++) {
+            Section section = layout.getSections().get(s);
+            int base = s * STATUSES.length;
+            summary.addSection(new SectionSummary(section.getId(), section.getName(), section.getTotalSeats(),
+                    sectionCounts.get(base + SeatStatus.AVAILABLE.ordinal()),
+                    sectionCounts.get(base + SeatStatus.BOOKED.ordinal()),
+                    sectionCounts.get(base + SeatStatus.RESERVED.ordinal()),
+                    sectionCounts.get(base + SeatStatus.OUT_OF_ORDER.ordinal())));
+        }
+        return summary;
+    }
+
+    /**
+     * Passes the current in-memory status of every seat to the handler, one seat at a time, in
+     * the order the repository streams seats: section name, row number, seat number.
+     * Optionally limited to one section (sectionName not null) and a range of row numbers.
+     */
+    public void streamSeatRuns(String sectionName, int fromRow, int toRow, SeatRunHandler handler) {
+        List<Section> sections = layout.getSections();
+        List<Integer> sectionOrder = new ArrayList<>();
+        for (int s = 0; s < sections.size(); s++) {
+            if (sectionName == null || sectionName.equals(sections.get(s).getName())) {
+                sectionOrder.add(s);
+            }
+        }
+        sectionOrder.sort(Comparator.comparing(s -> sections.get(s).getName()));
+
+        for (int s : sectionOrder) {
+            Section section = sections.get(s);
+            List<Integer> rowOrder = new ArrayList<>();
+            for (int r = 0; r < section.getRows().size(); r++) {
+                int number = section.getRows().get(r).getNumber();
+                if (number >= fromRow && number <= toRow) {
+                    rowOrder.add(r);
+                }
+            }
+            rowOrder.sort(Comparator.comparingInt(r -> section.getRows().get(r).getNumber()));
+
+            for (int r : rowOrder) {
+                Row row = section.getRows().get(r);
+                int index = rowStart[s][r];
+                for (Seat seat : row.getSeats()) {
+                    handler.accept(section.getName(), row.getNumber(), seat.getNumber(), seat.getNumber(),
+                            STATUSES[statuses.get(index++)]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Copy of the layout with the current in-memory seat statuses. Costs a copy of every seat;
+     * use summary() when only the counts are needed.
+     */
+    public Theater snapshot() {
+        Theater copy = new Theater(layout.getId(), layout.getName());
+        int index = 0;
+        for (Section section : layout.getSections()) {
+            Section sectionCopy = new Section(section.getId(), section.getName());
+            for (Row row : section.getRows()) {
+                Row rowCopy = new Row(row.getId(), row.getNumber());
+                for (Seat seat : row.getSeats()) {
+                    rowCopy.addSeat(new Seat(seat.getId(), seat.getNumber(), STATUSES[statuses.get(index++)]));
+                }
+                sectionCopy.addRow(rowCopy);
+            }
+            copy.addSection(sectionCopy);
+        }
+        return copy;
+    }
+
+    /**
+     * Stops the flusher and writes everything still pending.
+     */
+    public synchronized void shutdown() throws SQLException {
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            flusher = null;
+        }
+        flush();
+    }
+}
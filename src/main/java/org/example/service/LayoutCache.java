@@ -0,0 +1,280 @@
+package org.example.service;
+
+import org.example.model.*;
+import org.example.util.ConfigLoader;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded in-process cache of fully loaded theater layouts, keyed by theater id.
+ * Entries are evicted least-recently-used once the cache is full and expire after a TTL.
+ * A seat id index lets booking operations patch the cached seat status in place.
+ *
+ * Seat changes arrive on other threads (the change listener, the booking pipeline, the hold
+ * timer), so the cached layouts are never handed out. put stores a copy, patches change that
+ * copy under the cache's lock, and get returns a view taken after the last patch. A view is
+ * rebuilt row by row: only rows patched since the previous view are copied, the other rows
+ * and unchanged sections are shared with it. A returned layout is shared by every reader
+ * and must not be modified.
+ */
+public class LayoutCache {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+
+    private final LinkedHashMap<Long, CachedLayout> layouts;
+    private final Map<Long, CachedSeat> seatIndex = new HashMap<>();
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    public LayoutCache() {
+        this(ConfigLoader.getIntProperty("cache.layout.maxEntries", 50),
+                ConfigLoader.getLongProperty("cache.layout.ttlSeconds", 300) * 1_000_000_000L,
+                System::nanoTime);
+    }
+
+    public LayoutCache(int maxEntries, long ttlNanos, LongSupplier clock) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlNanos;
+        this.clock = clock;
+        this.layouts = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public synchronized Theater get(Long theaterId) {
+        CachedLayout cached = layouts.get(theaterId);
+        if (cached == null) {
+            misses++;
+            return null;
+        }
+
+        if (clock.getAsLong() - cached.loadedAt > ttlNanos) {
+            remove(theaterId);
+            expirations++;
+            misses++;
+            return null;
+        }
+
+        hits++;
+        if (!cached.changedRows.isEmpty()) {
+            cached.view = viewOf(cached);
+            cached.changedRows.clear();
+        }
+        return cached.view;
+    }
+
+    /**
+     * Caches a copy of the theater; later changes to the given layout are not seen by the cache.
+     */
+    public synchronized void put(Theater theater) {
+        remove(theater.getId());
+        CachedLayout cached = new CachedLayout(copyOf(theater), copyOf(theater), clock.getAsLong());
+        layouts.put(theater.getId(), cached);
+        forEachSeat(cached.theater, seat -> seatIndex.put(seat.getId(), new CachedSeat(seat, cached)));
+
+        Iterator<Map.Entry<Long, CachedLayout>> eldest = layouts.entrySet().iterator();
+        while (layouts.size() > maxEntries && eldest.hasNext()) {
+            Theater evicted = eldest.next().getValue().theater;
+            eldest.remove();
+            forEachSeat(evicted, seat -> seatIndex.remove(seat.getId()));
+            evictions++;
+        }
+    }
+
+    /**
+     * Applies a committed seat status change to the cached layout, if the seat is cached.
+     */
+    public synchronized boolean updateSeatStatus(Long seatId, SeatStatus status) {
+        CachedSeat cached = seatIndex.get(seatId);
+        if (cached == null) {
+            return false;
+        }
+        cached.seat.setStatus(status);
+        cached.layout.changedRows.add(cached.seat.getRow());
+        return true;
+    }
+
+    /**
+     * Applies a seat's status at a known version, if the seat is cached and the cached copy
+     * is not newer. Lets a conflict or a change notification refresh one seat instead of
+     * dropping the whole layout.
+     */
+    public synchronized boolean updateSeat(Long seatId, SeatStatus status, long version) {
+        CachedSeat cached = seatIndex.get(seatId);
+        if (cached == null || cached.seat.getVersion() > version) {
+            return false;
+        }
+        cached.seat.setStatus(status);
+        cached.seat.setVersion(version);
+        cached.layout.changedRows.add(cached.seat.getRow());
+        return true;
+    }
+
+    /**
+     * Drops the layout that contains the given seat, used when the cached status is known to be stale.
+     */
+    public synchronized void invalidateSeat(Long seatId) {
+        CachedSeat cached = seatIndex.get(seatId);
+        if (cached != null) {
+            remove(cached.layout.theater.getId());
+        }
+    }
+
+    public synchronized void invalidate(Long theaterId) {
+        remove(theaterId);
+    }
+
+    public synchronized void clear() {
+        layouts.clear();
+        seatIndex.clear();
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(hits, misses, evictions, expirations, layouts.size());
+    }
+
+    private void remove(Long theaterId) {
+        CachedLayout removed = layouts.remove(theaterId);
+        if (removed != null) {
+            forEachSeat(removed.theater, seat -> seatIndex.remove(seat.getId()));
+        }
+    }
+
+    private static void forEachSeat(Theater theater, Consumer<Seat> action) {
+        for (Section section : theater.getSections()) {
+            for (Row row : section.getRows()) {
+                for (Seat seat : row.getSeats()) {
+                    if (seat.getId() != null) {
+                        action.accept(seat);
+                    }
+                }
+            }
+        }
+    }
+
+    private static Theater copyOf(Theater theater) {
+        Theater copy = new Theater(theater.getId(), theater.getName());
+        for (Section section : theater.getSections()) {
+            Section sectionCopy = new Section(section.getId(), section.getName());
+            for (Row row : section.getRows()) {
+                sectionCopy.addRow(copyOf(row));
+            }
+            copy.addSection(sectionCopy);
+        }
+        return copy;
+    }
+
+    private static Row copyOf(Row row) {
+        Row copy = new Row(row.getId(), row.getNumber());
+        for (Seat seat : row.getSeats()) {
+            copy.addSeat(new Seat(seat.getId(), seat.getNumber(), seat.getStatus(), seat.getVersion()));
+        }
+        return copy;
+    }
+
+    /*
+     * The next view of a patched layout: a new theater, new section objects for the sections
+     * with patched rows, copies of those rows, and the previous view's sections and rows for
+     * the rest. The cached copy and its views have the same sections and rows in the same order.
+     */
+    private static Theater viewOf(CachedLayout cached) {
+        Set<Section> changedSections = new HashSet<>();
+        cached.changedRows.forEach(row -> changedSections.add(row.getSection()));
+
+        Theater view = new Theater(cached.theater.getId(), cached.theater.getName());
+        for (int s = 0; s < cached.theater.getSections().size(); s++) {
+            Section section = cached.theater.getSections().get(s);
+            Section previous = cached.view.getSections().get(s);
+            if (!changedSections.contains(section)) {
+                view.addSharedSection(previous);
+                continue;
+            }
+
+            List<Row> previousRows = previous.getRows();
+            Section sectionView = new Section(section.getId(), section.getName());
+            for (int r = 0; r < section.getRows().size(); r++) {
+                Row row = section.getRows().get(r);
+                if (cached.changedRows.contains(row)) {
+                    sectionView.addRow(copyOf(row));
+                } else {
+                    sectionView.addSharedRow(previousRows.get(r));
+                }
+            }
+            view.addSection(sectionView);
+        }
+        return view;
+    }
+
+    private static class CachedLayout {
+        // Only read or changed while holding the cache's lock
+        private final Theater theater;
+        private final long loadedAt;
+        // Rows of theater patched since view was built
+        private final Set<Row> changedRows = new HashSet<>();
+        // Handed to readers; replaced on the first get after a patch
+        private Theater view;
+
+        CachedLayout(Theater theater, Theater view, long loadedAt) {
+            this.theater = theater;
+            this.view = view;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private static class CachedSeat {
+        private final Seat seat;
+        private final CachedLayout layout;
+
+        CachedSeat(Seat seat, CachedLayout layout) {
+            this.seat = seat;
+            this.layout = layout;
+        }
+    }
+
+    public static class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long expirations;
+        private final int size;
+
+        public Stats(long hits, long misses, long evictions, long expirations, int size) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.expirations = expirations;
+            this.size = size;
+        }
+
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        public long getEvictions() { return evictions; }
+        public long getExpirations() { return expirations; }
+        public int getSize() { return size; }
+
+        public double getHitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0.0 : (double) hits / requests;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Layout cache: size=%d, hits=%d, misses=%d, hitRate=%.1f%%, evictions=%d, expirations=%d",
+                    size, hits, misses, getHitRate() * 100, evictions, expirations);
+        }
+    }
+}
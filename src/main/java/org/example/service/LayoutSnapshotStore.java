@@ -0,0 +1,198 @@
+package org.example.service;
+
+import org.example.model.*;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Theater layouts with their seat states as compact binary files, one per theater. A file is
+ * written next to its final name, forced to disk and then renamed over the old one, so readers
+ * see either the old or the new snapshot, never a partial one. Files are read through a
+ * read-only memory mapping.
+ *
+ * Layout: magic, format version, theater id, asOf, name, then each section (id, name, row
+ * count), its rows (id, number, seat count) and their seats (id, number, status, version),
+ * followed by a CRC32 of everything before it. Strings are a length and UTF-8 bytes.
+ */
+public class LayoutSnapshotStore {
+
+    private static final int MAGIC = 0x544C5953;
+    private static final int FORMAT_VERSION = 1;
+    private static final SeatStatus[] STATUSES = SeatStatus.values();
+
+    private static final int SEAT_BYTES = Long.BYTES + Integer.BYTES + Byte.BYTES + Long.BYTES;
+    private static final int ROW_BYTES = Long.BYTES + Integer.BYTES + Integer.BYTES;
+
+    private final Path directory;
+
+    public LayoutSnapshotStore(Path directory) {
+        this.directory = directory;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    Path file(Long theaterId) {
+        return directory.resolve("theater-" + theaterId + ".layout");
+    }
+
+    /**
+     * Encodes the theater as it was at asOfMillis on the repository's clock.
+     */
+    public ByteBuffer encode(Theater theater, long asOfMillis) {
+        byte[] theaterName = utf8(theater.getName());
+        byte[][] sectionNames = new byte[theater.getSections().size()][];
+        int size = Integer.BYTES * 2 + Long.BYTES * 2 + Integer.BYTES + theaterName.length + Integer.BYTES;
+        for (int s = 0; s < sectionNames.length; s++) {
+            Section section = theater.getSections().get(s);
+            sectionNames[s] = utf8(section.getName());
+            size += Long.BYTES + Integer.BYTES + sectionNames[s].length + Integer.BYTES;
+            for (Row row : section.getRows()) {
+                size += ROW_BYTES + row.getSeats().size() * SEAT_BYTES;
+            }
+        }
+        size += Long.BYTES;
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(theater.getId()).putLong(asOfMillis);
+        putBytes(buffer, theaterName);
+        buffer.putInt(sectionNames.length);
+        for (int s = 0; s < sectionNames.length; s++) {
+            Section section = theater.getSections().get(s);
+            buffer.putLong(section.getId());
+            putBytes(buffer, sectionNames[s]);
+            buffer.putInt(section.getRows().size());
+            for (Row row : section.getRows()) {
+                buffer.putLong(row.getId()).putInt(row.getNumber()).putInt(row.getSeats().size());
+                for (Seat seat : row.getSeats()) {
+                    SeatStatus status = seat.getStatus() != null ? seat.getStatus() : SeatStatus.AVAILABLE;
+                    buffer.putLong(seat.getId()).putInt(seat.getNumber())
+                            .put((byte) status.ordinal()).putLong(seat.getVersion());
+                }
+            }
+        }
+        buffer.putLong(checksum(buffer, buffer.position()));
+        return buffer.flip();
+    }
+
+    /**
+     * Replaces the theater's snapshot with the encoded one.
+     */
+    public void write(Long theaterId, ByteBuffer encoded) throws IOException {
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, "theater-" + theaterId + "-", ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer data = encoded.duplicate();
+                while (data.hasRemaining()) {
+                    channel.write(data);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, file(theaterId), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Maps and decodes the theater's snapshot; null if there is none.
+     *
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    public Snapshot read(Long theaterId) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file(theaterId), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+
+        try {
+            if (buffer.limit() < Integer.BYTES * 2 + Long.BYTES
+                    || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                throw new IOException("Not a layout snapshot: " + file(theaterId));
+            }
+            int checked = buffer.limit() - Long.BYTES;
+            if (buffer.getLong(checked) != checksum(buffer, checked)) {
+                throw new IOException("Checksum mismatch in layout snapshot: " + file(theaterId));
+            }
+
+            Theater theater = new Theater(buffer.getLong(), null);
+            long asOfMillis = buffer.getLong();
+            theater.setName(getString(buffer));
+            int sectionCount = buffer.getInt();
+            for (int s = 0; s < sectionCount; s++) {
+                Section section = new Section(buffer.getLong(), getString(buffer));
+                int rowCount = buffer.getInt();
+                for (int r = 0; r < rowCount; r++) {
+                    Row row = new Row(buffer.getLong(), buffer.getInt());
+                    int seatCount = buffer.getInt();
+                    for (int i = 0; i < seatCount; i++) {
+                        row.addSeat(new Seat(buffer.getLong(), buffer.getInt(), STATUSES[buffer.get()], buffer.getLong()));
+                    }
+                    section.addRow(row);
+                }
+                theater.addSection(section);
+            }
+            if (buffer.position() != checked || !theaterId.equals(theater.getId())) {
+                throw new IOException("Malformed layout snapshot: " + file(theaterId));
+            }
+            return new Snapshot(theater, asOfMillis);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Truncated layout snapshot: " + file(theaterId), e);
+        }
+    }
+
+    public void delete(Long theaterId) throws IOException {
+        Files.deleteIfExists(file(theaterId));
+    }
+
+    private static long checksum(ByteBuffer buffer, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(0).limit(length));
+        return crc.getValue();
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        buffer.putInt(bytes.length).put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A decoded layout and the time on the repository's clock its seat states were read at.
+     */
+    public static class Snapshot {
+        private final Theater theater;
+        private final long asOfMillis;
+
+        public Snapshot(Theater theater, long asOfMillis) {
+            this.theater = theater;
+            this.asOfMillis = asOfMillis;
+        }
+
+        public Theater getTheater() { return theater; }
+        public long getAsOfMillis() { return asOfMillis; }
+    }
+}
@@ -0,0 +1,185 @@
+package org.example.service;
+
+import org.example.model.*;
+import org.example.repository.JdbcTheaterRepository;
+import org.example.repository.TheaterRepository;
+import org.example.util.ConfigLoader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves layouts from their snapshot files so a restarted instance does not have to load every
+ * seat from the database before answering. A layout read from a snapshot goes into the layout
+ * cache at once; a background thread then reads the seats changed since the snapshot was taken
+ * (by seats.updated_at), patches them into the cached layout and rewrites the snapshot.
+ *
+ * updated_at is stamped with the transaction's start time, so changes are read from a margin
+ * before the snapshot time to catch transactions that were still running when it was taken.
+ * A changed seat the snapshot does not know means the layout itself changed; the snapshot is
+ * then dropped and the next read loads the layout from the database.
+ */
+public class LayoutSnapshots {
+
+    private final TheaterRepository theaterRepository;
+    private final LayoutCache layoutCache;
+    private final LayoutSnapshotStore store;
+    private final long marginMillis;
+    private final ExecutorService worker;
+
+    public LayoutSnapshots(TheaterRepository theaterRepository, LayoutCache layoutCache,
+                           LayoutSnapshotStore store, long marginMillis) {
+        if (marginMillis < 0) {
+            throw new IllegalArgumentException("Reconcile margin cannot be negative");
+        }
+        this.theaterRepository = theaterRepository;
+        this.layoutCache = layoutCache;
+        this.store = store;
+        this.marginMillis = marginMillis;
+        this.worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "layout-snapshots");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Snapshots as configured by snapshot.*, or null when they are disabled. Only the JDBC
+     * repository outlives the process, so no other repository gets snapshots.
+     */
+    public static LayoutSnapshots fromConfig(TheaterRepository theaterRepository, LayoutCache layoutCache) {
+        if (!ConfigLoader.getBooleanProperty("snapshot.enabled", false)
+                || !(theaterRepository instanceof JdbcTheaterRepository)) {
+            return null;
+        }
+        return new LayoutSnapshots(theaterRepository, layoutCache,
+                new LayoutSnapshotStore(Path.of(ConfigLoader.getProperty("snapshot.dir", "snapshots"))),
+                ConfigLoader.getLongProperty("snapshot.reconcileMarginSeconds", 60) * 1000);
+    }
+
+    /**
+     * Returns the theater's layout, from its snapshot if there is one, and puts it in the
+     * layout cache. A layout read from the database is snapshotted in the background.
+     */
+    public Theater load(Long theaterId) throws SQLException {
+        LayoutSnapshotStore.Snapshot snapshot = readSnapshot(theaterId);
+        if (snapshot != null) {
+            layoutCache.put(snapshot.getTheater());
+            worker.execute(() -> reconcile(theaterId, snapshot.getAsOfMillis()));
+            return snapshot.getTheater();
+        }
+
+        long asOfMillis = theaterRepository.currentTimeMillis();
+        Theater theater = theaterRepository.findTheaterById(theaterId);
+        if (theater != null) {
+            // Encoded before caching, while no booking can change the seats under it
+            ByteBuffer encoded = store.encode(theater, asOfMillis);
+            layoutCache.put(theater);
+            worker.execute(() -> write(theaterId, encoded));
+        }
+        return theater;
+    }
+
+    /**
+     * Drops the theater's snapshot, e.g. after sections were added to it.
+     */
+    public void discard(Long theaterId) {
+        worker.execute(() -> {
+            try {
+                store.delete(theaterId);
+            } catch (IOException e) {
+                System.err.println("Warning: Could not delete layout snapshot of theater " + theaterId + ": " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Waits for pending snapshot writes, then stops the background thread.
+     */
+    public void shutdown() {
+        worker.shutdown();
+        try {
+            if (!worker.awaitTermination(10, TimeUnit.SECONDS)) {
+                System.err.println("Warning: Layout snapshots still being written at shutdown");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private LayoutSnapshotStore.Snapshot readSnapshot(Long theaterId) {
+        try {
+            return store.read(theaterId);
+        } catch (IOException e) {
+            System.err.println("Warning: Ignoring layout snapshot of theater " + theaterId + ": " + e.getMessage());
+            deleteQuietly(theaterId);
+            return null;
+        }
+    }
+
+    void reconcile(Long theaterId, long snapshotMillis) {
+        try {
+            if (theaterRepository.findTheaterSummary(theaterId) == null) {
+                layoutCache.invalidate(theaterId);
+                store.delete(theaterId);
+                return;
+            }
+
+            long asOfMillis = theaterRepository.currentTimeMillis();
+            List<Seat> changed = theaterRepository.findSeatsChangedSince(theaterId, snapshotMillis - marginMillis);
+
+            // A private copy to write the next snapshot from; the cached one keeps changing
+            LayoutSnapshotStore.Snapshot base = store.read(theaterId);
+            if (base == null) {
+                return;
+            }
+            Map<Long, Seat> seats = new HashMap<>();
+            for (Section section : base.getTheater().getSections()) {
+                for (Row row : section.getRows()) {
+                    row.getSeats().forEach(seat -> seats.put(seat.getId(), seat));
+                }
+            }
+
+            for (Seat change : changed) {
+                Seat seat = seats.get(change.getId());
+                if (seat == null) {
+                    layoutCache.invalidate(theaterId);
+                    store.delete(theaterId);
+                    return;
+                }
+                seat.setStatus(change.getStatus());
+                seat.setVersion(change.getVersion());
+                layoutCache.updateSeat(change.getId(), change.getStatus(), change.getVersion());
+            }
+            store.write(theaterId, store.encode(base.getTheater(), asOfMillis));
+        } catch (SQLException | IOException e) {
+            // Not knowing what changed, the snapshot copy cannot stay cached
+            System.err.println("Warning: Could not reconcile layout snapshot of theater " + theaterId + ": " + e.getMessage());
+            layoutCache.invalidate(theaterId);
+        }
+    }
+
+    private void write(Long theaterId, ByteBuffer encoded) {
+        try {
+            store.write(theaterId, encoded);
+        } catch (IOException e) {
+            System.err.println("Warning: Could not write layout snapshot of theater " + theaterId + ": " + e.getMessage());
+        }
+    }
+
+    private void deleteQuietly(Long theaterId) {
+        try {
+            store.delete(theaterId);
+        } catch (IOException e) {
+            System.err.println("Warning: Could not delete layout snapshot of theater " + theaterId + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.service;
+
+import org.example.model.SeatStatus;
+import org.example.util.NotificationSubscriber;
+
+import java.util.function.LongPredicate;
+
+/**
+ * Applies seat changes committed by any instance, as sent by the seat_changes triggers, to
+ * the local layout cache. Status changes patch cached seats in place; layout changes drop the
+ * theater from the cache, and so does anything that cannot be parsed. Hot theaters are
+ * skipped, since their engine owns the seat state.
+ */
+class SeatChangeSubscriber implements NotificationSubscriber {
+
+    private final LayoutCache layoutCache;
+    private final LongPredicate isHotTheater;
+
+    SeatChangeSubscriber(LayoutCache layoutCache, LongPredicate isHotTheater) {
+        this.layoutCache = layoutCache;
+        this.isHotTheater = isHotTheater;
+    }
+
+    @Override
+    public void onNotification(String channel, String payload) {
+        int colon = payload.indexOf(':');
+        long theaterId;
+        try {
+            theaterId = Long.parseLong(payload, 0, colon, 10);
+        } catch (IndexOutOfBoundsException | NumberFormatException e) {
+            System.err.println("Warning: Ignoring malformed seat change: " + payload);
+            return;
+        }
+        if (isHotTheater.test(theaterId)) {
+            return;
+        }
+
+        if (payload.length() == colon + 2 && payload.charAt(colon + 1) == '*') {
+            layoutCache.invalidate(theaterId);
+            return;
+        }
+
+        // "<seat id>=<STATUS>@<version>" entries separated by commas
+        try {
+            int start = colon + 1;
+            while (start < payload.length()) {
+                int equals = payload.indexOf('=', start);
+                int end = payload.indexOf(',', equals);
+                if (end < 0) {
+                    end = payload.length();
+                }
+                int at = payload.indexOf('@', equals);
+                long seatId = Long.parseLong(payload, start, equals, 10);
+                if (at < 0 || at > end) {
+                    layoutCache.updateSeatStatus(seatId, SeatStatus.valueOf(payload.substring(equals + 1, end)));
+                } else {
+                    layoutCache.updateSeat(seatId, SeatStatus.valueOf(payload.substring(equals + 1, at)),
+                            Long.parseLong(payload, at + 1, end, 10));
+                }
+                start = end + 1;
+            }
+        } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            System.err.println("Warning: Reloading theater " + theaterId + " after malformed seat change: " + payload);
+            layoutCache.invalidate(theaterId);
+        }
+    }
+
+    /**
+     * Changes made while the listener was disconnected are unknown, so every cached layout
+     * is dropped and reloaded on next use.
+     */
+    @Override
+    public void onReconnect() {
+        layoutCache.clear();
+    }
+}
@@ -0,0 +1,257 @@
+package org.example.service;
+
+import org.example.model.SeatBatchResult;
+import org.example.model.SeatHold;
+import org.example.model.SeatStatus;
+import org.example.repository.TheaterRepository;
+import org.example.util.ConfigLoader;
+import org.example.util.HashedTimingWheel;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Timed seat holds. Held seats are RESERVED in the database; each hold's expiry sits in a
+ * hashed timing wheel that one timer thread advances every tick. Holds that expire in the
+ * same tick are released together with batched UPDATEs, so no per-hold task is scheduled
+ * and the seats table is not scanned for stale reservations while running.
+ *
+ * Holds are only known to the process that made them. Seats still RESERVED when it crashed
+ * stay reserved until releaseOrphanedHolds is run, normally once at startup.
+ */
+public class SeatHoldManager {
+
+    private final TheaterRepository theaterRepository;
+    private final LayoutCache layoutCache;
+    private final long tickNanos;
+    private final int releaseBatchSize;
+    private final LongSupplier clock;
+
+    private final HashedTimingWheel<String> wheel;
+    private final Map<String, ActiveHold> holds = new ConcurrentHashMap<>();
+    // Seats whose release failed; retried on the next tick so they do not stay reserved
+    private final Queue<Long> pendingRelease = new ConcurrentLinkedQueue<>();
+
+    private ScheduledExecutorService timer;
+
+    public SeatHoldManager(TheaterRepository theaterRepository, LayoutCache layoutCache) {
+        this(theaterRepository, layoutCache,
+                ConfigLoader.getLongProperty("holds.tickMillis", 100) * 1_000_000L,
+                ConfigLoader.getIntProperty("holds.wheelSize", 512),
+                ConfigLoader.getIntProperty("holds.releaseBatchSize", 1000),
+                System::nanoTime);
+    }
+
+    public SeatHoldManager(TheaterRepository theaterRepository, LayoutCache layoutCache,
+                           long tickNanos, int wheelSize, int releaseBatchSize, LongSupplier clock) {
+        if (releaseBatchSize <= 0) {
+            throw new IllegalArgumentException("Release batch size must be positive");
+        }
+        this.theaterRepository = theaterRepository;
+        this.layoutCache = layoutCache;
+        this.tickNanos = tickNanos;
+        this.releaseBatchSize = releaseBatchSize;
+        this.clock = clock;
+        this.wheel = new HashedTimingWheel<>(tickNanos, wheelSize, clock.getAsLong());
+    }
+
+    /**
+     * Reserves all given seats for ttl, or none of them if any seat is not available.
+     */
+    public SeatHold holdSeats(List<Long> seatIds, Duration ttl) throws SQLException {
+        if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Hold duration must be positive");
+        }
+
+        SeatBatchResult result = theaterRepository.holdSeats(seatIds);
+        if (!result.isSuccess()) {
+            result.getConflictingSeatIds().forEach(layoutCache::invalidateSeat);
+            return new SeatHold(null, result.getSeatIds(), result.getConflictingSeatIds(), ttl.toMillis());
+        }
+        result.getSeatIds().forEach(seatId -> layoutCache.updateSeatStatus(seatId, SeatStatus.RESERVED));
+
+        String holdId = UUID.randomUUID().toString();
+        ActiveHold hold = new ActiveHold(result.getSeatIds());
+        holds.put(holdId, hold);
+        hold.timeout = wheel.schedule(holdId, ttl.toNanos(), clock.getAsLong());
+        startTimer();
+
+        return new SeatHold(holdId, result.getSeatIds(), List.of(), ttl.toMillis());
+    }
+
+    /**
+     * Books the held seats. Returns false if the hold is unknown or already expired, or if
+     * any of its seats was changed behind the hold's back; in that case the remaining
+     * seats are released.
+     */
+    public boolean confirm(String holdId) throws SQLException {
+        ActiveHold hold = claim(holdId);
+        if (hold == null) {
+            return false;
+        }
+
+        SeatBatchResult result = theaterRepository.confirmHeldSeats(hold.seatIds);
+        if (result.isSuccess()) {
+            result.getSeatIds().forEach(seatId -> layoutCache.updateSeatStatus(seatId, SeatStatus.BOOKED));
+            return true;
+        }
+
+        result.getConflictingSeatIds().forEach(layoutCache::invalidateSeat);
+        release(hold.seatIds);
+        return false;
+    }
+
+    /**
+     * Gives the held seats back. Returns false if the hold is unknown or already expired.
+     */
+    public boolean release(String holdId) throws SQLException {
+        ActiveHold hold = claim(holdId);
+        if (hold == null) {
+            return false;
+        }
+        release(hold.seatIds);
+        return true;
+    }
+
+    /**
+     * Releases seats that have been RESERVED for longer than minAge without being held by this
+     * manager, e.g. holds of a process that crashed. Returns how many seats were released.
+     * minAge must be longer than any hold lasts, or live holds of other instances are released
+     * too; seats reserved by other means, such as a status upload, are released as well.
+     */
+    public int releaseOrphanedHolds(Duration minAge) throws SQLException {
+        if (minAge == null || minAge.isNegative()) {
+            throw new IllegalArgumentException("Orphaned hold age cannot be negative");
+        }
+
+        Set<Long> held = new HashSet<>();
+        holds.values().forEach(hold -> held.addAll(hold.seatIds));
+        List<Long> seatIds = new ArrayList<>(theaterRepository.findSeatsReservedBefore(
+                theaterRepository.currentTimeMillis() - minAge.toMillis()));
+        seatIds.removeAll(held);
+
+        int released = 0;
+        for (int from = 0; from < seatIds.size(); from += releaseBatchSize) {
+            List<Long> batch = seatIds.subList(from, Math.min(from + releaseBatchSize, seatIds.size()));
+            List<Long> releasedBatch = theaterRepository.releaseHeldSeats(batch);
+            releasedBatch.forEach(seatId -> layoutCache.updateSeatStatus(seatId, SeatStatus.AVAILABLE));
+            released += releasedBatch.size();
+        }
+        return released;
+    }
+
+    public int getActiveHoldCount() {
+        return holds.size();
+    }
+
+    /**
+     * Advances the wheel to the current time and releases every hold that expired.
+     * Called by the timer thread each tick.
+     */
+    void expireHolds() {
+        List<Long> seatIds = new ArrayList<>();
+        Long pending;
+        while ((pending = pendingRelease.poll()) != null) {
+            seatIds.add(pending);
+        }
+
+        for (String holdId : wheel.advance(clock.getAsLong())) {
+            // A concurrent confirm or release may have claimed it first
+            ActiveHold hold = holds.remove(holdId);
+            if (hold != null) {
+                seatIds.addAll(hold.seatIds);
+            }
+        }
+
+        for (int from = 0; from < seatIds.size(); from += releaseBatchSize) {
+            List<Long> batch = seatIds.subList(from, Math.min(from + releaseBatchSize, seatIds.size()));
+            try {
+                release(batch);
+            } catch (SQLException | RuntimeException e) {
+                // Anything escaping would cancel the timer and stop every later expiry
+                System.err.println("Warning: Could not release expired holds: " + e.getMessage());
+                pendingRelease.addAll(batch);
+            }
+        }
+    }
+
+    private ActiveHold claim(String holdId) {
+        if (holdId == null) {
+            return null;
+        }
+        ActiveHold hold = holds.remove(holdId);
+        if (hold != null && hold.timeout != null) {
+            hold.timeout.cancel();
+        }
+        return hold;
+    }
+
+    /*
+     * Runs on the timer thread for expired holds; see LayoutCache on patching from other threads.
+     */
+    private void release(List<Long> seatIds) throws SQLException {
+        List<Long> released = theaterRepository.releaseHeldSeats(seatIds);
+        released.forEach(seatId -> layoutCache.updateSeatStatus(seatId, SeatStatus.AVAILABLE));
+    }
+
+    private synchronized void startTimer() {
+        if (timer != null) {
+            return;
+        }
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "seat-hold-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.scheduleAtFixedRate(this::expireHolds, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Stops the timer and releases every outstanding hold.
+     */
+    public synchronized void shutdown() {
+        if (timer != null) {
+            timer.shutdownNow();
+            timer = null;
+        }
+
+        List<Long> seatIds = new ArrayList<>(pendingRelease);
+        pendingRelease.clear();
+        for (String holdId : new ArrayList<>(holds.keySet())) {
+            ActiveHold hold = claim(holdId);
+            if (hold != null) {
+                seatIds.addAll(hold.seatIds);
+            }
+        }
+
+        for (int from = 0; from < seatIds.size(); from += releaseBatchSize) {
+            try {
+                release(seatIds.subList(from, Math.min(from + releaseBatchSize, seatIds.size())));
+            } catch (SQLException e) {
+                System.err.println("Warning: Could not release outstanding holds: " + e.getMessage());
+            }
+        }
+    }
+
+    private static class ActiveHold {
+        private final List<Long> seatIds;
+        private volatile HashedTimingWheel.Timeout<String> timeout;
+
+        ActiveHold(List<Long> seatIds) {
+            this.seatIds = seatIds;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package org.example.service;
+
+import org.example.model.*;
+import org.example.repository.TheaterRepository;
+
+import java.io.PrintWriter;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders seating maps as text. Seats are written one run at a time through a single writer
+ * with numbers formatted into a reusable buffer, so rendering allocates nothing per seat.
+ * A map can be rendered from a loaded layout or streamed straight from the database, in
+ * which case only the theater's summary counters and the seats in the viewport are read.
+ * Both list sections by name and rows by number, the order seats are streamed in.
+ */
+public class SeatingMapRenderer {
+
+    static final String LEGEND = "Legend: [##] = Available, [X] = Booked, [R] = Reserved, [-] = Out of Order";
+
+    private static final Comparator<Section> SECTION_ORDER = Comparator.comparing(Section::getName);
+    private static final Comparator<Row> ROW_ORDER = Comparator.comparingInt(Row::getNumber);
+
+    private final TheaterRepository theaterRepository;
+
+    public SeatingMapRenderer(TheaterRepository theaterRepository) {
+        this.theaterRepository = theaterRepository;
+    }
+
+    public void render(Theater theater, Viewport viewport, PrintWriter out) {
+        writeHeader(out, theater.getName(), theater.getTotalSeats(), theater.getAvailableSeats());
+
+        RowWriter rows = new RowWriter(out, null);
+        for (Section section : sorted(theater.getSections(), SECTION_ORDER)) {
+            if (!viewport.includesSection(section.getName())) continue;
+            rows.startSection(section.getName(), section.getAvailableSeats(), section.getTotalSeats());
+
+            for (Row row : sorted(section.getRows(), ROW_ORDER)) {
+                if (!viewport.includesRow(row.getNumber())) continue;
+                rows.startRow(section.getName(), row.getNumber());
+                for (Seat seat : row.getSeats()) {
+                    rows.writeSeats(seat.getNumber(), seat.getNumber(), seat.getStatus());
+                }
+            }
+        }
+        rows.finish();
+    }
+
+    /**
+     * Streams the map from the database. Returns false if the theater does not exist.
+     */
+    public boolean render(Long theaterId, Viewport viewport, PrintWriter out) throws SQLException {
+        TheaterSummary summary = theaterRepository.findTheaterSummary(theaterId);
+        if (summary == null) {
+            return false;
+        }
+        writeHeader(out, summary.getName(), summary.getTotalSeats(), summary.getAvailableSeats());
+
+        RowWriter rows = new RowWriter(out, summary);
+        theaterRepository.streamSeatRuns(theaterId, viewport.sectionName, viewport.fromRow, viewport.toRow, rows::accept);
+        rows.finish();
+        return true;
+    }
+
+    /**
+     * Renders a hot theater from the engine's seat statuses without copying its layout.
+     */
+    public void render(HotTheaterEngine engine, Viewport viewport, PrintWriter out) {
+        TheaterSummary summary = engine.summary();
+        writeHeader(out, summary.getName(), summary.getTotalSeats(), summary.getAvailableSeats());
+
+        RowWriter rows = new RowWriter(out, summary);
+        engine.streamSeatRuns(viewport.sectionName, viewport.fromRow, viewport.toRow, rows::accept);
+        rows.finish();
+    }
+
+    private static <T> List<T> sorted(List<T> items, Comparator<T> order) {
+        List<T> copy = new ArrayList<>(items);
+        copy.sort(order);
+        return copy;
+    }
+
+    private static void writeHeader(PrintWriter out, String name, int totalSeats, int availableSeats) {
+        out.print("\n=== Seating Map for ");
+        out.print(name);
+        out.println(" ===");
+        out.print("Total Seats: ");
+        out.print(totalSeats);
+        out.print(" | Available: ");
+        out.print(availableSeats);
+        out.print(" | Booked: ");
+        out.print(totalSeats - availableSeats);
+        out.println();
+        out.println();
+    }
+
+    /*
+     * Writes seats as they arrive and starts a new section or row whenever it changes.
+     */
+    private static class RowWriter {
+        private final PrintWriter out;
+        private final Map<String, SectionSummary> sectionCounts = new HashMap<>();
+        private final char[] digits = new char[11];
+
+        private String section;
+        private int row;
+        private boolean inRow;
+
+        RowWriter(PrintWriter out, TheaterSummary summary) {
+            this.out = out;
+            if (summary != null) {
+                for (SectionSummary sectionSummary : summary.getSections()) {
+                    sectionCounts.put(sectionSummary.getName(), sectionSummary);
+                }
+            }
+        }
+
+        void accept(String sectionName, int rowNumber, int seatStart, int seatEnd, SeatStatus status) {
+            if (!sectionName.equals(section)) {
+                SectionSummary counts = sectionCounts.get(sectionName);
+                startSection(sectionName, counts != null ? counts.getAvailableSeats() : 0,
+                        counts != null ? counts.getTotalSeats() : 0);
+            }
+            if (!inRow || rowNumber != row) {
+                startRow(sectionName, rowNumber);
+            }
+            writeSeats(seatStart, seatEnd, status);
+        }
+
+        void startSection(String name, int availableSeats, int totalSeats) {
+            endSection();
+            section = name;
+            out.print("Section: ");
+            out.print(name);
+            out.print(" (Available: ");
+            out.print(availableSeats);
+            out.print('/');
+            out.print(totalSeats);
+            out.println(')');
+        }
+
+        void startRow(String sectionName, int rowNumber) {
+            endRow();
+            section = sectionName;
+            row = rowNumber;
+            inRow = true;
+            out.print("  Row ");
+            writeNumber(rowNumber, 2);
+            out.print(": ");
+        }
+
+        void writeSeats(int seatStart, int seatEnd, SeatStatus status) {
+            for (int seatNum = seatStart; seatNum <= seatEnd; seatNum++) {
+                switch (status) {
+                    case AVAILABLE -> {
+                        out.print('[');
+                        writeNumber(seatNum, 2);
+                        out.print(']');
+                    }
+                    case BOOKED -> out.print(" [X]");
+                    case RESERVED -> out.print(" [R]");
+                    case OUT_OF_ORDER -> out.print(" [-]");
+                }
+                out.print(' ');
+            }
+        }
+
+        // Right-aligned to width, like %<width>d, without creating a String
+        private void writeNumber(int number, int width) {
+            int pos = digits.length;
+            int value = Math.abs(number);
+            do {
+                digits[--pos] = (char) ('0' + value % 10);
+                value /= 10;
+            } while (value > 0);
+            if (number < 0) {
+                digits[--pos] = '-';
+            }
+            for (int pad = width - (digits.length - pos); pad > 0; pad--) {
+                out.print(' ');
+            }
+            out.write(digits, pos, digits.length - pos);
+        }
+
+        private void endRow() {
+            if (inRow) {
+                out.println();
+                inRow = false;
+            }
+        }
+
+        private void endSection() {
+            endRow();
+            if (section != null) {
+                out.println();
+            }
+        }
+
+        void finish() {
+            endSection();
+            out.println(LEGEND);
+            out.println();
+            out.flush();
+        }
+    }
+
+    /**
+     * The part of a map to render: one section or all of them, and a range of row numbers.
+     */
+    public static class Viewport {
+        public static final Viewport ALL = new Viewport(null, Integer.MIN_VALUE, Integer.MAX_VALUE);
+
+        private final String sectionName;
+        private final int fromRow;
+        private final int toRow;
+
+        public Viewport(String sectionName, int fromRow, int toRow) {
+            if (fromRow > toRow) {
+                throw new IllegalArgumentException("First row cannot be after last row");
+            }
+            this.sectionName = sectionName;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+        }
+
+        public static Viewport section(String sectionName) {
+            return new Viewport(sectionName, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        }
+
+        boolean includesSection(String name) {
+            return sectionName == null || sectionName.equals(name);
+        }
+
+        boolean includesRow(int rowNumber) {
+            return rowNumber >= fromRow && rowNumber <= toRow;
+        }
+
+        public String getSectionName() { return sectionName; }
+        public int getFromRow() { return fromRow; }
+        public int getToRow() { return toRow; }
+    }
+}
@@ -1,25 +1,72 @@
 package org.example.service;
 
 import org.example.model.*;
+import org.example.repository.JdbcTheaterRepository;
 import org.example.repository.TheaterRepository;
+import org.example.util.ConfigLoader;
 import org.example.util.DatabaseManager;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BiFunction;
 
 public class TheaterService {
 
     private final TheaterRepository theaterRepository;
+    private final LayoutCache layoutCache;
+    private final SeatHoldManager seatHoldManager;
+    private final BookingPipeline bookingPipeline;
+    private final SeatingMapRenderer seatingMapRenderer;
+    private final LayoutSnapshots layoutSnapshots;
+    private final Map<Long, HotTheaterEngine> hotTheaters = new ConcurrentHashMap<>();
 
     public TheaterService() {
-        this.theaterRepository = new TheaterRepository();
+        this(TheaterRepository.fromConfig());
     }
 
     public TheaterService(TheaterRepository theaterRepository) {
+        this(theaterRepository, new LayoutCache());
+    }
+
+    public TheaterService(TheaterRepository theaterRepository, LayoutCache layoutCache) {
+        this(theaterRepository, layoutCache, new SeatHoldManager(theaterRepository, layoutCache));
+    }
+
+    public TheaterService(TheaterRepository theaterRepository, LayoutCache layoutCache, SeatHoldManager seatHoldManager) {
+        this(theaterRepository, layoutCache, seatHoldManager,
+                ConfigLoader.getBooleanProperty("pipeline.enabled", false) ? new BookingPipeline(theaterRepository) : null);
+    }
+
+    /**
+     * With a booking pipeline, single-seat bookings and cancellations are group-committed.
+     */
+    public TheaterService(TheaterRepository theaterRepository, LayoutCache layoutCache,
+                          SeatHoldManager seatHoldManager, BookingPipeline bookingPipeline) {
+        this(theaterRepository, layoutCache, seatHoldManager, bookingPipeline,
+                LayoutSnapshots.fromConfig(theaterRepository, layoutCache));
+    }
+
+    /**
+     * With layout snapshots, layouts missing from the cache are read from snapshot files first.
+     */
+    public TheaterService(TheaterRepository theaterRepository, LayoutCache layoutCache, SeatHoldManager seatHoldManager,
+                          BookingPipeline bookingPipeline, LayoutSnapshots layoutSnapshots) {
         this.theaterRepository = theaterRepository;
+        this.layoutCache = layoutCache;
+        this.seatHoldManager = seatHoldManager;
+        this.bookingPipeline = bookingPipeline;
+        this.seatingMapRenderer = new SeatingMapRenderer(theaterRepository);
+        this.layoutSnapshots = layoutSnapshots;
     }
 
     public Long createTheater(String name) throws SQLException {
@@ -34,9 +81,7 @@ public class TheaterService {
             throw new IllegalArgumentException("All layout parameters must be positive");
         }
 
-        // Create theater
-        Long theaterId = createTheater(theaterName);
-        Theater theater = new Theater(theaterId, theaterName);
+        Theater theater = new Theater(theaterName);
 
         // Create sections
         for (int s = 1; s <= numSections; s++) {
@@ -58,63 +103,425 @@ public class TheaterService {
             theater.addSection(section);
         }
 
-        // Save to database
-        theaterRepository.bulkInsertTheaterLayout(theater);
+        return createTheaterLayout(theater);
+    }
 
-        return theater;
+    /**
+     * Creates a theater with the given name and stores the sections, rows and seats of the
+     * layout under it. The layout's theater, sections, rows and seats get their ids.
+     */
+    public Theater createTheaterLayout(Theater layout) throws SQLException {
+        layout.setId(createTheater(layout.getName()));
+        theaterRepository.bulkInsertTheaterLayout(layout);
+        return layout;
     }
 
     public List<Theater> getAllTheaters() throws SQLException {
         return theaterRepository.findAllTheaters();
     }
 
+    /**
+     * Seat counts per section without loading any seats. Hot theaters are counted from
+     * memory, since their database counters trail the write-behind flush.
+     */
+    public TheaterSummary getTheaterSummary(Long theaterId) throws SQLException {
+        HotTheaterEngine engine = hotTheaters.get(theaterId);
+        if (engine != null) {
+            return engine.summary();
+        }
+        return theaterRepository.findTheaterSummary(theaterId);
+    }
+
+    public List<TheaterSummary> getAllTheaterSummaries() throws SQLException {
+        return withHotCounts(theaterRepository.findAllTheaterSummaries());
+    }
+
+    /**
+     * One page of theaters in name order with at least minAvailableSeats available; pass the
+     * name of the last theater of the previous page, or null for the first page.
+     */
+    public List<TheaterSummary> getTheaterSummaries(String afterName, int minAvailableSeats, int pageSize) throws SQLException {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        return withHotCounts(theaterRepository.findAllTheaterSummaries(afterName, minAvailableSeats, pageSize));
+    }
+
+    private List<TheaterSummary> withHotCounts(List<TheaterSummary> summaries) {
+        if (hotTheaters.isEmpty()) {
+            return summaries;
+        }
+
+        List<TheaterSummary> merged = new ArrayList<>(summaries.size());
+        for (TheaterSummary summary : summaries) {
+            HotTheaterEngine engine = hotTheaters.get(summary.getTheaterId());
+            merged.add(engine != null ? engine.summary() : summary);
+        }
+        return merged;
+    }
+
     public Theater getTheaterWithLayout(Long theaterId) throws SQLException {
-        return theaterRepository.findTheaterById(theaterId);
+        HotTheaterEngine engine = hotTheaters.get(theaterId);
+        if (engine != null) {
+            return engine.snapshot();
+        }
+
+        Theater theater = layoutCache.get(theaterId);
+        if (theater == null && layoutSnapshots != null) {
+            theater = layoutSnapshots.load(theaterId);
+        } else if (theater == null) {
+            theater = theaterRepository.findTheaterById(theaterId);
+            if (theater != null) {
+                layoutCache.put(theater);
+            }
+        }
+        return theater;
     }
 
-    public void displaySeatingMap(Theater theater) {
-        System.out.println("\n=== Seating Map for " + theater.getName() + " ===");
-        System.out.printf("Total Seats: %d | Available: %d | Booked: %d%n",
-                theater.getTotalSeats(),
-                theater.getAvailableSeats(),
-                theater.getTotalSeats() - theater.getAvailableSeats());
-        System.out.println();
+    /**
+     * Drops the cached layout, e.g. after new sections or seat statuses were uploaded for the
+     * theater. A hot theater re-reads its seat statuses from the database instead.
+     */
+    public void invalidateTheater(Long theaterId) {
+        layoutCache.invalidate(theaterId);
+        if (layoutSnapshots != null) {
+            layoutSnapshots.discard(theaterId);
+        }
 
-        for (Section section : theater.getSections()) {
-            System.out.println("Section: " + section.getName() +
-                    " (Available: " + section.getAvailableSeats() + "/" + section.getTotalSeats() + ")");
+        HotTheaterEngine engine = hotTheaters.get(theaterId);
+        if (engine != null) {
+            try {
+                engine.reconcile();
+            } catch (SQLException e) {
+                System.err.println("Warning: Could not reconcile hot theater " + theaterId + ": " + e.getMessage());
+            }
+        }
+    }
 
-            for (Row row : section.getRows()) {
-                System.out.printf("  Row %2d: ", row.getNumber());
-
-                for (Seat seat : row.getSeats()) {
-                    String seatDisplay = switch (seat.getStatus()) {
-                        case AVAILABLE -> String.format("[%2d]", seat.getNumber());
-                        case BOOKED -> " [X]";
-                        case RESERVED -> " [R]";
-                        case OUT_OF_ORDER -> " [-]";
-                    };
-                    System.out.print(seatDisplay + " ");
+    public LayoutCache.Stats getCacheStats() {
+        return layoutCache.getStats();
+    }
+
+    /**
+     * Moves the theater's seat state into memory: bookings are decided by a
+     * {@link HotTheaterEngine} and written to the database in the background.
+     * Returns false if the theater does not exist.
+     */
+    public boolean enableHotMode(Long theaterId) throws SQLException {
+        if (hotTheaters.containsKey(theaterId)) {
+            return true;
+        }
+
+        HotTheaterEngine engine = new HotTheaterEngine(theaterId, theaterRepository);
+        if (!engine.start()) {
+            return false;
+        }
+        hotTheaters.put(theaterId, engine);
+        layoutCache.invalidate(theaterId);
+        return true;
+    }
+
+    /**
+     * Enables hot mode for the theater ids listed in engine.hotTheaters.
+     */
+    public void enableHotModeFromConfig() throws SQLException {
+        String ids = ConfigLoader.getProperty("engine.hotTheaters", "");
+        for (String id : ids.split(",")) {
+            if (id.isBlank()) continue;
+            try {
+                if (!enableHotMode(Long.parseLong(id.trim()))) {
+                    System.err.println("Warning: Hot theater " + id.trim() + " does not exist");
                 }
-                System.out.println();
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid theater id in property 'engine.hotTheaters': " + id);
             }
-            System.out.println();
         }
+    }
+
+    /**
+     * Keeps the layout cache in step with seat changes committed by other instances, when
+     * db.notify.enabled is set and seats are stored in PostgreSQL. Returns whether the
+     * subscription was made.
+     */
+    public boolean subscribeToSeatChangesFromConfig() throws SQLException {
+        if (!ConfigLoader.getBooleanProperty("db.notify.enabled", false)
+                || !(theaterRepository instanceof JdbcTheaterRepository)) {
+            return false;
+        }
+        DatabaseManager.getInstance().listen(DatabaseManager.SEAT_CHANGES_CHANNEL,
+                new SeatChangeSubscriber(layoutCache, hotTheaters::containsKey));
+        return true;
+    }
+
+    /**
+     * Releases seats left RESERVED by holds of a process that did not shut down cleanly, when
+     * holds.releaseOrphansAfterMinutes is positive. Returns how many seats were released.
+     */
+    public int releaseOrphanedHoldsFromConfig() throws SQLException {
+        long minutes = ConfigLoader.getLongProperty("holds.releaseOrphansAfterMinutes", 0);
+        if (minutes <= 0) {
+            return 0;
+        }
+        return seatHoldManager.releaseOrphanedHolds(Duration.ofMinutes(minutes));
+    }
 
-        System.out.println("Legend: [##] = Available, [X] = Booked, [R] = Reserved, [-] = Out of Order");
-        System.out.println();
+    public boolean isHotTheater(Long theaterId) {
+        return hotTheaters.containsKey(theaterId);
+    }
+
+    private HotTheaterEngine hotEngineFor(Long seatId) {
+        for (HotTheaterEngine engine : hotTheaters.values()) {
+            if (engine.contains(seatId)) {
+                return engine;
+            }
+        }
+        return null;
+    }
+
+    // A group of seats is either entirely in one hot theater or handled by the database
+    private HotTheaterEngine hotEngineFor(Collection<Long> seatIds) {
+        if (hotTheaters.isEmpty()) {
+            return null;
+        }
+        HotTheaterEngine engine = hotEngineFor(seatIds.iterator().next());
+        for (Long seatId : seatIds) {
+            if (hotEngineFor(seatId) != engine) {
+                throw new IllegalArgumentException("Seats of a hot theater cannot be combined with other seats");
+            }
+        }
+        return engine;
+    }
+
+    public void displaySeatingMap(Theater theater) {
+        seatingMapRenderer.render(theater, SeatingMapRenderer.Viewport.ALL, consoleWriter());
+    }
+
+    /**
+     * Prints part of a theater's seating map. Hot and cached theaters are rendered from
+     * memory; otherwise the seats in the viewport are streamed from the database without
+     * loading the layout. Returns false if the theater does not exist.
+     */
+    public boolean displaySeatingMap(Long theaterId, SeatingMapRenderer.Viewport viewport) throws SQLException {
+        HotTheaterEngine engine = hotTheaters.get(theaterId);
+        if (engine != null) {
+            seatingMapRenderer.render(engine, viewport, consoleWriter());
+            return true;
+        }
+        Theater theater = layoutCache.get(theaterId);
+        if (theater != null) {
+            seatingMapRenderer.render(theater, viewport, consoleWriter());
+            return true;
+        }
+        return seatingMapRenderer.render(theaterId, viewport, consoleWriter());
+    }
+
+    // Not closed: closing would close System.out. The renderer flushes when done.
+    private static PrintWriter consoleWriter() {
+        return new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16));
     }
 
     public boolean bookSeat(Long seatId) throws SQLException {
-        return theaterRepository.bookSeat(seatId);
+        HotTheaterEngine engine = hotEngineFor(seatId);
+        if (engine != null) {
+            return engine.bookSeat(seatId);
+        }
+        if (bookingPipeline != null) {
+            return await(bookSeatAsync(seatId));
+        }
+        return applyToCache(seatId, SeatStatus.BOOKED, theaterRepository.bookSeat(seatId));
     }
 
     public boolean cancelBooking(Long seatId) throws SQLException {
-        return theaterRepository.cancelBooking(seatId);
+        HotTheaterEngine engine = hotEngineFor(seatId);
+        if (engine != null) {
+            return engine.cancelBooking(seatId);
+        }
+        if (bookingPipeline != null) {
+            return await(cancelBookingAsync(seatId));
+        }
+        return applyToCache(seatId, SeatStatus.AVAILABLE, theaterRepository.cancelBooking(seatId));
+    }
+
+    /**
+     * Books the seat if it has not changed since it was read at expectedVersion. On a conflict
+     * the cached copy of the seat is refreshed from the result, so the caller can retry on it
+     * without reloading the layout.
+     */
+    public SeatUpdateResult bookSeat(Long seatId, long expectedVersion) throws SQLException {
+        return updateSeatIfVersion(seatId, expectedVersion, SeatStatus.AVAILABLE, SeatStatus.BOOKED);
+    }
+
+    public SeatUpdateResult cancelBooking(Long seatId, long expectedVersion) throws SQLException {
+        return updateSeatIfVersion(seatId, expectedVersion, SeatStatus.BOOKED, SeatStatus.AVAILABLE);
+    }
+
+    private SeatUpdateResult updateSeatIfVersion(Long seatId, long expectedVersion,
+                                                 SeatStatus from, SeatStatus to) throws SQLException {
+        // Hot theaters keep no versions; the in-memory status check decides
+        HotTheaterEngine engine = hotEngineFor(seatId);
+        if (engine != null) {
+            boolean applied = from == SeatStatus.AVAILABLE ? engine.bookSeat(seatId) : engine.cancelBooking(seatId);
+            SeatStatus current = engine.getSeatStatus(seatId);
+            if (current == null) {
+                return SeatUpdateResult.notFound(seatId);
+            }
+            return applied ? SeatUpdateResult.applied(seatId, to, 0) : SeatUpdateResult.conflict(seatId, current, 0);
+        }
+
+        SeatUpdateResult result = from == SeatStatus.AVAILABLE
+                ? theaterRepository.bookSeat(seatId, expectedVersion)
+                : theaterRepository.cancelBooking(seatId, expectedVersion);
+        if (result.isNotFound()) {
+            layoutCache.invalidateSeat(seatId);
+        } else {
+            layoutCache.updateSeat(seatId, result.getStatus(), result.getVersion());
+        }
+        return result;
+    }
+
+    /**
+     * Queues a booking for group commit; the future completes with whether the seat was booked.
+     */
+    public CompletableFuture<Boolean> bookSeatAsync(Long seatId) {
+        return submit(seatId, SeatStatus.BOOKED, BookingPipeline::bookSeat);
+    }
+
+    /**
+     * Queues a cancellation for group commit; the future completes with whether it was cancelled.
+     */
+    public CompletableFuture<Boolean> cancelBookingAsync(Long seatId) {
+        return submit(seatId, SeatStatus.AVAILABLE, BookingPipeline::cancelBooking);
+    }
+
+    private CompletableFuture<Boolean> submit(Long seatId, SeatStatus status,
+                                              BiFunction<BookingPipeline, Long, CompletableFuture<Boolean>> request) {
+        if (bookingPipeline == null) {
+            throw new IllegalStateException("Booking pipeline is not enabled");
+        }
+        return request.apply(bookingPipeline, seatId)
+                .thenApply(updated -> applyToCache(seatId, status, updated));
+    }
+
+    private boolean await(CompletableFuture<Boolean> result) throws SQLException {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for booking to commit", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            throw new IllegalStateException("Booking failed", e.getCause());
+        }
     }
 
     public boolean updateSeatStatus(Long seatId, SeatStatus status) throws SQLException {
-        return theaterRepository.updateSeatStatus(seatId, status);
+        HotTheaterEngine engine = hotEngineFor(seatId);
+        if (engine != null) {
+            return engine.updateSeatStatus(seatId, status);
+        }
+        return applyToCache(seatId, status, theaterRepository.updateSeatStatus(seatId, status));
+    }
+
+    /**
+     * Books all given seats in one transaction, or none of them if any seat is taken.
+     */
+    public SeatBatchResult bookSeats(Collection<Long> seatIds) throws SQLException {
+        validateSeatIds(seatIds);
+        HotTheaterEngine engine = hotEngineFor(seatIds);
+        if (engine != null) {
+            return engine.bookSeats(seatIds);
+        }
+        return applyToCache(theaterRepository.bookSeats(seatIds), SeatStatus.BOOKED);
+    }
+
+    /**
+     * Cancels all given bookings in one transaction, or none of them if any seat is not booked.
+     */
+    public SeatBatchResult cancelBookings(Collection<Long> seatIds) throws SQLException {
+        validateSeatIds(seatIds);
+        HotTheaterEngine engine = hotEngineFor(seatIds);
+        if (engine != null) {
+            return engine.cancelBookings(seatIds);
+        }
+        return applyToCache(theaterRepository.cancelBookings(seatIds), SeatStatus.AVAILABLE);
+    }
+
+    /**
+     * Reserves all given seats for ttl, or none of them if any seat is not available.
+     * The hold must be confirmed before it expires, otherwise the seats become available again.
+     */
+    public SeatHold holdSeats(List<Long> seatIds, Duration ttl) throws SQLException {
+        validateSeatIds(seatIds);
+        if (hotEngineFor(seatIds) != null) {
+            throw new IllegalArgumentException("Seat holds are not supported for hot theaters");
+        }
+        return seatHoldManager.holdSeats(seatIds, ttl);
+    }
+
+    /**
+     * Books the seats of an active hold. Returns false if the hold expired or was released.
+     */
+    public boolean confirm(String holdId) throws SQLException {
+        return seatHoldManager.confirm(holdId);
+    }
+
+    /**
+     * Releases the seats of an active hold. Returns false if the hold expired or was released.
+     */
+    public boolean release(String holdId) throws SQLException {
+        return seatHoldManager.release(holdId);
+    }
+
+    public void shutdown() {
+        for (HotTheaterEngine engine : hotTheaters.values()) {
+            try {
+                engine.shutdown();
+            } catch (SQLException e) {
+                System.err.println("Warning: Could not flush seat changes for theater " + engine.getTheaterId() + ": " + e.getMessage());
+            }
+        }
+        hotTheaters.clear();
+        if (bookingPipeline != null) {
+            bookingPipeline.shutdown();
+        }
+        seatHoldManager.shutdown();
+        if (layoutSnapshots != null) {
+            layoutSnapshots.shutdown();
+        }
+    }
+
+    private void validateSeatIds(Collection<Long> seatIds) {
+        if (seatIds == null || seatIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one seat must be given");
+        }
+        if (seatIds.contains(null)) {
+            throw new IllegalArgumentException("Seat ids cannot be null");
+        }
+    }
+
+    private SeatBatchResult applyToCache(SeatBatchResult result, SeatStatus status) {
+        if (result.isSuccess()) {
+            result.getSeatIds().forEach(seatId -> layoutCache.updateSeatStatus(seatId, status));
+        } else {
+            result.getConflictingSeatIds().forEach(layoutCache::invalidateSeat);
+        }
+        return result;
+    }
+
+    /*
+     * For pipelined requests this runs on the committer thread. The cache patches only its own
+     * copy of the layout, under its lock, so layouts being read are not touched.
+     */
+    private boolean applyToCache(Long seatId, SeatStatus status, boolean updated) {
+        if (updated) {
+            layoutCache.updateSeatStatus(seatId, status);
+        } else {
+            // The cached status no longer matches the database
+            layoutCache.invalidateSeat(seatId);
+        }
+        return updated;
     }
 
     public Seat findSeat(Theater theater, String sectionName, int rowNumber, int seatNumber) {
@@ -134,53 +541,74 @@ public class TheaterService {
         return null;
     }
 
-    public Long createSection(Long theaterId, String sectionName) throws SQLException {
-        String sql = "INSERT INTO sections (theater_id, name) VALUES (?, ?) RETURNING id";
+    public List<Seat> findContiguousSeats(Long theaterId, int count) throws SQLException {
+        return findContiguousSeats(theaterId, count, null);
+    }
 
-        try (Connection conn = DatabaseManager.getInstance().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+    /**
+     * Finds the best block of count adjacent available seats, optionally within one section.
+     * Rows are tried front to back, choosing the block nearest the middle of the row. When no
+     * single row has room, the seats are split over the fewest consecutive rows that fit.
+     * Returns an empty list if the group cannot be seated.
+     */
+    public List<Seat> findContiguousSeats(Long theaterId, int count, String sectionName) throws SQLException {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Number of seats must be positive");
+        }
 
-            stmt.setLong(1, theaterId);
-            stmt.setString(2, sectionName);
+        Theater theater = getTheaterWithLayout(theaterId);
+        if (theater == null) {
+            return List.of();
+        }
 
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getLong("id");
+        List<Section> sections = new ArrayList<>();
+        for (Section section : theater.getSections()) {
+            if (sectionName == null || section.getName().equalsIgnoreCase(sectionName)) {
+                sections.add(section);
             }
-            throw new SQLException("Failed to create section");
         }
-    }
-
-    public Long createRow(Long sectionId, int rowNumber) throws SQLException {
-        String sql = "INSERT INTO rows (section_id, number) VALUES (?, ?) RETURNING id";
-
-        try (Connection conn = DatabaseManager.getInstance().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setLong(1, sectionId);
-            stmt.setInt(2, rowNumber);
 
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getLong("id");
+        // Single row
+        for (Section section : sections) {
+            if (section.getAvailableSeats() < count) continue;
+            for (Row row : section.getRows()) {
+                if (row.getLongestAvailableRun() >= count) {
+                    return row.findAdjacentAvailableSeats(count);
+                }
             }
-            throw new SQLException("Failed to create row");
         }
-    }
 
-    public void createSeatsForRow(Long rowId, int numberOfSeats) throws SQLException {
-        String sql = "INSERT INTO seats (row_id, number, is_booked) VALUES (?, ?, false)";
+        // Block over the fewest consecutive rows, front rows first
+        int maxRows = sections.stream().mapToInt(section -> section.getRows().size()).max().orElse(0);
+        for (int blockRows = 2; blockRows <= Math.min(count, maxRows); blockRows++) {
+            for (Section section : sections) {
+                if (section.getAvailableSeats() < count) continue;
+                List<Seat> block = findMultiRowBlock(section.getRows(), count, blockRows);
+                if (!block.isEmpty()) {
+                    return block;
+                }
+            }
+        }
 
-        try (Connection conn = DatabaseManager.getInstance().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        return List.of();
+    }
 
-            for (int seatNum = 1; seatNum <= numberOfSeats; seatNum++) {
-                stmt.setLong(1, rowId);
-                stmt.setInt(2, seatNum);
-                stmt.addBatch();
+    private List<Seat> findMultiRowBlock(List<Row> rows, int count, int blockRows) {
+        for (int first = 0; first + blockRows <= rows.size(); first++) {
+            int capacity = 0;
+            for (int i = first; i < first + blockRows; i++) {
+                capacity += rows.get(i).getLongestAvailableRun();
             }
+            if (capacity < count) continue;
 
-            stmt.executeBatch();
+            List<Seat> block = new ArrayList<>();
+            for (int i = first; i < first + blockRows && block.size() < count; i++) {
+                Row row = rows.get(i);
+                int take = Math.min(count - block.size(), row.getLongestAvailableRun());
+                block.addAll(row.findAdjacentAvailableSeats(take));
+            }
+            return block;
         }
+        return List.of();
     }
 }
@@ -6,7 +6,7 @@ import java.util.Properties;
 
 public class ConfigLoader {
 
-    private static final String CONFIG_FILE = "config.properties";
+    private static final String CONFIG_FILE = "Config.properties";
     private static Properties properties;
 
     static {
@@ -83,6 +83,49 @@ public class ConfigLoader {
         }
     }
 
+    /**
+     * Get a size property such as "10MB", "512KB", "1GB" or a plain number of bytes
+     */
+    public static long getSizeProperty(String key, long defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+
+        String normalized = value.trim().toUpperCase();
+        long multiplier = 1;
+        if (normalized.endsWith("GB")) {
+            multiplier = 1024L * 1024 * 1024;
+        } else if (normalized.endsWith("MB")) {
+            multiplier = 1024L * 1024;
+        } else if (normalized.endsWith("KB")) {
+            multiplier = 1024L;
+        }
+        if (multiplier > 1) {
+            normalized = normalized.substring(0, normalized.length() - 2).trim();
+        } else if (normalized.endsWith("B")) {
+            normalized = normalized.substring(0, normalized.length() - 1).trim();
+        }
+
+        try {
+            return Long.parseLong(normalized) * multiplier;
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid size value for property '" + key + "': " + value + ". Using default: " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Format a byte count the way sizes are written in the config file
+     */
+    public static String formatSize(long bytes) {
+        if (bytes <= 0) return bytes + "B";
+        if (bytes % (1024L * 1024 * 1024) == 0) return bytes / (1024L * 1024 * 1024) + "GB";
+        if (bytes % (1024L * 1024) == 0) return bytes / (1024L * 1024) + "MB";
+        if (bytes % 1024L == 0) return bytes / 1024L + "KB";
+        return bytes + "B";
+    }
+
     /**
      * Get all properties
      */
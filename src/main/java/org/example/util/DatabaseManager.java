@@ -3,16 +3,23 @@ package org.example.util;
 import org.example.exception.DbException;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.example.metrics.RepositoryMetrics;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
+import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
 
 public class DatabaseManager {
 
+    /** Channel carrying seat status changes, see createNotifyTriggers. */
+    public static final String SEAT_CHANGES_CHANNEL = "seat_changes";
+
     private static DatabaseManager instance;
     private HikariDataSource dataSource;
+    private NotificationListener notificationListener;
 
     private DatabaseManager() {}
 
@@ -41,6 +48,12 @@ public class DatabaseManager {
         // Create tables
         createTables();
 
+        // Dedicated connection for LISTEN, outside the pool
+        notificationListener = new NotificationListener(
+                () -> DriverManager.getConnection(url, username, password),
+                ConfigLoader.getIntProperty("db.notify.pollMillis", 500),
+                ConfigLoader.getLongProperty("db.notify.reconnectMillis", 2000));
+
         System.out.println("PostgreSQL database initialized successfully.");
     }
 
@@ -69,7 +82,13 @@ public class DatabaseManager {
         config.setValidationTimeout(5000);
         config.setLeakDetectionThreshold(ConfigLoader.getLongProperty("db.pool.leakDetectionThreshold", 60000));
 
+        // Metrics: pool wait time histogram and pool state over JMX
+        config.setPoolName("theater-pool");
+        config.setRegisterMbeans(true);
+        config.setMetricsTrackerFactory(RepositoryMetrics.getInstance().poolTrackerFactory());
+
         dataSource = new HikariDataSource(config);
+        RepositoryMetrics.getInstance().registerMBean();
     }
 
     private void createTables() throws DbException {
@@ -123,12 +142,56 @@ public class DatabaseManager {
                 )
             """);
 
+            // Version of each seat, bumped on every status change (see createSeatVersionTrigger)
+            stmt.execute("ALTER TABLE seats ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0");
+
+            // Create seat ranges table (runs of adjacent seats with one status, see storage.mode)
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS seat_ranges (
+                    id BIGSERIAL PRIMARY KEY,
+                    row_id BIGINT NOT NULL,
+                    seat_start INTEGER NOT NULL,
+                    seat_end INTEGER NOT NULL,
+                    status VARCHAR(20) NOT NULL DEFAULT 'AVAILABLE',
+                    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                    FOREIGN KEY (row_id) REFERENCES rows(id) ON DELETE CASCADE,
+                    CHECK (seat_start > 0 AND seat_start <= seat_end)
+                )
+            """);
+
+            // Create per-section seat counters, kept in step with seats and seat_ranges by triggers
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS section_stats (
+                    section_id BIGINT PRIMARY KEY,
+                    theater_id BIGINT NOT NULL,
+                    total_seats INTEGER NOT NULL DEFAULT 0,
+                    available_seats INTEGER NOT NULL DEFAULT 0,
+                    booked_seats INTEGER NOT NULL DEFAULT 0,
+                    reserved_seats INTEGER NOT NULL DEFAULT 0,
+                    out_of_order_seats INTEGER NOT NULL DEFAULT 0,
+                    FOREIGN KEY (section_id) REFERENCES sections(id) ON DELETE CASCADE
+                )
+            """);
+
             // Create indexes for better performance
             createIndexes(stmt);
 
             // Create trigger for updated_at column
             createUpdatedAtTrigger(stmt);
 
+            // Create trigger for the seat version column
+            createSeatVersionTrigger(stmt);
+
+            // Create triggers maintaining section_stats
+            createSectionStatsTriggers(stmt);
+
+            // Create triggers announcing seat changes to other instances
+            if (ConfigLoader.getBooleanProperty("db.notify.enabled", false)) {
+                createNotifyTriggers(stmt);
+            } else {
+                dropNotifyTriggers(stmt);
+            }
+
             System.out.println("PostgreSQL database tables and indexes created/verified successfully.");
 
         } catch (SQLException e) {
@@ -156,6 +219,15 @@ public class DatabaseManager {
             // Composite index for seat booking queries
             stmt.execute("CREATE INDEX IF NOT EXISTS idx_seats_row_number ON seats(row_id, number)");
 
+            // Index on change times for reconciling layout snapshots
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_seats_updated_at ON seats(updated_at)");
+
+            // Index on section counters for theater summaries
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_section_stats_theater_id ON section_stats(theater_id)");
+
+            // Index on seat ranges for row lookups
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_seat_ranges_row_start ON seat_ranges(row_id, seat_start)");
+
             System.out.println("Database indexes created successfully.");
         } catch (SQLException e) {
             System.err.println("Warning: Could not create some indexes: " + e.getMessage());
@@ -194,6 +266,254 @@ public class DatabaseManager {
         }
     }
 
+    /*
+     * Every write path that changes a seat's status bumps its version through this trigger,
+     * so conditional updates on (id, version) detect any change made since the seat was read.
+     */
+    private void createSeatVersionTrigger(Statement stmt) throws SQLException {
+        try {
+            stmt.execute("""
+                CREATE OR REPLACE FUNCTION bump_seat_version()
+                RETURNS TRIGGER AS $$
+                BEGIN
+                    IF NEW.status IS DISTINCT FROM OLD.status THEN
+                        NEW.version = OLD.version + 1;
+                    END IF;
+                    RETURN NEW;
+                END;
+                $$ LANGUAGE plpgsql
+            """);
+
+            stmt.execute("DROP TRIGGER IF EXISTS bump_seats_version ON seats");
+            stmt.execute("""
+                CREATE TRIGGER bump_seats_version
+                    BEFORE UPDATE ON seats
+                    FOR EACH ROW
+                    EXECUTE FUNCTION bump_seat_version()
+            """);
+
+            System.out.println("Seat version trigger created successfully.");
+        } catch (SQLException e) {
+            System.err.println("Warning: Could not create seat version trigger: " + e.getMessage());
+        }
+    }
+
+    /*
+     * Statement-level triggers with transition tables, so a bulk insert or a set-based UPDATE
+     * adjusts each affected section's counters once per statement rather than once per seat.
+     * Each change is applied as +1 for the new status and -1 for the old one; seat_ranges
+     * contribute the length of the run.
+     */
+    private void createSectionStatsTriggers(Statement stmt) throws SQLException {
+        try {
+            stmt.execute("""
+                CREATE OR REPLACE FUNCTION apply_section_stats(p_row_ids BIGINT[], p_statuses TEXT[], p_counts BIGINT[])
+                RETURNS VOID AS $$
+                    INSERT INTO section_stats AS s (section_id, theater_id, total_seats, available_seats,
+                                                    booked_seats, reserved_seats, out_of_order_seats)
+                    SELECT r.section_id, sec.theater_id,
+                           SUM(d.n),
+                           COALESCE(SUM(d.n) FILTER (WHERE d.status = 'AVAILABLE'), 0),
+                           COALESCE(SUM(d.n) FILTER (WHERE d.status = 'BOOKED'), 0),
+                           COALESCE(SUM(d.n) FILTER (WHERE d.status = 'RESERVED'), 0),
+                           COALESCE(SUM(d.n) FILTER (WHERE d.status = 'OUT_OF_ORDER'), 0)
+                    FROM unnest(p_row_ids, p_statuses, p_counts) AS d(row_id, status, n)
+                    JOIN rows r ON r.id = d.row_id
+                    JOIN sections sec ON sec.id = r.section_id
+                    GROUP BY r.section_id, sec.theater_id
+                    ON CONFLICT (section_id) DO UPDATE SET
+                        total_seats = s.total_seats + EXCLUDED.total_seats,
+                        available_seats = s.available_seats + EXCLUDED.available_seats,
+                        booked_seats = s.booked_seats + EXCLUDED.booked_seats,
+                        reserved_seats = s.reserved_seats + EXCLUDED.reserved_seats,
+                        out_of_order_seats = s.out_of_order_seats + EXCLUDED.out_of_order_seats
+                $$ LANGUAGE sql
+            """);
+
+            stmt.execute("""
+                CREATE OR REPLACE FUNCTION seats_section_stats()
+                RETURNS TRIGGER AS $$
+                BEGIN
+                    IF TG_OP <> 'DELETE' THEN
+                        PERFORM apply_section_stats(array_agg(row_id), array_agg(status::TEXT), array_agg(1::BIGINT))
+                        FROM new_rows;
+                    END IF;
+                    IF TG_OP <> 'INSERT' THEN
+                        PERFORM apply_section_stats(array_agg(row_id), array_agg(status::TEXT), array_agg(-1::BIGINT))
+                        FROM old_rows;
+                    END IF;
+                    RETURN NULL;
+                END;
+                $$ LANGUAGE plpgsql
+            """);
+
+            stmt.execute("""
+                CREATE OR REPLACE FUNCTION seat_ranges_section_stats()
+                RETURNS TRIGGER AS $$
+                BEGIN
+                    IF TG_OP <> 'DELETE' THEN
+                        PERFORM apply_section_stats(array_agg(row_id), array_agg(status::TEXT),
+                                                    array_agg((seat_end - seat_start + 1)::BIGINT))
+                        FROM new_rows;
+                    END IF;
+                    IF TG_OP <> 'INSERT' THEN
+                        PERFORM apply_section_stats(array_agg(row_id), array_agg(status::TEXT),
+                                                    array_agg((seat_start - seat_end - 1)::BIGINT))
+                        FROM old_rows;
+                    END IF;
+                    RETURN NULL;
+                END;
+                $$ LANGUAGE plpgsql
+            """);
+
+            // Transition tables allow only one event per trigger
+            for (String table : new String[] {"seats", "seat_ranges"}) {
+                String function = table + "_section_stats()";
+                stmt.execute("DROP TRIGGER IF EXISTS " + table + "_stats_insert ON " + table);
+                stmt.execute("CREATE TRIGGER " + table + "_stats_insert AFTER INSERT ON " + table +
+                        " REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION " + function);
+                stmt.execute("DROP TRIGGER IF EXISTS " + table + "_stats_update ON " + table);
+                stmt.execute("CREATE TRIGGER " + table + "_stats_update AFTER UPDATE ON " + table +
+                        " REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION " + function);
+                stmt.execute("DROP TRIGGER IF EXISTS " + table + "_stats_delete ON " + table);
+                stmt.execute("CREATE TRIGGER " + table + "_stats_delete AFTER DELETE ON " + table +
+                        " REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION " + function);
+            }
+
+            // Sections that existed before the counters were introduced
+            stmt.execute("""
+                INSERT INTO section_stats (section_id, theater_id, total_seats, available_seats,
+                                           booked_seats, reserved_seats, out_of_order_seats)
+                SELECT sec.id, sec.theater_id,
+                       COALESCE(SUM(c.n), 0),
+                       COALESCE(SUM(c.n) FILTER (WHERE c.status = 'AVAILABLE'), 0),
+                       COALESCE(SUM(c.n) FILTER (WHERE c.status = 'BOOKED'), 0),
+                       COALESCE(SUM(c.n) FILTER (WHERE c.status = 'RESERVED'), 0),
+                       COALESCE(SUM(c.n) FILTER (WHERE c.status = 'OUT_OF_ORDER'), 0)
+                FROM sections sec
+                LEFT JOIN rows r ON r.section_id = sec.id
+                LEFT JOIN (
+                    SELECT row_id, status, 1 AS n FROM seats
+                    UNION ALL
+                    SELECT row_id, status, seat_end - seat_start + 1 FROM seat_ranges
+                ) c ON c.row_id = r.id
+                WHERE NOT EXISTS (SELECT 1 FROM section_stats st WHERE st.section_id = sec.id)
+                GROUP BY sec.id, sec.theater_id
+                ON CONFLICT (section_id) DO NOTHING
+            """);
+
+            System.out.println("Section counters created successfully.");
+        } catch (SQLException e) {
+            System.err.println("Warning: Could not create section counters: " + e.getMessage());
+        }
+    }
+
+    /*
+     * Seat status changes are sent on SEAT_CHANGES_CHANNEL as "<theater id>:<seat id>=<STATUS>@<version>,...",
+     * at most 200 seats per notification to stay under the payload limit. Seats added or
+     * removed, and any change to seat_ranges, are sent as "<theater id>:*", meaning the
+     * theater's layout must be reloaded. Notifications are delivered on commit, in commit order.
+     */
+    private void createNotifyTriggers(Statement stmt) throws SQLException {
+        try {
+            stmt.execute("""
+                CREATE OR REPLACE FUNCTION notify_seat_changes()
+                RETURNS TRIGGER AS $$
+                DECLARE
+                    message TEXT;
+                BEGIN
+                    FOR message IN
+                        SELECT sec.theater_id || ':' || string_agg(c.id || '=' || c.status || '@' || c.version, ',')
+                        FROM (SELECT n.id, n.row_id, COALESCE(n.status, 'AVAILABLE') AS status, n.version,
+                                     (row_number() OVER (ORDER BY n.id) - 1) / 200 AS chunk
+                              FROM new_rows n
+                              JOIN old_rows o ON o.id = n.id
+                              WHERE n.status IS DISTINCT FROM o.status) c
+                        JOIN rows r ON r.id = c.row_id
+                        JOIN sections sec ON sec.id = r.section_id
+                        GROUP BY sec.theater_id, c.chunk
+                    LOOP
+                        PERFORM pg_notify('seat_changes', message);
+                    END LOOP;
+                    RETURN NULL;
+                END;
+                $$ LANGUAGE plpgsql
+            """);
+
+            stmt.execute("""
+                CREATE OR REPLACE FUNCTION notify_layout_changes()
+                RETURNS TRIGGER AS $$
+                DECLARE
+                    theater BIGINT;
+                BEGIN
+                    IF TG_OP = 'DELETE' THEN
+                        FOR theater IN SELECT DISTINCT sec.theater_id FROM old_rows o
+                                       JOIN rows r ON r.id = o.row_id JOIN sections sec ON sec.id = r.section_id
+                        LOOP
+                            PERFORM pg_notify('seat_changes', theater || ':*');
+                        END LOOP;
+                    ELSE
+                        FOR theater IN SELECT DISTINCT sec.theater_id FROM new_rows n
+                                       JOIN rows r ON r.id = n.row_id JOIN sections sec ON sec.id = r.section_id
+                        LOOP
+                            PERFORM pg_notify('seat_changes', theater || ':*');
+                        END LOOP;
+                    END IF;
+                    RETURN NULL;
+                END;
+                $$ LANGUAGE plpgsql
+            """);
+
+            stmt.execute("DROP TRIGGER IF EXISTS seats_notify_update ON seats");
+            stmt.execute("CREATE TRIGGER seats_notify_update AFTER UPDATE ON seats" +
+                    " REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION notify_seat_changes()");
+
+            for (String table : new String[] {"seats", "seat_ranges"}) {
+                stmt.execute("DROP TRIGGER IF EXISTS " + table + "_notify_insert ON " + table);
+                stmt.execute("CREATE TRIGGER " + table + "_notify_insert AFTER INSERT ON " + table +
+                        " REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION notify_layout_changes()");
+                stmt.execute("DROP TRIGGER IF EXISTS " + table + "_notify_delete ON " + table);
+                stmt.execute("CREATE TRIGGER " + table + "_notify_delete AFTER DELETE ON " + table +
+                        " REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION notify_layout_changes()");
+            }
+            stmt.execute("DROP TRIGGER IF EXISTS seat_ranges_notify_update ON seat_ranges");
+            stmt.execute("CREATE TRIGGER seat_ranges_notify_update AFTER UPDATE ON seat_ranges" +
+                    " REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION notify_layout_changes()");
+
+            System.out.println("Change notification triggers created successfully.");
+        } catch (SQLException e) {
+            System.err.println("Warning: Could not create change notification triggers: " + e.getMessage());
+        }
+    }
+
+    /*
+     * Triggers left from a run with db.notify.enabled would keep notifying on every seat change.
+     */
+    private void dropNotifyTriggers(Statement stmt) throws SQLException {
+        try {
+            stmt.execute("DROP TRIGGER IF EXISTS seats_notify_update ON seats");
+            for (String table : new String[] {"seats", "seat_ranges"}) {
+                stmt.execute("DROP TRIGGER IF EXISTS " + table + "_notify_insert ON " + table);
+                stmt.execute("DROP TRIGGER IF EXISTS " + table + "_notify_delete ON " + table);
+            }
+            stmt.execute("DROP TRIGGER IF EXISTS seat_ranges_notify_update ON seat_ranges");
+        } catch (SQLException e) {
+            System.err.println("Warning: Could not drop change notification triggers: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Subscribes to a notification channel on the dedicated listener connection, starting
+     * the listener on first use.
+     */
+    public synchronized void listen(String channel, NotificationSubscriber subscriber) throws SQLException {
+        if (notificationListener == null) {
+            throw new SQLException("Database not initialized");
+        }
+        notificationListener.subscribe(channel, subscriber);
+        notificationListener.start();
+    }
+
     public Connection getConnection() throws SQLException {
         if (dataSource == null) {
             throw new SQLException("Database not initialized");
@@ -205,7 +525,17 @@ public class DatabaseManager {
         return dataSource;
     }
 
+    /**
+     * Live pool state (active, idle and pending connections), or null before initialization.
+     */
+    public HikariPoolMXBean getPoolMXBean() {
+        return dataSource != null ? dataSource.getHikariPoolMXBean() : null;
+    }
+
     public void close() {
+        if (notificationListener != null) {
+            notificationListener.stop();
+        }
         if (dataSource != null && !dataSource.isClosed()) {
             dataSource.close();
             System.out.println("PostgreSQL database connection pool closed.");
@@ -0,0 +1,119 @@
+package org.example.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Hashed timing wheel: timeouts are hashed into a ring of buckets by deadline tick, and
+ * advancing the wheel only visits the buckets whose tick has passed. Scheduling and
+ * cancelling are O(1) no matter how many timeouts are pending, and there is no per-timeout
+ * task or timer thread. Deadlines are rounded up to the next tick.
+ *
+ * The wheel does not own a thread; callers advance it with the current time.
+ */
+public class HashedTimingWheel<T> {
+
+    private final long tickNanos;
+    private final List<Timeout<T>>[] buckets;
+    private final int mask;
+    private final long startNanos;
+    private long currentTick;
+    private int pending;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public HashedTimingWheel(long tickNanos, int wheelSize, long startNanos) {
+        if (tickNanos <= 0) {
+            throw new IllegalArgumentException("Tick duration must be positive");
+        }
+        if (wheelSize <= 0 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a positive power of two");
+        }
+        this.tickNanos = tickNanos;
+        this.buckets = new List[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new LinkedList<>();
+        }
+        this.mask = wheelSize - 1;
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * Schedules the item to expire delayNanos after nowNanos.
+     */
+    public synchronized Timeout<T> schedule(T item, long delayNanos, long nowNanos) {
+        long deadlineTick = Math.max(currentTick, ceilDiv(nowNanos + Math.max(0, delayNanos) - startNanos, tickNanos));
+        long ticksAhead = deadlineTick - currentTick;
+
+        Timeout<T> timeout = new Timeout<>(item, ticksAhead / buckets.length);
+        buckets[(int) (deadlineTick & mask)].add(timeout);
+        pending++;
+        return timeout;
+    }
+
+    /**
+     * Advances the wheel to nowNanos and returns the items whose deadline has passed.
+     */
+    public synchronized List<T> advance(long nowNanos) {
+        List<T> expired = new ArrayList<>();
+        long targetTick = Math.floorDiv(nowNanos - startNanos, tickNanos);
+
+        while (currentTick <= targetTick) {
+            Iterator<Timeout<T>> it = buckets[(int) (currentTick & mask)].iterator();
+            while (it.hasNext()) {
+                Timeout<T> timeout = it.next();
+                if (timeout.cancelled) {
+                    it.remove();
+                    pending--;
+                } else if (timeout.remainingRounds <= 0) {
+                    it.remove();
+                    pending--;
+                    timeout.expired = true;
+                    expired.add(timeout.item);
+                } else {
+                    timeout.remainingRounds--;
+                }
+            }
+            currentTick++;
+        }
+        return expired;
+    }
+
+    public synchronized int pendingTimeouts() {
+        return pending;
+    }
+
+    private static long ceilDiv(long x, long y) {
+        return -Math.floorDiv(-x, y);
+    }
+
+    public static class Timeout<T> {
+        private final T item;
+        private long remainingRounds;
+        private volatile boolean cancelled;
+        private volatile boolean expired;
+
+        Timeout(T item, long remainingRounds) {
+            this.item = item;
+            this.remainingRounds = remainingRounds;
+        }
+
+        public T getItem() { return item; }
+
+        /**
+         * Cancels the timeout; returns false if it already expired. The entry is dropped
+         * lazily the next time the wheel passes its bucket.
+         */
+        public boolean cancel() {
+            if (expired) {
+                return false;
+            }
+            cancelled = true;
+            return true;
+        }
+
+        public boolean isCancelled() { return cancelled; }
+        public boolean isExpired() { return expired; }
+    }
+}
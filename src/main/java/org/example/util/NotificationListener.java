@@ -0,0 +1,178 @@
+package org.example.util;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Holds one dedicated connection that LISTENs on the subscribed channels and hands each
+ * notification to the channel's subscribers. The connection is not taken from the pool,
+ * since the pool may close or recycle it. When it fails the listener reconnects, listens
+ * again and tells every subscriber to reload.
+ */
+public class NotificationListener {
+
+    /** Opens a new connection for the listener. */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection connect() throws SQLException;
+    }
+
+    private final ConnectionFactory connectionFactory;
+    private final int pollMillis;
+    private final long reconnectMillis;
+
+    private final Map<String, List<NotificationSubscriber>> subscribers = new ConcurrentHashMap<>();
+    // Channels subscribed to since the connection last issued its LISTENs
+    private final Queue<String> pendingChannels = new ConcurrentLinkedQueue<>();
+
+    private Thread thread;
+    private volatile boolean running;
+    private Connection connection;
+    private boolean connectedBefore;
+
+    public NotificationListener(ConnectionFactory connectionFactory, int pollMillis, long reconnectMillis) {
+        this.connectionFactory = connectionFactory;
+        this.pollMillis = pollMillis;
+        this.reconnectMillis = reconnectMillis;
+    }
+
+    public void subscribe(String channel, NotificationSubscriber subscriber) {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid channel name: " + channel);
+        }
+        subscribers.computeIfAbsent(channel, name -> {
+            pendingChannels.add(name);
+            return new CopyOnWriteArrayList<>();
+        }).add(subscriber);
+    }
+
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "db-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                step();
+            } catch (SQLException e) {
+                if (!running) {
+                    break;
+                }
+                System.err.println("Warning: Database listener failed, reconnecting: " + e.getMessage());
+                sleep(reconnectMillis);
+            }
+        }
+        closeConnection();
+    }
+
+    /**
+     * Connects if needed, then waits up to pollMillis for notifications and dispatches them.
+     * On failure the connection is dropped, so the next step reconnects and asks subscribers
+     * to reload. Package-private so tests can drive the listener without its thread.
+     */
+    void step() throws SQLException {
+        try {
+            if (connection == null) {
+                connection = connectionFactory.connect();
+                pendingChannels.clear();
+                listen(subscribers.keySet());
+                if (connectedBefore) {
+                    subscribers.values().forEach(list -> list.forEach(this::reconnected));
+                }
+                connectedBefore = true;
+            }
+
+            List<String> channels = new ArrayList<>();
+            String channel;
+            while ((channel = pendingChannels.poll()) != null) {
+                channels.add(channel);
+            }
+            listen(channels);
+
+            dispatch(connection.unwrap(PGConnection.class).getNotifications(pollMillis));
+        } catch (SQLException e) {
+            closeConnection();
+            throw e;
+        }
+    }
+
+    private void dispatch(PGNotification[] notifications) {
+        if (notifications == null) {
+            return;
+        }
+        for (PGNotification notification : notifications) {
+            for (NotificationSubscriber subscriber : subscribers.getOrDefault(notification.getName(), List.of())) {
+                try {
+                    subscriber.onNotification(notification.getName(), notification.getParameter());
+                } catch (RuntimeException e) {
+                    System.err.println("Warning: Could not apply notification on " + notification.getName() + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void listen(Iterable<String> channels) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            for (String channel : channels) {
+                stmt.execute("LISTEN " + channel);
+            }
+        }
+    }
+
+    private void reconnected(NotificationSubscriber subscriber) {
+        try {
+            subscriber.onReconnect();
+        } catch (RuntimeException e) {
+            System.err.println("Warning: Could not reload after reconnecting: " + e.getMessage());
+        }
+    }
+
+    private void closeConnection() {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                // Already broken
+            }
+            connection = null;
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            running = false;
+        }
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(pollMillis + 1000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+}
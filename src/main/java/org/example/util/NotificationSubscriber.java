@@ -0,0 +1,16 @@
+package org.example.util;
+
+/**
+ * Receives PostgreSQL notifications for the channels it subscribed to. Both methods are
+ * called on the listener thread.
+ */
+public interface NotificationSubscriber {
+
+    void onNotification(String channel, String payload);
+
+    /**
+     * Called after the listener connection was lost and re-established. Notifications sent
+     * in between are lost, so any state kept in step by them must be reloaded.
+     */
+    void onReconnect();
+}
@@ -0,0 +1,86 @@
+package org.example.benchmark;
+
+import org.example.model.*;
+import org.example.repository.JdbcTheaterRepository;
+import org.example.repository.TheaterRepository;
+import org.example.util.DatabaseManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+
+/**
+ * Compares batched INSERT ingest against COPY ingest for one large layout.
+ * Requires the PostgreSQL instance from Config.properties.
+ *
+ * Usage: BulkIngestBenchmark [sections] [rowsPerSection] [seatsPerRow] [iterations]
+ */
+public class BulkIngestBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int sections = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int rowsPerSection = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int seatsPerRow = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        int iterations = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+
+        DatabaseManager dbManager = DatabaseManager.getInstance();
+        dbManager.initialize();
+        TheaterRepository repository = new JdbcTheaterRepository();
+
+        try {
+            System.out.printf("Layout: %d sections x %d rows x %d seats = %d seats%n",
+                    sections, rowsPerSection, seatsPerRow, sections * rowsPerSection * seatsPerRow);
+
+            long batch = 0;
+            long copy = 0;
+            for (int i = 0; i < iterations; i++) {
+                batch += timeIngest(repository, false, sections, rowsPerSection, seatsPerRow);
+                copy += timeIngest(repository, true, sections, rowsPerSection, seatsPerRow);
+            }
+
+            System.out.printf("Batched INSERT: %.1f ms/layout%n", batch / 1e6 / iterations);
+            System.out.printf("COPY:           %.1f ms/layout%n", copy / 1e6 / iterations);
+
+        } finally {
+            dbManager.close();
+        }
+    }
+
+    private static long timeIngest(TheaterRepository repository, boolean useCopy,
+                                   int sections, int rowsPerSection, int seatsPerRow) throws Exception {
+        Long theaterId = repository.createTheater("Ingest Benchmark " + System.nanoTime());
+        Theater theater = buildLayout(theaterId, sections, rowsPerSection, seatsPerRow);
+
+        try {
+            long start = System.nanoTime();
+            if (useCopy) {
+                repository.copyInsertTheaterLayout(theater);
+            } else {
+                repository.bulkInsertTheaterLayout(theater);
+            }
+            return System.nanoTime() - start;
+
+        } finally {
+            try (Connection conn = DatabaseManager.getInstance().getConnection();
+                 PreparedStatement stmt = conn.prepareStatement("DELETE FROM theaters WHERE id = ?")) {
+                stmt.setLong(1, theaterId);
+                stmt.executeUpdate();
+            }
+        }
+    }
+
+    private static Theater buildLayout(Long theaterId, int sections, int rowsPerSection, int seatsPerRow) {
+        Theater theater = new Theater(theaterId, "Theater " + theaterId);
+        for (int s = 1; s <= sections; s++) {
+            Section section = new Section("Section " + s);
+            for (int r = 1; r <= rowsPerSection; r++) {
+                Row row = new Row(r);
+                for (int seatNum = 1; seatNum <= seatsPerRow; seatNum++) {
+                    row.addSeat(new Seat(seatNum));
+                }
+                section.addRow(row);
+            }
+            theater.addSection(section);
+        }
+        return theater;
+    }
+}
@@ -0,0 +1,141 @@
+package org.example.benchmark;
+
+import org.example.model.*;
+import org.example.repository.JdbcTheaterRepository;
+import org.example.repository.TheaterRepository;
+import org.example.service.TheaterService;
+import org.example.util.DatabaseManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Compares the single-query layout loader against the previous per-level loader
+ * (one query per theater, section and row). Requires the PostgreSQL instance from
+ * Config.properties.
+ *
+ * Usage: LayoutLoadBenchmark [sections] [rowsPerSection] [seatsPerRow] [iterations]
+ */
+public class LayoutLoadBenchmark {
+
+    private int queryCount;
+
+    public static void main(String[] args) throws Exception {
+        int sections = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int rowsPerSection = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+        int seatsPerRow = args.length > 2 ? Integer.parseInt(args[2]) : 25;
+        int iterations = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+
+        DatabaseManager dbManager = DatabaseManager.getInstance();
+        dbManager.initialize();
+
+        TheaterService theaterService = new TheaterService();
+        TheaterRepository repository = new JdbcTheaterRepository();
+        Theater theater = theaterService.createTheaterLayout(
+                "Benchmark " + System.nanoTime(), sections, rowsPerSection, seatsPerRow);
+
+        try {
+            LayoutLoadBenchmark benchmark = new LayoutLoadBenchmark();
+            System.out.printf("Layout: %d sections x %d rows x %d seats = %d seats%n",
+                    sections, rowsPerSection, seatsPerRow, theater.getTotalSeats());
+
+            // Warm up both paths
+            for (int i = 0; i < 3; i++) {
+                repository.findTheaterById(theater.getId());
+                benchmark.loadPerLevel(theater.getId());
+            }
+
+            long joined = 0;
+            for (int i = 0; i < iterations; i++) {
+                long start = System.nanoTime();
+                repository.findTheaterById(theater.getId());
+                joined += System.nanoTime() - start;
+            }
+
+            benchmark.queryCount = 0;
+            long perLevel = 0;
+            for (int i = 0; i < iterations; i++) {
+                long start = System.nanoTime();
+                benchmark.loadPerLevel(theater.getId());
+                perLevel += System.nanoTime() - start;
+            }
+
+            System.out.printf("Per-level loader: %d queries, %.2f ms/load%n",
+                    benchmark.queryCount / iterations, perLevel / 1e6 / iterations);
+            System.out.printf("Joined loader:    %d queries, %.2f ms/load%n",
+                    1, joined / 1e6 / iterations);
+
+        } finally {
+            try (Connection conn = dbManager.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement("DELETE FROM theaters WHERE id = ?")) {
+                stmt.setLong(1, theater.getId());
+                stmt.executeUpdate();
+            }
+            dbManager.close();
+        }
+    }
+
+    // Previous loader: one query (and one pooled connection) per theater, section and row
+    private Theater loadPerLevel(Long theaterId) throws SQLException {
+        Theater theater = null;
+        try (Connection conn = DatabaseManager.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT id, name FROM theaters WHERE id = ?")) {
+            stmt.setLong(1, theaterId);
+            queryCount++;
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    theater = new Theater(rs.getLong("id"), rs.getString("name"));
+                }
+            }
+        }
+        if (theater == null) return null;
+
+        try (Connection conn = DatabaseManager.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT id, name FROM sections WHERE theater_id = ? ORDER BY name")) {
+            stmt.setLong(1, theaterId);
+            queryCount++;
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Section section = new Section(rs.getLong("id"), rs.getString("name"));
+                    loadRows(section);
+                    theater.addSection(section);
+                }
+            }
+        }
+        return theater;
+    }
+
+    private void loadRows(Section section) throws SQLException {
+        try (Connection conn = DatabaseManager.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT id, number FROM rows WHERE section_id = ? ORDER BY number")) {
+            stmt.setLong(1, section.getId());
+            queryCount++;
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Row row = new Row(rs.getLong("id"), rs.getInt("number"));
+                    loadSeats(row);
+                    section.addRow(row);
+                }
+            }
+        }
+    }
+
+    private void loadSeats(Row row) throws SQLException {
+        try (Connection conn = DatabaseManager.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT id, number, status FROM seats WHERE row_id = ? ORDER BY number")) {
+            stmt.setLong(1, row.getId());
+            queryCount++;
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    row.addSeat(new Seat(rs.getLong("id"), rs.getInt("number"),
+                            SeatStatus.valueOf(rs.getString("status"))));
+                }
+            }
+        }
+    }
+}
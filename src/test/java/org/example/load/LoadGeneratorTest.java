@@ -0,0 +1,112 @@
+package org.example.load;
+
+import org.example.model.*;
+import org.example.repository.TheaterRepository;
+import org.example.service.TheaterService;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class LoadGeneratorTest {
+
+    private static final Long THEATER_ID = 1L;
+
+    private TheaterRepository theaterRepository;
+    private final Map<Long, SeatStatus> stored = new ConcurrentHashMap<>();
+
+    @Before
+    public void setUp() throws Exception {
+        theaterRepository = mock(TheaterRepository.class);
+        for (long seatId = 1; seatId <= 20; seatId++) {
+            stored.put(seatId, SeatStatus.AVAILABLE);
+        }
+        when(theaterRepository.findTheaterById(THEATER_ID)).thenAnswer(invocation -> storedLayout());
+    }
+
+    private Theater storedLayout() {
+        Theater theater = new Theater(THEATER_ID, "Load");
+        Section section = new Section(1L, "A");
+        for (int r = 0; r < 2; r++) {
+            Row row = new Row((long) r + 1, r + 1);
+            for (int s = 1; s <= 10; s++) {
+                long seatId = r * 10L + s;
+                row.addSeat(new Seat(seatId, s, stored.get(seatId)));
+            }
+            section.addRow(row);
+        }
+        theater.addSection(section);
+        return theater;
+    }
+
+    private static LoadProfile profile(String hotTraffic) {
+        return LoadProfile.fromArgs("clients=4", "warmupMillis=0", "durationMillis=200",
+                "hotTraffic=" + hotTraffic, "hotSeats=0.1");
+    }
+
+    @Test
+    public void testConditionalUpdatesKeepInvariant() throws Exception {
+        when(theaterRepository.bookSeat(anyLong())).thenAnswer(invocation ->
+                stored.replace(invocation.getArgument(0), SeatStatus.AVAILABLE, SeatStatus.BOOKED));
+        when(theaterRepository.cancelBooking(anyLong())).thenAnswer(invocation ->
+                stored.replace(invocation.getArgument(0), SeatStatus.BOOKED, SeatStatus.AVAILABLE));
+
+        LoadGenerator generator = new LoadGenerator(new TheaterService(theaterRepository), profile("0.9"));
+        LoadGenerator.Report report = generator.run(THEATER_ID, 4);
+
+        assertTrue(report.isInvariantHeld());
+        assertTrue(report.getBooked() > 0);
+        assertTrue(report.getCancelled() > 0);
+        assertEquals(0, report.getErrors());
+        assertEquals(report.getBooked() + report.getCancelled() + report.getRejected()
+                + report.getLatencies().get(2).getCount(), report.getOperationCount());
+    }
+
+    @Test
+    public void testDoubleBookingIsReported() throws Exception {
+        // A broken update that books whatever the seat's current status
+        when(theaterRepository.bookSeat(anyLong())).thenAnswer(invocation -> {
+            stored.put(invocation.getArgument(0), SeatStatus.BOOKED);
+            return true;
+        });
+        when(theaterRepository.cancelBooking(anyLong())).thenReturn(false);
+
+        LoadGenerator generator = new LoadGenerator(new TheaterService(theaterRepository), profile("1"));
+        LoadGenerator.Report report = generator.run(THEATER_ID, 4);
+
+        assertFalse(report.isInvariantHeld());
+        assertTrue(report.getDoubleBookedSeats() > 0);
+        assertTrue(report.toString().contains("VIOLATED"));
+    }
+
+    @Test
+    public void testUnknownTheaterGivesNoReport() throws Exception {
+        LoadGenerator generator = new LoadGenerator(new TheaterService(theaterRepository), profile("0"));
+        assertNull(generator.run(99L, 1));
+    }
+
+    @Test
+    public void testProfileArgumentsOverrideConfig() {
+        LoadProfile profile = LoadProfile.fromArgs("clients=2, 8", "hotTraffic=0.5", "viewWeight=0");
+
+        assertArrayEquals(new int[]{2, 8}, profile.getClientSteps());
+        assertEquals(0.5, profile.getHotTrafficFraction(), 0.0);
+        assertEquals(0, profile.getViewWeight());
+        assertEquals(45, profile.getBookWeight());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownProfileSettingIsRejected() {
+        LoadProfile.fromArgs("clinets=10");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testHotTrafficMustBeAFraction() {
+        LoadProfile.fromArgs("hotTraffic=1.5");
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.metrics;
+
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class RepositoryMetricsTest {
+
+    @Test
+    public void testOperationPercentiles() {
+        OperationLatency latency = new OperationLatency("test");
+        for (int i = 1; i <= 1000; i++) {
+            latency.recordNanos(TimeUnit.MICROSECONDS.toNanos(i));
+        }
+
+        LatencySnapshot snapshot = latency.snapshot();
+
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(500, snapshot.getP50(), 1.0);
+        assertEquals(990, snapshot.getP99(), 1.0);
+        assertEquals(1000, snapshot.getMax(), 1.0);
+    }
+
+    @Test
+    public void testSnapshotsAccumulateAndReset() {
+        OperationLatency latency = new OperationLatency("test");
+        latency.recordNanos(1_000);
+        assertEquals(1, latency.snapshot().getCount());
+
+        latency.recordNanos(2_000);
+        assertEquals(2, latency.snapshot().getCount());
+
+        latency.reset();
+        assertEquals(0, latency.snapshot().getCount());
+    }
+
+    @Test
+    public void testPoolWaitRecordedThroughTracker() {
+        RepositoryMetrics metrics = RepositoryMetrics.getInstance();
+        long before = metrics.getPoolWait().getCount();
+
+        metrics.poolTrackerFactory().create("test-pool", null).recordConnectionAcquiredNanos(5_000);
+
+        assertEquals(before + 1, metrics.getPoolWait().getCount());
+        assertTrue(metrics.dump().contains("pool.connectionWait"));
+    }
+
+    @Test
+    public void testExposedThroughJmx() throws Exception {
+        RepositoryMetrics metrics = RepositoryMetrics.getInstance();
+        metrics.operation("bookSeat").recordNanos(1_000);
+        metrics.registerMBean();
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("org.example:type=RepositoryMetrics");
+
+        CompositeData[] latencies = (CompositeData[]) server.getAttribute(name, "OperationLatencies");
+        assertTrue(latencies.length > 0);
+        assertEquals(0, server.getAttribute(name, "ActiveConnections"));
+    }
+}
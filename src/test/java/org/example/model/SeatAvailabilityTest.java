@@ -0,0 +1,149 @@
+package org.example.model;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SeatAvailabilityTest {
+
+    private Theater theater;
+    private Section section;
+    private Row row;
+
+    @Before
+    public void setUp() {
+        theater = new Theater(1L, "Test Theater");
+        section = new Section(1L, "Orchestra");
+        row = new Row(1L, 1);
+
+        for (int seatNum = 1; seatNum <= 5; seatNum++) {
+            row.addSeat(new Seat((long) seatNum, seatNum, SeatStatus.AVAILABLE));
+        }
+        section.addRow(row);
+        theater.addSection(section);
+    }
+
+    @Test
+    public void testCountsAfterBuildingLayout() {
+        assertEquals(5, row.getTotalSeats());
+        assertEquals(5, section.getAvailableSeats());
+        assertEquals(5, theater.getTotalSeats());
+        assertEquals(5, theater.getAvailableSeats());
+    }
+
+    @Test
+    public void testStatusChangePropagatesToAllLevels() {
+        row.getSeats().get(1).setStatus(SeatStatus.BOOKED);
+        row.getSeats().get(2).setStatus(SeatStatus.RESERVED);
+
+        assertEquals(3, row.getAvailableSeats());
+        assertEquals(1, row.getSeatCount(SeatStatus.BOOKED));
+        assertEquals(3, section.getAvailableSeats());
+        assertEquals(1, section.getSeatCount(SeatStatus.RESERVED));
+        assertEquals(3, theater.getAvailableSeats());
+        assertEquals(5, theater.getTotalSeats());
+
+        row.getSeats().get(1).setStatus(SeatStatus.AVAILABLE);
+
+        assertEquals(4, theater.getAvailableSeats());
+        assertEquals(0, theater.getSeatCount(SeatStatus.BOOKED));
+    }
+
+    @Test
+    public void testSeatsAddedAfterAttachIncreaseTotals() {
+        row.addSeat(new Seat(6L, 6, SeatStatus.BOOKED));
+
+        Row secondRow = new Row(2L, 2);
+        section.addRow(secondRow);
+        secondRow.addSeat(new Seat(7L, 1, SeatStatus.AVAILABLE));
+
+        assertEquals(7, theater.getTotalSeats());
+        assertEquals(6, theater.getAvailableSeats());
+        assertEquals(1, theater.getSeatCount(SeatStatus.BOOKED));
+    }
+
+    @Test
+    public void testLayoutListsCannotBypassCounts() {
+        try {
+            section.getRows().add(new Row(2L, 2));
+            fail("Rows must be added with addRow");
+        } catch (UnsupportedOperationException expected) {
+        }
+        try {
+            theater.getSections().add(new Section(2L, "Balcony"));
+            fail("Sections must be added with addSection");
+        } catch (UnsupportedOperationException expected) {
+        }
+
+        List<Row> rows = new ArrayList<>(List.of(row));
+        Section copy = new Section(3L, "Copy");
+        copy.setRows(rows);
+        rows.clear();
+        assertEquals(1, copy.getRows().size());
+        assertEquals(5, copy.getTotalSeats());
+    }
+
+    @Test
+    public void testNextAvailableSeatScansBitmap() {
+        row.getSeats().get(0).setStatus(SeatStatus.BOOKED);
+        row.getSeats().get(1).setStatus(SeatStatus.OUT_OF_ORDER);
+
+        assertEquals(3, row.getNextAvailableSeat(0).getNumber());
+        assertEquals(4, row.getNextAvailableSeat(3).getNumber());
+        assertNull(row.getNextAvailableSeat(5));
+    }
+
+    @Test
+    public void testSetSeatsReplacesCounts() {
+        row.setSeats(Arrays.asList(
+                new Seat(10L, 1, SeatStatus.BOOKED),
+                new Seat(11L, 2, SeatStatus.AVAILABLE)));
+
+        assertEquals(2, theater.getTotalSeats());
+        assertEquals(1, theater.getAvailableSeats());
+        assertEquals(1, row.getSeatPositions(SeatStatus.BOOKED).cardinality());
+    }
+
+    @Test
+    public void testAvailableRunsUpdateIncrementally() {
+        assertEquals(5, row.getLongestAvailableRun());
+
+        row.getSeats().get(2).setStatus(SeatStatus.BOOKED);
+        assertEquals(2, row.getLongestAvailableRun());
+
+        row.getSeats().get(4).setStatus(SeatStatus.BOOKED);
+        assertEquals(2, row.getLongestAvailableRun());
+
+        row.getSeats().get(2).setStatus(SeatStatus.AVAILABLE);
+        assertEquals(4, row.getLongestAvailableRun());
+    }
+
+    @Test
+    public void testRunsBreakAtGapsInSeatNumbers() {
+        Row aisleRow = new Row(2L, 2);
+        aisleRow.addSeat(new Seat(20L, 1, SeatStatus.AVAILABLE));
+        aisleRow.addSeat(new Seat(21L, 2, SeatStatus.AVAILABLE));
+        aisleRow.addSeat(new Seat(22L, 5, SeatStatus.AVAILABLE));
+
+        assertEquals(2, aisleRow.getLongestAvailableRun());
+        assertTrue(aisleRow.findAdjacentAvailableSeats(3).isEmpty());
+    }
+
+    @Test
+    public void testAdjacentSeatsPreferMiddleOfRow() {
+        List<Seat> block = row.findAdjacentAvailableSeats(3);
+
+        assertEquals(3, block.size());
+        assertEquals(2, block.get(0).getNumber());
+        assertEquals(4, block.get(2).getNumber());
+
+        row.getSeats().get(1).setStatus(SeatStatus.BOOKED);
+        block = row.findAdjacentAvailableSeats(3);
+        assertEquals(3, block.get(0).getNumber());
+    }
+}
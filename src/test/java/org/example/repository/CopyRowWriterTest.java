@@ -0,0 +1,57 @@
+package org.example.repository;
+
+import org.junit.Test;
+import org.postgresql.copy.CopyIn;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+public class CopyRowWriterTest {
+
+    @Test
+    public void testWritesEscapedTextFormat() throws SQLException {
+        ByteArrayOutputStream copied = new ByteArrayOutputStream();
+        CopyIn copyIn = mockCopyIn(copied);
+
+        CopyRowWriter writer = new CopyRowWriter(copyIn);
+        writer.column(42L).column("Box\tA\\1").endRow();
+        writer.column(-7L).column("Balcony\n").endRow();
+        writer.finish();
+
+        assertEquals("42\tBox\\tA\\\\1\n-7\tBalcony\\n\n",
+                new String(copied.toByteArray(), StandardCharsets.UTF_8));
+        verify(copyIn).endCopy();
+    }
+
+    @Test
+    public void testFlushesLargePayloadsInChunks() throws SQLException {
+        ByteArrayOutputStream copied = new ByteArrayOutputStream();
+        CopyIn copyIn = mockCopyIn(copied);
+
+        CopyRowWriter writer = new CopyRowWriter(copyIn);
+        for (int i = 0; i < 20_000; i++) {
+            writer.column(i).column(i % 30).column("AVAILABLE").endRow();
+        }
+        writer.finish();
+
+        String[] lines = new String(copied.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        assertEquals(20_000, lines.length);
+        assertEquals("19999\t19\tAVAILABLE", lines[19_999]);
+        verify(copyIn, atLeast(2)).writeToCopy(any(byte[].class), anyInt(), anyInt());
+    }
+
+    private CopyIn mockCopyIn(ByteArrayOutputStream copied) throws SQLException {
+        CopyIn copyIn = mock(CopyIn.class);
+        doAnswer(inv -> {
+            copied.write(inv.getArgument(0), inv.getArgument(1), inv.getArgument(2));
+            return null;
+        }).when(copyIn).writeToCopy(any(byte[].class), anyInt(), anyInt());
+        return copyIn;
+    }
+}
@@ -0,0 +1,259 @@
+package org.example.repository;
+
+import org.example.model.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class InMemoryTheaterRepositoryTest {
+
+    private InMemoryTheaterRepository repository;
+    private Theater theater;
+
+    @Before
+    public void setUp() throws SQLException {
+        repository = new InMemoryTheaterRepository(4);
+        theater = createLayout("Main Hall", 2, 2, 5);
+    }
+
+    private Theater createLayout(String name, int sections, int rows, int seats) throws SQLException {
+        Theater layout = new Theater(repository.createTheater(name), name);
+        for (int s = 1; s <= sections; s++) {
+            Section section = new Section("S" + s);
+            for (int r = 1; r <= rows; r++) {
+                Row row = new Row(r);
+                for (int n = 1; n <= seats; n++) {
+                    row.addSeat(new Seat(n));
+                }
+                section.addRow(row);
+            }
+            layout.addSection(section);
+        }
+        repository.bulkInsertTheaterLayout(layout);
+        return layout;
+    }
+
+    private Long seatId(int section, int row, int seat) {
+        return theater.getSections().get(section).getRows().get(row).getSeats().get(seat).getId();
+    }
+
+    @Test
+    public void testInsertedLayoutIsReadBack() throws SQLException {
+        assertNotNull(seatId(1, 1, 4));
+
+        Theater loaded = repository.findTheaterById(theater.getId());
+        assertEquals("Main Hall", loaded.getName());
+        assertEquals(2, loaded.getSections().size());
+        assertEquals(20, loaded.getTotalSeats());
+        assertEquals(20, loaded.getAvailableSeats());
+        assertEquals(seatId(1, 1, 4), loaded.getSections().get(1).getRows().get(1).getSeats().get(4).getId());
+        assertNull(repository.findTheaterById(999L));
+    }
+
+    @Test(expected = SQLException.class)
+    public void testTheaterNamesAreUnique() throws SQLException {
+        repository.createTheater("Main Hall");
+    }
+
+    @Test(expected = SQLException.class)
+    public void testLayoutNeedsExistingTheater() throws SQLException {
+        repository.bulkInsertTheaterLayout(new Theater(999L, "Missing"));
+    }
+
+    @Test
+    public void testFailedSectionInsertAddsNothing() throws SQLException {
+        Section stored = new Section("Box");
+        Row row = new Row(1);
+        row.addSeat(new Seat(1));
+        stored.addRow(row);
+
+        try {
+            repository.bulkInsertSections(theater.getId(), sink -> {
+                sink.accept(stored);
+                sink.accept(new Section("S1"));
+            });
+            fail("Expected duplicate section to be rejected");
+        } catch (SQLException e) {
+            assertEquals("23505", e.getSQLState());
+        }
+
+        assertEquals(2, repository.findTheaterById(theater.getId()).getSections().size());
+        assertFalse(repository.bookSeat(row.getSeats().get(0).getId()));
+    }
+
+    @Test
+    public void testBookAndCancelAreConditional() {
+        Long seat = seatId(0, 0, 0);
+
+        assertTrue(repository.bookSeat(seat));
+        assertFalse(repository.bookSeat(seat));
+        assertTrue(repository.cancelBooking(seat));
+        assertFalse(repository.cancelBooking(seat));
+        assertFalse(repository.bookSeat(999_999L));
+    }
+
+    @Test
+    public void testVersionedBookingDetectsStaleVersion() {
+        Long seat = seatId(0, 0, 1);
+
+        SeatUpdateResult booked = repository.bookSeat(seat, 0);
+        assertTrue(booked.isSuccess());
+        assertEquals(1, booked.getVersion());
+
+        SeatUpdateResult stale = repository.cancelBooking(seat, 0);
+        assertFalse(stale.isSuccess());
+        assertEquals(SeatStatus.BOOKED, stale.getStatus());
+        assertEquals(1, stale.getVersion());
+
+        assertTrue(repository.cancelBooking(seat, 1).isSuccess());
+        assertTrue(repository.bookSeat(999_999L, 0).isNotFound());
+    }
+
+    @Test
+    public void testBatchBookingIsAllOrNothing() throws SQLException {
+        Long first = seatId(0, 0, 0);
+        Long second = seatId(0, 0, 1);
+        Long third = seatId(1, 0, 0);
+        repository.bookSeat(second);
+
+        SeatBatchResult result = repository.bookSeats(List.of(first, second, third, 999_999L));
+
+        assertFalse(result.isSuccess());
+        assertEquals(List.of(second, 999_999L), result.getConflictingSeatIds());
+        assertEquals(19, repository.findTheaterSummary(theater.getId()).getAvailableSeats());
+
+        assertTrue(repository.bookSeats(List.of(first, third)).isSuccess());
+        assertEquals(17, repository.findTheaterSummary(theater.getId()).getAvailableSeats());
+    }
+
+    @Test
+    public void testHoldConfirmAndRelease() {
+        Long held = seatId(0, 1, 0);
+        Long released = seatId(0, 1, 1);
+
+        assertTrue(repository.holdSeats(List.of(held, released)).isSuccess());
+        assertTrue(repository.confirmHeldSeats(List.of(held)).isSuccess());
+
+        assertEquals(List.of(released), repository.releaseHeldSeats(List.of(held, released)));
+        assertTrue(repository.bookSeat(released));
+    }
+
+    @Test
+    public void testFindSeatsReservedBeforeSkipsRecentReservations() throws InterruptedException {
+        Long old = seatId(0, 0, 0);
+        Long booked = seatId(0, 0, 1);
+        repository.holdSeats(List.of(old, booked));
+        repository.confirmHeldSeats(List.of(booked));
+        Thread.sleep(5);
+        long cutoff = repository.currentTimeMillis();
+        Thread.sleep(5);
+        Long recent = seatId(1, 0, 0);
+        repository.holdSeats(List.of(recent));
+
+        assertEquals(List.of(old), repository.findSeatsReservedBefore(cutoff));
+        assertEquals(2, repository.findSeatsReservedBefore(repository.currentTimeMillis() + 1).size());
+    }
+
+    @Test
+    public void testTransitionsOfOneSeatApplyInOrder() {
+        Long seat = seatId(0, 0, 2);
+
+        boolean[] applied = repository.applySeatTransitions(List.of(
+                new SeatTransition(seat, SeatStatus.AVAILABLE, SeatStatus.BOOKED),
+                new SeatTransition(seat, SeatStatus.AVAILABLE, SeatStatus.BOOKED),
+                new SeatTransition(seat, SeatStatus.BOOKED, SeatStatus.AVAILABLE)));
+
+        assertArrayEquals(new boolean[]{true, false, true}, applied);
+    }
+
+    @Test
+    public void testRangeUpdateNeedsEverySeat() throws SQLException {
+        int[] incomplete = repository.updateSeatRangeStatuses(theater.getId(), List.of(
+                new SeatRange("S1", 1, 1, 3, SeatStatus.OUT_OF_ORDER),
+                new SeatRange("S1", 2, 4, 7, SeatStatus.OUT_OF_ORDER)));
+        assertArrayEquals(new int[]{3, 2}, incomplete);
+        assertEquals(0, repository.findTheaterSummary(theater.getId()).getSeatCount(SeatStatus.OUT_OF_ORDER));
+
+        int[] complete = repository.updateSeatRangeStatuses(theater.getId(), List.of(
+                new SeatRange("S1", 1, 1, 3, SeatStatus.OUT_OF_ORDER)));
+        assertArrayEquals(new int[]{3}, complete);
+        assertEquals(3, repository.findTheaterSummary(theater.getId()).getSeatCount(SeatStatus.OUT_OF_ORDER));
+    }
+
+    @Test
+    public void testApplySeatStatusesCountsExistingSeats() throws SQLException {
+        int updated = repository.applySeatStatuses(Map.of(
+                seatId(0, 0, 0), SeatStatus.RESERVED,
+                999_999L, SeatStatus.BOOKED));
+
+        assertEquals(1, updated);
+        assertEquals(SeatStatus.RESERVED, repository.findTheaterById(theater.getId())
+                .getSections().get(0).getRows().get(0).getSeats().get(0).getStatus());
+    }
+
+    @Test
+    public void testSummaryPagesInNameOrder() throws SQLException {
+        createLayout("Annex", 1, 1, 3);
+        createLayout("Studio", 1, 1, 2);
+        repository.bookSeats(List.of(seatId(0, 0, 0)));
+
+        List<TheaterSummary> firstPage = repository.findAllTheaterSummaries(null, 0, 2);
+        assertEquals(List.of("Annex", "Main Hall"), names(firstPage));
+        assertEquals(19, firstPage.get(1).getAvailableSeats());
+        assertEquals(2, firstPage.get(1).getSectionCount());
+
+        assertEquals(List.of("Studio"), names(repository.findAllTheaterSummaries("Main Hall", 0, 2)));
+        assertEquals(List.of("Annex", "Main Hall"), names(repository.findAllTheaterSummaries(null, 3, 0)));
+    }
+
+    private static List<String> names(List<TheaterSummary> summaries) {
+        List<String> names = new ArrayList<>();
+        summaries.forEach(summary -> names.add(summary.getName()));
+        return names;
+    }
+
+    @Test
+    public void testStreamMergesAdjacentSeatsWithSameStatus() {
+        repository.bookSeat(seatId(1, 0, 2));
+        List<String> runs = new ArrayList<>();
+
+        repository.streamSeatRuns(theater.getId(), "S2", 1, 1,
+                (section, row, start, end, status) -> runs.add(section + ":" + row + ":" + start + "-" + end + ":" + status.name()));
+
+        assertEquals(List.of("S2:1:1-2:AVAILABLE", "S2:1:3-3:BOOKED", "S2:1:4-5:AVAILABLE"), runs);
+    }
+
+    @Test
+    public void testConcurrentBookingsOfOneSeatHaveOneWinner() throws InterruptedException {
+        Long seat = seatId(0, 0, 3);
+        AtomicInteger winners = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    if (repository.bookSeat(seat)) winners.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(1, winners.get());
+    }
+}
@@ -0,0 +1,180 @@
+package org.example.repository;
+
+import org.example.model.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class JournaledTheaterRepositoryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path directory;
+    private JournaledTheaterRepository repository;
+    private Theater theater;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = folder.getRoot().toPath().resolve("journal");
+        repository = new JournaledTheaterRepository(directory, 1 << 20, 4);
+
+        theater = new Theater(repository.createTheater("Main Hall"), "Main Hall");
+        for (int s = 1; s <= 2; s++) {
+            Section section = new Section("S" + s);
+            for (int r = 1; r <= 2; r++) {
+                Row row = new Row(r);
+                for (int n = 1; n <= 5; n++) {
+                    row.addSeat(new Seat(n));
+                }
+                section.addRow(row);
+            }
+            theater.addSection(section);
+        }
+        repository.bulkInsertTheaterLayout(theater);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        repository.close();
+    }
+
+    private Long seatId(int section, int row, int seat) {
+        return theater.getSections().get(section).getRows().get(row).getSeats().get(seat).getId();
+    }
+
+    private JournaledTheaterRepository reopen() throws IOException {
+        repository.close();
+        repository = new JournaledTheaterRepository(directory, 1 << 20, 4);
+        return repository;
+    }
+
+    @Test
+    public void testChangesSurviveReopen() throws Exception {
+        Long booked = seatId(0, 0, 0);
+        Long held = seatId(1, 1, 4);
+        assertTrue(repository.bookSeat(booked));
+        assertTrue(repository.bookSeat(seatId(0, 0, 1)));
+        assertTrue(repository.cancelBooking(seatId(0, 0, 1)));
+        assertTrue(repository.holdSeats(List.of(held)).isSuccess());
+
+        reopen();
+
+        Theater loaded = repository.findTheaterById(theater.getId());
+        assertEquals("Main Hall", loaded.getName());
+        assertEquals(20, loaded.getTotalSeats());
+        assertEquals(18, loaded.getAvailableSeats());
+        assertFalse(repository.bookSeat(booked));
+        assertEquals(SeatStatus.BOOKED, repository.bookSeat(seatId(0, 0, 1), 2).getStatus());
+        assertEquals(1, repository.findTheaterSummary(theater.getId()).getSeatCount(SeatStatus.RESERVED));
+    }
+
+    @Test
+    public void testNewIdsDoNotReuseReplayedOnes() throws Exception {
+        reopen();
+
+        Long second = repository.createTheater("Annex");
+        assertTrue(second > seatId(1, 1, 4));
+        assertNotNull(repository.findTheaterById(theater.getId()));
+    }
+
+    @Test(expected = SQLException.class)
+    public void testReplayedTheaterNamesStayUnique() throws Exception {
+        reopen().createTheater("Main Hall");
+    }
+
+    @Test
+    public void testTornRecordAtEndIsIgnored() throws Exception {
+        assertTrue(repository.bookSeat(seatId(0, 1, 2)));
+        repository.close();
+
+        Path segment;
+        try (var files = Files.list(directory)) {
+            segment = files.filter(file -> file.toString().endsWith(".log")).sorted().reduce((a, b) -> b).orElseThrow();
+        }
+        // A record cut short by a crash in the middle of a write
+        Files.write(segment, new byte[]{0, 0, 0, 27, 3, 0, 0}, StandardOpenOption.APPEND);
+
+        repository = new JournaledTheaterRepository(directory, 1 << 20, 4);
+        assertEquals(19, repository.findTheaterSummary(theater.getId()).getAvailableSeats());
+        assertTrue(repository.bookSeat(seatId(0, 1, 3)));
+    }
+
+    @Test
+    public void testCompactionReplacesOldSegments() throws Exception {
+        assertTrue(repository.bookSeat(seatId(0, 0, 0)));
+        repository.compact();
+        assertTrue(repository.bookSeat(seatId(0, 0, 1)));
+        assertTrue(repository.cancelBooking(seatId(0, 0, 0)));
+
+        try (var files = Files.list(directory)) {
+            assertEquals(2, files.count());
+        }
+
+        reopen();
+        assertEquals(19, repository.findTheaterSummary(theater.getId()).getAvailableSeats());
+        assertTrue(repository.bookSeat(seatId(0, 0, 0)));
+        assertFalse(repository.bookSeat(seatId(0, 0, 1)));
+    }
+
+    @Test
+    public void testBackgroundCompactionKeepsState() throws Exception {
+        repository.close();
+        repository = new JournaledTheaterRepository(directory, 256, 4);
+        for (int i = 0; i < 50; i++) {
+            assertTrue(repository.bookSeat(seatId(1, 0, 0)));
+            assertTrue(repository.cancelBooking(seatId(1, 0, 0)));
+        }
+        assertTrue(repository.bookSeat(seatId(1, 0, 0)));
+
+        reopen();
+        assertTrue(Files.exists(directory.resolve("journal.snapshot")));
+        assertFalse(repository.bookSeat(seatId(1, 0, 0)));
+        assertEquals(19, repository.findTheaterSummary(theater.getId()).getAvailableSeats());
+    }
+
+    @Test
+    public void testConcurrentBookingsAreReplayedOnce() throws Exception {
+        AtomicInteger winners = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int s = 0; s < 2; s++) {
+                        for (int n = 0; n < 5; n++) {
+                            if (repository.bookSeat(seatId(s, 0, n))) winners.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException | SQLException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(10, winners.get());
+
+        reopen();
+        assertEquals(10, repository.findTheaterSummary(theater.getId()).getSeatCount(SeatStatus.BOOKED));
+    }
+}
@@ -0,0 +1,121 @@
+package org.example.repository;
+
+import org.example.model.Row;
+import org.example.model.Seat;
+import org.example.model.SeatStatus;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class SeatRangeStoreTest {
+
+    private static final long ROW = 7L;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement statement;
+
+    private SeatRangeStore.LockedRows locked;
+
+    @Before
+    public void setUp() throws SQLException {
+        MockitoAnnotations.initMocks(this);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(connection.createArrayOf(anyString(), any())).thenReturn(mock(Array.class));
+
+        // Seats 1-20 available, 21-25 booked, aisle, 30-40 available
+        locked = new SeatRangeStore.LockedRows();
+        locked.runs(ROW).put(1, new SeatRangeStore.Run(1, 20, SeatStatus.AVAILABLE));
+        locked.runs(ROW).put(21, new SeatRangeStore.Run(21, 25, SeatStatus.BOOKED));
+        locked.runs(ROW).put(30, new SeatRangeStore.Run(30, 40, SeatStatus.AVAILABLE));
+    }
+
+    @Test
+    public void testSeatIdsRoundTrip() {
+        long seatId = RangeSeatIds.of(123_456L, 789);
+
+        assertTrue(RangeSeatIds.isRangeSeat(seatId));
+        assertEquals(123_456L, RangeSeatIds.rowId(seatId));
+        assertEquals(789, RangeSeatIds.seatNumber(seatId));
+        assertFalse(RangeSeatIds.isRangeSeat(42L));
+    }
+
+    @Test
+    public void testStatusLookup() {
+        assertEquals(SeatStatus.AVAILABLE, locked.getStatus(RangeSeatIds.of(ROW, 20)));
+        assertEquals(SeatStatus.BOOKED, locked.getStatus(RangeSeatIds.of(ROW, 21)));
+        assertNull(locked.getStatus(RangeSeatIds.of(ROW, 27)));
+        assertNull(locked.getStatus(RangeSeatIds.of(ROW + 1, 1)));
+    }
+
+    @Test
+    public void testBookingSplitsRun() throws SQLException {
+        assertTrue(locked.setStatus(RangeSeatIds.of(ROW, 10), SeatStatus.BOOKED));
+        locked.write(connection);
+
+        assertEquals(5, locked.getRunCount(ROW));
+        assertEquals(SeatStatus.AVAILABLE, locked.getStatus(RangeSeatIds.of(ROW, 9)));
+        assertEquals(SeatStatus.BOOKED, locked.getStatus(RangeSeatIds.of(ROW, 10)));
+        assertEquals(SeatStatus.AVAILABLE, locked.getStatus(RangeSeatIds.of(ROW, 11)));
+        verify(statement, times(5)).addBatch();
+    }
+
+    @Test
+    public void testAdjacentRunsMergeOnWrite() throws SQLException {
+        // Booking the end of the first run joins it to the booked run next to it
+        locked.setStatus(ROW, 18, 20, SeatStatus.BOOKED);
+        locked.write(connection);
+
+        assertEquals(3, locked.getRunCount(ROW));
+        assertEquals(SeatStatus.BOOKED, locked.getStatus(RangeSeatIds.of(ROW, 18)));
+
+        // Cancelling everything again leaves the original runs; the aisle is never bridged
+        locked.setStatus(ROW, 18, 25, SeatStatus.AVAILABLE);
+        locked.write(connection);
+
+        assertEquals(2, locked.getRunCount(ROW));
+    }
+
+    @Test
+    public void testRangeUpdateCountsOnlyExistingSeats() {
+        // 20, 21-25 and 30-34; the aisle seats 26-29 do not exist
+        assertEquals(11, locked.setStatus(ROW, 20, 34, SeatStatus.OUT_OF_ORDER));
+        assertEquals(SeatStatus.OUT_OF_ORDER, locked.getStatus(RangeSeatIds.of(ROW, 25)));
+        assertEquals(SeatStatus.AVAILABLE, locked.getStatus(RangeSeatIds.of(ROW, 35)));
+        assertFalse(locked.setStatus(RangeSeatIds.of(ROW, 28), SeatStatus.BOOKED));
+    }
+
+    @Test
+    public void testUnchangedRowsAreNotWritten() throws SQLException {
+        locked.setStatus(RangeSeatIds.of(ROW, 22), SeatStatus.BOOKED);
+        locked.write(connection);
+
+        verifyNoInteractions(statement);
+    }
+
+    @Test
+    public void testInsertStoresOneRunPerStatusChange() throws SQLException {
+        Row row = new Row(ROW, 1);
+        for (int number = 1; number <= 1000; number++) {
+            row.addSeat(new Seat(null, number, number == 500 ? SeatStatus.BOOKED : SeatStatus.AVAILABLE));
+        }
+
+        new SeatRangeStore().insertRanges(connection, List.of(row));
+
+        verify(statement, times(3)).addBatch();
+        assertEquals(RangeSeatIds.of(ROW, 500), row.getSeats().get(499).getId().longValue());
+    }
+}
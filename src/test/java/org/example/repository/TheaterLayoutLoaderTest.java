@@ -0,0 +1,174 @@
+package org.example.repository;
+
+import org.example.model.*;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class TheaterLayoutLoaderTest {
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement statement;
+
+    private TheaterLayoutLoader loader;
+
+    @Before
+    public void setUp() throws SQLException {
+        MockitoAnnotations.initMocks(this);
+        loader = new TheaterLayoutLoader();
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+    }
+
+    @Test
+    public void testLoadBuildsLayoutInSinglePass() throws SQLException {
+        ResultSet rs = new LayoutRows()
+                .add(1L, "Main Hall", 10L, "Balcony", 100L, 1, 1000L, 1, "AVAILABLE")
+                .add(1L, "Main Hall", 10L, "Balcony", 100L, 1, 1001L, 2, "BOOKED")
+                .add(1L, "Main Hall", 10L, "Balcony", 101L, 2, 1002L, 1, "AVAILABLE")
+                .add(1L, "Main Hall", 11L, "Orchestra", 102L, 1, 1003L, 1, "RESERVED")
+                .toResultSet();
+        ResultSet noRanges = new RangeRows().toResultSet();
+        when(statement.executeQuery()).thenReturn(rs, noRanges);
+
+        Theater theater = loader.load(connection, 1L);
+
+        assertNotNull(theater);
+        assertEquals("Main Hall", theater.getName());
+        assertEquals(2, theater.getSections().size());
+
+        Section balcony = theater.getSections().get(0);
+        assertEquals("Balcony", balcony.getName());
+        assertEquals(2, balcony.getRows().size());
+        assertEquals(2, balcony.getRows().get(0).getSeats().size());
+        assertEquals(SeatStatus.BOOKED, balcony.getRows().get(0).getSeats().get(1).getStatus());
+
+        assertEquals(4, theater.getTotalSeats());
+        assertEquals(2, theater.getAvailableSeats());
+
+        // One layout query plus the seat range query on one connection, restored to auto-commit afterwards
+        verify(connection, times(1)).prepareStatement(TheaterLayoutLoader.LAYOUT_SQL);
+        verify(connection, times(1)).prepareStatement(TheaterLayoutLoader.RANGES_SQL);
+        verify(statement, times(2)).executeQuery();
+        verify(connection).setAutoCommit(true);
+    }
+
+    @Test
+    public void testLoadTheaterWithoutLayout() throws SQLException {
+        ResultSet rs = new LayoutRows()
+                .add(2L, "Empty Hall", null, null, null, null, null, null, null)
+                .toResultSet();
+        when(statement.executeQuery()).thenReturn(rs);
+
+        Theater theater = loader.load(connection, 2L);
+
+        assertNotNull(theater);
+        assertTrue(theater.getSections().isEmpty());
+    }
+
+    @Test
+    public void testLoadUnknownTheaterReturnsNull() throws SQLException {
+        ResultSet rs = new LayoutRows().toResultSet();
+        when(statement.executeQuery()).thenReturn(rs);
+
+        assertNull(loader.load(connection, 99L));
+    }
+
+    @Test
+    public void testLoadExpandsSeatRanges() throws SQLException {
+        ResultSet rs = new LayoutRows()
+                .add(3L, "Stadium", 30L, "North", 300L, 1, null, null, null)
+                .toResultSet();
+        ResultSet ranges = new RangeRows()
+                .add(300L, 1, 3, "AVAILABLE")
+                .add(300L, 4, 4, "BOOKED")
+                .add(300L, 5, 6, "AVAILABLE")
+                .toResultSet();
+        when(statement.executeQuery()).thenReturn(rs, ranges);
+
+        Theater theater = loader.load(connection, 3L);
+
+        Row row = theater.getSections().get(0).getRows().get(0);
+        assertEquals(6, row.getTotalSeats());
+        assertEquals(5, theater.getAvailableSeats());
+        Seat booked = row.getSeats().get(3);
+        assertEquals(4, booked.getNumber());
+        assertEquals(SeatStatus.BOOKED, booked.getStatus());
+        assertEquals(RangeSeatIds.of(300L, 4), booked.getId().longValue());
+    }
+
+    /**
+     * Minimal in-memory stand-in for the joined layout result set.
+     */
+    private static class LayoutRows {
+        private final List<Object[]> rows = new ArrayList<>();
+
+        LayoutRows add(Long theaterId, String theaterName, Long sectionId, String sectionName,
+                       Long rowId, Integer rowNumber, Long seatId, Integer seatNumber, String status) {
+            rows.add(new Object[]{theaterId, theaterName, sectionId, sectionName,
+                    rowId, rowNumber, seatId, seatNumber, status});
+            return this;
+        }
+
+        ResultSet toResultSet() throws SQLException {
+            return fakeResultSet(rows, "theater_id", "theater_name", "section_id", "section_name",
+                    "row_id", "row_number", "seat_id", "seat_number", "seat_status");
+        }
+    }
+
+    /**
+     * Stand-in for the seat range result set.
+     */
+    private static class RangeRows {
+        private final List<Object[]> rows = new ArrayList<>();
+
+        RangeRows add(Long rowId, int seatStart, int seatEnd, String status) {
+            rows.add(new Object[]{rowId, seatStart, seatEnd, status});
+            return this;
+        }
+
+        ResultSet toResultSet() throws SQLException {
+            return fakeResultSet(rows, "row_id", "seat_start", "seat_end", "status");
+        }
+    }
+
+    private static ResultSet fakeResultSet(List<Object[]> rows, String... columns) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        int[] cursor = {-1};
+        Object[] last = {null};
+
+        when(rs.next()).thenAnswer(inv -> ++cursor[0] < rows.size());
+        when(rs.wasNull()).thenAnswer(inv -> last[0] == null);
+        for (int i = 0; i < columns.length; i++) {
+            int column = i;
+            when(rs.getLong(columns[i])).thenAnswer(inv -> {
+                last[0] = rows.get(cursor[0])[column];
+                return last[0] == null ? 0L : ((Number) last[0]).longValue();
+            });
+            when(rs.getInt(columns[i])).thenAnswer(inv -> {
+                last[0] = rows.get(cursor[0])[column];
+                return last[0] == null ? 0 : ((Number) last[0]).intValue();
+            });
+            when(rs.getString(columns[i])).thenAnswer(inv -> {
+                last[0] = rows.get(cursor[0])[column];
+                return (String) last[0];
+            });
+        }
+        return rs;
+    }
+}
@@ -0,0 +1,155 @@
+package org.example.service;
+
+import org.example.model.SeatStatus;
+import org.example.model.SeatTransition;
+import org.example.repository.TheaterRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class BookingPipelineTest {
+
+    @Mock
+    private TheaterRepository theaterRepository;
+
+    // Stands in for the seats table; transitions are applied in order like the repository does
+    private final Map<Long, SeatStatus> database = new ConcurrentHashMap<>();
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    private BookingPipeline pipeline;
+
+    @Before
+    public void setUp() throws SQLException {
+        MockitoAnnotations.initMocks(this);
+        when(theaterRepository.applySeatTransitions(anyList())).thenAnswer(invocation -> {
+            List<SeatTransition> transitions = invocation.getArgument(0);
+            batchSizes.add(transitions.size());
+            boolean[] applied = new boolean[transitions.size()];
+            for (int i = 0; i < applied.length; i++) {
+                SeatTransition transition = transitions.get(i);
+                if (database.getOrDefault(transition.getSeatId(), SeatStatus.AVAILABLE) == transition.getFrom()) {
+                    database.put(transition.getSeatId(), transition.getTo());
+                    applied[i] = true;
+                }
+            }
+            return applied;
+        });
+        pipeline = new BookingPipeline(theaterRepository, TimeUnit.MILLISECONDS.toNanos(20), 100);
+    }
+
+    @After
+    public void tearDown() {
+        pipeline.shutdown();
+    }
+
+    @Test
+    public void testRequestsWithinWindowShareOneTransaction() throws Exception {
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        for (long seatId = 1; seatId <= 50; seatId++) {
+            results.add(pipeline.bookSeat(seatId));
+        }
+
+        for (CompletableFuture<Boolean> result : results) {
+            assertTrue(result.get(5, TimeUnit.SECONDS));
+        }
+        assertTrue("Expected requests to be coalesced, got " + batchSizes, batchSizes.size() < 50);
+        assertEquals(50, batchSizes.stream().mapToInt(Integer::intValue).sum());
+    }
+
+    @Test
+    public void testEachCallerGetsItsOwnResult() throws Exception {
+        CompletableFuture<Boolean> first = pipeline.bookSeat(1L);
+        CompletableFuture<Boolean> second = pipeline.bookSeat(1L);
+        CompletableFuture<Boolean> cancel = pipeline.cancelBooking(1L);
+        CompletableFuture<Boolean> third = pipeline.bookSeat(1L);
+        CompletableFuture<Boolean> other = pipeline.cancelBooking(2L);
+
+        assertTrue(first.get(5, TimeUnit.SECONDS));
+        assertFalse(second.get(5, TimeUnit.SECONDS));
+        assertTrue(cancel.get(5, TimeUnit.SECONDS));
+        assertTrue(third.get(5, TimeUnit.SECONDS));
+        assertFalse(other.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testBatchSizeIsCapped() throws Exception {
+        pipeline.shutdown();
+        pipeline = new BookingPipeline(theaterRepository, TimeUnit.SECONDS.toNanos(1), 10);
+
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        for (long seatId = 1; seatId <= 25; seatId++) {
+            results.add(pipeline.bookSeat(seatId));
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 10));
+        assertTrue(batchSizes.size() >= 3);
+    }
+
+    @Test
+    public void testFailedTransactionFailsEveryRequestInBatch() throws Exception {
+        when(theaterRepository.applySeatTransitions(anyList())).thenThrow(new SQLException("connection lost"));
+
+        CompletableFuture<Boolean> first = pipeline.bookSeat(1L);
+        CompletableFuture<Boolean> second = pipeline.bookSeat(2L);
+
+        for (CompletableFuture<Boolean> result : List.of(first, second)) {
+            try {
+                result.get(5, TimeUnit.SECONDS);
+                fail("Expected the booking to fail");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof SQLException);
+            }
+        }
+    }
+
+    @Test
+    public void testShutdownCommitsQueuedRequests() throws Exception {
+        CompletableFuture<Boolean> result = pipeline.bookSeat(1L);
+
+        pipeline.shutdown();
+
+        assertTrue(result.isDone());
+        assertTrue(result.get());
+        try {
+            pipeline.bookSeat(2L);
+            fail("Expected the pipeline to reject new requests");
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    @Test
+    public void testInterruptDuringWindowCommitsTakenRequests() throws Exception {
+        pipeline.shutdown();
+        pipeline = new BookingPipeline(theaterRepository, TimeUnit.SECONDS.toNanos(5), 100);
+        CompletableFuture<Boolean> result = pipeline.bookSeat(1L);
+
+        Thread committer = null;
+        while (committer == null) {
+            committer = Thread.getAllStackTraces().keySet().stream()
+                    .filter(thread -> thread.getName().equals("booking-pipeline") && thread.isAlive())
+                    .findFirst().orElse(null);
+        }
+        // Let the committer take the request and start waiting for more
+        Thread.sleep(100);
+        committer.interrupt();
+
+        assertTrue(result.get(2, TimeUnit.SECONDS));
+        assertEquals(SeatStatus.BOOKED, database.get(1L));
+    }
+}
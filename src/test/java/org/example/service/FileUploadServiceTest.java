@@ -1,22 +1,34 @@
 package org.example.service;
 
 import org.example.exception.BusinessException;
+import org.example.model.SeatStatus;
+import org.example.model.Section;
+import org.example.model.Theater;
+import org.example.repository.IngestMode;
+import org.example.repository.SectionSource;
 import org.example.repository.TheaterRepository;
+import org.example.util.ConfigLoader;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.stubbing.Answer;
 
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 public class FileUploadServiceTest {
@@ -26,10 +38,18 @@ public class FileUploadServiceTest {
 
     private FileUploadService fileUploadService;
     private File tempDir;
+    private final List<Section> insertedSections = new ArrayList<>();
 
     @Before
-    public void setUp() {
+    public void setUp() throws SQLException {
         MockitoAnnotations.initMocks(this);
+        // Run the upload's second pass, as the repositories do, keeping what it inserts
+        Answer<Void> insert = inv -> {
+            inv.<SectionSource>getArgument(1).writeTo(insertedSections::add);
+            return null;
+        };
+        doAnswer(insert).when(theaterRepository).bulkInsertSections(any(), any());
+        doAnswer(insert).when(theaterRepository).copyInsertSections(any(), any());
         fileUploadService = new FileUploadService(theaterRepository, 2);
         tempDir = new File(System.getProperty("java.io.tmpdir"));
     }
@@ -53,13 +73,36 @@ public class FileUploadServiceTest {
                         "Balcony,1,1,8\n");
 
         try {
-            doNothing().when(theaterRepository).bulkInsertTheaterLayout(any());
-
             FileUploadService.UploadResult result = fileUploadService.processCsvFile(
                     csvFile.getAbsolutePath(), 1L);
 
             assertTrue(result.isSuccess());
             assertEquals(3, result.getRecordsProcessed());
+            assertEquals(2, insertedSections.size());
+            assertEquals(20, insertedSections.get(0).getTotalSeats());
+
+        } finally {
+            csvFile.delete();
+        }
+    }
+
+    @Test
+    public void testProcessCsvFileWithCopyIngest() throws IOException, SQLException {
+        File csvFile = createTestCsvFile("copy_test.csv",
+                "section,row,seat_start,seat_end\n" +
+                        "Orchestra,1,1,10\n");
+
+        try {
+            FileUploadService copyUploadService =
+                    new FileUploadService(theaterRepository, 1, IngestMode.COPY);
+
+            FileUploadService.UploadResult result = copyUploadService.processCsvFile(
+                    csvFile.getAbsolutePath(), 1L);
+
+            assertTrue(result.isSuccess());
+            verify(theaterRepository).copyInsertSections(eq(1L), any());
+            verify(theaterRepository, never()).bulkInsertSections(any(), any());
+            copyUploadService.shutdown();
 
         } finally {
             csvFile.delete();
@@ -102,6 +145,241 @@ public class FileUploadServiceTest {
         }
     }
 
+    @Test
+    public void testProcessCsvFileReportsAllDuplicateSeats() throws IOException {
+        File csvFile = createTestCsvFile("duplicates.csv",
+                "section,row,seat_start,seat_end,status\n" +
+                        "Orchestra,1,1,5,available\n" +
+                        "Orchestra,1,5,6,booked\n" +
+                        "Balcony,1,1,3,available\n" +
+                        "Balcony,1,2,2,booked\n");
+
+        try {
+            FileUploadService.UploadResult result = fileUploadService.processCsvFile(
+                    csvFile.getAbsolutePath(), 1L);
+
+            assertFalse(result.isSuccess());
+            assertTrue(result.getMessage().contains("Line 3: Duplicate seat found: Orchestra-1-5"));
+            assertTrue(result.getMessage().contains("Line 5: Duplicate seat found: Balcony-1-2"));
+
+        } finally {
+            csvFile.delete();
+        }
+    }
+
+    @Test
+    public void testVerifierReportsOnlyOverlappingSeats() {
+        FileUploadService.SeatDataVerifier verifier = new FileUploadService.SeatDataVerifier();
+
+        assertTrue(verifier.verifySeatData(seatData("Main", 1, 1, 100, 2)));
+        assertTrue(verifier.verifySeatData(seatData("Main", 1, 101, 200, 3)));
+        assertTrue(verifier.verifySeatData(seatData("Main", 2, 1, 200, 4)));
+        assertFalse(verifier.verifySeatData(seatData("Main", 1, 199, 202, 5)));
+        assertFalse(verifier.verifySeatData(seatData("Main", 1, 201, 201, 6)));
+
+        try {
+            verifier.finish();
+            fail("Expected duplicate seats to be reported");
+        } catch (BusinessException e) {
+            assertEquals("Data validation failed:\n" +
+                    "Line 5: Duplicate seats found: Main-1-199 to Main-1-200\n" +
+                    "Line 6: Duplicate seat found: Main-1-201", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testVerifierStopsAfterMaxErrors() {
+        FileUploadService.SeatDataVerifier verifier = new FileUploadService.SeatDataVerifier(3);
+
+        assertTrue(verifier.verifySeatData(seatData("Main", 1, 1, 100_000, 2)));
+        assertFalse(verifier.verifySeatData(seatData("Main", 1, 1, 100_000, 3)));
+        assertFalse(verifier.verifySeatData(seatData("Main", 0, 1, 1, 4)));
+
+        try {
+            verifier.verifySeatData(seatData("Main", 0, 1, 1, 5));
+            fail("Expected validation to stop at the third error");
+        } catch (BusinessException e) {
+            assertEquals("Data validation failed:\n" +
+                    "Line 3: Duplicate seats found: Main-1-1 to Main-1-100000\n" +
+                    "Line 4: Row number must be positive\n" +
+                    "Line 5: Row number must be positive\n" +
+                    "Stopped after 3 errors", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testParallelLayoutBuildMatchesSequential() {
+        FileUploadService.TheaterLayoutBuilder sequential = new FileUploadService.TheaterLayoutBuilder(1L);
+        FileUploadService.TheaterLayoutBuilder parallel = new FileUploadService.TheaterLayoutBuilder(1L, 0);
+        int line = 2;
+        for (int row = 1; row <= 50; row++) {
+            for (String section : List.of("Orchestra", "Mezzanine", "Balcony")) {
+                FileUploadService.SeatData data = seatData(section, row, 1, 20, line++);
+                data.setStatus(row % 3 == 0 ? SeatStatus.BOOKED : SeatStatus.AVAILABLE);
+                sequential.add(data);
+                parallel.add(data);
+            }
+        }
+        // A second record for an existing row
+        sequential.add(seatData("Orchestra", 1, 21, 30, line));
+        parallel.add(seatData("Orchestra", 1, 21, 30, line));
+
+        Theater expected = sequential.build();
+        Theater actual = parallel.build();
+
+        assertEquals(expected.getTotalSeats(), actual.getTotalSeats());
+        assertEquals(expected.getSeatCount(SeatStatus.BOOKED), actual.getSeatCount(SeatStatus.BOOKED));
+        for (int i = 0; i < expected.getSections().size(); i++) {
+            Section expectedSection = expected.getSections().get(i);
+            Section actualSection = actual.getSections().get(i);
+            assertEquals(expectedSection.getName(), actualSection.getName());
+            for (int r = 0; r < expectedSection.getRows().size(); r++) {
+                assertEquals(expectedSection.getRows().get(r).getNumber(), actualSection.getRows().get(r).getNumber());
+                assertEquals(expectedSection.getRows().get(r).getSeats().size(), actualSection.getRows().get(r).getSeats().size());
+            }
+        }
+        assertEquals(30, actual.getSections().get(0).getRows().get(0).getSeats().size());
+    }
+
+    @Test
+    public void testProcessCsvFileStreamsLargeLayout() throws IOException, SQLException {
+        StringBuilder content = new StringBuilder("section,row,seat_start,seat_end,status\n");
+        for (int row = 1; row <= 2_000; row++) {
+            content.append("Arena,").append(row).append(",1,50,available\n");
+        }
+        File csvFile = createTestCsvFile("large_layout.csv", content.toString());
+
+        try {
+            FileUploadService.UploadResult result = fileUploadService.processCsvFile(
+                    csvFile.getAbsolutePath(), 1L);
+
+            assertTrue(result.isSuccess());
+            assertEquals(2_000, result.getRecordsProcessed());
+            verify(theaterRepository).bulkInsertSections(eq(1L), any());
+            assertEquals(1, insertedSections.size());
+            assertEquals(100_000, insertedSections.get(0).getTotalSeats());
+
+        } finally {
+            csvFile.delete();
+        }
+    }
+
+    @Test
+    public void testSectionsAreWrittenAsTheyComplete() throws IOException {
+        File csvFile = createTestCsvFile("section_order.csv",
+                "section,row,seat_start,seat_end\n" +
+                        "Orchestra,1,1,10\n" +
+                        "Balcony,1,1,8\n" +
+                        "Orchestra,2,1,10\n");
+
+        try {
+            FileUploadService.UploadResult result = fileUploadService.processCsvFile(
+                    csvFile.getAbsolutePath(), 1L);
+
+            assertTrue(result.getMessage(), result.isSuccess());
+            // Balcony ends on line 3, Orchestra only on line 4
+            assertEquals(2, insertedSections.size());
+            assertEquals("Balcony", insertedSections.get(0).getName());
+            assertEquals("Orchestra", insertedSections.get(1).getName());
+            assertEquals(2, insertedSections.get(1).getRows().size());
+
+        } finally {
+            csvFile.delete();
+        }
+    }
+
+    @Test
+    public void testFailedSectionInsertFailsTheUpload() throws IOException, SQLException {
+        File csvFile = createTestCsvFile("section_failure.csv",
+                "section,row,seat_start,seat_end\n" +
+                        "Orchestra,1,1,10\n" +
+                        "Balcony,1,1,8\n");
+
+        doAnswer(inv -> {
+            inv.<SectionSource>getArgument(1).writeTo(section -> {
+                throw new SQLException("Section already exists: " + section.getName(), "23505");
+            });
+            return null;
+        }).when(theaterRepository).bulkInsertSections(any(), any());
+
+        try {
+            FileUploadService.UploadResult result = fileUploadService.processCsvFile(
+                    csvFile.getAbsolutePath(), 1L);
+
+            assertFalse(result.isSuccess());
+            assertEquals("Database Error: Section already exists: Orchestra", result.getMessage());
+
+        } finally {
+            csvFile.delete();
+        }
+    }
+
+    @Test
+    public void testStatusUpdateAppliesRangesInOneCall()throws IOException, SQLException {
+        File csvFile = createTestCsvFile("status_update_test.csv",
+                "section,row,seat_start,seat_end,status\n" +
+                        "Orchestra,1,2,2,booked\n" +
+                        "Orchestra,2,3,6,out_of_order\n" +
+                        "Balcony,1,4,4,available\n");
+
+        try {
+            when(theaterRepository.updateSeatRangeStatuses(eq(1L), anyList())).thenReturn(new int[] {1, 4, 1});
+
+            FileUploadService.UploadResult result = fileUploadService.processStatusUpdateFile(
+                    csvFile.getAbsolutePath(), 1L);
+
+            assertTrue(result.getMessage(), result.isSuccess());
+            assertEquals(3, result.getRecordsProcessed());
+            verify(theaterRepository, times(1)).updateSeatRangeStatuses(eq(1L), argThat(ranges ->
+                    ranges.size() == 3 && ranges.get(1).getSeatCount() == 4
+                            && ranges.get(1).getStatus() == SeatStatus.OUT_OF_ORDER));
+            verify(theaterRepository, never()).bulkInsertSections(any(), any());
+
+        } finally {
+            csvFile.delete();
+        }
+    }
+
+    @Test
+    public void testStatusUpdateReportsUnknownSeats() throws IOException, SQLException {
+        File csvFile = createTestCsvFile("status_update_unknown.csv",
+                "section,row,seat_start,seat_end,status\n" +
+                        "Orchestra,1,1,2,booked\n" +
+                        "Orchestra,99,1,1,booked\n");
+
+        try {
+            when(theaterRepository.updateSeatRangeStatuses(eq(1L), anyList())).thenReturn(new int[] {2, 0});
+
+            FileUploadService.UploadResult result = fileUploadService.processStatusUpdateFile(
+                    csvFile.getAbsolutePath(), 1L);
+
+            assertFalse(result.isSuccess());
+            assertTrue(result.getMessage(), result.getMessage().contains("Line 3: Seats not found: Orchestra row 99"));
+
+        } finally {
+            csvFile.delete();
+        }
+    }
+
+    @Test
+    public void testStatusUpdateRequiresStatusColumn() throws IOException, SQLException {
+        File csvFile = createTestCsvFile("status_update_no_status.csv",
+                "section,row,seat_start,seat_end\n" +
+                        "Orchestra,1,1,2\n");
+
+        try {
+            FileUploadService.UploadResult result = fileUploadService.processStatusUpdateFile(
+                    csvFile.getAbsolutePath(), 1L);
+
+            assertFalse(result.isSuccess());
+            assertTrue(result.getMessage().contains("status column"));
+            verify(theaterRepository, never()).updateSeatRangeStatuses(any(), anyList());
+
+        } finally {
+            csvFile.delete();
+        }
+    }
+
     @Test
     public void testProcessMultipleFilesAsync() throws Exception {
         File csvFile1 = createTestCsvFile("test1.csv",
@@ -113,8 +391,6 @@ public class FileUploadServiceTest {
                         "Balcony,1,1,3\n");
 
         try {
-            doNothing().when(theaterRepository).bulkInsertTheaterLayout(any());
-
             List<String> filePaths = Arrays.asList(
                     csvFile1.getAbsolutePath(),
                     csvFile2.getAbsolutePath());
@@ -134,6 +410,50 @@ public class FileUploadServiceTest {
         }
     }
 
+    @Test
+    public void testUploadsNeverExceedConnectionPermits() throws Exception {
+        int poolSize = ConfigLoader.getIntProperty("db.pool.maximumPoolSize", 10);
+        int permits = Math.max(1, poolSize - ConfigLoader.getIntProperty("upload.reservedConnections", 2));
+        int files = permits + 4;
+
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        doAnswer(inv -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(50);
+            inFlight.decrementAndGet();
+            return null;
+        }).when(theaterRepository).bulkInsertSections(any(), any());
+
+        List<File> csvFiles = new ArrayList<>();
+        List<String> filePaths = new ArrayList<>();
+        for (int i = 0; i < files; i++) {
+            File csvFile = createTestCsvFile("permits_" + i + ".csv",
+                    "section,row,seat_start,seat_end\n" + "Orchestra,1,1,5\n");
+            csvFiles.add(csvFile);
+            filePaths.add(csvFile.getAbsolutePath());
+        }
+
+        FileUploadService wideUploadService = new FileUploadService(theaterRepository, files);
+        try {
+            List<FileUploadService.UploadResult> results =
+                    wideUploadService.processMultipleFiles(filePaths, 1L).get();
+
+            assertTrue(results.stream().allMatch(FileUploadService.UploadResult::isSuccess));
+            assertTrue("Concurrent inserts: " + maxInFlight.get(), maxInFlight.get() <= permits);
+
+        } finally {
+            wideUploadService.shutdown();
+            csvFiles.forEach(File::delete);
+        }
+    }
+
+    private static FileUploadService.SeatData seatData(String section, int row, int start, int end, int lineNumber) {
+        FileUploadService.SeatData data = new FileUploadService.SeatData(section, row, start, end);
+        data.setLineNumber(lineNumber);
+        return data;
+    }
+
     private File createTestCsvFile(String fileName, String content) throws IOException {
         File csvFile = new File(tempDir, fileName);
         try (FileWriter writer = new FileWriter(csvFile)) {
@@ -0,0 +1,284 @@
+package org.example.service;
+
+import org.example.model.*;
+import org.example.repository.TheaterRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class HotTheaterEngineTest {
+
+    @Mock
+    private TheaterRepository theaterRepository;
+
+    // Stands in for the seats table
+    private final Map<Long, SeatStatus> database = new ConcurrentHashMap<>();
+    private HotTheaterEngine engine;
+
+    @Before
+    public void setUp() throws SQLException {
+        MockitoAnnotations.initMocks(this);
+        when(theaterRepository.findTheaterById(1L)).thenAnswer(invocation -> loadTheater(2, 10, 20));
+        when(theaterRepository.applySeatStatuses(anyMap())).thenAnswer(invocation -> {
+            Map<Long, SeatStatus> statuses = invocation.getArgument(0);
+            database.putAll(statuses);
+            return statuses.size();
+        });
+
+        engine = new HotTheaterEngine(1L, theaterRepository, 8, 5, 100);
+        assertTrue(engine.start());
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        engine.shutdown();
+    }
+
+    @Test
+    public void testNoSeatIsSoldTwiceUnderConcurrentLoad() throws Exception {
+        int threads = 16;
+        Set<Long> sold = ConcurrentHashMap.newKeySet();
+        AtomicInteger doubleSales = new AtomicInteger();
+        AtomicInteger successfulSeats = new AtomicInteger();
+        CountDownLatch startGate = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                startGate.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 2_000; i++) {
+                    // Single seats and groups that may span rows and stripes
+                    int groupSize = 1 + random.nextInt(4);
+                    List<Long> seatIds = new ArrayList<>();
+                    long first = 1 + random.nextInt(400);
+                    for (int s = 0; s < groupSize; s++) {
+                        seatIds.add(1 + (first + s * 7) % 400);
+                    }
+
+                    SeatBatchResult result = engine.bookSeats(seatIds);
+                    if (result.isSuccess()) {
+                        for (Long seatId : result.getSeatIds()) {
+                            if (!sold.add(seatId)) {
+                                doubleSales.incrementAndGet();
+                            }
+                            successfulSeats.incrementAndGet();
+                        }
+                    }
+                }
+                return null;
+            });
+        }
+
+        startGate.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(0, doubleSales.get());
+        assertEquals(sold.size(), successfulSeats.get());
+        assertEquals(sold.size(), engine.snapshot().getSeatCount(SeatStatus.BOOKED));
+
+        engine.flush();
+        for (Long seatId : sold) {
+            assertEquals(SeatStatus.BOOKED, database.get(seatId));
+        }
+        assertEquals(0, engine.getPendingCount());
+    }
+
+    @Test
+    public void testConcurrentBookAndCancelKeepOwnership() throws Exception {
+        int threads = 8;
+        Map<Long, Integer> owners = new ConcurrentHashMap<>();
+        AtomicInteger violations = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        for (int t = 0; t < threads; t++) {
+            int owner = t;
+            executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                List<Long> mine = new ArrayList<>();
+                for (int i = 0; i < 5_000; i++) {
+                    if (!mine.isEmpty() && random.nextBoolean()) {
+                        Long seatId = mine.remove(mine.size() - 1);
+                        // Give up ownership before the seat can be sold again
+                        owners.remove(seatId);
+                        if (!engine.cancelBooking(seatId)) {
+                            violations.incrementAndGet();
+                        }
+                    } else {
+                        Long seatId = (long) (1 + random.nextInt(50));
+                        if (engine.bookSeat(seatId)) {
+                            if (owners.putIfAbsent(seatId, owner) != null) {
+                                violations.incrementAndGet();
+                            }
+                            mine.add(seatId);
+                        }
+                    }
+                }
+            });
+        }
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(0, violations.get());
+        assertEquals(owners.size(), engine.snapshot().getSeatCount(SeatStatus.BOOKED));
+        assertEquals(owners.size(), engine.summary().getSeatCount(SeatStatus.BOOKED));
+    }
+
+    @Test
+    public void testGroupBookingIsAllOrNothing() {
+        assertTrue(engine.bookSeat(2L));
+
+        SeatBatchResult result = engine.bookSeats(List.of(1L, 2L, 3L));
+
+        assertFalse(result.isSuccess());
+        assertEquals(List.of(2L), result.getConflictingSeatIds());
+        assertEquals(SeatStatus.AVAILABLE, engine.getSeatStatus(1L));
+        assertEquals(SeatStatus.AVAILABLE, engine.getSeatStatus(3L));
+    }
+
+    @Test
+    public void testFlushWritesLatestStatusPerSeat() throws SQLException {
+        engine.bookSeat(1L);
+        engine.cancelBooking(1L);
+        engine.bookSeat(1L);
+        engine.updateSeatStatus(2L, SeatStatus.OUT_OF_ORDER);
+
+        engine.flush();
+
+        assertEquals(SeatStatus.BOOKED, database.get(1L));
+        assertEquals(SeatStatus.OUT_OF_ORDER, database.get(2L));
+        assertEquals(0, engine.getPendingCount());
+    }
+
+    @Test
+    public void testFailedFlushKeepsChangesPending() throws SQLException {
+        engine.shutdown();
+        engine = new HotTheaterEngine(1L, theaterRepository, 8, 60_000, 100);
+        engine.start();
+        when(theaterRepository.applySeatStatuses(anyMap())).thenThrow(new SQLException("connection lost"));
+
+        engine.bookSeat(1L);
+        try {
+            engine.flush();
+            fail("Expected flush to fail");
+        } catch (SQLException expected) {
+        }
+        engine.cancelBooking(1L);
+
+        assertEquals(1, engine.getPendingCount());
+        doAnswer(invocation -> {
+            database.putAll(invocation.getArgument(0));
+            return 1;
+        }).when(theaterRepository).applySeatStatuses(anyMap());
+        engine.flush();
+
+        // The newer cancellation wins over the unwritten booking
+        assertEquals(SeatStatus.AVAILABLE, database.get(1L));
+    }
+
+    @Test
+    public void testReconcileAdoptsDatabaseStatus() throws SQLException {
+        Theater changed = loadTheater(2, 10, 20);
+        changed.getSections().get(0).getRows().get(0).getSeats().get(0).setStatus(SeatStatus.OUT_OF_ORDER);
+        when(theaterRepository.findTheaterById(1L)).thenReturn(changed);
+
+        assertEquals(1, engine.reconcile());
+        assertEquals(SeatStatus.OUT_OF_ORDER, engine.getSeatStatus(1L));
+        assertFalse(engine.bookSeat(1L));
+    }
+
+    @Test
+    public void testSummaryCountsMatchSeats() throws SQLException {
+        engine.bookSeats(List.of(1L, 2L, 201L));
+        engine.cancelBooking(2L);
+        engine.updateSeatStatus(3L, SeatStatus.OUT_OF_ORDER);
+        // Read after reconcile has flushed the changes above
+        when(theaterRepository.findTheaterById(1L)).thenAnswer(invocation -> {
+            Theater changed = loadTheater(2, 10, 20);
+            changed.getSections().get(1).getRows().get(0).getSeats().get(5).setStatus(SeatStatus.RESERVED);
+            return changed;
+        });
+        assertEquals(1, engine.reconcile());
+
+        TheaterSummary summary = engine.summary();
+        TheaterSummary counted = TheaterSummary.of(engine.snapshot());
+        assertEquals(counted.getTotalSeats(), summary.getTotalSeats());
+        for (int s = 0; s < 2; s++) {
+            for (SeatStatus status : SeatStatus.values()) {
+                assertEquals(counted.getSections().get(s).getSeatCount(status), summary.getSections().get(s).getSeatCount(status));
+            }
+        }
+        assertEquals(1, summary.getSections().get(0).getSeatCount(SeatStatus.BOOKED));
+        assertEquals(1, summary.getSections().get(1).getSeatCount(SeatStatus.RESERVED));
+    }
+
+    @Test
+    public void testSeatingMapIsRenderedWithoutSnapshot() {
+        engine.bookSeats(List.of(5L, 6L, 250L));
+        SeatingMapRenderer renderer = new SeatingMapRenderer(theaterRepository);
+        SeatingMapRenderer.Viewport viewport = new SeatingMapRenderer.Viewport(null, 2, 4);
+
+        StringWriter fromEngine = new StringWriter();
+        renderer.render(engine, viewport, new PrintWriter(fromEngine));
+        StringWriter fromSnapshot = new StringWriter();
+        renderer.render(engine.snapshot(), viewport, new PrintWriter(fromSnapshot));
+
+        assertEquals(fromSnapshot.toString(), fromEngine.toString());
+    }
+
+    @Test
+    public void testStartLoadsBookedSeats() throws SQLException {
+        Theater theater = loadTheater(1, 1, 5);
+        theater.getSections().get(0).getRows().get(0).getSeats().get(2).setStatus(SeatStatus.BOOKED);
+        when(theaterRepository.findTheaterById(2L)).thenReturn(theater);
+
+        HotTheaterEngine other = new HotTheaterEngine(2L, theaterRepository, 8, 5, 100);
+        assertTrue(other.start());
+        try {
+            assertFalse(other.bookSeat(3L));
+            assertTrue(other.bookSeat(4L));
+        } finally {
+            other.shutdown();
+        }
+    }
+
+    private Theater loadTheater(int sections, int rowsPerSection, int seatsPerRow) {
+        Theater theater = new Theater(1L, "Hot Theater");
+        long seatId = 1;
+        for (int s = 1; s <= sections; s++) {
+            Section section = new Section((long) s, "Section " + s);
+            for (int r = 1; r <= rowsPerSection; r++) {
+                Row row = new Row((long) (s * 1000 + r), r);
+                for (int seatNum = 1; seatNum <= seatsPerRow; seatNum++) {
+                    row.addSeat(new Seat(seatId++, seatNum, database.getOrDefault(seatId - 1, SeatStatus.AVAILABLE)));
+                }
+                section.addRow(row);
+            }
+            theater.addSection(section);
+        }
+        return theater;
+    }
+}
@@ -0,0 +1,167 @@
+package org.example.service;
+
+import org.example.model.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LayoutCacheTest {
+
+    private long now;
+    private LayoutCache cache;
+
+    @Before
+    public void setUp() {
+        now = 0;
+        cache = new LayoutCache(2, 1_000, () -> now);
+    }
+
+    @Test
+    public void testHitAndMissStatistics() {
+        assertNull(cache.get(1L));
+        cache.put(createTheater(1L, 100L));
+
+        assertNotNull(cache.get(1L));
+        assertNotNull(cache.get(1L));
+
+        LayoutCache.Stats stats = cache.getStats();
+        assertEquals(2, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, stats.getSize());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted() {
+        cache.put(createTheater(1L, 100L));
+        cache.put(createTheater(2L, 200L));
+        cache.get(1L); // 2 is now the eldest
+        cache.put(createTheater(3L, 300L));
+
+        assertNotNull(cache.get(1L));
+        assertNull(cache.get(2L));
+        assertNotNull(cache.get(3L));
+        assertEquals(1, cache.getStats().getEvictions());
+
+        // Seats of evicted layouts are no longer patched
+        assertFalse(cache.updateSeatStatus(200L, SeatStatus.BOOKED));
+    }
+
+    @Test
+    public void testEntriesExpireAfterTtl() {
+        cache.put(createTheater(1L, 100L));
+        now = 1_001;
+
+        assertNull(cache.get(1L));
+        assertEquals(1, cache.getStats().getExpirations());
+    }
+
+    @Test
+    public void testSeatStatusPatchIsSeenByLaterReads() {
+        Theater theater = createTheater(1L, 100L);
+        cache.put(theater);
+        Theater before = cache.get(1L);
+        assertSame(before, cache.get(1L));
+
+        assertTrue(cache.updateSeatStatus(100L, SeatStatus.BOOKED));
+
+        Theater after = cache.get(1L);
+        assertEquals(0, after.getAvailableSeats());
+        // Layouts already handed out, and the one that was put, are never changed
+        assertEquals(1, before.getAvailableSeats());
+        assertEquals(1, theater.getAvailableSeats());
+        assertNotSame(theater, after);
+    }
+
+    @Test
+    public void testPatchCopiesOnlyItsRow() {
+        Theater theater = new Theater(1L, "Two Rows");
+        Section section = new Section(1L, "Orchestra");
+        for (int r = 1; r <= 2; r++) {
+            Row row = new Row((long) r, r);
+            for (int n = 1; n <= 3; n++) {
+                row.addSeat(new Seat(r * 10L + n, n, SeatStatus.AVAILABLE));
+            }
+            section.addRow(row);
+        }
+        theater.addSection(section);
+        cache.put(theater);
+        Theater before = cache.get(1L);
+
+        cache.updateSeatStatus(12L, SeatStatus.BOOKED);
+        Theater after = cache.get(1L);
+
+        Row changedBefore = before.getSections().get(0).getRows().get(0);
+        Row changedAfter = after.getSections().get(0).getRows().get(0);
+        assertNotSame(changedBefore, changedAfter);
+        assertEquals(3, changedBefore.getAvailableSeats());
+        assertEquals(2, changedAfter.getAvailableSeats());
+        assertSame(before.getSections().get(0).getRows().get(1), after.getSections().get(0).getRows().get(1));
+        assertEquals(5, after.getSections().get(0).getAvailableSeats());
+        assertEquals(6, before.getSections().get(0).getAvailableSeats());
+    }
+
+    @Test
+    public void testPatchesWhileReadingDoNotDisturbReaders() throws InterruptedException {
+        Theater theater = new Theater(1L, "Big");
+        Section section = new Section(1L, "Orchestra");
+        Row row = new Row(1L, 1);
+        for (int n = 1; n <= 200; n++) {
+            row.addSeat(new Seat((long) n, n, SeatStatus.AVAILABLE));
+        }
+        section.addRow(row);
+        theater.addSection(section);
+        cache.put(theater);
+
+        Thread patcher = new Thread(() -> {
+            for (int i = 0; i < 20_000; i++) {
+                long seatId = i % 200 + 1;
+                cache.updateSeatStatus(seatId, i % 400 < 200 ? SeatStatus.BOOKED : SeatStatus.AVAILABLE);
+            }
+        });
+        patcher.start();
+        while (patcher.isAlive()) {
+            Theater read = cache.get(1L);
+            Row readRow = read.getSections().get(0).getRows().get(0);
+            int available = 0;
+            for (Seat seat : readRow.getSeats()) {
+                if (seat.isAvailable()) available++;
+            }
+            assertEquals(available, read.getAvailableSeats());
+            readRow.findAdjacentAvailableSeats(3);
+        }
+        patcher.join();
+    }
+
+    @Test
+    public void testVersionedUpdateIgnoresOlderVersions() {
+        Theater theater = createTheater(1L, 100L);
+        cache.put(theater);
+
+        assertTrue(cache.updateSeat(100L, SeatStatus.BOOKED, 3));
+        assertFalse(cache.updateSeat(100L, SeatStatus.AVAILABLE, 2));
+
+        Seat seat = cache.get(1L).getSections().get(0).getRows().get(0).getSeats().get(0);
+        assertEquals(SeatStatus.BOOKED, seat.getStatus());
+        assertEquals(3, seat.getVersion());
+    }
+
+    @Test
+    public void testInvalidateSeatDropsItsTheater() {
+        cache.put(createTheater(1L, 100L));
+
+        cache.invalidateSeat(100L);
+
+        assertNull(cache.get(1L));
+    }
+
+    private Theater createTheater(Long theaterId, Long seatId) {
+        Theater theater = new Theater(theaterId, "Theater " + theaterId);
+        Section section = new Section(theaterId, "Orchestra");
+        Row row = new Row(theaterId, 1);
+        row.addSeat(new Seat(seatId, 1, SeatStatus.AVAILABLE));
+        section.addRow(row);
+        theater.addSection(section);
+        return theater;
+    }
+}
@@ -0,0 +1,105 @@
+package org.example.service;
+
+import org.example.model.*;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class LayoutSnapshotStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private LayoutSnapshotStore store;
+
+    @Before
+    public void setUp() {
+        store = new LayoutSnapshotStore(folder.getRoot().toPath().resolve("snapshots"));
+    }
+
+    static Theater layout() {
+        Theater theater = new Theater(7L, "Grand Théâtre");
+        long seatId = 100;
+        for (int s = 1; s <= 2; s++) {
+            Section section = new Section((long) s, "Section " + s);
+            for (int r = 1; r <= 3; r++) {
+                Row row = new Row(s * 10L + r, r);
+                for (int n = 1; n <= 4; n++) {
+                    row.addSeat(new Seat(seatId++, n, SeatStatus.AVAILABLE, 0));
+                }
+                section.addRow(row);
+            }
+            theater.addSection(section);
+        }
+        return theater;
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Theater theater = layout();
+        Seat booked = theater.getSections().get(1).getRows().get(2).getSeats().get(3);
+        booked.setStatus(SeatStatus.BOOKED);
+        booked.setVersion(5);
+
+        store.write(7L, store.encode(theater, 1234L));
+        LayoutSnapshotStore.Snapshot snapshot = store.read(7L);
+
+        assertEquals(1234L, snapshot.getAsOfMillis());
+        Theater read = snapshot.getTheater();
+        assertEquals("Grand Théâtre", read.getName());
+        assertEquals(24, read.getTotalSeats());
+        assertEquals(23, read.getAvailableSeats());
+        assertEquals("Section 2", read.getSections().get(1).getName());
+        Seat seat = read.getSections().get(1).getRows().get(2).getSeats().get(3);
+        assertEquals(booked.getId(), seat.getId());
+        assertEquals(SeatStatus.BOOKED, seat.getStatus());
+        assertEquals(5, seat.getVersion());
+        assertEquals(Long.valueOf(23), read.getSections().get(1).getRows().get(2).getId());
+    }
+
+    @Test
+    public void testMissingSnapshotReadsAsNull() throws IOException {
+        assertNull(store.read(7L));
+        store.delete(7L);
+    }
+
+    @Test
+    public void testWriteReplacesSnapshotWithoutLeavingTempFiles() throws IOException {
+        store.write(7L, store.encode(layout(), 1L));
+        store.write(7L, store.encode(layout(), 2L));
+
+        assertEquals(2L, store.read(7L).getAsOfMillis());
+        try (var files = Files.list(store.getDirectory())) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testCorruptSnapshotIsRejected() throws IOException {
+        store.write(7L, store.encode(layout(), 1L));
+        Path file = store.file(7L);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[40] ^= 1;
+        Files.write(file, bytes);
+
+        store.read(7L);
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedSnapshotIsRejected() throws IOException {
+        store.write(7L, store.encode(layout(), 1L));
+        Path file = store.file(7L);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length / 2));
+
+        store.read(7L);
+    }
+}
@@ -0,0 +1,108 @@
+package org.example.service;
+
+import org.example.model.*;
+import org.example.repository.TheaterRepository;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class LayoutSnapshotsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private TheaterRepository theaterRepository;
+    private LayoutCache layoutCache;
+    private LayoutSnapshotStore store;
+    private LayoutSnapshots snapshots;
+
+    @Before
+    public void setUp() throws Exception {
+        theaterRepository = mock(TheaterRepository.class);
+        layoutCache = new LayoutCache(10, Long.MAX_VALUE, System::nanoTime);
+        store = new LayoutSnapshotStore(folder.getRoot().toPath());
+        snapshots = new LayoutSnapshots(theaterRepository, layoutCache, store, 1000);
+
+        TheaterSummary summary = mock(TheaterSummary.class);
+        when(theaterRepository.findTheaterSummary(7L)).thenReturn(summary);
+        when(theaterRepository.currentTimeMillis()).thenReturn(50_000L);
+    }
+
+    @Test
+    public void testLayoutFromDatabaseIsSnapshotted() throws Exception {
+        when(theaterRepository.findTheaterById(7L)).thenReturn(LayoutSnapshotStoreTest.layout());
+
+        Theater theater = snapshots.load(7L);
+        snapshots.shutdown();
+
+        assertEquals(theater.getTotalSeats(), layoutCache.get(7L).getTotalSeats());
+        assertEquals(50_000L, store.read(7L).getAsOfMillis());
+        assertEquals(24, store.read(7L).getTheater().getTotalSeats());
+    }
+
+    @Test
+    public void testSnapshotIsServedAndReconciled() throws Exception {
+        store.write(7L, store.encode(LayoutSnapshotStoreTest.layout(), 10_000L));
+        when(theaterRepository.findSeatsChangedSince(7L, 9_000L))
+                .thenReturn(List.of(new Seat(101L, 2, SeatStatus.BOOKED, 3)));
+
+        Theater theater = snapshots.load(7L);
+        snapshots.shutdown();
+
+        verify(theaterRepository, never()).findTheaterById(anyLong());
+        assertEquals(24, theater.getTotalSeats());
+        Seat seat = layoutCache.get(7L).getSections().get(0).getRows().get(0).getSeats().get(1);
+        assertEquals(SeatStatus.BOOKED, seat.getStatus());
+        assertEquals(3, seat.getVersion());
+
+        LayoutSnapshotStore.Snapshot rewritten = store.read(7L);
+        assertEquals(50_000L, rewritten.getAsOfMillis());
+        assertEquals(23, rewritten.getTheater().getAvailableSeats());
+    }
+
+    @Test
+    public void testUnknownChangedSeatDropsSnapshot() throws Exception {
+        store.write(7L, store.encode(LayoutSnapshotStoreTest.layout(), 10_000L));
+        when(theaterRepository.findSeatsChangedSince(eq(7L), anyLong()))
+                .thenReturn(List.of(new Seat(999L, 1, SeatStatus.AVAILABLE, 0)));
+
+        snapshots.load(7L);
+        snapshots.shutdown();
+
+        assertNull(layoutCache.get(7L));
+        assertNull(store.read(7L));
+    }
+
+    @Test
+    public void testCorruptSnapshotFallsBackToDatabase() throws Exception {
+        Files.write(store.file(7L), new byte[]{1, 2, 3});
+        when(theaterRepository.findTheaterById(7L)).thenReturn(LayoutSnapshotStoreTest.layout());
+
+        assertNotNull(snapshots.load(7L));
+        snapshots.shutdown();
+
+        verify(theaterRepository).findTheaterById(7L);
+        assertEquals(50_000L, store.read(7L).getAsOfMillis());
+    }
+
+    @Test
+    public void testFailedReconcileDropsCachedCopy() throws Exception {
+        store.write(7L, store.encode(LayoutSnapshotStoreTest.layout(), 10_000L));
+        when(theaterRepository.findSeatsChangedSince(eq(7L), anyLong())).thenThrow(new SQLException("down"));
+
+        snapshots.load(7L);
+        snapshots.shutdown();
+
+        assertNull(layoutCache.get(7L));
+        assertEquals(10_000L, store.read(7L).getAsOfMillis());
+    }
+}
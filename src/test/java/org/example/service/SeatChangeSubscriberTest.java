@@ -0,0 +1,96 @@
+package org.example.service;
+
+import org.example.model.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class SeatChangeSubscriberTest {
+
+    private LayoutCache cache;
+    private Set<Long> hotTheaters;
+    private SeatChangeSubscriber subscriber;
+
+    @Before
+    public void setUp() {
+        cache = new LayoutCache(10, Long.MAX_VALUE, () -> 0L);
+        hotTheaters = new HashSet<>();
+        subscriber = new SeatChangeSubscriber(cache, hotTheaters::contains);
+        cache.put(createTheater(1L, 100L, 3));
+        cache.put(createTheater(2L, 200L, 3));
+    }
+
+    @Test
+    public void testStatusChangesPatchCachedSeats() {
+        subscriber.onNotification("seat_changes", "1:100=BOOKED,102=RESERVED");
+
+        Theater theater = cache.get(1L);
+        assertEquals(SeatStatus.BOOKED, seat(theater, 0).getStatus());
+        assertEquals(SeatStatus.AVAILABLE, seat(theater, 1).getStatus());
+        assertEquals(SeatStatus.RESERVED, seat(theater, 2).getStatus());
+        assertEquals(1, theater.getAvailableSeats());
+    }
+
+    @Test
+    public void testVersionedChangesSkipOlderVersions() {
+        subscriber.onNotification("seat_changes", "1:100=BOOKED@2");
+        subscriber.onNotification("seat_changes", "1:100=AVAILABLE@1,101=BOOKED@1");
+
+        Theater theater = cache.get(1L);
+        assertEquals(SeatStatus.BOOKED, seat(theater, 0).getStatus());
+        assertEquals(2, seat(theater, 0).getVersion());
+        assertEquals(SeatStatus.BOOKED, seat(theater, 1).getStatus());
+    }
+
+    @Test
+    public void testLayoutChangeDropsTheater() {
+        subscriber.onNotification("seat_changes", "1:*");
+
+        assertNull(cache.get(1L));
+        assertNotNull(cache.get(2L));
+    }
+
+    @Test
+    public void testHotTheatersAreSkipped() {
+        hotTheaters.add(1L);
+        subscriber.onNotification("seat_changes", "1:100=BOOKED");
+
+        assertEquals(SeatStatus.AVAILABLE, seat(cache.get(1L), 0).getStatus());
+    }
+
+    @Test
+    public void testMalformedChangeDropsTheater() {
+        subscriber.onNotification("seat_changes", "2:200=SOLD");
+        subscriber.onNotification("seat_changes", "garbage");
+
+        assertNull(cache.get(2L));
+        assertNotNull(cache.get(1L));
+    }
+
+    @Test
+    public void testReconnectClearsCache() {
+        subscriber.onReconnect();
+
+        assertEquals(0, cache.getStats().getSize());
+    }
+
+    private static Seat seat(Theater theater, int index) {
+        return theater.getSections().get(0).getRows().get(0).getSeats().get(index);
+    }
+
+    private static Theater createTheater(Long theaterId, long firstSeatId, int seats) {
+        Theater theater = new Theater(theaterId, "Theater " + theaterId);
+        Section section = new Section(theaterId, "Orchestra");
+        Row row = new Row(theaterId, 1);
+        for (int i = 0; i < seats; i++) {
+            row.addSeat(new Seat(firstSeatId + i, i + 1, SeatStatus.AVAILABLE));
+        }
+        section.addRow(row);
+        theater.addSection(section);
+        return theater;
+    }
+}
@@ -0,0 +1,166 @@
+package org.example.service;
+
+import org.example.model.SeatBatchResult;
+import org.example.model.SeatHold;
+import org.example.repository.TheaterRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class SeatHoldManagerTest {
+
+    private static final long TICK_NANOS = 100_000_000L;
+
+    @Mock
+    private TheaterRepository theaterRepository;
+
+    private final AtomicLong clock = new AtomicLong();
+    private SeatHoldManager holdManager;
+
+    @Before
+    public void setUp() throws SQLException {
+        MockitoAnnotations.initMocks(this);
+        holdManager = new SeatHoldManager(theaterRepository, new LayoutCache(), TICK_NANOS, 64, 1000, clock::get);
+
+        when(theaterRepository.holdSeats(anyList()))
+                .thenAnswer(invocation -> new SeatBatchResult(new ArrayList<>(invocation.getArgument(0)), List.of()));
+        when(theaterRepository.confirmHeldSeats(anyList()))
+                .thenAnswer(invocation -> new SeatBatchResult(new ArrayList<>(invocation.getArgument(0)), List.of()));
+        when(theaterRepository.releaseHeldSeats(anyList()))
+                .thenAnswer(invocation -> new ArrayList<>(invocation.getArgument(0)));
+    }
+
+    @After
+    public void tearDown() {
+        holdManager.shutdown();
+    }
+
+    @Test
+    public void testConfirmBooksHeldSeats() throws SQLException {
+        SeatHold hold = holdManager.holdSeats(List.of(1L, 2L), Duration.ofMinutes(5));
+
+        assertTrue(hold.isSuccess());
+        assertTrue(holdManager.confirm(hold.getHoldId()));
+        verify(theaterRepository).confirmHeldSeats(List.of(1L, 2L));
+
+        // A hold can only be used once
+        assertFalse(holdManager.confirm(hold.getHoldId()));
+        assertFalse(holdManager.release(hold.getHoldId()));
+    }
+
+    @Test
+    public void testConflictingHoldIsRejected() throws SQLException {
+        when(theaterRepository.holdSeats(anyList())).thenReturn(new SeatBatchResult(List.of(1L, 2L), List.of(2L)));
+
+        SeatHold hold = holdManager.holdSeats(List.of(1L, 2L), Duration.ofMinutes(5));
+
+        assertFalse(hold.isSuccess());
+        assertEquals(List.of(2L), hold.getConflictingSeatIds());
+        assertEquals(0, holdManager.getActiveHoldCount());
+    }
+
+    @Test
+    public void testExpiredHoldsAreReleasedInOneBatch() throws SQLException {
+        SeatHold first = holdManager.holdSeats(List.of(1L, 2L), Duration.ofSeconds(1));
+        SeatHold second = holdManager.holdSeats(List.of(3L), Duration.ofSeconds(1));
+        SeatHold later = holdManager.holdSeats(List.of(4L), Duration.ofSeconds(60));
+
+        clock.set(Duration.ofMillis(900).toNanos());
+        holdManager.expireHolds();
+        verify(theaterRepository, never()).releaseHeldSeats(anyList());
+
+        clock.set(Duration.ofSeconds(1).toNanos());
+        holdManager.expireHolds();
+
+        verify(theaterRepository, times(1)).releaseHeldSeats(List.of(1L, 2L, 3L));
+        assertFalse(holdManager.confirm(first.getHoldId()));
+        assertFalse(holdManager.release(second.getHoldId()));
+        assertTrue(holdManager.confirm(later.getHoldId()));
+    }
+
+    @Test
+    public void testReleasedHoldDoesNotExpireAgain() throws SQLException {
+        SeatHold hold = holdManager.holdSeats(List.of(1L), Duration.ofSeconds(1));
+
+        assertTrue(holdManager.release(hold.getHoldId()));
+        clock.set(Duration.ofSeconds(2).toNanos());
+        holdManager.expireHolds();
+
+        verify(theaterRepository, times(1)).releaseHeldSeats(anyList());
+    }
+
+    @Test
+    public void testFailedReleaseIsRetriedOnNextTick() throws SQLException {
+        holdManager.holdSeats(List.of(1L), Duration.ofSeconds(1));
+        when(theaterRepository.releaseHeldSeats(anyList()))
+                .thenThrow(new SQLException("connection lost"))
+                .thenReturn(List.of(1L));
+
+        clock.set(Duration.ofSeconds(1).toNanos());
+        holdManager.expireHolds();
+        clock.addAndGet(TICK_NANOS);
+        holdManager.expireHolds();
+
+        verify(theaterRepository, times(2)).releaseHeldSeats(List.of(1L));
+    }
+
+    @Test
+    public void testUnexpectedReleaseFailureIsRetriedOnNextTick() throws SQLException {
+        holdManager.holdSeats(List.of(1L), Duration.ofSeconds(1));
+        when(theaterRepository.releaseHeldSeats(anyList()))
+                .thenThrow(new IllegalStateException("pool closed"))
+                .thenReturn(List.of(1L));
+
+        clock.set(Duration.ofSeconds(1).toNanos());
+        holdManager.expireHolds();
+        clock.addAndGet(TICK_NANOS);
+        holdManager.expireHolds();
+
+        verify(theaterRepository, times(2)).releaseHeldSeats(List.of(1L));
+    }
+
+    @Test
+    public void testTensOfThousandsOfHolds() throws SQLException {
+        for (long seatId = 1; seatId <= 20_000; seatId++) {
+            holdManager.holdSeats(List.of(seatId), Duration.ofSeconds(30 + seatId % 60));
+        }
+        assertEquals(20_000, holdManager.getActiveHoldCount());
+
+        clock.set(Duration.ofSeconds(120).toNanos());
+        holdManager.expireHolds();
+
+        assertEquals(0, holdManager.getActiveHoldCount());
+        // 1000 seats per UPDATE
+        verify(theaterRepository, times(20)).releaseHeldSeats(anyList());
+    }
+
+    @Test
+    public void testOrphanedHoldsAreReleasedExceptActiveOnes() throws SQLException {
+        SeatHold hold = holdManager.holdSeats(List.of(1L, 2L), Duration.ofMinutes(5));
+        when(theaterRepository.currentTimeMillis()).thenReturn(1_000_000L);
+        when(theaterRepository.findSeatsReservedBefore(anyLong())).thenReturn(List.of(1L, 3L, 4L));
+
+        assertEquals(2, holdManager.releaseOrphanedHolds(Duration.ofMinutes(10)));
+
+        verify(theaterRepository).findSeatsReservedBefore(1_000_000L - 600_000L);
+        verify(theaterRepository).releaseHeldSeats(List.of(3L, 4L));
+        assertTrue(holdManager.confirm(hold.getHoldId()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testHoldDurationMustBePositive() throws SQLException {
+        holdManager.holdSeats(List.of(1L), Duration.ZERO);
+    }
+}
@@ -0,0 +1,150 @@
+package org.example.service;
+
+import org.example.model.*;
+import org.example.repository.SeatRunHandler;
+import org.example.repository.TheaterRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class SeatingMapRendererTest {
+
+    @Mock
+    private TheaterRepository theaterRepository;
+
+    private SeatingMapRenderer renderer;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        renderer = new SeatingMapRenderer(theaterRepository);
+    }
+
+    @Test
+    public void testRenderLayout() {
+        String map = render(createTheater(), SeatingMapRenderer.Viewport.ALL);
+
+        assertEquals("\n=== Seating Map for Test Theater ===\n" +
+                "Total Seats: 14 | Available: 11 | Booked: 3\n" +
+                "\n" +
+                "Section: Balcony (Available: 4/4)\n" +
+                "  Row  1: [ 1] [ 2] [ 3] [ 4] \n" +
+                "\n" +
+                "Section: Orchestra (Available: 7/10)\n" +
+                "  Row  1: [ 1]  [X]  [R] [ 4] [ 5] \n" +
+                "  Row 12: [ 9] [10]  [-] [12] [13] \n" +
+                "\n" +
+                SeatingMapRenderer.LEGEND + "\n\n", map);
+    }
+
+    @Test
+    public void testRenderViewport() {
+        String map = render(createTheater(), new SeatingMapRenderer.Viewport("Orchestra", 10, 20));
+
+        assertFalse(map.contains("Balcony"));
+        assertFalse(map.contains("Row  1"));
+        assertTrue(map.contains("Section: Orchestra (Available: 7/10)\n  Row 12: [ 9] [10]  [-] [12] [13] \n\n"));
+    }
+
+    @Test
+    public void testStreamedMapMatchesLayout() throws SQLException {
+        TheaterSummary summary = TheaterSummary.of(createTheater());
+        when(theaterRepository.findTheaterSummary(1L)).thenReturn(summary);
+        doAnswer(invocation -> {
+            SeatRunHandler handler = invocation.getArgument(4);
+            handler.accept("Balcony", 1, 1, 4, SeatStatus.AVAILABLE);
+            handler.accept("Orchestra", 1, 1, 1, SeatStatus.AVAILABLE);
+            handler.accept("Orchestra", 1, 2, 2, SeatStatus.BOOKED);
+            handler.accept("Orchestra", 1, 3, 3, SeatStatus.RESERVED);
+            handler.accept("Orchestra", 1, 4, 5, SeatStatus.AVAILABLE);
+            handler.accept("Orchestra", 12, 9, 10, SeatStatus.AVAILABLE);
+            handler.accept("Orchestra", 12, 11, 11, SeatStatus.OUT_OF_ORDER);
+            handler.accept("Orchestra", 12, 12, 13, SeatStatus.AVAILABLE);
+            return null;
+        }).when(theaterRepository).streamSeatRuns(eq(1L), isNull(), anyInt(), anyInt(), any());
+
+        StringWriter streamed = new StringWriter();
+        assertTrue(renderer.render(1L, SeatingMapRenderer.Viewport.ALL, new PrintWriter(streamed)));
+
+        assertEquals(render(createTheater(), SeatingMapRenderer.Viewport.ALL), streamed.toString());
+        verify(theaterRepository, never()).findTheaterById(anyLong());
+    }
+
+    @Test
+    public void testLayoutIsRenderedInStreamedOrder() {
+        Theater original = createTheater();
+        Theater reordered = new Theater(1L, "Test Theater");
+        Section orchestra = new Section(2L, "Orchestra");
+        List<Row> rows = original.getSections().get(1).getRows();
+        for (int r = rows.size() - 1; r >= 0; r--) {
+            Row row = new Row(rows.get(r).getId(), rows.get(r).getNumber());
+            rows.get(r).getSeats().forEach(seat -> row.addSeat(new Seat(seat.getId(), seat.getNumber(), seat.getStatus())));
+            orchestra.addRow(row);
+        }
+        Section balcony = new Section(1L, "Balcony");
+        Row balconyRow = new Row(10L, 1);
+        original.getSections().get(0).getRows().get(0).getSeats()
+                .forEach(seat -> balconyRow.addSeat(new Seat(seat.getId(), seat.getNumber(), seat.getStatus())));
+        balcony.addRow(balconyRow);
+        reordered.addSection(orchestra);
+        reordered.addSection(balcony);
+
+        assertEquals(render(original, SeatingMapRenderer.Viewport.ALL), render(reordered, SeatingMapRenderer.Viewport.ALL));
+    }
+
+    @Test
+    public void testStreamingUnknownTheater() throws SQLException {
+        assertFalse(renderer.render(99L, SeatingMapRenderer.Viewport.ALL, new PrintWriter(new StringWriter())));
+        verify(theaterRepository, never()).streamSeatRuns(anyLong(), any(), anyInt(), anyInt(), any());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testViewportRejectsReversedRows() {
+        new SeatingMapRenderer.Viewport(null, 5, 1);
+    }
+
+    private String render(Theater theater, SeatingMapRenderer.Viewport viewport) {
+        StringWriter out = new StringWriter();
+        renderer.render(theater, viewport, new PrintWriter(out));
+        return out.toString();
+    }
+
+    private Theater createTheater() {
+        Theater theater = new Theater(1L, "Test Theater");
+
+        Section balcony = new Section(1L, "Balcony");
+        Row balconyRow = new Row(10L, 1);
+        for (int seatNum = 1; seatNum <= 4; seatNum++) {
+            balconyRow.addSeat(new Seat((long) seatNum, seatNum, SeatStatus.AVAILABLE));
+        }
+        balcony.addRow(balconyRow);
+
+        Section orchestra = new Section(2L, "Orchestra");
+        Row front = new Row(20L, 1);
+        SeatStatus[] frontStatuses = {SeatStatus.AVAILABLE, SeatStatus.BOOKED, SeatStatus.RESERVED,
+                SeatStatus.AVAILABLE, SeatStatus.AVAILABLE};
+        for (int seatNum = 1; seatNum <= 5; seatNum++) {
+            front.addSeat(new Seat(100L + seatNum, seatNum, frontStatuses[seatNum - 1]));
+        }
+        Row back = new Row(21L, 12);
+        for (int seatNum = 9; seatNum <= 13; seatNum++) {
+            back.addSeat(new Seat(200L + seatNum, seatNum, seatNum == 11 ? SeatStatus.OUT_OF_ORDER : SeatStatus.AVAILABLE));
+        }
+        orchestra.addRow(front);
+        orchestra.addRow(back);
+
+        theater.addSection(balcony);
+        theater.addSection(orchestra);
+        return theater;
+    }
+}
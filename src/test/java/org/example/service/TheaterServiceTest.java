@@ -8,8 +8,13 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -104,6 +109,278 @@ public class TheaterServiceTest {
         verify(theaterRepository).cancelBooking(1L);
     }
 
+    @Test
+    public void testGetTheaterWithLayoutUsesCache() throws SQLException {
+        Theater theater = new Theater(1L, "Test Theater");
+        when(theaterRepository.findTheaterById(1L)).thenReturn(theater);
+
+        assertSame(theater, theaterService.getTheaterWithLayout(1L));
+        Theater cached = theaterService.getTheaterWithLayout(1L);
+        assertEquals(theater.getName(), cached.getName());
+        assertSame(cached, theaterService.getTheaterWithLayout(1L));
+
+        verify(theaterRepository, times(1)).findTheaterById(1L);
+        assertEquals(2, theaterService.getCacheStats().getHits());
+    }
+
+    @Test
+    public void testBookSeatPatchesCachedLayout() throws SQLException {
+        Theater theater = new Theater(1L, "Test Theater");
+        Section section = new Section(1L, "Orchestra");
+        Row row = new Row(1L, 1);
+        Seat seat = new Seat(7L, 1, SeatStatus.AVAILABLE);
+        row.addSeat(seat);
+        section.addRow(row);
+        theater.addSection(section);
+
+        when(theaterRepository.findTheaterById(1L)).thenReturn(theater);
+        when(theaterRepository.bookSeat(7L)).thenReturn(true);
+
+        theaterService.getTheaterWithLayout(1L);
+        assertTrue(theaterService.bookSeat(7L));
+
+        Theater cached = theaterService.getTheaterWithLayout(1L);
+        assertEquals(SeatStatus.BOOKED, cached.getSections().get(0).getRows().get(0).getSeats().get(0).getStatus());
+        assertEquals(0, cached.getAvailableSeats());
+        // The layout returned before the booking is left as it was
+        assertEquals(SeatStatus.AVAILABLE, seat.getStatus());
+        verify(theaterRepository, times(1)).findTheaterById(1L);
+    }
+
+    @Test
+    public void testVersionConflictRefreshesCachedSeat() throws SQLException {
+        Theater theater = new Theater(1L, "Test Theater");
+        Section section = new Section(1L, "Orchestra");
+        Row row = new Row(1L, 1);
+        Seat seat = new Seat(7L, 1, SeatStatus.AVAILABLE, 4);
+        row.addSeat(seat);
+        section.addRow(row);
+        theater.addSection(section);
+
+        when(theaterRepository.findTheaterById(1L)).thenReturn(theater);
+        when(theaterRepository.bookSeat(7L, 4)).thenReturn(SeatUpdateResult.conflict(7L, SeatStatus.BOOKED, 5));
+
+        theaterService.getTheaterWithLayout(1L);
+        SeatUpdateResult result = theaterService.bookSeat(7L, seat.getVersion());
+
+        assertFalse(result.isSuccess());
+        assertEquals(SeatStatus.BOOKED, result.getStatus());
+        // The cached seat now matches the database, without reloading the layout
+        Seat cached = theaterService.getTheaterWithLayout(1L).getSections().get(0).getRows().get(0).getSeats().get(0);
+        assertEquals(SeatStatus.BOOKED, cached.getStatus());
+        assertEquals(5, cached.getVersion());
+        verify(theaterRepository, times(1)).findTheaterById(1L);
+    }
+
+    @Test
+    public void testVersionedCancelAppliesNewVersion() throws SQLException {
+        when(theaterRepository.cancelBooking(7L, 2)).thenReturn(SeatUpdateResult.applied(7L, SeatStatus.AVAILABLE, 3));
+
+        SeatUpdateResult result = theaterService.cancelBooking(7L, 2);
+
+        assertTrue(result.isSuccess());
+        assertEquals(3, result.getVersion());
+        verify(theaterRepository, never()).cancelBooking(7L);
+    }
+
+    @Test
+    public void testBookSeatsAllOrNothing() throws SQLException {
+        List<Long> seatIds = Arrays.asList(1L, 2L, 3L);
+        when(theaterRepository.bookSeats(seatIds))
+                .thenReturn(new SeatBatchResult(seatIds, Arrays.asList(2L)));
+
+        SeatBatchResult result = theaterService.bookSeats(seatIds);
+
+        assertFalse(result.isSuccess());
+        assertEquals(Arrays.asList(2L), result.getConflictingSeatIds());
+        verify(theaterRepository).bookSeats(seatIds);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBookSeatsWithNoSeats() throws SQLException {
+        theaterService.bookSeats(Arrays.asList());
+    }
+
+    @Test
+    public void testFindContiguousSeatsInSingleRow() throws SQLException {
+        Theater theater = createUniformTheater(2, 10, 10);
+        // Fill the front row of the first section except for 3 seats
+        Row front = theater.getSections().get(0).getRows().get(0);
+        for (int i = 3; i < 10; i++) {
+            front.getSeats().get(i).setStatus(SeatStatus.BOOKED);
+        }
+        when(theaterRepository.findTheaterById(1L)).thenReturn(theater);
+
+        List<Seat> seats = theaterService.findContiguousSeats(1L, 4);
+
+        assertEquals(4, seats.size());
+        assertEquals(2, seats.get(0).getRow().getNumber());
+        for (int i = 1; i < seats.size(); i++) {
+            assertEquals(seats.get(i - 1).getNumber() + 1, seats.get(i).getNumber());
+        }
+    }
+
+    @Test
+    public void testFindContiguousSeatsFallsBackToMultiRowBlock() throws SQLException {
+        Theater theater = createUniformTheater(1, 3, 6);
+        // Every row has only its first 4 seats free
+        for (Row row : theater.getSections().get(0).getRows()) {
+            row.getSeats().get(4).setStatus(SeatStatus.BOOKED);
+            row.getSeats().get(5).setStatus(SeatStatus.BOOKED);
+        }
+        when(theaterRepository.findTheaterById(1L)).thenReturn(theater);
+
+        List<Seat> seats = theaterService.findContiguousSeats(1L, 7, "Section 1");
+
+        assertEquals(7, seats.size());
+        assertEquals(1, seats.get(0).getRow().getNumber());
+        assertEquals(2, seats.get(6).getRow().getNumber());
+        assertTrue(theaterService.findContiguousSeats(1L, 13, null).isEmpty());
+        assertTrue(theaterService.findContiguousSeats(1L, 2, "Balcony").isEmpty());
+    }
+
+    @Test
+    public void testFindContiguousSeatsOnLargeVenue() throws SQLException {
+        Theater theater = createUniformTheater(10, 50, 100); // 50,000 seats
+        when(theaterRepository.findTheaterById(1L)).thenReturn(theater);
+        theaterService.getTheaterWithLayout(1L);
+
+        when(theaterRepository.bookSeats(anyCollection()))
+                .thenAnswer(invocation -> new SeatBatchResult(new ArrayList<>(invocation.getArgument(0)), List.of()));
+
+        // The first round warms up the JIT; the second is timed
+        Set<Long> booked = new HashSet<>();
+        long averageNanos = 0;
+        for (int round = 0; round < 2; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < 300; i++) {
+                List<Long> seatIds = new ArrayList<>();
+                theaterService.findContiguousSeats(1L, 6).forEach(seat -> seatIds.add(seat.getId()));
+                assertTrue(theaterService.bookSeats(seatIds).isSuccess());
+                booked.addAll(seatIds);
+            }
+            averageNanos = (System.nanoTime() - start) / 300;
+        }
+
+        // Every block was found among seats still available
+        assertEquals(3_600, booked.size());
+        assertEquals(50_000 - 3_600, theaterService.getTheaterWithLayout(1L).getAvailableSeats());
+        assertTrue("Average find and book took " + averageNanos + "ns", averageNanos < 1_000_000);
+    }
+
+    @Test
+    public void testHotTheaterBookingsBypassDatabase() throws SQLException {
+        when(theaterRepository.findTheaterById(1L)).thenReturn(createUniformTheater(1, 2, 5));
+
+        assertTrue(theaterService.enableHotMode(1L));
+        try {
+            assertTrue(theaterService.bookSeat(3L));
+            assertFalse(theaterService.bookSeat(3L));
+            assertEquals(1, theaterService.getTheaterWithLayout(1L).getSeatCount(SeatStatus.BOOKED));
+            verify(theaterRepository, never()).bookSeat(anyLong());
+        } finally {
+            theaterService.shutdown();
+        }
+        verify(theaterRepository).applySeatStatuses(Map.of(3L, SeatStatus.BOOKED));
+    }
+
+    @Test
+    public void testTheaterSummariesDoNotLoadSeats() throws SQLException {
+        TheaterSummary stored = new TheaterSummary(1L, "Test Theater");
+        stored.addSection(new SectionSummary(1L, "Orchestra", 400, 120, 270, 10, 0));
+        stored.addSection(new SectionSummary(2L, "Balcony", 100, 100, 0, 0, 0));
+        TheaterSummary hot = new TheaterSummary(2L, "Hot Theater");
+        when(theaterRepository.findAllTheaterSummaries()).thenReturn(List.of(stored, hot));
+        when(theaterRepository.findTheaterById(2L)).thenReturn(createUniformTheater(1, 2, 5));
+
+        assertTrue(theaterService.enableHotMode(2L));
+        try {
+            theaterService.bookSeat(1L);
+            List<TheaterSummary> summaries = theaterService.getAllTheaterSummaries();
+
+            assertEquals(220, summaries.get(0).getAvailableSeats());
+            assertEquals(500, summaries.get(0).getTotalSeats());
+            assertEquals(270, summaries.get(0).getSeatCount(SeatStatus.BOOKED));
+            // Hot theaters are counted from memory, ahead of the flushed counters
+            assertEquals(9, summaries.get(1).getAvailableSeats());
+            verify(theaterRepository, never()).findTheaterById(1L);
+        } finally {
+            theaterService.shutdown();
+        }
+    }
+
+    @Test
+    public void testTheaterSummaryPages() throws SQLException {
+        when(theaterRepository.findAllTheaterSummaries("Cinema 20", 50, 21)).thenReturn(List.of(
+                new TheaterSummary(21L, "Cinema 21", 3, 300, 75, 200, 25, 0)));
+
+        List<TheaterSummary> page = theaterService.getTheaterSummaries("Cinema 20", 50, 21);
+
+        assertEquals(1, page.size());
+        assertEquals(3, page.get(0).getSectionCount());
+        assertEquals(75, page.get(0).getAvailableSeats());
+        verify(theaterRepository, never()).findTheaterById(anyLong());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTheaterSummaryPageSizeMustBePositive() throws SQLException {
+        theaterService.getTheaterSummaries(null, 0, 0);
+    }
+
+    @Test
+    public void testBookSeatThroughPipeline() throws SQLException {
+        when(theaterRepository.applySeatTransitions(anyList())).thenReturn(new boolean[] {true});
+        TheaterService pipelined = new TheaterService(theaterRepository, new LayoutCache(),
+                new SeatHoldManager(theaterRepository, new LayoutCache()),
+                new BookingPipeline(theaterRepository, 0, 100));
+
+        try {
+            assertTrue(pipelined.bookSeat(1L));
+            verify(theaterRepository, never()).bookSeat(anyLong());
+        } finally {
+            pipelined.shutdown();
+        }
+    }
+
+    @Test
+    public void testPipelinedBookingLeavesLayoutsBeingReadAlone() throws Exception {
+        when(theaterRepository.findTheaterById(1L)).thenReturn(createUniformTheater(1, 1, 10));
+        when(theaterRepository.applySeatTransitions(anyList())).thenReturn(new boolean[] {true});
+        TheaterService pipelined = new TheaterService(theaterRepository, new LayoutCache(),
+                new SeatHoldManager(theaterRepository, new LayoutCache()),
+                new BookingPipeline(theaterRepository, 0, 100));
+
+        try {
+            pipelined.getTheaterWithLayout(1L);
+            Theater reading = pipelined.getTheaterWithLayout(1L);
+
+            // Patched on the committer thread
+            assertTrue(pipelined.bookSeatAsync(3L).get(2, TimeUnit.SECONDS));
+
+            assertEquals(10, reading.getAvailableSeats());
+            assertEquals(9, pipelined.getTheaterWithLayout(1L).getAvailableSeats());
+        } finally {
+            pipelined.shutdown();
+        }
+    }
+
+    private Theater createUniformTheater(int sections, int rowsPerSection, int seatsPerRow) {
+        Theater theater = new Theater(1L, "Test Theater");
+        long seatId = 1;
+        for (int s = 1; s <= sections; s++) {
+            Section section = new Section((long) s, "Section " + s);
+            for (int r = 1; r <= rowsPerSection; r++) {
+                Row row = new Row((long) (s * 1000 + r), r);
+                for (int seatNum = 1; seatNum <= seatsPerRow; seatNum++) {
+                    row.addSeat(new Seat(seatId++, seatNum, SeatStatus.AVAILABLE));
+                }
+                section.addRow(row);
+            }
+            theater.addSection(section);
+        }
+        return theater;
+    }
+
     @Test
     public void testFindSeat() {
         // Create test theater structure
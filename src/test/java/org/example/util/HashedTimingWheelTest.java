@@ -0,0 +1,59 @@
+package org.example.util;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class HashedTimingWheelTest {
+
+    private static final long TICK = 100;
+
+    @Test
+    public void testExpiresOnlyAfterDeadline() {
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(TICK, 8, 0);
+        wheel.schedule("a", 250, 0);
+
+        assertTrue(wheel.advance(200).isEmpty());
+        assertEquals(List.of("a"), wheel.advance(300));
+        assertEquals(0, wheel.pendingTimeouts());
+    }
+
+    @Test
+    public void testDeadlinesBeyondOneRevolution() {
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(TICK, 4, 0);
+        wheel.schedule("near", 100, 0);
+        wheel.schedule("far", 1000, 0);
+
+        assertEquals(List.of("near"), wheel.advance(500));
+        assertTrue(wheel.advance(900).isEmpty());
+        assertEquals(List.of("far"), wheel.advance(1000));
+    }
+
+    @Test
+    public void testCancelledTimeoutNeverExpires() {
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(TICK, 8, 0);
+        HashedTimingWheel.Timeout<String> timeout = wheel.schedule("a", 100, 0);
+
+        assertTrue(timeout.cancel());
+        assertTrue(wheel.advance(1000).isEmpty());
+        assertEquals(0, wheel.pendingTimeouts());
+    }
+
+    @Test
+    public void testCancelAfterExpiryFails() {
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(TICK, 8, 0);
+        HashedTimingWheel.Timeout<String> timeout = wheel.schedule("a", 100, 0);
+
+        wheel.advance(100);
+
+        assertTrue(timeout.isExpired());
+        assertFalse(timeout.cancel());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWheelSizeMustBePowerOfTwo() {
+        new HashedTimingWheel<String>(TICK, 6, 0);
+    }
+}
@@ -0,0 +1,110 @@
+package org.example.util;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+public class NotificationListenerTest {
+
+    private final List<String> received = new ArrayList<>();
+    private int reconnects;
+    private int connects;
+
+    private Connection connection;
+    private PGConnection pgConnection;
+    private Statement statement;
+    private NotificationListener listener;
+
+    @Before
+    public void setUp() throws SQLException {
+        connection = mock(Connection.class);
+        pgConnection = mock(PGConnection.class);
+        statement = mock(Statement.class);
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        when(connection.createStatement()).thenReturn(statement);
+
+        listener = new NotificationListener(() -> {
+            connects++;
+            return connection;
+        }, 10, 0);
+        listener.subscribe("seat_changes", new NotificationSubscriber() {
+            @Override
+            public void onNotification(String channel, String payload) {
+                received.add(channel + " " + payload);
+            }
+
+            @Override
+            public void onReconnect() {
+                reconnects++;
+            }
+        });
+    }
+
+    @Test
+    public void testDispatchesNotifications() throws SQLException {
+        PGNotification[] notifications = {notification("seat_changes", "1:5=BOOKED"), notification("other", "x")};
+        when(pgConnection.getNotifications(anyInt())).thenReturn(notifications, (PGNotification[]) null);
+
+        listener.step();
+        listener.step();
+
+        assertEquals(List.of("seat_changes 1:5=BOOKED"), received);
+        verify(statement).execute("LISTEN seat_changes");
+        assertEquals(1, connects);
+        assertEquals(0, reconnects);
+    }
+
+    @Test
+    public void testReconnectListensAgainAndAsksForReload() throws SQLException {
+        PGNotification[] notifications = {notification("seat_changes", "1:*")};
+        when(pgConnection.getNotifications(anyInt()))
+                .thenThrow(new SQLException("connection reset"))
+                .thenReturn(notifications);
+
+        try {
+            listener.step();
+            fail("Expected the connection failure to be reported");
+        } catch (SQLException expected) {
+            verify(connection).close();
+        }
+        listener.step();
+
+        assertEquals(2, connects);
+        assertEquals(1, reconnects);
+        verify(statement, times(2)).execute("LISTEN seat_changes");
+        assertEquals(List.of("seat_changes 1:*"), received);
+    }
+
+    @Test
+    public void testLaterSubscriptionListensOnOpenConnection() throws SQLException {
+        listener.step();
+        listener.subscribe("theater_changes", mock(NotificationSubscriber.class));
+        listener.step();
+
+        verify(statement).execute("LISTEN theater_changes");
+        assertEquals(1, connects);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsUnsafeChannelName() {
+        listener.subscribe("seat_changes; DROP TABLE seats", mock(NotificationSubscriber.class));
+    }
+
+    private static PGNotification notification(String channel, String payload) {
+        PGNotification notification = mock(PGNotification.class);
+        when(notification.getName()).thenReturn(channel);
+        when(notification.getParameter()).thenReturn(payload);
+        return notification;
+    }
+}